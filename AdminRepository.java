@@ -0,0 +1,26 @@
+/**
+ * Final Project: The Store - Admin Repository
+ * This interface is implemented by each of the ways the admin's password can be stored.  As with the books and users, a change is
+ * gathered while the store service's lock is held, and the write this returns can then be run on any thread.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+public interface AdminRepository
+{
+	/**
+	 * Read the admin's password.
+	 * 
+	 * @param admin the User object representing the admin
+	 */
+	void load(User admin);
+
+	/**
+	 * Gather the admin's password, so that it can be written later.
+	 * 
+	 * @param admin the User object representing the admin
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	Runnable prepareCommit(User admin);
+} // end public interface
\ No newline at end of file
@@ -49,6 +49,35 @@ public class Book extends Product
 		this.imageName = imageName;
 	} // end Book(String, int, int, double, String, String, String, int, String)
 
+	/**
+	 * Set values of the object based on values passed in, keeping an id that has already been assigned (used when reading books from a
+	 * file).
+	 * 
+	 * @param id the id of the book
+	 * @param name title of the book
+	 * @param price the price of the book
+	 * @param quantity the book's quantity
+	 * @param jitTrigger JIT trigger of the book
+	 * @param genre the genre of the book
+	 * @param binding the binding of the book
+	 * @param author the author of the book
+	 * @param publicationYear the year of publication
+	 * @param imageName the name of the image for preview
+	 */
+	public Book(int id, String name, double price, int quantity, int jitTrigger, String genre, String binding, String author,
+		int publicationYear, String imageName)
+	{
+		// Call the appropriate parent constructor.
+		super(id, name, price, quantity, jitTrigger);
+
+		// Set values based on what has been passed in.
+		this.genre = genre;
+		this.binding = binding;
+		this.author = author;
+		this.publicationYear = publicationYear;
+		this.imageName = imageName;
+	} // end Book(int, String, double, int, int, String, String, String, int, String)
+
 	/**
 	 * This constructor sets values based on values of the passed array (used for CSV interpretation).
 	 * 
@@ -59,10 +88,10 @@ public class Book extends Product
 		// Call the appropriate parent constructor.
 		super(information);
 
-		// Store the values of the array.
-		genre = information[5];
-		binding = information[6];
-		author = information[7];
+		// Store the values of the array.  The genre, binding, and author are shared with other books through the dictionary.
+		genre = DataFiles.getBookStrings().intern(information[5]);
+		binding = DataFiles.getBookStrings().intern(information[6]);
+		author = DataFiles.getBookStrings().intern(information[7]);
 		publicationYear = Integer.parseInt(information[8]);
 		imageName = information[9];
 	} // end Book(String[])
@@ -163,9 +192,20 @@ public class Book extends Product
 	public String getImagePath()
 	{
 		// Return the image path, by adding to the folder which contains the images.
-		return Paths.IMAGE_BOOK_FOLDER + imageName;
+		return Paths.IMAGE_BOOK_FOLDER + getImageName();
 	} // end getImagePath()
 
+	/**
+	 * Get the image name.
+	 * 
+	 * @return the name of the image, without the folder
+	 */
+	public String getImageName()
+	{
+		// Return the image name.
+		return imageName;
+	} // end getImageName()
+
 	/**
 	 * Set the image name.
 	 * 
@@ -184,9 +224,10 @@ public class Book extends Product
 	 */
 	public String[] getFormList()
 	{
-		// Return an array of values that can be used as initial values in a form.
-		return new String[] {name, Double.toString(price), Integer.toString(quantity), Integer.toString(jitTrigger), genre, binding,
-			author, Integer.toString(publicationYear), imageName};
+		// Return an array of values that can be used as initial values in a form.  The getters are used, as a book kept in a BookStore
+		// stores its values in the store.
+		return new String[] {getName(), Double.toString(getPrice()), Integer.toString(getQuantity()), Integer.toString(getJitTrigger()),
+			getGenre(), getBinding(), getAuthor(), Integer.toString(getPublicationYear()), getImageName()};
 	} // end getFormList()
 
 	/**
@@ -196,16 +237,16 @@ public class Book extends Product
 	 */
 	public void applyFormList(String formList[])
 	{
-		// Set values based on the values in the list.
-		name = formList[0];
-		price = Double.parseDouble(formList[1]);
-		quantity = Integer.parseInt(formList[2]);
-		jitTrigger = Integer.parseInt(formList[3]);
-		genre = formList[4];
-		binding = formList[5];
-		author = formList[6];
-		publicationYear = Integer.parseInt(formList[7]);
-		imageName = formList[8];
+		// Set values based on the values in the list.  The genre, binding, and author are shared with other books through the dictionary.
+		setName(formList[0]);
+		setPrice(Double.parseDouble(formList[1]));
+		setQuantity(Integer.parseInt(formList[2]));
+		setJitTrigger(Integer.parseInt(formList[3]));
+		setGenre(DataFiles.getBookStrings().intern(formList[4]));
+		setBinding(DataFiles.getBookStrings().intern(formList[5]));
+		setAuthor(DataFiles.getBookStrings().intern(formList[6]));
+		setPublicationYear(Integer.parseInt(formList[7]));
+		setImageName(formList[8]);
 	} // end applyFormList(String)
 
 	/**
@@ -218,7 +259,8 @@ public class Book extends Product
 		return String.format(
 			"Book [id=%d, name=%s, price=%.2f, quantity=%d, jitTrigger=%d, genre=%s, binding=%s, author=%s, publicationYear=%d," +
 				"imageName=%s]",
-			id, name, price, quantity, jitTrigger, genre, binding, author, publicationYear, imageName
+			getId(), getName(), getPrice(), getQuantity(), getJitTrigger(), getGenre(), getBinding(), getAuthor(), getPublicationYear(),
+			getImageName()
 		);
 	} // end toString()
 
@@ -229,7 +271,7 @@ public class Book extends Product
 	public String toCSV()
 	{
 		// Put the properties of this book to make a CSV file entry and return.
-		return Integer.toString(id) + "," + name + "," + price + "," + quantity + "," + jitTrigger + "," + genre + "," + binding + "," +
-			author + "," + publicationYear + "," + imageName;
+		return Integer.toString(getId()) + "," + getName() + "," + getPrice() + "," + getQuantity() + "," + getJitTrigger() + "," +
+			getGenre() + "," + getBinding() + "," + getAuthor() + "," + getPublicationYear() + "," + getImageName();
 	} // end toCSV()
 } // end public class
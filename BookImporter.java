@@ -0,0 +1,397 @@
+/**
+ * Final Project: The Store - Book Importer
+ * This class adds a large feed of books to the store.  The feed is read one line at a time, so it never has to fit in memory.  The lines
+ * are handed out in chunks to a group of threads that check them with the same rules as the form for adding a book, and the books that
+ * pass are handed on in batches, so that each batch can be written at once.  Each line that fails is reported along with the reason.
+ * 
+ * A feed may be a CSV file, with the fields in the same order as the form (title, price, quantity, JIT trigger, genre, binding, author,
+ * year, and image), or a JSON lines file (ending in ".jsonl", ".ndjson" or ".json"), with one object per line using the keys in
+ * JSON_KEYS.  Blank lines, lines starting with '#', and a first CSV line whose first field is "title" are skipped.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class BookImporter
+{
+	// Store the default number of books handed on at once, and the number of lines checked together by a thread.
+	public static final int DEFAULT_BATCH_SIZE = 5000;
+	private static final int CHUNK_SIZE = 1000;
+
+	// Store the keys of a JSON line, in the same order as the fields of the form.
+	public static final String JSON_KEYS[] = {"title", "price", "quantity", "jitTrigger", "genre", "binding", "author", "year", "image"};
+
+	// Make an interface so that lambdas may be used to take each batch of books.
+	@FunctionalInterface
+	public static interface BatchHandler
+	{
+		// The lambda is called on the thread the import was started on, with the books in the order they appear in the feed.
+		void handleBatch(java.util.List<Book> batch);
+	} // end interface
+
+	// Make an interface so that lambdas may be used to take each line that failed.
+	@FunctionalInterface
+	public static interface RejectHandler
+	{
+		// The lambda is called on the thread the import was started on, in the order the lines appear in the feed.
+		void handleReject(long lineNumber, String line, String reason);
+	} // end interface
+
+	// Declare the number of books in a batch, the number of threads that check lines, and the number of books imported and lines
+	// rejected.
+	private int batchSize, threads;
+	private int importedCount, rejectedCount;
+
+	/**
+	 * This constructor stores the number of books in a batch, and the number of threads that check lines.
+	 * 
+	 * @param batchSize the number of books handed on at once
+	 * @param threads the number of threads that check lines
+	 */
+	public BookImporter(int batchSize, int threads)
+	{
+		// Store the values, using at least one of each.
+		this.batchSize = Math.max(1, batchSize);
+		this.threads = Math.max(1, threads);
+		importedCount = rejectedCount = 0;
+	} // end BookImporter(int, int)
+
+	/**
+	 * This constructor overloads the other to use the default batch size and a thread for each processor.
+	 */
+	public BookImporter()
+	{
+		// Redirect the call to the other constructor.
+		this(DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+	} // end BookImporter()
+
+	/**
+	 * Import the books in a feed.  A thread reads the feed and hands out chunks of lines to be checked, but it waits once a few chunks
+	 * are waiting to be taken, so a slow handler slows the reading down instead of filling memory.  The books are made on this thread, as
+	 * each new book takes the next id.
+	 * 
+	 * @param feedPath the path to the feed
+	 * @param batches the handler given each batch of books
+	 * @param rejects the handler given each line that failed
+	 * @throws IOException if the feed could not be read
+	 */
+	public void importFile(String feedPath, BatchHandler batches, RejectHandler rejects) throws IOException
+	{
+		boolean json = isJsonFeed(feedPath);
+		importedCount = rejectedCount = 0;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(feedPath), StandardCharsets.UTF_8), 1 << 16);
+
+		// Initialize the threads that check the lines, and the queue of chunks in the order they were read.  The queue only holds a couple
+		// of chunks for each thread.
+		ExecutorService checkers = Executors.newFixedThreadPool(threads, (runnable) -> {
+			Thread thread = new Thread(runnable, "Book import checker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		BlockingQueue<Future<Chunk>> chunks = new ArrayBlockingQueue<Future<Chunk>>(threads * 2);
+		IOException readFailure[] = {null};
+
+		// Read the feed on another thread, handing out each chunk to be checked.  An empty chunk marks the end of the feed.
+		Thread feedReader = new Thread(() -> {
+			try
+			{
+				readChunks(reader, json, checkers, chunks);
+			} // end try
+			catch (IOException exception)
+			{
+				readFailure[0] = exception;
+			} // end catch
+			catch (InterruptedException exception)
+			{
+				return;
+			} // end catch
+			finally
+			{
+				try
+				{
+					reader.close();
+				} // end try
+				catch (IOException exception) {}
+			} // end finally
+
+			try
+			{
+				chunks.put(CompletableFuture.completedFuture(new Chunk(0, new String[0])));
+			} // end try
+			catch (InterruptedException exception) {}
+		}, "Book import reader");
+		feedReader.setDaemon(true);
+		feedReader.start();
+
+		ArrayList<Book> batch = new ArrayList<Book>(batchSize);
+
+		try
+		{
+			// Take the chunks in order, until the end of the feed.
+			for (Chunk chunk = takeChunk(chunks); chunk.lines.length > 0; chunk = takeChunk(chunks))
+			{
+				for (int i = 0; i < chunk.lines.length; i++)
+				{
+					// Report a line that failed, and skip a line with nothing to import.
+					if (chunk.reasons[i] != null)
+					{
+						rejectedCount++;
+						rejects.handleReject(chunk.firstLineNumber + i, chunk.lines[i], chunk.reasons[i]);
+						continue;
+					} // end if
+					else if (chunk.inputs[i] == null)
+					{
+						continue;
+					} // end else if
+
+					// Make the book, and hand on the batch once it is full.
+					Book book = new Book();
+					book.applyFormList(chunk.inputs[i]);
+					batch.add(book);
+
+					if (batch.size() >= batchSize)
+					{
+						importedCount += batch.size();
+						batches.handleBatch(batch);
+						batch = new ArrayList<Book>(batchSize);
+					} // end if
+				} // end for
+			} // end for
+
+			// Hand on the last batch.
+			if (!batch.isEmpty())
+			{
+				importedCount += batch.size();
+				batches.handleBatch(batch);
+			} // end if
+		} // end try
+		finally
+		{
+			// Stop the reader and the checkers, even if a handler failed.
+			feedReader.interrupt();
+			checkers.shutdownNow();
+		} // end finally
+
+		// Report a failure to read the feed.  The books before the failure have been imported.
+		if (readFailure[0] != null)
+			throw readFailure[0];
+	} // end importFile(String, BatchHandler, RejectHandler)
+
+	/**
+	 * Read the lines of a feed in chunks, and hand each chunk out to be checked.  This waits while the queue of chunks is full.
+	 * 
+	 * @param reader the reader of the feed
+	 * @param json whether the feed is a JSON lines file
+	 * @param checkers the threads that check the lines
+	 * @param chunks the queue of chunks being checked
+	 * @throws IOException if the feed could not be read
+	 * @throws InterruptedException if the import was stopped
+	 */
+	private static void readChunks(BufferedReader reader, boolean json, ExecutorService checkers, BlockingQueue<Future<Chunk>> chunks)
+		throws IOException, InterruptedException
+	{
+		ArrayList<String> lines = new ArrayList<String>(CHUNK_SIZE);
+		long lineNumber = 1, firstLineNumber = 1;
+
+		// Read each line, handing out a chunk once it is full, and the rest at the end of the feed.
+		for (String line = reader.readLine(); ; line = reader.readLine(), lineNumber++)
+		{
+			if (line != null)
+				lines.add(line);
+
+			if (lines.size() >= CHUNK_SIZE || (line == null && !lines.isEmpty()))
+			{
+				Chunk chunk = new Chunk(firstLineNumber, lines.toArray(new String[0]));
+				chunks.put(checkers.submit(() -> {checkChunk(chunk, json); return chunk;}));
+
+				lines.clear();
+				firstLineNumber = lineNumber + 1;
+			} // end if
+
+			if (line == null)
+				break;
+		} // end for
+	} // end readChunks(BufferedReader, boolean, ExecutorService, BlockingQueue<Future<Chunk>>)
+
+	/**
+	 * Take the next chunk from the queue, waiting until it has been checked.
+	 * 
+	 * @param chunks the queue of chunks being checked
+	 * @return the chunk
+	 * @throws IOException if the import was stopped, or a chunk could not be checked
+	 */
+	private static Chunk takeChunk(BlockingQueue<Future<Chunk>> chunks) throws IOException
+	{
+		try
+		{
+			return chunks.take().get();
+		} // end try
+		catch (InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The import was stopped.");
+		} // end catch
+		catch (ExecutionException exception)
+		{
+			throw new IOException("Failed to check the books: " + exception.getCause(), exception.getCause());
+		} // end catch
+	} // end takeChunk(BlockingQueue<Future<Chunk>>)
+
+	/**
+	 * Check each line of a chunk, storing the validated inputs of each line that passes and the reason each line that fails was rejected.
+	 * 
+	 * @param chunk the chunk to check
+	 * @param json whether the feed is a JSON lines file
+	 */
+	private static void checkChunk(Chunk chunk, boolean json)
+	{
+		ValidationField fields[] = StoreService.BOOK_FIELDS;
+
+		for (int i = 0; i < chunk.lines.length; i++)
+		{
+			String line = chunk.lines[i], trimmed = line.trim();
+
+			// Skip blank lines, comments, and the header of a CSV feed.
+			if (trimmed.isEmpty() || trimmed.startsWith("#") ||
+				(!json && chunk.firstLineNumber + i == 1 && trimmed.split(",", 2)[0].trim().equalsIgnoreCase("title")))
+				continue;
+
+			// Split the line into the inputs of the form.
+			String inputs[];
+
+			try
+			{
+				inputs = json ? parseJsonLine(trimmed) : parseCsvLine(trimmed);
+			} // end try
+			catch (IllegalArgumentException exception)
+			{
+				chunk.reasons[i] = exception.getMessage();
+				continue;
+			} // end catch
+
+			// Validate each input with the rules of the form, stopping at the first that fails.
+			for (int j = 0; j < fields.length && chunk.reasons[i] == null; j++)
+			{
+				inputs[j] = fields[j].check(null, inputs[j]);
+
+				if (inputs[j] == null)
+					chunk.reasons[i] = fields[j].getLabel() + " " + fields[j].getError();
+			} // end for
+
+			if (chunk.reasons[i] == null)
+				chunk.inputs[i] = inputs;
+		} // end for
+	} // end checkChunk(Chunk, boolean)
+
+	/**
+	 * Split a line of a CSV feed into the inputs of the form.
+	 * 
+	 * @param line the line
+	 * @return the inputs, trimmed
+	 * @throws IllegalArgumentException if the line does not have the right number of fields
+	 */
+	private static String[] parseCsvLine(String line)
+	{
+		String inputs[] = line.split(",", -1);
+
+		// The fields are stored unquoted, like the books file, so a line must have exactly one field for each input.
+		if (inputs.length != JSON_KEYS.length)
+			throw new IllegalArgumentException("Expected " + JSON_KEYS.length + " fields but found " + inputs.length + ".");
+
+		for (int i = 0; i < inputs.length; i++)
+			inputs[i] = inputs[i].trim();
+
+		return inputs;
+	} // end parseCsvLine(String)
+
+	/**
+	 * Read a line of a JSON lines feed into the inputs of the form.  The line must be a single object whose values are strings, numbers,
+	 * or booleans.  Keys that are not in JSON_KEYS are ignored.
+	 * 
+	 * @param line the line
+	 * @return the inputs, trimmed
+	 * @throws IllegalArgumentException if the line is not such an object, or is missing a key
+	 */
+	private static String[] parseJsonLine(String line)
+	{
+		String inputs[] = new String[JSON_KEYS.length];
+		Map<String, String> values = Json.parseObject(line);
+
+		// Take the value of each input.  Every input must be given.
+		for (int i = 0; i < JSON_KEYS.length; i++)
+		{
+			if (!values.containsKey(JSON_KEYS[i]))
+				throw new IllegalArgumentException("Missing \"" + JSON_KEYS[i] + "\".");
+
+			inputs[i] = values.get(JSON_KEYS[i]).trim();
+		} // end for
+
+		return inputs;
+	} // end parseJsonLine(String)
+
+	/**
+	 * Check whether a feed is a JSON lines file, based on its name.
+	 * 
+	 * @param feedPath the path to the feed
+	 * @return whether the feed is a JSON lines file
+	 */
+	public static boolean isJsonFeed(String feedPath)
+	{
+		String name = feedPath.toLowerCase();
+		return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json");
+	} // end isJsonFeed(String)
+
+	/**
+	 * Get the number of books imported by the last import.
+	 * 
+	 * @return the number of books imported
+	 */
+	public int getImportedCount()
+	{
+		// Return the number of books.
+		return importedCount;
+	} // end getImportedCount()
+
+	/**
+	 * Get the number of lines rejected by the last import.
+	 * 
+	 * @return the number of lines rejected
+	 */
+	public int getRejectedCount()
+	{
+		// Return the number of lines.
+		return rejectedCount;
+	} // end getRejectedCount()
+
+	// Make a class to hold a chunk of lines, along with the result of checking each line.
+	private static class Chunk
+	{
+		// Declare the number of the first line, the lines, the validated inputs of each line that passed, and the reason each line that
+		// failed was rejected (both are null for a line that was skipped).
+		private long firstLineNumber;
+		private String lines[];
+		private String inputs[][];
+		private String reasons[];
+
+		/**
+		 * This constructor stores the lines of the chunk.
+		 * 
+		 * @param firstLineNumber the number of the first line in the feed (starting at 1)
+		 * @param lines the lines
+		 */
+		private Chunk(long firstLineNumber, String lines[])
+		{
+			// Store the values, and make room for the results.
+			this.firstLineNumber = firstLineNumber;
+			this.lines = lines;
+			inputs = new String[lines.length][];
+			reasons = new String[lines.length];
+		} // end Chunk(long, String[])
+	} // end class Chunk
+} // end public class
\ No newline at end of file
@@ -0,0 +1,254 @@
+/**
+ * Final Project: The Store - Book Index
+ * This class maps the ids of books to the books themselves, so that a book can be found by its id without looking through every book.
+ * The ids are kept in a plain int array (no Integer objects are made), and collisions are resolved by moving on to the next slot (open
+ * addressing with linear probing).
+ * 
+ * The index may be read from many threads while it is changed.  A lookup does not lock: it reads the arrays, and then checks that no
+ * change was made while it was reading, only locking and reading again if one was.  Changes are made one at a time.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.concurrent.locks.StampedLock;
+
+public class BookIndex
+{
+	// Store the smallest number of slots the index may have.
+	private static final int MIN_CAPACITY = 16;
+
+	// Declare the arrays of ids and books (a slot is empty if its book is null), and the number of books stored.
+	private int ids[];
+	private Book books[];
+	private int size;
+
+	// Declare the lock that changes are made under, and that lookups check.
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * This constructor initializes an empty index.
+	 */
+	public BookIndex()
+	{
+		// Call the other constructor with the minimum capacity.
+		this(MIN_CAPACITY);
+	} // end BookIndex()
+
+	/**
+	 * This constructor initializes an empty index with enough room for a number of books.
+	 * 
+	 * @param expectedSize the number of books expected to be stored
+	 */
+	public BookIndex(int expectedSize)
+	{
+		// Use a power of two that keeps the index at most half full.
+		int capacity = MIN_CAPACITY;
+
+		while (capacity < expectedSize * 2)
+			capacity *= 2;
+
+		ids = new int[capacity];
+		books = new Book[capacity];
+		size = 0;
+	} // end BookIndex(int)
+
+	/**
+	 * Get the slot an id should be placed in if there are no collisions.
+	 * 
+	 * @param id the id of the book
+	 * @param mask one less than the number of slots
+	 * @return the slot for the id
+	 */
+	private static int slotOf(int id, int mask)
+	{
+		// Spread the bits of the id so that ids that are close together do not all collide, and keep the slot within the arrays.
+		int hash = id * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	} // end slotOf(int, int)
+
+	/**
+	 * Get the book with a given id.
+	 * 
+	 * @param id the id of the book
+	 * @return the book with the id, or null if there is no such book
+	 */
+	public Book get(int id)
+	{
+		// Look the id up without locking, and keep the result if no change was made meanwhile.
+		long stamp = lock.tryOptimisticRead();
+		Book book = find(id, ids, books);
+
+		if (lock.validate(stamp))
+			return book;
+
+		// Otherwise, look it up again while holding the lock.
+		stamp = lock.readLock();
+
+		try
+		{
+			return find(id, ids, books);
+		} // end try
+		finally
+		{
+			lock.unlockRead(stamp);
+		} // end finally
+	} // end get(int)
+
+	/**
+	 * Find the book with a given id in a pair of arrays.  Without the lock, the arrays may be in the middle of a change (or may not even
+	 * be the same size), so the search is kept within the arrays and stops after one pass over them.
+	 * 
+	 * @param id the id of the book
+	 * @param ids the array of ids
+	 * @param books the array of books
+	 * @return the book with the id, or null if it was not found
+	 */
+	private static Book find(int id, int ids[], Book books[])
+	{
+		int mask = Math.min(ids.length, books.length) - 1;
+
+		// Check each slot starting from the id's slot until the id or an empty slot is found.
+		for (int slot = slotOf(id, mask), probes = 0; probes <= mask && books[slot] != null; slot = (slot + 1) & mask, probes++)
+			if (ids[slot] == id)
+				return books[slot];
+
+		// Return null if the id is not in the index.
+		return null;
+	} // end find(int, int[], Book[])
+
+	/**
+	 * Add a book to the index, replacing any book with the same id.
+	 * 
+	 * @param book the book to add
+	 */
+	public void put(Book book)
+	{
+		long stamp = lock.writeLock();
+
+		// Store the book while holding the lock.
+		try
+		{
+			store(book);
+		} // end try
+		finally
+		{
+			lock.unlockWrite(stamp);
+		} // end finally
+	} // end put(Book)
+
+	/**
+	 * Store a book in the slots, replacing any book with the same id.  The lock must be held.
+	 * 
+	 * @param book the book to store
+	 */
+	private void store(Book book)
+	{
+		int id = book.getId(), mask = ids.length - 1, slot;
+
+		// Look for the id, or the first empty slot.
+		for (slot = slotOf(id, mask); books[slot] != null; slot = (slot + 1) & mask)
+		{
+			// Replace the book if the id is already in the index.
+			if (ids[slot] == id)
+			{
+				books[slot] = book;
+				return;
+			} // end if
+		} // end for
+
+		// Store the book in the empty slot.
+		ids[slot] = id;
+		books[slot] = book;
+
+		// Double the number of slots if the index is more than half full.
+		if (++size * 2 > ids.length)
+			resize(ids.length * 2);
+	} // end store(Book)
+
+	/**
+	 * Remove the book with a given id from the index.
+	 * 
+	 * @param id the id of the book to remove
+	 */
+	public void remove(int id)
+	{
+		long stamp = lock.writeLock();
+		int mask = ids.length - 1, slot, next;
+
+		try
+		{
+			// Look for the id.  Stop if it is not in the index.
+			for (slot = slotOf(id, mask); ids[slot] != id || books[slot] == null; slot = (slot + 1) & mask)
+				if (books[slot] == null)
+					return;
+
+			// Move back any book after the removed one that would no longer be found, so that no gaps are left in a run of slots.
+			for (next = (slot + 1) & mask; books[next] != null; next = (next + 1) & mask)
+			{
+				int home = slotOf(ids[next], mask);
+
+				// The book can fill the gap if its own slot is not between the gap and where it is now.
+				if (((next - home) & mask) >= ((next - slot) & mask))
+				{
+					ids[slot] = ids[next];
+					books[slot] = books[next];
+					slot = next;
+				} // end if
+			} // end for
+
+			// Empty the last slot that was moved from.
+			books[slot] = null;
+			size--;
+		} // end try
+		finally
+		{
+			lock.unlockWrite(stamp);
+		} // end finally
+	} // end remove(int)
+
+	/**
+	 * Move the books into a given number of slots.
+	 * 
+	 * @param capacity the new number of slots
+	 */
+	private void resize(int capacity)
+	{
+		// Keep the old arrays, and start over with empty arrays of the new size.
+		Book oldBooks[] = books;
+
+		ids = new int[capacity];
+		books = new Book[capacity];
+		size = 0;
+
+		// Add each of the old books again.
+		for (Book book : oldBooks)
+			if (book != null)
+				store(book);
+	} // end resize(int)
+
+	/**
+	 * Remove all the books from the index.
+	 */
+	public void clear()
+	{
+		long stamp = lock.writeLock();
+
+		// Start over with the smallest arrays.
+		ids = new int[MIN_CAPACITY];
+		books = new Book[MIN_CAPACITY];
+		size = 0;
+		lock.unlockWrite(stamp);
+	} // end clear()
+
+	/**
+	 * Get the number of books in the index.
+	 * 
+	 * @return the number of books
+	 */
+	public int size()
+	{
+		// Return the number of books.
+		return size;
+	} // end size()
+} // end public class
\ No newline at end of file
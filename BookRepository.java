@@ -0,0 +1,37 @@
+/**
+ * Final Project: The Store - Book Repository
+ * This interface is implemented by each of the ways the books can be stored.  The store reads the books through its repository when the
+ * program starts, and hands the repository each batch of changes to write.  A write is made in two steps: the changes are gathered where
+ * the books may safely be read (while the store service's lock is held), and the write this returns can then be run on any thread.
+ * Many changes can be gathered into one batch, so that they are written with a single write to disk.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public interface BookRepository
+{
+	/**
+	 * Read every stored book into a list.
+	 * 
+	 * @param books the list to read into
+	 */
+	void load(java.util.List<Book> books);
+
+	/**
+	 * Gather a batch of changes to the books, so that they can be written later.
+	 * 
+	 * @param changes the new version of each changed book by id (null for a book that has been removed)
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	Runnable prepareCommit(Map<Integer, Book> changes);
+
+	/**
+	 * Gather every book, so that all of them can be written later (used when a full write has been asked for).
+	 * 
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	Runnable prepareSnapshot();
+} // end public interface
\ No newline at end of file
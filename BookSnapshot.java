@@ -0,0 +1,496 @@
+/**
+ * Final Project: The Store - Book Snapshot
+ * This class reads and writes the books in a binary format that is much faster to load than the CSV file.  The fields are stored column
+ * by column: the ids, prices, quantities, JIT triggers, and years are stored as plain numbers, the genres, bindings, and authors are stored
+ * as numbers that refer to a table of the distinct strings (as many books share them), and the titles and image names are stored as one
+ * block of text each, with the position of every entry.  The file is mapped into memory, and a book is only made when it is asked for.
+ * 
+ * The CSV file is still used to import and export books, and this class can convert between the two formats.  Once a snapshot has been
+ * written, it is the books file that is read, and the CSV file is only changed by converting the snapshot.
+ * 
+ * printSnapshotBenchmark compares the time taken to save and load a catalog in each format.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class BookSnapshot
+{
+	// Store the values that start the data of every snapshot, and the number of bytes they take.
+	private static final int MAGIC = 0x4D42424B;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	// Declare the mapped data, the number of books, and the table of distinct strings.
+	private ByteBuffer data;
+	private int rowCount;
+	private String dictionary[];
+
+	// Declare where each column starts in the data.
+	private int idsStart, pricesStart, quantitiesStart, jitTriggersStart, yearsStart, genresStart, bindingsStart, authorsStart;
+	private int titleOffsetsStart, imageOffsetsStart, titlesStart, imagesStart;
+
+	/**
+	 * This constructor reads the layout of a snapshot that has been mapped into memory.
+	 * 
+	 * @param data the data of the snapshot, starting at its first byte
+	 * @throws IOException if the data is not a snapshot
+	 */
+	private BookSnapshot(ByteBuffer data) throws IOException
+	{
+		// Check that the data is a snapshot this class can read.
+		if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION)
+			throw new IOException("Not a book snapshot.");
+
+		this.data = data;
+		rowCount = data.getInt(8);
+		dictionary = new String[data.getInt(12)];
+
+		// Read the table of distinct strings.  Each string is passed through the dictionary of book strings, so that the books read from
+		// the snapshot share their strings with the books made afterwards.
+		int position = HEADER_SIZE;
+
+		for (int i = 0; i < dictionary.length; i++)
+		{
+			int length = data.getInt(position);
+			dictionary[i] = DataFiles.getBookStrings().intern(decode(position + 4, length));
+			position += 4 + length;
+		} // end for
+
+		// Find where each column starts.  The columns are stored one after the other, in this order.
+		idsStart = position;
+		pricesStart = idsStart + 4 * rowCount;
+		quantitiesStart = pricesStart + 8 * rowCount;
+		jitTriggersStart = quantitiesStart + 4 * rowCount;
+		yearsStart = jitTriggersStart + 4 * rowCount;
+		genresStart = yearsStart + 4 * rowCount;
+		bindingsStart = genresStart + 4 * rowCount;
+		authorsStart = bindingsStart + 4 * rowCount;
+		titleOffsetsStart = authorsStart + 4 * rowCount;
+		imageOffsetsStart = titleOffsetsStart + 4 * (rowCount + 1);
+		titlesStart = imageOffsetsStart + 4 * (rowCount + 1);
+		imagesStart = titlesStart + data.getInt(titleOffsetsStart + 4 * rowCount);
+
+		// Check that the columns fit in the data.
+		if (imagesStart + data.getInt(imageOffsetsStart + 4 * rowCount) > data.limit())
+			throw new IOException("Book snapshot is cut short.");
+	} // end BookSnapshot(ByteBuffer)
+
+	/**
+	 * Map a snapshot file into memory.
+	 * 
+	 * @param file the file to open
+	 * @return the snapshot
+	 * @throws FileNotFoundException if the file does not exist
+	 * @throws IOException if the file is not a snapshot or could not be mapped
+	 */
+	public static BookSnapshot open(File file) throws IOException
+	{
+		try (RandomAccessFile snapshotFile = new RandomAccessFile(file, "r"))
+		{
+			// Map the file.  The mapping stays valid after the file is closed.
+			FileChannel channel = snapshotFile.getChannel();
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int start = 0;
+
+			// Skip the checksum header line.
+			if (mapped.limit() > 0 && mapped.get(0) == '#')
+			{
+				while (start < mapped.limit() && mapped.get(start) != '\n')
+					start++;
+
+				start++;
+			} // end if
+
+			return new BookSnapshot(mapped.position(Math.min(start, mapped.limit())).slice());
+		} // end try
+	} // end open(File)
+
+	/**
+	 * Turn a list of books into the bytes of a snapshot.
+	 * 
+	 * @param books the books to store
+	 * @return the bytes of the snapshot
+	 */
+	public static byte[] encode(List<Book> books)
+	{
+		LinkedHashMap<String, Integer> codes = new LinkedHashMap<String, Integer>();
+		int genres[] = new int[books.size()], bindings[] = new int[books.size()], authors[] = new int[books.size()];
+		ByteArrayOutputStream titles = new ByteArrayOutputStream(), images = new ByteArrayOutputStream();
+		int titleOffsets[] = new int[books.size() + 1], imageOffsets[] = new int[books.size() + 1];
+		int dictionarySize = 0;
+
+		// Give each distinct genre, binding, and author a number, and add the titles and image names to their blocks of text.
+		for (int i = 0; i < books.size(); i++)
+		{
+			Book book = books.get(i);
+
+			genres[i] = codes.computeIfAbsent(book.getGenre(), (key) -> codes.size());
+			bindings[i] = codes.computeIfAbsent(book.getBinding(), (key) -> codes.size());
+			authors[i] = codes.computeIfAbsent(book.getAuthor(), (key) -> codes.size());
+
+			titles.writeBytes(book.getName().getBytes(StandardCharsets.UTF_8));
+			images.writeBytes(book.getImageName().getBytes(StandardCharsets.UTF_8));
+			titleOffsets[i + 1] = titles.size();
+			imageOffsets[i + 1] = images.size();
+		} // end for
+
+		// Find the size of the table of distinct strings.
+		ArrayList<byte[]> dictionaryBytes = new ArrayList<byte[]>();
+
+		for (String entry : codes.keySet())
+		{
+			dictionaryBytes.add(entry.getBytes(StandardCharsets.UTF_8));
+			dictionarySize += 4 + dictionaryBytes.get(dictionaryBytes.size() - 1).length;
+		} // end for
+
+		// Make a buffer large enough for everything, and fill in the header and table.
+		ByteBuffer buffer = ByteBuffer.allocate(
+			HEADER_SIZE + dictionarySize + 36 * books.size() + 8 * (books.size() + 1) + titles.size() + images.size()
+		);
+
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(books.size()).putInt(codes.size());
+
+		for (byte entry[] : dictionaryBytes)
+			buffer.putInt(entry.length).put(entry);
+
+		// Fill in each column.
+		for (Book book : books)
+			buffer.putInt(book.getId());
+
+		for (Book book : books)
+			buffer.putDouble(book.getPrice());
+
+		for (Book book : books)
+			buffer.putInt(book.getQuantity());
+
+		for (Book book : books)
+			buffer.putInt(book.getJitTrigger());
+
+		for (Book book : books)
+			buffer.putInt(book.getPublicationYear());
+
+		for (int column[] : new int[][] {genres, bindings, authors, titleOffsets, imageOffsets})
+			for (int value : column)
+				buffer.putInt(value);
+
+		// Add the blocks of text, and return the bytes.
+		buffer.put(titles.toByteArray()).put(images.toByteArray());
+		return buffer.array();
+	} // end encode(List<Book>)
+
+	/**
+	 * Decode a string from the data.
+	 * 
+	 * @param position where the string starts
+	 * @param length the number of bytes in the string
+	 * @return the string
+	 */
+	private String decode(int position, int length)
+	{
+		// Copy the bytes out of the mapped data, and decode them.
+		byte bytes[] = new byte[length];
+		data.get(position, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	} // end decode(int, int)
+
+	/**
+	 * Get the number of books in the snapshot.
+	 * 
+	 * @return the number of books
+	 */
+	public int getRowCount()
+	{
+		// Return the number of books.
+		return rowCount;
+	} // end getRowCount()
+
+	/**
+	 * Get the id of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the id
+	 */
+	public int getId(int row)
+	{
+		// Read the id from its column.
+		return data.getInt(idsStart + 4 * row);
+	} // end getId(int)
+
+	/**
+	 * Get the price of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the price
+	 */
+	public double getPrice(int row)
+	{
+		// Read the price from its column.
+		return data.getDouble(pricesStart + 8 * row);
+	} // end getPrice(int)
+
+	/**
+	 * Get the quantity of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the quantity
+	 */
+	public int getQuantity(int row)
+	{
+		// Read the quantity from its column.
+		return data.getInt(quantitiesStart + 4 * row);
+	} // end getQuantity(int)
+
+	/**
+	 * Get the JIT trigger of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the JIT trigger
+	 */
+	public int getJitTrigger(int row)
+	{
+		// Read the JIT trigger from its column.
+		return data.getInt(jitTriggersStart + 4 * row);
+	} // end getJitTrigger(int)
+
+	/**
+	 * Get the publication year of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the publication year
+	 */
+	public int getPublicationYear(int row)
+	{
+		// Read the year from its column.
+		return data.getInt(yearsStart + 4 * row);
+	} // end getPublicationYear(int)
+
+	/**
+	 * Get the genre of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the genre
+	 */
+	public String getGenre(int row)
+	{
+		// Look up the genre's number in the table.
+		return dictionary[data.getInt(genresStart + 4 * row)];
+	} // end getGenre(int)
+
+	/**
+	 * Get the binding of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the binding
+	 */
+	public String getBinding(int row)
+	{
+		// Look up the binding's number in the table.
+		return dictionary[data.getInt(bindingsStart + 4 * row)];
+	} // end getBinding(int)
+
+	/**
+	 * Get the author of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the author
+	 */
+	public String getAuthor(int row)
+	{
+		// Look up the author's number in the table.
+		return dictionary[data.getInt(authorsStart + 4 * row)];
+	} // end getAuthor(int)
+
+	/**
+	 * Get the title of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the title
+	 */
+	public String getTitle(int row)
+	{
+		// Decode the title from between its offset and the next one.
+		int start = data.getInt(titleOffsetsStart + 4 * row), end = data.getInt(titleOffsetsStart + 4 * (row + 1));
+		return decode(titlesStart + start, end - start);
+	} // end getTitle(int)
+
+	/**
+	 * Get the image name of a book.
+	 * 
+	 * @param row the position of the book
+	 * @return the image name
+	 */
+	public String getImageName(int row)
+	{
+		// Decode the image name from between its offset and the next one.
+		int start = data.getInt(imageOffsetsStart + 4 * row), end = data.getInt(imageOffsetsStart + 4 * (row + 1));
+		return decode(imagesStart + start, end - start);
+	} // end getImageName(int)
+
+	/**
+	 * Make a book from one row of the snapshot.
+	 * 
+	 * @param row the position of the book
+	 * @return the book
+	 */
+	public Book getBook(int row)
+	{
+		// Read every field of the row.
+		return new Book(
+			getId(row), getTitle(row), getPrice(row), getQuantity(row), getJitTrigger(row), getGenre(row), getBinding(row),
+			getAuthor(row), getPublicationYear(row), getImageName(row)
+		);
+	} // end getBook(int)
+
+	/**
+	 * Convert a CSV file of books into a snapshot.
+	 * 
+	 * @param csvPath the path to the CSV file
+	 * @param snapshotPath the path to the snapshot to write
+	 * @return the number of books converted
+	 * @throws IOException if either file could not be read or written
+	 */
+	public static int convertCsvToSnapshot(String csvPath, String snapshotPath) throws IOException
+	{
+		ArrayList<Book> books = new ArrayList<Book>();
+		MappedCsvReader csvReader = new MappedCsvReader(new File(csvPath));
+
+		// Read each book, skipping the lines that fail to parse.
+		while (csvReader.nextLine())
+		{
+			try
+			{
+				books.add(new Book(
+					csvReader.getInt(0), csvReader.getString(1), csvReader.getDouble(2), csvReader.getInt(3), csvReader.getInt(4),
+					csvReader.getString(5), csvReader.getString(6), csvReader.getString(7), csvReader.getInt(8), csvReader.getString(9)
+				));
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+		} // end while
+
+		csvReader.close();
+
+		// Write the snapshot.
+		SnapshotWriter.write(snapshotPath, encode(books));
+		return books.size();
+	} // end convertCsvToSnapshot(String, String)
+
+	/**
+	 * Convert a snapshot into a CSV file of books.
+	 * 
+	 * @param snapshotPath the path to the snapshot
+	 * @param csvPath the path to the CSV file to write
+	 * @return the number of books converted
+	 * @throws IOException if either file could not be read or written
+	 */
+	public static int convertSnapshotToCsv(String snapshotPath, String csvPath) throws IOException
+	{
+		BookSnapshot snapshot = open(new File(snapshotPath));
+		ArrayList<String> lines = new ArrayList<String>(snapshot.getRowCount());
+
+		// Make the CSV line of each row, and write the lines.
+		for (int row = 0; row < snapshot.getRowCount(); row++)
+			lines.add(snapshot.getBook(row).toCSV());
+
+		SnapshotWriter.write(csvPath, lines);
+		return lines.size();
+	} // end convertSnapshotToCsv(String, String)
+
+	/**
+	 * Print how long it takes to save and load a catalog of the given size in each format.  The books are made in memory, and are saved
+	 * to temporary files and loaded from them a few times.  The fastest time of each is printed.  A snapshot is loaded three ways: opened
+	 * with only its first book made (which is what the snapshot's lazy rows allow), with every book made, and copied straight into the
+	 * columns of a BookStore.
+	 * 
+	 * @param bookCount the number of books
+	 * @throws IOException if a file could not be written or read
+	 */
+	public static void printSnapshotBenchmark(int bookCount) throws IOException
+	{
+		String genres[] = {"Fiction", "Classics", "Mystery", "Fantasy", "Science Fiction", "Romance", "History", "Biography", "Poetry"};
+		ArrayList<Book> books = new ArrayList<Book>(bookCount);
+		File csvFile = File.createTempFile("muftibooks-books", ".csv"), snapshotFile = File.createTempFile("muftibooks-books", ".bin");
+		Random random = new Random(1);
+		long times[] = new long[6];
+		String labels[] = {
+			"CSV save", "Snapshot save", "CSV load", "Snapshot open (first book)", "Snapshot load (every book)", "Snapshot load (BookStore)"
+		};
+
+		Arrays.fill(times, Long.MAX_VALUE);
+
+		// Make the books, with 5000 distinct authors.
+		for (int i = 0; i < bookCount; i++)
+		{
+			books.add(new Book(
+				i, "Book Number " + i, 5 + random.nextInt(40) + 0.99, random.nextInt(200), random.nextInt(30),
+				genres[random.nextInt(genres.length)], random.nextBoolean() ? "Paperback" : "Hardcover", "Author " + random.nextInt(5000),
+				1800 + random.nextInt(221), "book" + i + ".jpg"
+			));
+		} // end for
+
+		try
+		{
+			// Save and load in each format a few times, keeping the fastest time of each (the first rounds also warm up the JIT compiler).
+			for (int round = 0; round < 3; round++)
+			{
+				long start = System.nanoTime();
+				SnapshotWriter.write(csvFile.getPath(), DataFiles.getBookLines(books));
+				times[0] = Math.min(times[0], System.nanoTime() - start);
+
+				start = System.nanoTime();
+				SnapshotWriter.write(snapshotFile.getPath(), encode(books));
+				times[1] = Math.min(times[1], System.nanoTime() - start);
+
+				ArrayList<Book> loaded = new ArrayList<Book>(bookCount);
+				start = System.nanoTime();
+				DataFiles.readBookCsv(csvFile, loaded);
+				times[2] = Math.min(times[2], System.nanoTime() - start);
+
+				start = System.nanoTime();
+				BookSnapshot snapshot = open(snapshotFile);
+				snapshot.getBook(0);
+				times[3] = Math.min(times[3], System.nanoTime() - start);
+
+				loaded = new ArrayList<Book>(bookCount);
+				start = System.nanoTime();
+				snapshot = open(snapshotFile);
+
+				for (int row = 0; row < snapshot.getRowCount(); row++)
+					loaded.add(snapshot.getBook(row));
+
+				times[4] = Math.min(times[4], System.nanoTime() - start);
+
+				BookStore store = new BookStore();
+				start = System.nanoTime();
+				store.addAll(open(snapshotFile));
+				times[5] = Math.min(times[5], System.nanoTime() - start);
+
+				// Check that every format kept every book.
+				if (loaded.size() != bookCount || store.size() != bookCount)
+					throw new IOException("Expected " + bookCount + " books to be loaded.");
+			} // end for
+		} // end try
+		finally
+		{
+			// Delete the files, and the backups made when they were replaced.
+			for (File file : new File[] {csvFile, snapshotFile})
+			{
+				file.delete();
+				new File(file.getPath() + SnapshotWriter.BACKUP_SUFFIX).delete();
+			} // end for
+		} // end finally
+
+		// Print the results.
+		System.out.printf("Books:                       %d%n", bookCount);
+
+		for (int i = 0; i < times.length; i++)
+			System.out.printf("%-28s %d ms%n", labels[i] + ":", times[i] / 1000000);
+	} // end printSnapshotBenchmark(int)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,1211 @@
+/**
+ * Final Project: The Store - Book Store
+ * This class stores the books column by column instead of as one object per book, for catalogs with millions of books.  The ids, prices,
+ * quantities, JIT triggers, and years are kept in plain arrays, the genres, bindings, and authors are kept as numbers that refer to a
+ * single copy of each distinct string, and the titles and image names are kept as UTF-8 bytes in one shared block of text, with the
+ * position of each entry.  Scans of the whole catalog (such as finding the books that are low on stock) only read the arrays they need,
+ * without visiting a Book object for each book.
+ * 
+ * The books can still be used as a list of Book objects: each book is handed out as a light Book that reads and writes its row of the
+ * arrays.  A book is only made when it is asked for, and the same Book object is handed out again for as long as it is in use; the store
+ * only keeps it through a weak reference, so the books that are no longer used are dropped by the garbage collector.  The rows are found
+ * by the ids of their books through a RowIndex, so no Book object needs to be kept to find a book either.
+ * 
+ * A row never moves once it is stored: the order of the list is kept as a separate array of rows, a book that is removed leaves its row
+ * behind (so a Book object that was handed out for it still works), and a book that is replaced is stored in a new row.  The rows that
+ * are left behind are only dropped when the store is cleared.
+ * 
+ * The store may be read from more than one thread.  Changes to the rows, and every use of the block of text and the table of distinct
+ * strings, hold the store's lock, as they may replace what other rows refer to.  A change that replaces the columns or detaches a book also
+ * holds the lock of the rows.  The numbers of a book are read without locking, checking the lock of the rows afterwards and reading again
+ * under it if the columns were replaced meanwhile (as BookIndex does), and are changed while holding it for reading, so that a change is
+ * never made to a column that is being replaced.  The quantities are kept in blocks of rows that are never replaced, so the quantity of a
+ * book is read and changed (with compare-and-set, during a purchase) without any lock.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+
+public class BookStore extends AbstractList<Book> implements RandomAccess
+{
+	// Store the number of rows the arrays start with.
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Store the number of rows in each block of the quantity column (as a power of two, so a row is split into its block with a shift).
+	private static final int BLOCK_BITS = 12;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+	// Store the handle used to change a quantity in its block with compare-and-set, and the handle used to hand a new book to the
+	// threads that find books without locking.
+	private static final VarHandle QUANTITY = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final VarHandle BOOK = MethodHandles.arrayElementVarHandle(BookReference[].class);
+
+	// Declare the columns of numbers.
+	private int ids[], jitTriggers[], publicationYears[];
+	private double prices[];
+
+	// Declare the blocks of the quantity column.  The blocks are never copied when the column grows, so a book can keep its block.
+	private volatile int quantityBlocks[][];
+
+	// Declare the columns of strings.  The genres, bindings, and authors are numbers that refer to the table of distinct strings, and
+	// the titles and image names are the position and length of their bytes in the block of text.
+	private int genres[], bindings[], authors[];
+	private int nameStarts[], nameLengths[], imageStarts[], imageLengths[];
+
+	// Declare the block of text, the number of bytes used, and the number of those bytes that belong to values that have been replaced
+	// (which are dropped once the block is full).
+	private byte text[];
+	private int textSize, textGarbage;
+
+	// Declare the table of distinct strings, and the number of each string in the table.
+	private ArrayList<String> dictionary;
+	private HashMap<String, Integer> codes;
+
+	// Declare the row of each book, in the order of the list, and the number of books.
+	private int order[];
+	private int size;
+
+	// Declare the books that have been handed out for each row (null if the row's book has not been asked for), the queue the garbage
+	// collector puts their references on once they are no longer used, and the number of rows used, including the rows left behind by
+	// books that were removed or replaced.
+	private BookReference books[];
+	private final ReferenceQueue<StoredBook> droppedBooks = new ReferenceQueue<StoredBook>();
+	private int rowCount;
+
+	// Declare the index of the row of each id, and the number of times the store has been cleared (which reuses the rows).
+	private final RowIndex rowIndex = new RowIndex();
+	private int generation;
+
+	// Declare the lock held while the columns are replaced or a book is detached.
+	private final StampedLock rowLock = new StampedLock();
+
+	// This class is a weak reference to the book handed out for a row, which remembers the row so it can be forgotten once the book has
+	// been dropped.
+	private static class BookReference extends WeakReference<StoredBook>
+	{
+		// Declare the row of the book.
+		private final int row;
+
+		/**
+		 * This constructor makes the reference to the book of a row.
+		 * 
+		 * @param book the book
+		 * @param row the row of the book
+		 * @param queue the queue the reference is put on once the book is dropped
+		 */
+		BookReference(StoredBook book, int row, ReferenceQueue<StoredBook> queue)
+		{
+			// Refer to the book, and keep its row.
+			super(book, queue);
+			this.row = row;
+		} // end BookReference(StoredBook, int, ReferenceQueue<StoredBook>)
+	} // end class BookReference
+
+	// This class is a list of the books in the store at one time, which keeps only their rows, and gets each book from the store when
+	// it is asked for.  The list cannot be changed.
+	private class RowList extends AbstractList<Book> implements RandomAccess
+	{
+		// Declare the rows of the books, and the number of times the store had been cleared when the list was made.
+		private final int rows[];
+		private final int generation;
+
+		/**
+		 * This constructor makes the list of the books in the store.
+		 * 
+		 * @param rows the rows of the books, in the order of the list
+		 * @param generation the number of times the store has been cleared
+		 */
+		RowList(int rows[], int generation)
+		{
+			// Keep the rows, and when they were taken.
+			this.rows = rows;
+			this.generation = generation;
+		} // end RowList(int[], int)
+
+		/**
+		 * Get the book at a position in the list.
+		 * 
+		 * @param index the position of the book
+		 * @return the book at the position
+		 * @throws ConcurrentModificationException if the store has been cleared since the list was made, so its rows were reused
+		 */
+		@Override
+		public Book get(int index)
+		{
+			// Check the position, and get the book of its row unless the rows have been reused.
+			Objects.checkIndex(index, rows.length);
+
+			synchronized (BookStore.this)
+			{
+				if (generation != BookStore.this.generation)
+					throw new ConcurrentModificationException();
+
+				return bookOf(rows[index]);
+			} // end synchronized
+		} // end get(int)
+
+		/**
+		 * Get the number of books in the list.
+		 * 
+		 * @return the number of books
+		 */
+		@Override
+		public int size()
+		{
+			// Return the number of rows.
+			return rows.length;
+		} // end size()
+	} // end class RowList
+
+	// This class is a book that reads and writes its row of the store.  Once the store is cleared, the book keeps the values it had, and
+	// works like any other book.
+	private class StoredBook extends Book
+	{
+		// Declare the row of the book (-1 once the book has been detached from the store).
+		private int row;
+
+		// Declare the block of the quantity column that holds the book's quantity, and the book's place in it.  The quantity stays there
+		// even once the book is detached.
+		private final int stock[];
+		private final int stockIndex;
+
+		/**
+		 * This constructor makes the book for a row.
+		 * 
+		 * @param row the row of the book
+		 */
+		StoredBook(int row)
+		{
+			// Keep the id of the row and the place of its quantity, and leave the other values empty, as they are read from the row.
+			super(ids[row], null, 0, 0, 0, null, null, null, 0, null);
+			this.row = row;
+			stock = quantityBlocks[row >>> BLOCK_BITS];
+			stockIndex = row & (BLOCK_SIZE - 1);
+		} // end StoredBook(int)
+
+		/**
+		 * Copy the values of the book's row into the book, so that the book no longer depends on the store.  The quantity stays in the
+		 * book's block, which the store no longer uses once it is cleared.
+		 */
+		void detach()
+		{
+			// Copy each value, and forget the row.
+			id = ids[row];
+			name = readText(nameStarts[row], nameLengths[row]);
+			price = prices[row];
+			jitTrigger = jitTriggers[row];
+			genre = dictionary.get(genres[row]);
+			binding = dictionary.get(bindings[row]);
+			author = dictionary.get(authors[row]);
+			publicationYear = publicationYears[row];
+			imageName = readText(imageStarts[row], imageLengths[row]);
+			row = -1;
+		} // end detach()
+
+		/**
+		 * Get the id.
+		 * 
+		 * @return the id
+		 */
+		@Override
+		public int getId()
+		{
+			// Return the id kept by the book.  The id of a row never changes, and reading it from the book means it is right even while
+			// the columns are replaced.
+			return id;
+		} // end getId()
+
+		/**
+		 * Get the name.
+		 * 
+		 * @return the name
+		 */
+		@Override
+		public String getName()
+		{
+			// Return the name from the row, or from the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				return row < 0 ? name : readText(nameStarts[row], nameLengths[row]);
+			} // end synchronized
+		} // end getName()
+
+		/**
+		 * Set the name.
+		 * 
+		 * @param name the new name
+		 */
+		@Override
+		public void setName(String name)
+		{
+			// Set the name in the row (dropping the old name), or in the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				if (row < 0)
+					this.name = name;
+				else
+				{
+					textGarbage += nameLengths[row];
+					storeName(row, name);
+				} // end else
+			} // end synchronized
+		} // end setName(String)
+
+		/**
+		 * Get the price.
+		 * 
+		 * @return the price
+		 */
+		@Override
+		public double getPrice()
+		{
+			// Read the row and the column once without locking, and keep the price if the columns were not replaced meanwhile.
+			long stamp = rowLock.tryOptimisticRead();
+			int row = this.row;
+			double value = row < 0 ? price : prices[row];
+
+			if (rowLock.validate(stamp))
+				return value;
+
+			// Otherwise, read it again while holding the lock of the rows.
+			stamp = rowLock.readLock();
+
+			try
+			{
+				row = this.row;
+				return row < 0 ? price : prices[row];
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end getPrice()
+
+		/**
+		 * Set the price.
+		 * 
+		 * @param price the new price
+		 */
+		@Override
+		public void setPrice(double price)
+		{
+			// Set the price in the row, or in the book if it has been detached, keeping the columns from being replaced.
+			long stamp = rowLock.readLock();
+
+			try
+			{
+				if (row < 0)
+					this.price = price;
+				else
+					prices[row] = price;
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end setPrice(double)
+
+		/**
+		 * Get the quantity.
+		 * 
+		 * @return the quantity
+		 */
+		@Override
+		public int getQuantity()
+		{
+			// Read the quantity from the book's block, which is never replaced, so no lock is needed.
+			return (int) QUANTITY.getVolatile(stock, stockIndex);
+		} // end getQuantity()
+
+		/**
+		 * Set the quantity.
+		 * 
+		 * @param quantity the new quantity
+		 */
+		@Override
+		public void setQuantity(int quantity)
+		{
+			// Set the quantity in the book's block.
+			QUANTITY.setVolatile(stock, stockIndex, quantity);
+		} // end setQuantity(int)
+
+		/**
+		 * Take a number of items from the stock, but only if there are at least that many left.  The quantity in the book's block is
+		 * changed with compare-and-set, as other threads change it at the same time, and needs no lock, as the block never moves.
+		 * 
+		 * @param amount the number of items to take
+		 * @return whether the items were taken
+		 */
+		@Override
+		public boolean reserveStock(int amount)
+		{
+			int current;
+
+			// Take the items if there are enough, unless the stock changed since it was read.
+			do
+			{
+				current = (int) QUANTITY.getVolatile(stock, stockIndex);
+
+				if (current < amount)
+					return false;
+			} while (!QUANTITY.compareAndSet(stock, stockIndex, current, current - amount));
+
+			return true;
+		} // end reserveStock(int)
+
+		/**
+		 * Put items taken by reserveStock(int) back in the stock.
+		 * 
+		 * @param amount the number of items to put back
+		 */
+		@Override
+		public void releaseStock(int amount)
+		{
+			// Add the items back to the book's block.
+			QUANTITY.getAndAdd(stock, stockIndex, amount);
+		} // end releaseStock(int)
+
+		/**
+		 * Get the JIT trigger.
+		 * 
+		 * @return the JIT trigger
+		 */
+		@Override
+		public int getJitTrigger()
+		{
+			// Read the row and the column once without locking, and keep the JIT trigger if the columns were not replaced.
+			long stamp = rowLock.tryOptimisticRead();
+			int row = this.row;
+			int value = row < 0 ? jitTrigger : jitTriggers[row];
+
+			if (rowLock.validate(stamp))
+				return value;
+
+			// Otherwise, read it again while holding the lock of the rows.
+			stamp = rowLock.readLock();
+
+			try
+			{
+				row = this.row;
+				return row < 0 ? jitTrigger : jitTriggers[row];
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end getJitTrigger()
+
+		/**
+		 * Set the JIT trigger.
+		 * 
+		 * @param jitTrigger the new JIT trigger
+		 */
+		@Override
+		public void setJitTrigger(int jitTrigger)
+		{
+			// Set the JIT trigger in the row, or in the book if it has been detached, keeping the columns from being replaced.
+			long stamp = rowLock.readLock();
+
+			try
+			{
+				if (row < 0)
+					this.jitTrigger = jitTrigger;
+				else
+					jitTriggers[row] = jitTrigger;
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end setJitTrigger(int)
+
+		/**
+		 * Get the genre.
+		 * 
+		 * @return the genre
+		 */
+		@Override
+		public String getGenre()
+		{
+			// Return the genre from the row, or from the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				return row < 0 ? genre : dictionary.get(genres[row]);
+			} // end synchronized
+		} // end getGenre()
+
+		/**
+		 * Set the genre.
+		 * 
+		 * @param genre the new genre
+		 */
+		@Override
+		public void setGenre(String genre)
+		{
+			// Set the genre in the row, or in the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				if (row < 0)
+					this.genre = genre;
+				else
+					genres[row] = codeOf(genre);
+			} // end synchronized
+		} // end setGenre(String)
+
+		/**
+		 * Get the binding.
+		 * 
+		 * @return the binding
+		 */
+		@Override
+		public String getBinding()
+		{
+			// Return the binding from the row, or from the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				return row < 0 ? binding : dictionary.get(bindings[row]);
+			} // end synchronized
+		} // end getBinding()
+
+		/**
+		 * Set the binding.
+		 * 
+		 * @param binding the new binding
+		 */
+		@Override
+		public void setBinding(String binding)
+		{
+			// Set the binding in the row, or in the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				if (row < 0)
+					this.binding = binding;
+				else
+					bindings[row] = codeOf(binding);
+			} // end synchronized
+		} // end setBinding(String)
+
+		/**
+		 * Get the author.
+		 * 
+		 * @return the author
+		 */
+		@Override
+		public String getAuthor()
+		{
+			// Return the author from the row, or from the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				return row < 0 ? author : dictionary.get(authors[row]);
+			} // end synchronized
+		} // end getAuthor()
+
+		/**
+		 * Set the author.
+		 * 
+		 * @param author the new author
+		 */
+		@Override
+		public void setAuthor(String author)
+		{
+			// Set the author in the row, or in the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				if (row < 0)
+					this.author = author;
+				else
+					authors[row] = codeOf(author);
+			} // end synchronized
+		} // end setAuthor(String)
+
+		/**
+		 * Get the publication year.
+		 * 
+		 * @return the publication year
+		 */
+		@Override
+		public int getPublicationYear()
+		{
+			// Read the row and the column once without locking, and keep the publication year if the columns were not replaced.
+			long stamp = rowLock.tryOptimisticRead();
+			int row = this.row;
+			int value = row < 0 ? publicationYear : publicationYears[row];
+
+			if (rowLock.validate(stamp))
+				return value;
+
+			// Otherwise, read it again while holding the lock of the rows.
+			stamp = rowLock.readLock();
+
+			try
+			{
+				row = this.row;
+				return row < 0 ? publicationYear : publicationYears[row];
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end getPublicationYear()
+
+		/**
+		 * Set the publication year.
+		 * 
+		 * @param publicationYear the new publication year
+		 */
+		@Override
+		public void setPublicationYear(int publicationYear)
+		{
+			// Set the publication year in the row, or in the book if it has been detached, keeping the columns from being replaced.
+			long stamp = rowLock.readLock();
+
+			try
+			{
+				if (row < 0)
+					this.publicationYear = publicationYear;
+				else
+					publicationYears[row] = publicationYear;
+			} // end try
+			finally
+			{
+				rowLock.unlockRead(stamp);
+			} // end finally
+		} // end setPublicationYear(int)
+
+		/**
+		 * Get the image name.
+		 * 
+		 * @return the image name
+		 */
+		@Override
+		public String getImageName()
+		{
+			// Return the image name from the row, or from the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				return row < 0 ? imageName : readText(imageStarts[row], imageLengths[row]);
+			} // end synchronized
+		} // end getImageName()
+
+		/**
+		 * Set the image name.
+		 * 
+		 * @param imageName the new image name
+		 */
+		@Override
+		public void setImageName(String imageName)
+		{
+			// Set the image name in the row (dropping the old image name), or in the book if it has been detached.
+			synchronized (BookStore.this)
+			{
+				if (row < 0)
+					this.imageName = imageName;
+				else
+				{
+					textGarbage += imageLengths[row];
+					storeImageName(row, imageName);
+				} // end else
+			} // end synchronized
+		} // end setImageName(String)
+	} // end class StoredBook
+
+	/**
+	 * This constructor initializes an empty store.
+	 */
+	public BookStore()
+	{
+		// Initialize the columns with the starting number of rows, and the empty table of strings.
+		allocate(INITIAL_CAPACITY);
+		text = new byte[INITIAL_CAPACITY * 32];
+		textSize = textGarbage = 0;
+		dictionary = new ArrayList<String>();
+		codes = new HashMap<String, Integer>();
+		size = rowCount = 0;
+	} // end BookStore()
+
+	/**
+	 * Make new columns with a given number of rows, keeping the rows already stored.
+	 * 
+	 * @param capacity the number of rows
+	 */
+	private void allocate(int capacity)
+	{
+		// Copy each column into a column of the new size (the columns are null the first time).
+		ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+		prices = prices == null ? new double[capacity] : Arrays.copyOf(prices, capacity);
+		jitTriggers = jitTriggers == null ? new int[capacity] : Arrays.copyOf(jitTriggers, capacity);
+		publicationYears = publicationYears == null ? new int[capacity] : Arrays.copyOf(publicationYears, capacity);
+		genres = genres == null ? new int[capacity] : Arrays.copyOf(genres, capacity);
+		bindings = bindings == null ? new int[capacity] : Arrays.copyOf(bindings, capacity);
+		authors = authors == null ? new int[capacity] : Arrays.copyOf(authors, capacity);
+		nameStarts = nameStarts == null ? new int[capacity] : Arrays.copyOf(nameStarts, capacity);
+		nameLengths = nameLengths == null ? new int[capacity] : Arrays.copyOf(nameLengths, capacity);
+		imageStarts = imageStarts == null ? new int[capacity] : Arrays.copyOf(imageStarts, capacity);
+		imageLengths = imageLengths == null ? new int[capacity] : Arrays.copyOf(imageLengths, capacity);
+		order = order == null ? new int[capacity] : Arrays.copyOf(order, capacity);
+		books = books == null ? new BookReference[capacity] : Arrays.copyOf(books, capacity);
+
+		// Add blocks to the quantity column until it covers every row, keeping the blocks it already has.
+		int blocks[][] = quantityBlocks == null ? new int[0][] : quantityBlocks;
+
+		if (blocks.length << BLOCK_BITS < capacity)
+		{
+			blocks = Arrays.copyOf(blocks, (capacity + BLOCK_SIZE - 1) >>> BLOCK_BITS);
+
+			for (int block = 0; block < blocks.length; block++)
+				if (blocks[block] == null)
+					blocks[block] = new int[BLOCK_SIZE];
+
+			quantityBlocks = blocks;
+		} // end if
+	} // end allocate(int)
+
+	/**
+	 * Make sure the columns have room for a number of rows.
+	 * 
+	 * @param capacity the number of rows needed
+	 */
+	public synchronized void ensureCapacity(int capacity)
+	{
+		// Grow the columns by at least half, so that adding rows one at a time stays fast.  The lock of the rows is held while the columns
+		// are replaced, so that no change is made to the old columns.
+		if (capacity > ids.length)
+		{
+			long stamp = rowLock.writeLock();
+
+			try
+			{
+				allocate(Math.max(capacity, ids.length + ids.length / 2));
+			} // end try
+			finally
+			{
+				rowLock.unlockWrite(stamp);
+			} // end finally
+		} // end if
+	} // end ensureCapacity(int)
+
+	/**
+	 * Get the number of a string in the table of distinct strings, adding the string if it is not in the table.
+	 * 
+	 * @param value the string
+	 * @return the number of the string
+	 */
+	private int codeOf(String value)
+	{
+		Integer code = codes.get(value);
+
+		// Add the string to the table if it is new.
+		if (code == null)
+		{
+			code = dictionary.size();
+			dictionary.add(value);
+			codes.put(value, code);
+		} // end if
+
+		return code;
+	} // end codeOf(String)
+
+	/**
+	 * Store the title of a row in the block of text.  Any title the row had must already have been dropped.
+	 * 
+	 * @param row the row
+	 * @param name the title
+	 */
+	private void storeName(int row, String name)
+	{
+		byte bytes[] = name.getBytes(StandardCharsets.UTF_8);
+
+		// Copy the bytes to the end of the block, and store where they are.
+		nameStarts[row] = appendText(bytes);
+		nameLengths[row] = bytes.length;
+	} // end storeName(int, String)
+
+	/**
+	 * Store the image name of a row in the block of text.  Any image name the row had must already have been dropped.
+	 * 
+	 * @param row the row
+	 * @param imageName the image name
+	 */
+	private void storeImageName(int row, String imageName)
+	{
+		byte bytes[] = imageName.getBytes(StandardCharsets.UTF_8);
+
+		// Copy the bytes to the end of the block, and store where they are.
+		imageStarts[row] = appendText(bytes);
+		imageLengths[row] = bytes.length;
+	} // end storeImageName(int, String)
+
+	/**
+	 * Read a string from the block of text.
+	 * 
+	 * @param start the position of the first byte
+	 * @param length the number of bytes
+	 * @return the string
+	 */
+	private String readText(int start, int length)
+	{
+		// Decode the bytes.
+		return new String(text, start, length, StandardCharsets.UTF_8);
+	} // end readText(int, int)
+
+	/**
+	 * Add bytes to the end of the block of text.  If the block is full, the bytes of values that are no longer used are dropped first if
+	 * there are enough of them, and the block is made larger otherwise.
+	 * 
+	 * @param bytes the bytes to add
+	 * @return the position of the first byte
+	 */
+	private int appendText(byte bytes[])
+	{
+		// Make room for the bytes if the block is full.
+		if (textSize + bytes.length > text.length)
+		{
+			if (textGarbage > textSize / 2)
+				compactText();
+
+			if (textSize + bytes.length > text.length)
+				text = Arrays.copyOf(text, Math.max(textSize + bytes.length, text.length + text.length / 2));
+		} // end if
+
+		// Copy the bytes to the end.
+		int start = textSize;
+
+		System.arraycopy(bytes, 0, text, start, bytes.length);
+		textSize += bytes.length;
+
+		return start;
+	} // end appendText(byte[])
+
+	/**
+	 * Copy the text of every row into a new block, leaving out the bytes that are no longer used.  The rows left behind by removed books
+	 * are copied as well, as their books may still be in use.
+	 */
+	private void compactText()
+	{
+		byte compacted[] = new byte[text.length];
+		int position = 0;
+
+		// Copy the title and image name of each row, one after the other.
+		for (int row = 0; row < rowCount; row++)
+		{
+			System.arraycopy(text, nameStarts[row], compacted, position, nameLengths[row]);
+			nameStarts[row] = position;
+			position += nameLengths[row];
+
+			System.arraycopy(text, imageStarts[row], compacted, position, imageLengths[row]);
+			imageStarts[row] = position;
+			position += imageLengths[row];
+		} // end for
+
+		text = compacted;
+		textSize = position;
+		textGarbage = 0;
+	} // end compactText()
+
+	/**
+	 * Store the values of a book in a row.
+	 * 
+	 * @param row the row
+	 * @param book the book whose values are stored
+	 */
+	private void storeRow(int row, Book book)
+	{
+		// Store each value in its column.
+		storeRow(
+			row, book.getId(), book.getName(), book.getPrice(), book.getQuantity(), book.getJitTrigger(), book.getGenre(), book.getBinding(),
+			book.getAuthor(), book.getPublicationYear(), book.getImageName()
+		);
+	} // end storeRow(int, Book)
+
+	/**
+	 * Store the values of a book in a row.
+	 * 
+	 * @param row the row
+	 * @param id the id of the book
+	 * @param name the title of the book
+	 * @param price the price of the book
+	 * @param quantity the book's quantity
+	 * @param jitTrigger the JIT trigger of the book
+	 * @param genre the genre of the book
+	 * @param binding the binding of the book
+	 * @param author the author of the book
+	 * @param publicationYear the year of publication
+	 * @param imageName the name of the image for preview
+	 */
+	private void storeRow(int row, int id, String name, double price, int quantity, int jitTrigger, String genre, String binding,
+		String author, int publicationYear, String imageName)
+	{
+		// Store each value in its column.
+		ids[row] = id;
+		storeName(row, name);
+		prices[row] = price;
+		quantityBlocks[row >>> BLOCK_BITS][row & (BLOCK_SIZE - 1)] = quantity;
+		jitTriggers[row] = jitTrigger;
+		genres[row] = codeOf(genre);
+		bindings[row] = codeOf(binding);
+		authors[row] = codeOf(author);
+		publicationYears[row] = publicationYear;
+		storeImageName(row, imageName);
+
+		// Index the row by its id, and keep the ids of new books from being used again.
+		rowIndex.put(id, row);
+		Product.reserveId(id);
+	} // end storeRow(int, int, String, double, int, int, String, String, String, int, String)
+
+	/**
+	 * Get the quantity of a row.
+	 * 
+	 * @param row the row
+	 * @return the quantity
+	 */
+	private int quantityOf(int row)
+	{
+		// Read the row's place in its block.
+		return quantityBlocks[row >>> BLOCK_BITS][row & (BLOCK_SIZE - 1)];
+	} // end quantityOf(int)
+
+	/**
+	 * Take a new row at the end of the columns, making room for it if needed.
+	 * 
+	 * @return the new row
+	 */
+	private int newRow()
+	{
+		// Make room for the row, and count it as used.
+		ensureCapacity(rowCount + 1);
+		books[rowCount] = null;
+		return rowCount++;
+	} // end newRow()
+
+	/**
+	 * Get the book of a row, making it if there is no book for the row in use.  The lock of the store must be held.
+	 * 
+	 * @param row the row
+	 * @return the book of the row
+	 */
+	private StoredBook bookOf(int row)
+	{
+		// Forget the books that have been dropped since the last time, unless the row was given another book meanwhile.
+		for (Reference<? extends StoredBook> dropped = droppedBooks.poll(); dropped != null; dropped = droppedBooks.poll())
+			if (books[((BookReference) dropped).row] == dropped)
+				books[((BookReference) dropped).row] = null;
+
+		// Use the book in use for the row if there is one, and make a new book otherwise.
+		StoredBook book = books[row] == null ? null : books[row].get();
+
+		if (book == null)
+		{
+			book = new StoredBook(row);
+			BOOK.setRelease(books, row, new BookReference(book, row, droppedBooks));
+		} // end if
+
+		return book;
+	} // end bookOf(int)
+
+	/**
+	 * Get the book at a position in the list, making it if there is no book for its row in use.
+	 * 
+	 * @param index the position of the book
+	 * @return the book at the position
+	 */
+	@Override
+	public synchronized Book get(int index)
+	{
+		// Check that the position exists, and get the book of its row.
+		Objects.checkIndex(index, size);
+		return bookOf(order[index]);
+	} // end get(int)
+
+	/**
+	 * Get the book with a given id.  If the book of the row is in use, it is found without locking, as BookIndex does.
+	 * 
+	 * @param id the id of the book
+	 * @return the book with the id, or null if there is no such book
+	 */
+	public Book getById(int id)
+	{
+		// Find the row of the id.
+		int row = rowIndex.get(id);
+
+		if (row < 0)
+			return null;
+
+		// Read the book of the row without locking, and keep it if the columns were not replaced meanwhile and it still has the row.
+		long stamp = rowLock.tryOptimisticRead();
+		BookReference rowBooks[] = books;
+		BookReference reference = row < rowBooks.length ? (BookReference) BOOK.getAcquire(rowBooks, row) : null;
+		StoredBook book = reference == null ? null : reference.get();
+
+		if (book != null && rowLock.validate(stamp) && book.row == row)
+			return book;
+
+		// Otherwise, find the row again while holding the lock of the store, and get its book.
+		synchronized (this)
+		{
+			row = rowIndex.get(id);
+			return row < 0 ? null : bookOf(row);
+		} // end synchronized
+	} // end getById(int)
+
+	/**
+	 * Get a copy of the list of books that cannot be changed, and does not show books added or removed afterwards.  Only the rows of
+	 * the books are copied, and each book is got from the store when it is asked for.
+	 * 
+	 * @return the copy of the list
+	 */
+	public synchronized List<Book> copyList()
+	{
+		// Copy the positions in the list.
+		return new RowList(Arrays.copyOf(order, size), generation);
+	} // end copyList()
+
+	/**
+	 * Get the number of books stored.
+	 * 
+	 * @return the number of books
+	 */
+	@Override
+	public int size()
+	{
+		// Return the number of books in the list, leaving out the rows that were left behind.
+		return size;
+	} // end size()
+
+	/**
+	 * Add a book at a position in the list.  The values of the book are copied into a new row, so the book that is stored is the one
+	 * returned by get(), not the one passed in.
+	 * 
+	 * @param index the position to add the book at
+	 * @param book the book to add
+	 */
+	@Override
+	public synchronized void add(int index, Book book)
+	{
+		// Check that the position is within the list, and store the values of the book in a new row.
+		Objects.checkIndex(index, size + 1);
+		int row = newRow();
+
+		storeRow(row, book);
+
+		// Move the positions after the new book down by one.  The rows themselves stay where they are.
+		System.arraycopy(order, index, order, index + 1, size - index);
+		order[index] = row;
+		size++;
+		modCount++;
+	} // end add(int, Book)
+
+	/**
+	 * Add a book to the end of the store.  This is used while reading files, so that no Book object is made for the book.
+	 * 
+	 * @param id the id of the book
+	 * @param name the title of the book
+	 * @param price the price of the book
+	 * @param quantity the book's quantity
+	 * @param jitTrigger the JIT trigger of the book
+	 * @param genre the genre of the book
+	 * @param binding the binding of the book
+	 * @param author the author of the book
+	 * @param publicationYear the year of publication
+	 * @param imageName the name of the image for preview
+	 */
+	public synchronized void add(int id, String name, double price, int quantity, int jitTrigger, String genre, String binding,
+		String author, int publicationYear, String imageName)
+	{
+		// Store the values in a new row, at the end of the list.
+		int row = newRow();
+
+		storeRow(row, id, name, price, quantity, jitTrigger, genre, binding, author, publicationYear, imageName);
+		order[size++] = row;
+		modCount++;
+	} // end add(int, String, double, int, int, String, String, String, int, String)
+
+	/**
+	 * Add every row of a snapshot to the end of the store, without making a Book object for any of them.
+	 * 
+	 * @param snapshot the snapshot to read
+	 */
+	public synchronized void addAll(BookSnapshot snapshot)
+	{
+		// Make room for every row, and copy each row.
+		ensureCapacity(rowCount + snapshot.getRowCount());
+
+		for (int row = 0; row < snapshot.getRowCount(); row++)
+		{
+			add(
+				snapshot.getId(row), snapshot.getTitle(row), snapshot.getPrice(row), snapshot.getQuantity(row), snapshot.getJitTrigger(row),
+				snapshot.getGenre(row), snapshot.getBinding(row), snapshot.getAuthor(row), snapshot.getPublicationYear(row),
+				snapshot.getImageName(row)
+			);
+		} // end for
+	} // end addAll(BookSnapshot)
+
+	/**
+	 * Replace the book at a position in the list.  The values of the new book are copied into a new row, and the book that was handed
+	 * out for the old row keeps its values.
+	 * 
+	 * @param index the position of the book
+	 * @param book the new book
+	 * @return the book that was replaced
+	 */
+	@Override
+	public synchronized Book set(int index, Book book)
+	{
+		// Keep the old book, and put a new row with the new values at its position.
+		Book oldBook = get(index);
+		int row = newRow();
+
+		rowIndex.remove(oldBook.getId());
+
+		storeRow(row, book);
+		order[index] = row;
+
+		return oldBook;
+	} // end set(int, Book)
+
+	/**
+	 * Remove the book at a position in the list.  The books after it move up in the list, but their rows stay where they are, and the row
+	 * of the removed book is left behind, so the removed book keeps its values.
+	 * 
+	 * @param index the position of the book
+	 * @return the book that was removed
+	 */
+	@Override
+	public synchronized Book remove(int index)
+	{
+		// Keep the book, and move the positions after it up by one.
+		Book oldBook = get(index);
+
+		rowIndex.remove(oldBook.getId());
+		System.arraycopy(order, index + 1, order, index, size - index - 1);
+		size--;
+		modCount++;
+
+		return oldBook;
+	} // end remove(int)
+
+	/**
+	 * Remove a book from the store.
+	 * 
+	 * @param object the book to remove
+	 * @return whether the book was removed
+	 */
+	@Override
+	public synchronized boolean remove(Object object)
+	{
+		// Find the row of the book, and remove it if the book is in the store.
+		int index = indexOf(object);
+
+		if (index < 0)
+			return false;
+
+		remove(index);
+		return true;
+	} // end remove(Object)
+
+	/**
+	 * Find the position of a book in the list.
+	 * 
+	 * @param object the book to look for
+	 * @return the position of the book, or -1 if it is not in the store
+	 */
+	@Override
+	public synchronized int indexOf(Object object)
+	{
+		// Books are only ever the same as a book handed out by this store, whose row is known, so only that row is looked for.
+		int row = object instanceof StoredBook ? ((StoredBook) object).row : -1;
+
+		if (row >= 0 && books[row] != null && books[row].get() == object)
+		{
+			for (int index = 0; index < size; index++)
+				if (order[index] == row)
+					return index;
+		} // end if
+
+		return -1;
+	} // end indexOf(Object)
+
+	/**
+	 * Check whether a book is in the store.
+	 * 
+	 * @param object the book to look for
+	 * @return whether the book is in the store
+	 */
+	@Override
+	public boolean contains(Object object)
+	{
+		// Check whether the book has a row.
+		return indexOf(object) >= 0;
+	} // end contains(Object)
+
+	/**
+	 * Remove every book from the store, including the rows left behind.  The books that were handed out keep their values, and keep
+	 * their quantities in blocks the store no longer uses.
+	 */
+	@Override
+	public synchronized void clear()
+	{
+		// Detach each book that is still in use, and forget the books.
+		long stamp = rowLock.writeLock();
+
+		try
+		{
+			for (int row = 0; row < rowCount; row++)
+			{
+				StoredBook book = books[row] == null ? null : books[row].get();
+
+				if (book != null)
+					book.detach();
+			} // end for
+
+			Arrays.fill(books, 0, rowCount, null);
+		} // end try
+		finally
+		{
+			rowLock.unlockWrite(stamp);
+		} // end finally
+
+		// Give the rows new blocks of quantities, as the old blocks now belong to the detached books.
+		int blocks[][] = new int[quantityBlocks.length][];
+
+		for (int block = 0; block < blocks.length; block++)
+			blocks[block] = new int[BLOCK_SIZE];
+
+		quantityBlocks = blocks;
+
+		// Forget the rows, and the strings that were stored.
+		rowIndex.clear();
+		textSize = textGarbage = 0;
+		dictionary.clear();
+		codes.clear();
+		size = rowCount = 0;
+		generation++;
+		modCount++;
+	} // end clear()
+
+	/**
+	 * Get the books that need to be ordered, which are the books whose quantity is below their JIT trigger.  Only the quantity and JIT
+	 * trigger columns are read, and a book is only made for the rows that match.
+	 * 
+	 * @return the books that are low on stock, in the order they are stored
+	 */
+	public synchronized ArrayList<Book> getLowStockBooks()
+	{
+		ArrayList<Book> lowStockBooks = new ArrayList<Book>();
+
+		// Compare the two columns for the row of each book.
+		for (int index = 0; index < size; index++)
+			if (quantityOf(order[index]) < jitTriggers[order[index]])
+				lowStockBooks.add(get(index));
+
+		return lowStockBooks;
+	} // end getLowStockBooks()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,201 @@
+/**
+ * Final Project: The Store - Cart Codec
+ * This class turns a cart into the short piece of text stored in the last field of a user's CSV entry, and back.  Each book in the cart
+ * is stored as its id followed by its quantity, and each number is stored in as few bytes as it needs (7 bits to a byte, with the top
+ * bit set on every byte but the last).  The bytes are then written as URL-safe base 64 characters, which never include a comma or a
+ * vertical bar, after a '~' that marks the new format.
+ * 
+ * Carts stored in the old format (the ids and quantities as numbers, separated by vertical bars) can still be read.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class CartCodec
+{
+	// Store the character that starts a cart in the new format.
+	public static final char PREFIX = '~';
+
+	// Store the characters used for each value of 6 bits, and the value of each character (-1 if the character is not used).
+	private static final char CHARACTERS[] = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+	private static final int VALUES[] = new int[128];
+
+	static
+	{
+		Arrays.fill(VALUES, -1);
+
+		for (int i = 0; i < CHARACTERS.length; i++)
+			VALUES[CHARACTERS[i]] = i;
+	}
+
+	// Make an interface so that lambdas may be used to receive each book of a cart as it is read.
+	@FunctionalInterface
+	public static interface EntryHandler
+	{
+		// The lambda will take the id of the book and its quantity.
+		void handleEntry(int id, int quantity);
+	} // end interface
+
+	/**
+	 * Write a cart in the new format.  Nothing is written for an empty cart.
+	 * 
+	 * @param cart the books in the cart, with their quantities
+	 * @param output where to write the text
+	 */
+	public static void encode(Map<Book, Integer> cart, StringBuilder output)
+	{
+		// Leave the field empty if there is nothing in the cart.
+		if (cart.isEmpty())
+			return;
+
+		// Bits waiting to be written, and the number of them.
+		int bits = 0, bitCount = 0;
+
+		output.append(PREFIX);
+
+		// Write the id and quantity of each book.
+		for (Map.Entry<Book, Integer> entry : cart.entrySet())
+		{
+			for (int half = 0; half < 2; half++)
+			{
+				int number = half == 0 ? entry.getKey().getId() : entry.getValue();
+
+				// Write the number 7 bits at a time, setting the top bit of each byte if more bytes follow.
+				do
+				{
+					int nextByte = number & 0x7F;
+					number >>>= 7;
+
+					if (number != 0)
+						nextByte |= 0x80;
+
+					// Add the byte to the waiting bits, and write a character for every 6 bits.
+					bits = (bits << 8) | nextByte;
+					bitCount += 8;
+
+					while (bitCount >= 6)
+					{
+						bitCount -= 6;
+						output.append(CHARACTERS[(bits >>> bitCount) & 0x3F]);
+					} // end while
+				} while (number != 0);
+			} // end for
+		} // end for
+
+		// Write the bits that are left, filling the rest of the character with zeros.
+		if (bitCount > 0)
+			output.append(CHARACTERS[(bits << (6 - bitCount)) & 0x3F]);
+	} // end encode(Map<Book, Integer>, StringBuilder)
+
+	/**
+	 * Read a cart in either the new or the old format, passing each book to the handler.
+	 * 
+	 * @param text the text of the cart
+	 * @param handler what to do with each book
+	 * @throws NumberFormatException if the text is not a cart
+	 */
+	public static void decode(String text, EntryHandler handler)
+	{
+		// Read the old format if the text does not start with the mark of the new format.
+		if (text.isEmpty() || text.charAt(0) != PREFIX)
+		{
+			decodeOldFormat(text, handler);
+			return;
+		} // end if
+
+		// Bits read but not yet made into a byte, the number of them, the number being read, the number of its bits read so far, and the
+		// id of the book whose quantity is being read (-1 if an id is being read).
+		int bits = 0, bitCount = 0, number = 0, shift = 0;
+		long id = -1;
+
+		for (int i = 1; i < text.length(); i++)
+		{
+			char character = text.charAt(i);
+			int value = character < VALUES.length ? VALUES[character] : -1;
+
+			// Stop if the character is not part of the format.
+			if (value < 0)
+				throw new NumberFormatException("Invalid character in cart: " + character);
+
+			bits = (bits << 6) | value;
+			bitCount += 6;
+
+			// Once a whole byte has been read, add its 7 bits to the number.
+			if (bitCount >= 8)
+			{
+				bitCount -= 8;
+				int nextByte = (bits >>> bitCount) & 0xFF;
+
+				if (shift > 28)
+					throw new NumberFormatException("Number in cart is too long.");
+
+				number |= (nextByte & 0x7F) << shift;
+				shift += 7;
+
+				// If this is the last byte of the number, the number is either an id or the quantity of the id before it.
+				if ((nextByte & 0x80) == 0)
+				{
+					if (id < 0)
+					{
+						id = number;
+					} // end if
+					else
+					{
+						handler.handleEntry((int) id, number);
+						id = -1;
+					} // end else
+
+					number = shift = 0;
+				} // end if
+			} // end if
+		} // end for
+
+		// Check that the last number was finished, and that every id had a quantity.
+		if (shift != 0 || id >= 0)
+			throw new NumberFormatException("Cart is cut short.");
+	} // end decode(String, EntryHandler)
+
+	/**
+	 * Read a cart in the old format, where the ids and quantities are separated by vertical bars (with any spaces around them).
+	 * 
+	 * @param text the text of the cart
+	 * @param handler what to do with each book
+	 * @throws NumberFormatException if a number could not be read
+	 */
+	private static void decodeOldFormat(String text, EntryHandler handler)
+	{
+		int start = 0, id = 0;
+		boolean readingId = true;
+
+		// Read each piece between the vertical bars, without splitting the text.
+		while (start < text.length())
+		{
+			int end = text.indexOf('|', start);
+
+			if (end < 0)
+				end = text.length();
+
+			String piece = text.substring(start, end).trim();
+
+			// Skip empty pieces, which come from a blank cart.
+			if (!piece.isEmpty())
+			{
+				// Pieces alternate between an id and its quantity.
+				if (readingId)
+				{
+					id = Integer.parseInt(piece);
+				} // end if
+				else
+				{
+					handler.handleEntry(id, Integer.parseInt(piece));
+				} // end else
+
+				readingId = !readingId;
+			} // end if
+
+			start = end + 1;
+		} // end while
+	} // end decodeOldFormat(String, EntryHandler)
+} // end public class
\ No newline at end of file
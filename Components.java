@@ -258,55 +258,94 @@ public class Components
 		} // end setValue(String)
 	} // end class TextInput
 
-	// This class displays the preview box for a book.
-	public static class BookPreview extends JLayeredPane
+	// This class displays a search box with a button to start the search.
+	public static class SearchBar extends JPanel
 	{
+		// Make an interface so that search handlers can be passed in as lambdas.
+		@FunctionalInterface
+		public static interface SearchHandler
+		{
+			// The lambda will accept the search query, and return nothing.
+			void handleSearch(String query);
+		} // end interface
+
 		/**
-		 * This constructor adds necessary components to display the preview box for the book.
+		 * This constructor adds the necessary components to display the search box.
 		 * 
-		 * @param gui the GUI object
-		 * @param book the Book object
+		 * @param initialQuery the query to show in the search box initially
+		 * @param width the width of the search bar
+		 * @param handler the handler to run when a search is started
 		 */
-		public BookPreview(GUI gui, Book book)
+		public SearchBar(String initialQuery, int width, SearchHandler handler)
 		{
-			// Store the image that will be shown as preview.
-			ImageIcon image = Resources.getImage(book.getImagePath(), 208, 320);
+			// Initialize the text field for the query.
+			JTextField queryField = new JTextField(initialQuery);
 
-			// Initialize labels for the image preview and the stock preview.
-			JLabel imagePreview = new JLabel(), stockPreview = new JLabel();
+			// This button starts the search when clicked.
+			MenuButton searchButton = new MenuButton("Search", () -> {handler.handleSearch(queryField.getText());});
+
+			// Give the text field its necessary settings.  Pressing enter in the text field also starts the search.
+			queryField.setFont(Resources.getFont(Paths.FONT_REGULAR, 20));
+			queryField.setForeground(Color.BLACK);
+			queryField.setPreferredSize(new Dimension(540, 40));
+			queryField.addActionListener((ActionEvent event) -> {handler.handleSearch(queryField.getText());});
+
+			// Give the button a smaller size than usual.
+			searchButton.setPreferredSize(new Dimension(150, 40));
+
+			// Give necessary settings to the containing panel.
+			setLayout(new FlowLayout(FlowLayout.CENTER, 10, 0));
+			setPreferredSize(new Dimension(width, 50));
+			setOpaque(false);
 
+			// Add the text field and the button.
+			add(queryField);
+			add(searchButton);
+		} // end SearchBar(String, int, SearchHandler)
+	} // end class SearchBar
+
+	// This class displays the preview box for a book.  One preview box is reused to draw every book in a catalog, by moving it to the
+	// book being drawn before it is painted.
+	public static class BookPreview extends JLayeredPane implements ListCellRenderer<Book>
+	{
+		// Store the bounds of the buttons, which are needed to tell which button a click on the preview box lands on.
+		private static final Rectangle NEXT_BOUNDS = new Rectangle(30, 275, 168, 45);
+		private static final Rectangle DELETE_BOUNDS = new Rectangle(30, 220, 168, 45);
+
+		// Declare variables for the GUI object, whether the admin is signed in, and the components that change with each book.
+		private GUI gui;
+		private boolean adminMode;
+		private JLabel imagePreview, stockPreview;
+
+		/**
+		 * This constructor adds necessary components to display the preview box for a book.
+		 * 
+		 * @param gui the GUI object
+		 */
+		public BookPreview(GUI gui)
+		{
 			// Declare the needed buttons.
 			MenuButton next, delete;
 
-			// If the image failed to load, load an alternative.
-			if (image == null)
-				image = Resources.getImage(Paths.IMAGE_BOOK_NOT_FOUND, 208, 320);
+			// Store the GUI object, and whether the admin is signed in.
+			this.gui = gui;
+			adminMode = gui.getActiveUser() != null && gui.getActiveUser().isAdmin();
+
+			// Initialize labels for the image preview and the stock preview.
+			imagePreview = new JLabel();
+			stockPreview = new JLabel();
 
-			
 			// Add components based on whether a customer is signed in, or the admin.
-			if (gui.getActiveUser() != null && gui.getActiveUser().isAdmin())
+			if (adminMode)
 			{
-				// Initialize the edit button.  This button will switch to a form on click.
-				next = new MenuButton("Edit", () -> {
-					gui.setEditingBook(book);
-					gui.switchPage(new Pages.Form(gui, Forms.EDIT_BOOK, book.getFormList()));
-				});
-
-				// Initialize the delete button.  This button will delete the book on click.
-				delete = new MenuButton("Delete", () -> {deleteBookHandler(gui, book);});
+				// Initialize the edit and delete buttons.  Clicks are handled by the catalog, so the buttons only need to be drawn.
+				next = new MenuButton("Edit");
+				delete = new MenuButton("Delete");
 
 				// Set the bounds for the delete button.
-				delete.setBounds(30, 220, 168, 45);
-
-				// Give the necessary text to the stock preview.
-				stockPreview.setText(
-					book.getQuantity() < book.getJitTrigger() ? "ORDER NOW" :
-					book.getQuantity() < book.getJitTrigger() * 2 ? "ORDER SOON" :
-					"IN STOCK"
-				);
+				delete.setBounds(DELETE_BOUNDS);
 
 				// Give necessary settings to the stock preview.
-				stockPreview.setForeground(book.getQuantity() < book.getJitTrigger() * 2 ? Color.RED : Color.WHITE);
 				stockPreview.setBounds(30, 20, 168, 30);
 				stockPreview.setFont(Resources.getFont(Paths.FONT_REGULAR, 24));
 				stockPreview.setBackground(new Color(0.07f, 0.85f, 0.43f));
@@ -319,26 +358,98 @@ public class Components
 			} // end if
 			else
 			{
-				// Set the next button's action to viewing the individual book.
- 				next = new MenuButton("View", () -> {gui.switchPage(new Pages.BookFullView(gui, book));});
+				// Initialize the button for viewing the individual book.
+ 				next = new MenuButton("View");
 			} // end else
 
 			// Give necessary bounds to the next button.
-			next.setBounds(30, 275, 168, 45);
+			next.setBounds(NEXT_BOUNDS);
 
 			// Give necessary settings to the image preview.
-			imagePreview.setIcon(image);
 			imagePreview.setBounds(10, 10, 208, 320);
 
-			// Give necessary settings to the containing panel.
-			setPreferredSize(new Dimension(228, 340));
-			setBorder(BorderFactory.createLineBorder(new Color(0.07f, 0.85f, 0.43f), 10));
+			// Give necessary settings to the containing panel.  The empty border leaves a gap between the preview boxes.
+			setPreferredSize(new Dimension(238, 350));
+			setBorder(BorderFactory.createCompoundBorder(
+				new EmptyBorder(0, 0, 10, 10), BorderFactory.createLineBorder(new Color(0.07f, 0.85f, 0.43f), 10)
+			));
 			setLayout(null);
 
 			// Add the image preview, and the next button.
 			add(imagePreview, JLayeredPane.DEFAULT_LAYER);
 			add(next, JLayeredPane.PALETTE_LAYER);
-		} // end BookPreview(GUI, Book)
+		} // end BookPreview(GUI)
+
+		/**
+		 * Move the preview box to a given book, so that it draws that book.
+		 * 
+		 * @param list the list that is being drawn
+		 * @param book the book to draw
+		 * @param index the position of the book in the list
+		 * @param isSelected whether the book is selected
+		 * @param cellHasFocus whether the book has focus
+		 * @return this preview box
+		 */
+		@Override
+		public Component getListCellRendererComponent(JList<? extends Book> list, Book book, int index, boolean isSelected,
+			boolean cellHasFocus)
+		{
+			// Show the preview image if it is ready, or a placeholder while it loads.  The list is redrawn once the image has loaded.
+			imagePreview.setIcon(ImageLoader.load(list, book.getImagePath(), 208, 320, (image) -> {list.repaint();}));
+
+			// Give the necessary text and color to the stock preview.
+			if (adminMode)
+			{
+				stockPreview.setText(
+					book.getQuantity() < book.getJitTrigger() ? "ORDER NOW" :
+					book.getQuantity() < book.getJitTrigger() * 2 ? "ORDER SOON" :
+					"IN STOCK"
+				);
+				stockPreview.setForeground(book.getQuantity() < book.getJitTrigger() * 2 ? Color.RED : Color.WHITE);
+			} // end if
+
+			// Return this preview box to be painted.
+			return this;
+		} // end getListCellRendererComponent(JList<? extends Book>, Book, int, boolean, boolean)
+
+		/**
+		 * Check whether a point on the preview box is over one of its buttons.
+		 * 
+		 * @param point the point relative to the preview box
+		 * @return whether the point is over a button
+		 */
+		public boolean isOverButton(Point point)
+		{
+			// Return whether the point is in the bounds of a button that is shown.
+			return NEXT_BOUNDS.contains(point) || (adminMode && DELETE_BOUNDS.contains(point));
+		} // end isOverButton(Point)
+
+		/**
+		 * Handle a click on the preview box for a given book.
+		 * 
+		 * @param book the book the preview box is showing
+		 * @param point the point that was clicked, relative to the preview box
+		 */
+		public void handleClick(Book book, Point point)
+		{
+			// Run the action of the button that was clicked, if any.
+			if (NEXT_BOUNDS.contains(point) && adminMode)
+			{
+				// Switch to a form for editing the book.
+				gui.setEditingBook(book);
+				gui.switchPage(new Pages.Form(gui, Forms.EDIT_BOOK, book.getFormList()));
+			} // end if
+			else if (NEXT_BOUNDS.contains(point))
+			{
+				// Switch to viewing the individual book.
+				gui.switchPage(new Pages.BookFullView(gui, book));
+			} // end else if
+			else if (DELETE_BOUNDS.contains(point) && adminMode)
+			{
+				// Delete the book.
+				deleteBookHandler(gui, book);
+			} // end else if
+		} // end handleClick(Book, Point)
 
 		/**
 		 * Delete a given book, first asking for the user's choice.
@@ -358,12 +469,133 @@ public class Components
 			if (shouldDelete == 0)
 			{
 				// Remove the book, and reload the page.
-				gui.removeBook(book);
+				gui.getService().removeBook(book);
 				gui.switchPage(new Pages.BookCatalog(gui));
 			} // end if
 		} // end deleteBookHandler(GUI, Book)
 	} // end class BookPreview
 
+	// This class displays a list of books as rows of preview boxes.  Only the rows that are scrolled into view are drawn, and a single
+	// preview box is reused to draw every book, so showing the catalog costs the same no matter how many books there are.
+	public static class BookCatalogList extends JList<Book>
+	{
+		/**
+		 * This constructor applies the necessary settings to display the books.
+		 * 
+		 * @param gui the GUI object
+		 * @param books the books to display
+		 */
+		public BookCatalogList(GUI gui, java.util.List<Book> books)
+		{
+			// Initialize the preview box used to draw each book.
+			BookPreview preview = new BookPreview(gui);
+
+			// Show the books straight from the list, without copying them.
+			setModel(new AbstractListModel<Book>() {
+				/**
+				 * Get the number of books.
+				 * 
+				 * @return the number of books
+				 */
+				@Override
+				public int getSize()
+				{
+					// Return the number of books.
+					return books.size();
+				} // end getSize()
+
+				/**
+				 * Get the book at a given position.
+				 * 
+				 * @param index the position of the book
+				 * @return the book
+				 */
+				@Override
+				public Book getElementAt(int index)
+				{
+					// Return the book.
+					return books.get(index);
+				} // end getElementAt(int)
+			});
+
+			// Lay the books out in rows of fixed size cells, drawn by the preview box.
+			setCellRenderer(preview);
+			setLayoutOrientation(JList.HORIZONTAL_WRAP);
+			setVisibleRowCount(-1);
+			setFixedCellWidth(238);
+			setFixedCellHeight(350);
+			setBorder(new EmptyBorder(10, 15, 0, 0));
+			setOpaque(false);
+			setFocusable(false);
+
+			// Handle clicks and show a hand cursor over the buttons of the preview boxes.
+			addMouseListener(new MouseAdapter() {
+				/**
+				 * This function runs when the list is clicked.
+				 * 
+				 * @param event the event object, containing information about the event
+				 */
+				@Override
+				public void mouseClicked(MouseEvent event)
+				{
+					// Find the book that was clicked, and pass the click on to the preview box.
+					int index = getBookIndexAt(event.getPoint());
+
+					if (index != -1)
+						preview.handleClick(books.get(index), getPointInCell(index, event.getPoint()));
+				} // end mouseClicked(MouseEvent)
+			});
+
+			addMouseMotionListener(new MouseMotionAdapter() {
+				/**
+				 * This function runs when the mouse moves over the list.
+				 * 
+				 * @param event the event object, containing information about the event
+				 */
+				@Override
+				public void mouseMoved(MouseEvent event)
+				{
+					// Show a hand cursor if the mouse is over a button.
+					int index = getBookIndexAt(event.getPoint());
+					boolean overButton = index != -1 && preview.isOverButton(getPointInCell(index, event.getPoint()));
+
+					setCursor(Cursor.getPredefinedCursor(overButton ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+				} // end mouseMoved(MouseEvent)
+			});
+		} // end BookCatalogList(GUI, List<Book>)
+
+		/**
+		 * Get the position of the book at a point on the list.
+		 * 
+		 * @param point the point on the list
+		 * @return the position of the book, or -1 if the point is not on a book
+		 */
+		private int getBookIndexAt(Point point)
+		{
+			// Find the nearest book, and check that the point is actually inside it.
+			int index = locationToIndex(point);
+
+			if (index == -1 || !getCellBounds(index, index).contains(point))
+				return -1;
+			else
+				return index;
+		} // end getBookIndexAt(Point)
+
+		/**
+		 * Get a point on the list relative to the cell of a given book.
+		 * 
+		 * @param index the position of the book
+		 * @param point the point on the list
+		 * @return the point relative to the cell
+		 */
+		private Point getPointInCell(int index, Point point)
+		{
+			// Subtract the position of the cell from the point.
+			Rectangle cell = getCellBounds(index, index);
+			return new Point(point.x - cell.x, point.y - cell.y);
+		} // end getPointInCell(int, Point)
+	} // end class BookCatalogList
+
 	// This class displays a panel for one item in the cart.
 	public static class CartPanel extends JPanel
 	{
@@ -379,9 +611,6 @@ public class Components
 			JLabel bookCover = new JLabel();
 			JPanel bookInformation = new JPanel();
 
-			// Get the image for the book.
-			ImageIcon bookImage = Resources.getImage(book.getImagePath(), 156, 240);
-
 			// This button will ask to edit the quantity on click.
 			MenuButton editQuantityButton = new MenuButton("Edit quantity", () -> {handleEditCartQuantity(gui, book);});
 
@@ -397,12 +626,8 @@ public class Components
 				"Total price: $" + String.format("%.2f", gui.getActiveUser().getCartItemCount(book) * book.getPrice())
 			};
 
-			// If the image failed to load, load an alternative.
-			if (bookImage == null)
-				bookImage = Resources.getImage(Paths.IMAGE_BOOK_NOT_FOUND, 156, 240);
-			
-			// Give necessary settings to the book cover.
-			bookCover.setIcon(bookImage);
+			// Give necessary settings to the book cover.  A placeholder is shown until the image has loaded.
+			bookCover.setIcon(ImageLoader.load(bookCover, book.getImagePath(), 156, 240, bookCover::setIcon));
 			bookCover.setBounds(10, 10, 156, 240);
 
 			// Give necessary settings to the book information.
@@ -457,8 +682,7 @@ public class Components
 			User user = gui.getActiveUser();
 
 			// Initialize the array of possible selection values.
-			String selectionValues[] = new String[Math.min(book.getQuantity(), 10 - (user.getAllCartItemsCount() -
-				user.getCartItemCount(book))) + 1];
+			String selectionValues[] = new String[gui.getService().getCartLimit(user, book) + 1];
 
 			// Fill the array of possible selection values.
 			for (int i = 0; i < selectionValues.length; i++)
@@ -474,9 +698,15 @@ public class Components
 			if (bookCountRaw == null)
 				return;
 
-			// Edit the cart quantity to what the user chose and makes changes in disk.
-			user.editCartItemQuantity(book, Integer.parseInt(bookCountRaw));
-			gui.forceUserDataWrite();
+			// Edit the cart quantity to what the user chose and makes changes in disk.  Stop if the cart may no longer hold that many (as
+			// the stock may have changed while the user was choosing).
+			String error = gui.getService().setCartQuantity(user, book, Integer.parseInt(bookCountRaw));
+
+			if (error != null)
+			{
+				JOptionPane.showMessageDialog(null, error, "Error Editing Quantity", JOptionPane.ERROR_MESSAGE);
+				return;
+			} // end if
 
 			// Reload the current page.
 			gui.switchPage(new Pages.Cart(gui));
@@ -506,8 +736,7 @@ public class Components
 			if (shouldRemove == 0)
 			{
 				// Remove the book from cart, and write the changes to disk.
-				gui.getActiveUser().removeFromCart(book);
-				gui.forceUserDataWrite();
+				gui.getService().removeFromCart(gui.getActiveUser(), book);
 
 				// Refresh the cart page.
 				gui.switchPage(new Pages.Cart(gui));
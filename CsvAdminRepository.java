@@ -0,0 +1,36 @@
+/**
+ * Final Project: The Store - CSV Admin Repository
+ * This class stores the admin's password in the admin file.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+public class CsvAdminRepository implements AdminRepository
+{
+	/**
+	 * Read the admin's password from the admin file.
+	 * 
+	 * @param admin the User object representing the admin
+	 */
+	@Override
+	public void load(User admin)
+	{
+		// Read the file.
+		DataFiles.readAdminFile(admin);
+	} // end load(User)
+
+	/**
+	 * Gather the admin's password, so that the admin file can be rewritten.
+	 * 
+	 * @param admin the User object representing the admin
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareCommit(User admin)
+	{
+		// Write the password as it is now.
+		String password = admin.getPassword();
+		return () -> {DataFiles.writeAdminPassword(password);};
+	} // end prepareCommit(User)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,64 @@
+/**
+ * Final Project: The Store - CSV Book Repository
+ * This class stores the books in the books file (or its binary snapshot), and rewrites the whole file whenever a batch of changes is
+ * written.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class CsvBookRepository implements BookRepository
+{
+	// Declare the list of books the store keeps, which is what is written to the file.
+	protected java.util.List<Book> books;
+
+	/**
+	 * This constructor stores the list of books that is written to the file.
+	 * 
+	 * @param books the list of books the store keeps
+	 */
+	public CsvBookRepository(java.util.List<Book> books)
+	{
+		// Store the list.
+		this.books = books;
+	} // end CsvBookRepository(List<Book>)
+
+	/**
+	 * Read every book in the books file into a list.
+	 * 
+	 * @param books the list to read into
+	 */
+	@Override
+	public void load(java.util.List<Book> books)
+	{
+		// Read the file.
+		DataFiles.readBookFile(books);
+	} // end load(List<Book>)
+
+	/**
+	 * Gather a batch of changes to the books.  The whole file is rewritten for any change.
+	 * 
+	 * @param changes the new version of each changed book by id (null for a book that has been removed)
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public Runnable prepareCommit(Map<Integer, Book> changes)
+	{
+		// Rewrite the file if anything has changed.
+		return changes.isEmpty() ? null : prepareSnapshot();
+	} // end prepareCommit(Map<Integer, Book>)
+
+	/**
+	 * Gather every book, so that the books file can be rewritten.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// Make the lines (or columns) of the file now, and write them later.
+		return DataFiles.prepareBookFile(books);
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,115 @@
+/**
+ * Final Project: The Store - CSV User Repository
+ * This class stores the users in the users file, reads every user into memory when the program starts, and rewrites the whole file
+ * whenever a batch of changes is written.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class CsvUserRepository implements UserRepository
+{
+	// Declare the store service (needed to find the books in a cart), and the list of users the store keeps, which is what is written.
+	protected StoreService service;
+	protected ArrayList<User> users;
+
+	/**
+	 * This constructor stores the list of users that is written to the file.
+	 * 
+	 * @param service the store service
+	 * @param users the list of users the store keeps
+	 */
+	public CsvUserRepository(StoreService service, ArrayList<User> users)
+	{
+		// Store the values.
+		this.service = service;
+		this.users = users;
+	} // end CsvUserRepository(StoreService, ArrayList<User>)
+
+	/**
+	 * Read every user in the users file into a list.
+	 * 
+	 * @param users the list to read into
+	 */
+	@Override
+	public void load(ArrayList<User> users)
+	{
+		// Read the file.
+		DataFiles.readUserFile(service, users);
+	} // end load(ArrayList<User>)
+
+	/**
+	 * Look up a user that was not read into the list.  Every user is read into the list, so there are none.
+	 * 
+	 * @param userName the user's username
+	 * @return null
+	 */
+	@Override
+	public User find(String userName)
+	{
+		// Every user is in the list.
+		return null;
+	} // end find(String)
+
+	/**
+	 * Check whether a user that was not read into the list is stored.  Every user is read into the list, so there are none.
+	 * 
+	 * @param userName the user's username
+	 * @return false
+	 */
+	@Override
+	public boolean contains(String userName)
+	{
+		// Every user is in the list.
+		return false;
+	} // end contains(String)
+
+	/**
+	 * Keep a user in memory while they are signed in.  Every user is kept in memory already, and there is only one User object for each.
+	 * 
+	 * @param user the signed in user
+	 * @return the user
+	 */
+	@Override
+	public User pin(User user)
+	{
+		// Use the user as they are.
+		return user;
+	} // end pin(User)
+
+	/**
+	 * End one sign-in of a user.  Every user is kept in memory already.
+	 * 
+	 * @param user the user
+	 */
+	@Override
+	public void unpin(User user) {}
+
+	/**
+	 * Gather a batch of changed users.  The whole file is rewritten for any change.
+	 * 
+	 * @param changes the users that have changed
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public Runnable prepareCommit(Collection<User> changes)
+	{
+		// Rewrite the file if anything has changed.
+		return changes.isEmpty() ? null : prepareSnapshot();
+	} // end prepareCommit(Collection<User>)
+
+	/**
+	 * Gather every user, so that the users file can be rewritten.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// Make every line now, and write them later.
+		ArrayList<String> lines = DataFiles.getUserLines(users);
+		return () -> {DataFiles.writeLines(Paths.DATA_USER_FILE, lines);};
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
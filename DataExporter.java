@@ -0,0 +1,806 @@
+/**
+ * Final Project: The Store - Data Exporter
+ * This class writes the books, the users (with their carts), and the sales of each user to CSV or JSON lines files, so the data can be
+ * used outside the store.  Each file is written through one buffer of a fixed size: the rows are encoded straight into the buffer, which
+ * is written out whenever it fills, so no String is made for a row no matter how many rows there are.  Each file is written beside its
+ * destination and renamed once complete, so a file that is half written is never seen.
+ * 
+ * The users are streamed from the users file (with the changes in its journal) or the slot file, instead of being read into memory.  The
+ * books and users are read as they were at one moment: if the books file or users file is replaced while it is being read, it is read
+ * again.  Passwords are never exported, and amounts of money are written in dollars and cents.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+public class DataExporter
+{
+	// Store the default size of the buffer each file is written through, and the number of times a read is tried again if a file is
+	// replaced while it is being read.
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	private static final int MAX_READ_ATTEMPTS = 5;
+
+	// Store the columns of each file.
+	private static final String BOOK_COLUMNS[] = {
+		"id", "title", "price", "quantity", "jitTrigger", "genre", "binding", "author", "year", "image"
+	};
+	private static final String USER_COLUMNS[] = {
+		"firstName", "lastName", "userName", "email", "sessionSales", "totalSales", "sessionItems", "totalItems", "cart"
+	};
+	private static final String SALE_COLUMNS[] = {"userName", "sessionItems", "sessionSales", "totalItems", "totalSales"};
+
+	// Make an interface so that lambdas may be used to follow the progress of an export.
+	@FunctionalInterface
+	public static interface ProgressListener
+	{
+		// The lambda will take the name of the file, the number of rows written to it, and the number of bytes written to it.  It is
+		// called each time the buffer is written out, and once the file is complete.
+		void handleProgress(String fileName, long rows, long bytes);
+	} // end interface
+
+	// Make an interface so that lambdas may be used to receive each user as the users are streamed.
+	@FunctionalInterface
+	private static interface UserHandler
+	{
+		// The lambda will take the fields of the user's CSV entry.
+		void handleUser(String fields[]) throws IOException;
+	} // end interface
+
+	// Declare the path to the file, the file being written, the buffer, whether the file is JSON lines, and the listener.
+	private String filePath;
+	private Path temporaryPath;
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private boolean json;
+	private ProgressListener progress;
+
+	// Declare the number of rows and bytes written, and whether the next field is the first in its row.
+	private long rows, bytes;
+	private boolean firstField;
+
+	/**
+	 * This constructor opens a file to export to.
+	 * 
+	 * @param filePath the path to the file
+	 * @param json whether to write JSON lines (otherwise CSV)
+	 * @param bufferSize the size of the buffer the file is written through
+	 * @param progress the listener told of the progress (may be null)
+	 * @throws IOException if the file could not be opened
+	 */
+	public DataExporter(String filePath, boolean json, int bufferSize, ProgressListener progress) throws IOException
+	{
+		// Store the values, and open the temporary file the rows are written to.
+		this.filePath = filePath;
+		this.json = json;
+		this.progress = progress;
+		temporaryPath = new File(filePath + ".tmp").toPath();
+		channel = FileChannel.open(
+			temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+		);
+		buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+		rows = bytes = 0;
+		firstField = true;
+	} // end DataExporter(String, boolean, int, ProgressListener)
+
+	/**
+	 * Write the header of a CSV file.  Nothing is written for JSON lines, as each row names its fields.
+	 * 
+	 * @param columns the names of the columns
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeHeader(String columns[]) throws IOException
+	{
+		if (json)
+			return;
+
+		// Write the names, separated by commas.
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (i > 0)
+				put((byte) ',');
+
+			putText(columns[i]);
+		} // end for
+
+		put((byte) '\n');
+	} // end writeHeader(String[])
+
+	/**
+	 * Start a row.
+	 * 
+	 * @throws IOException if the file could not be written
+	 */
+	private void startRow() throws IOException
+	{
+		// Open the object of a JSON line.
+		if (json)
+			put((byte) '{');
+
+		firstField = true;
+	} // end startRow()
+
+	/**
+	 * Start a field of the current row, writing the separator before it, and its name for JSON lines.
+	 * 
+	 * @param name the name of the field
+	 * @throws IOException if the file could not be written
+	 */
+	private void startField(String name) throws IOException
+	{
+		// Separate the field from the one before it.
+		if (!firstField)
+			put((byte) ',');
+
+		firstField = false;
+
+		// Name the field in a JSON line.
+		if (json)
+		{
+			putQuoted(name);
+			put((byte) ':');
+		} // end if
+	} // end startField(String)
+
+	/**
+	 * Write a text field.  In CSV, the text is quoted if it holds a comma, a quote, or a line break.
+	 * 
+	 * @param name the name of the field
+	 * @param value the text
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeField(String name, String value) throws IOException
+	{
+		startField(name);
+
+		if (json)
+		{
+			putQuoted(value);
+		} // end if
+		else if (needsCsvQuotes(value))
+		{
+			// Quote the text, doubling each quote inside it.
+			put((byte) '"');
+
+			for (int i = 0; i < value.length(); i++)
+			{
+				if (value.charAt(i) == '"')
+					put((byte) '"');
+
+				putChar(value, i);
+				i += Character.isHighSurrogate(value.charAt(i)) && i + 1 < value.length() ? 1 : 0;
+			} // end for
+
+			put((byte) '"');
+		} // end else if
+		else
+		{
+			putText(value);
+		} // end else
+	} // end writeField(String, String)
+
+	/**
+	 * Write a whole number field.
+	 * 
+	 * @param name the name of the field
+	 * @param value the number
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeField(String name, long value) throws IOException
+	{
+		startField(name);
+		putNumber(value);
+	} // end writeField(String, long)
+
+	/**
+	 * Write an amount of money, rounded to the cent.
+	 * 
+	 * @param name the name of the field
+	 * @param value the amount
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeMoneyField(String name, double value) throws IOException
+	{
+		long cents = Math.round(value * 100);
+
+		startField(name);
+
+		// Write the sign, the dollars, and the two digits of the cents.
+		if (cents < 0)
+		{
+			put((byte) '-');
+			cents = -cents;
+		} // end if
+
+		putNumber(cents / 100);
+		put((byte) '.');
+		put((byte) ('0' + cents % 100 / 10));
+		put((byte) ('0' + cents % 10));
+	} // end writeMoneyField(String, double)
+
+	/**
+	 * Write a cart field.  In JSON lines, the cart is an array of objects holding the id and quantity of each book.  In CSV, each book is
+	 * written as its id and quantity separated by a colon, and the books are separated by vertical bars.
+	 * 
+	 * @param name the name of the field
+	 * @param serializedCart the cart, as stored in the users file
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeCartField(String name, String serializedCart) throws IOException
+	{
+		boolean first[] = {true};
+
+		startField(name);
+
+		if (json)
+			put((byte) '[');
+
+		// Write each book of the cart as it is decoded.
+		try
+		{
+			CartCodec.decode(serializedCart, (id, quantity) -> {
+				try
+				{
+					if (!first[0])
+						put((byte) (json ? ',' : '|'));
+
+					first[0] = false;
+
+					if (json)
+					{
+						putText("{\"id\":");
+						putNumber(id);
+						putText(",\"quantity\":");
+						putNumber(quantity);
+						put((byte) '}');
+					} // end if
+					else
+					{
+						putNumber(id);
+						put((byte) ':');
+						putNumber(quantity);
+					} // end else
+				} // end try
+				catch (IOException exception)
+				{
+					throw new UncheckedIOException(exception);
+				} // end catch
+			});
+		} // end try
+		catch (UncheckedIOException exception)
+		{
+			throw exception.getCause();
+		} // end catch
+
+		if (json)
+			put((byte) ']');
+	} // end writeCartField(String, String)
+
+	/**
+	 * End the current row.
+	 * 
+	 * @throws IOException if the file could not be written
+	 */
+	private void endRow() throws IOException
+	{
+		// Close the object of a JSON line, and end the line.
+		if (json)
+			put((byte) '}');
+
+		put((byte) '\n');
+		rows++;
+	} // end endRow()
+
+	/**
+	 * Write a book as a row.
+	 * 
+	 * @param book the book
+	 * @throws IOException if the file could not be written
+	 */
+	public void writeBook(Book book) throws IOException
+	{
+		// Write each property of the book, using the getters, as a book kept in a BookStore stores its values in the store.
+		startRow();
+		writeField(BOOK_COLUMNS[0], book.getId());
+		writeField(BOOK_COLUMNS[1], book.getName());
+		writeMoneyField(BOOK_COLUMNS[2], book.getPrice());
+		writeField(BOOK_COLUMNS[3], book.getQuantity());
+		writeField(BOOK_COLUMNS[4], book.getJitTrigger());
+		writeField(BOOK_COLUMNS[5], book.getGenre());
+		writeField(BOOK_COLUMNS[6], book.getBinding());
+		writeField(BOOK_COLUMNS[7], book.getAuthor());
+		writeField(BOOK_COLUMNS[8], book.getPublicationYear());
+		writeField(BOOK_COLUMNS[9], book.getImageName());
+		endRow();
+	} // end writeBook(Book)
+
+	/**
+	 * Write a user as a row, from the fields of the user's CSV entry.  The password is left out.
+	 * 
+	 * @param fields the fields of the user's CSV entry
+	 * @throws IOException if the file could not be written
+	 * @throws NumberFormatException if an amount in the entry is not a valid number
+	 */
+	public void writeUser(String fields[]) throws IOException
+	{
+		// Write each field but the password, in the order of the entry.
+		startRow();
+		writeField(USER_COLUMNS[0], fields[0]);
+		writeField(USER_COLUMNS[1], fields[1]);
+		writeField(USER_COLUMNS[2], fields[2]);
+		writeField(USER_COLUMNS[3], fields[4]);
+		writeMoneyField(USER_COLUMNS[4], Double.parseDouble(fields[5]));
+		writeMoneyField(USER_COLUMNS[5], Double.parseDouble(fields[6]));
+		writeField(USER_COLUMNS[6], Integer.parseInt(fields[7]));
+		writeField(USER_COLUMNS[7], Integer.parseInt(fields[8]));
+		writeCartField(USER_COLUMNS[8], fields[9]);
+		endRow();
+	} // end writeUser(String[])
+
+	/**
+	 * Write the sales of a user as a row, from the fields of the user's CSV entry.
+	 * 
+	 * @param fields the fields of the user's CSV entry
+	 * @throws IOException if the file could not be written
+	 * @throws NumberFormatException if an amount in the entry is not a valid number
+	 */
+	public void writeSale(String fields[]) throws IOException
+	{
+		// Write the username, and the number of items bought and amount spent this session and in total.
+		startRow();
+		writeField(SALE_COLUMNS[0], fields[2]);
+		writeField(SALE_COLUMNS[1], Integer.parseInt(fields[7]));
+		writeMoneyField(SALE_COLUMNS[2], Double.parseDouble(fields[5]));
+		writeField(SALE_COLUMNS[3], Integer.parseInt(fields[8]));
+		writeMoneyField(SALE_COLUMNS[4], Double.parseDouble(fields[6]));
+		endRow();
+	} // end writeSale(String[])
+
+	/**
+	 * Check whether a value must be quoted in a CSV file.
+	 * 
+	 * @param value the value
+	 * @return whether the value holds a comma, a quote, or a line break
+	 */
+	private static boolean needsCsvQuotes(String value)
+	{
+		// Look for each character that needs quotes.
+		for (int i = 0; i < value.length(); i++)
+		{
+			char character = value.charAt(i);
+
+			if (character == ',' || character == '"' || character == '\n' || character == '\r')
+				return true;
+		} // end for
+
+		return false;
+	} // end needsCsvQuotes(String)
+
+	/**
+	 * Write text as a JSON string, escaping the characters that must be escaped.
+	 * 
+	 * @param value the text
+	 * @throws IOException if the file could not be written
+	 */
+	private void putQuoted(String value) throws IOException
+	{
+		put((byte) '"');
+
+		for (int i = 0; i < value.length(); i++)
+		{
+			char character = value.charAt(i);
+
+			// Escape quotes, backslashes, and control characters.  Every other character is written as it is.
+			if (character == '"' || character == '\\')
+			{
+				put((byte) '\\');
+				put((byte) character);
+			} // end if
+			else if (character < 0x20)
+			{
+				putText("\\u00");
+				put((byte) Character.forDigit(character >> 4, 16));
+				put((byte) Character.forDigit(character & 0xF, 16));
+			} // end else if
+			else
+			{
+				putChar(value, i);
+				i += Character.isHighSurrogate(character) && i + 1 < value.length() ? 1 : 0;
+			} // end else
+		} // end for
+
+		put((byte) '"');
+	} // end putQuoted(String)
+
+	/**
+	 * Write text as it is.
+	 * 
+	 * @param value the text
+	 * @throws IOException if the file could not be written
+	 */
+	private void putText(String value) throws IOException
+	{
+		// Write each character.
+		for (int i = 0; i < value.length(); i++)
+		{
+			putChar(value, i);
+			i += Character.isHighSurrogate(value.charAt(i)) && i + 1 < value.length() ? 1 : 0;
+		} // end for
+	} // end putText(String)
+
+	/**
+	 * Write a character of some text in UTF-8.  A character made of two chars is written whole (the caller skips the second char).
+	 * 
+	 * @param value the text
+	 * @param index the index of the character
+	 * @throws IOException if the file could not be written
+	 */
+	private void putChar(String value, int index) throws IOException
+	{
+		int codePoint = value.codePointAt(index);
+
+		// Write the character in as many bytes as it needs.
+		if (codePoint < 0x80)
+		{
+			put((byte) codePoint);
+		} // end if
+		else if (codePoint < 0x800)
+		{
+			put((byte) (0xC0 | codePoint >> 6));
+			put((byte) (0x80 | codePoint & 0x3F));
+		} // end else if
+		else if (codePoint < 0x10000)
+		{
+			put((byte) (0xE0 | codePoint >> 12));
+			put((byte) (0x80 | codePoint >> 6 & 0x3F));
+			put((byte) (0x80 | codePoint & 0x3F));
+		} // end else if
+		else
+		{
+			put((byte) (0xF0 | codePoint >> 18));
+			put((byte) (0x80 | codePoint >> 12 & 0x3F));
+			put((byte) (0x80 | codePoint >> 6 & 0x3F));
+			put((byte) (0x80 | codePoint & 0x3F));
+		} // end else
+	} // end putChar(String, int)
+
+	/**
+	 * Write a whole number in decimal, without making a String.
+	 * 
+	 * @param value the number
+	 * @throws IOException if the file could not be written
+	 */
+	private void putNumber(long value) throws IOException
+	{
+		// Write the smallest number digit by digit, as it has no positive counterpart.
+		if (value == Long.MIN_VALUE)
+		{
+			putText(Long.toString(value));
+			return;
+		} // end if
+
+		if (value < 0)
+		{
+			put((byte) '-');
+			value = -value;
+		} // end if
+
+		// Find the largest power of ten in the number, then write each digit from the left.
+		long power = 1;
+
+		while (value / power >= 10)
+			power *= 10;
+
+		for (; power > 0; power /= 10)
+			put((byte) ('0' + value / power % 10));
+	} // end putNumber(long)
+
+	/**
+	 * Write a byte to the buffer, writing the buffer out first if it is full.
+	 * 
+	 * @param value the byte
+	 * @throws IOException if the file could not be written
+	 */
+	private void put(byte value) throws IOException
+	{
+		if (!buffer.hasRemaining())
+			drain();
+
+		buffer.put(value);
+	} // end put(byte)
+
+	/**
+	 * Write the buffer out to the file, and tell the listener how far the file has got.
+	 * 
+	 * @throws IOException if the file could not be written
+	 */
+	private void drain() throws IOException
+	{
+		// Write everything in the buffer, and empty it.
+		buffer.flip();
+		bytes += buffer.remaining();
+
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+
+		buffer.clear();
+
+		if (progress != null)
+			progress.handleProgress(new File(filePath).getName(), rows, bytes);
+	} // end drain()
+
+	/**
+	 * Finish the file: write out the rest of the buffer, push the file to disk, and move it into place.
+	 * 
+	 * @throws IOException if the file could not be written
+	 */
+	public void close() throws IOException
+	{
+		// Write the rest of the buffer, and close the file.
+		drain();
+		SnapshotWriter.sync(channel);
+		channel.close();
+
+		// Move the complete file into place.
+		Files.move(temporaryPath, new File(filePath).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	} // end close()
+
+	/**
+	 * Get the number of rows written.
+	 * 
+	 * @return the number of rows
+	 */
+	public long getRowCount()
+	{
+		// Return the number of rows.
+		return rows;
+	} // end getRowCount()
+
+	/**
+	 * Get the number of bytes written to the file.  This only counts what has been written out of the buffer.
+	 * 
+	 * @return the number of bytes
+	 */
+	public long getByteCount()
+	{
+		// Return the number of bytes.
+		return bytes;
+	} // end getByteCount()
+
+	/**
+	 * Export the books, users, and sales to a folder, as books, users, and sales files ending in ".csv" or ".jsonl".  Only the users who
+	 * have bought something are in the sales file.
+	 * 
+	 * @param folderPath the path to the folder
+	 * @param json whether to write JSON lines (otherwise CSV)
+	 * @param bufferSize the size of the buffer each file is written through
+	 * @param progress the listener told of the progress (may be null)
+	 * @return the number of bytes written in all
+	 * @throws IOException if a file could not be read or written
+	 */
+	public static long exportStore(String folderPath, boolean json, int bufferSize, ProgressListener progress) throws IOException
+	{
+		String extension = json ? ".jsonl" : ".csv";
+		new File(folderPath).mkdirs();
+
+		// Write the books as they were at one moment.
+		DataExporter bookExporter = new DataExporter(new File(folderPath, "books" + extension).getPath(), json, bufferSize, progress);
+		bookExporter.writeHeader(BOOK_COLUMNS);
+
+		for (Book book : readBooks())
+			bookExporter.writeBook(book);
+
+		bookExporter.close();
+
+		// Write the users and their sales together, in one pass over the users.
+		DataExporter userExporter = new DataExporter(new File(folderPath, "users" + extension).getPath(), json, bufferSize, progress);
+		DataExporter saleExporter = new DataExporter(new File(folderPath, "sales" + extension).getPath(), json, bufferSize, progress);
+		userExporter.writeHeader(USER_COLUMNS);
+		saleExporter.writeHeader(SALE_COLUMNS);
+
+		streamUsers((fields) -> {
+			int totalItems;
+
+			// Skip a user whose entry fails to parse, as the store does when reading it.
+			try
+			{
+				Double.parseDouble(fields[5]);
+				Double.parseDouble(fields[6]);
+				Integer.parseInt(fields[7]);
+				totalItems = Integer.parseInt(fields[8]);
+
+				if (fields.length < 10)
+					return;
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception)
+			{
+				return;
+			} // end catch
+
+			userExporter.writeUser(fields);
+
+			if (totalItems > 0)
+				saleExporter.writeSale(fields);
+		});
+
+		userExporter.close();
+		saleExporter.close();
+
+		return bookExporter.getByteCount() + userExporter.getByteCount() + saleExporter.getByteCount();
+	} // end exportStore(String, boolean, int, ProgressListener)
+
+	/**
+	 * Read the books through the repository the store uses.  If the books file is replaced while it is being read (by a store that is
+	 * running), the books are read again, so the journal is never applied to the wrong file.
+	 * 
+	 * @return the books
+	 * @throws IOException if the books kept changing while they were read
+	 */
+	private static java.util.List<Book> readBooks() throws IOException
+	{
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++)
+		{
+			Object stamp = getFileStamp(Paths.DATA_PRODUCT_FILE, Paths.DATA_PRODUCT_BINARY_FILE);
+			ArrayList<Book> books = new ArrayList<Book>();
+
+			// Read the books, and keep them if the file was not replaced meanwhile.
+			StoreService.createBookRepository(StoreService.getRepositoryType(), books, books).load(books);
+
+			if (stamp.equals(getFileStamp(Paths.DATA_PRODUCT_FILE, Paths.DATA_PRODUCT_BINARY_FILE)))
+				return books;
+		} // end for
+
+		throw new IOException("The books kept changing while they were read.");
+	} // end readBooks()
+
+	/**
+	 * Pass each user to a handler without reading every user into memory.  The users are read from the slot file if the store uses one,
+	 * and otherwise from the users file, with the changes in the journal applied if the store keeps one.  The journal is read before the
+	 * file is opened, and both are read again if the file was replaced in between, so the users are seen as they were at one moment.
+	 * 
+	 * @param handler the handler to pass each user to
+	 * @throws IOException if the users could not be read, or kept changing while they were read
+	 */
+	private static void streamUsers(UserHandler handler) throws IOException
+	{
+		// Read the slot file if it is used.  It is changed in place, one user at a time, so it is read as it stands.  It is only read, one
+		// chunk of slots at a time, so a running store's file is left alone and the users are never all in memory.
+		if (System.getProperty("muftibooks.userStore", "csv").equalsIgnoreCase("slots") && UserSlotFile.exists(Paths.DATA_USER_SLOT_FILE))
+		{
+			try
+			{
+				UserSlotFile.scan(Paths.DATA_USER_SLOT_FILE, (line, fields) -> {
+					try
+					{
+						handler.handleUser(fields);
+					} // end try
+					catch (IOException exception)
+					{
+						throw new UncheckedIOException(exception);
+					} // end catch
+				});
+			} // end try
+			catch (UncheckedIOException exception)
+			{
+				throw exception.getCause();
+			} // end catch
+
+			return;
+		} // end if
+
+		boolean journaled = StoreService.getRepositoryType().equalsIgnoreCase("journal");
+
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++)
+		{
+			Object stamp = getFileStamp(Paths.DATA_USER_FILE);
+			LinkedHashMap<String, String[]> changes = new LinkedHashMap<String, String[]>();
+
+			// Read the latest version of each user in the journal (null for a user that has been removed).
+			if (journaled)
+			{
+				new Journal(Paths.DATA_USER_JOURNAL_FILE, Integer.MAX_VALUE, () -> {}).replay((type, data) -> {
+					if (type.equals(Journal.PUT))
+					{
+						String fields[] = LazyUserRepository.splitLine(data);
+
+						if (fields.length > 2)
+							changes.put(fields[2], fields);
+					} // end if
+					else if (type.equals(Journal.DELETE))
+					{
+						changes.put(data.trim(), null);
+					} // end else if
+				});
+			} // end if
+
+			// Open the file, and read it if it is the one the journal belongs to.  Once the file is open, it is read as it was even if it
+			// is replaced.
+			File userFile = SnapshotWriter.chooseReadable(Paths.DATA_USER_FILE);
+
+			if (!userFile.exists())
+			{
+				if (stamp.equals(getFileStamp(Paths.DATA_USER_FILE)))
+				{
+					for (String fields[] : changes.values())
+						if (fields != null)
+							handler.handleUser(fields);
+
+					return;
+				} // end if
+
+				continue;
+			} // end if
+
+			MappedCsvReader userReader = new MappedCsvReader(userFile);
+
+			try
+			{
+				if (!stamp.equals(getFileStamp(Paths.DATA_USER_FILE)))
+					continue;
+
+				String fields[] = new String[10];
+
+				// Pass on each user in the file, replaced by its latest version from the journal.  Removed users are skipped.
+				while (userReader.nextLine())
+				{
+					if (userReader.getFieldCount() < fields.length)
+						continue;
+
+					for (int i = 0; i < fields.length; i++)
+						fields[i] = userReader.getString(i);
+
+					if (!changes.containsKey(fields[2]))
+						handler.handleUser(fields);
+					else if (changes.get(fields[2]) != null)
+						handler.handleUser(changes.put(fields[2], null));
+				} // end while
+			} // end try
+			finally
+			{
+				userReader.close();
+			} // end finally
+
+			// Pass on the users added since the file was written.
+			for (String changed[] : changes.values())
+				if (changed != null)
+					handler.handleUser(changed);
+
+			return;
+		} // end for
+
+		throw new IOException("The users kept changing while they were read.");
+	} // end streamUsers(UserHandler)
+
+	/**
+	 * Get a value that changes whenever any of a group of files is replaced or changed.
+	 * 
+	 * @param filePaths the paths to the files
+	 * @return the identity, modification time, and size of each file (or null for a file that does not exist)
+	 */
+	private static Object getFileStamp(String... filePaths)
+	{
+		ArrayList<Object> stamp = new ArrayList<Object>();
+
+		// Add the attributes of each file.
+		for (String filePath : filePaths)
+		{
+			try
+			{
+				BasicFileAttributes attributes = Files.readAttributes(new File(filePath).toPath(), BasicFileAttributes.class);
+				stamp.add(Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size()));
+			} // end try
+			catch (IOException exception)
+			{
+				stamp.add(null);
+			} // end catch
+		} // end for
+
+		return stamp;
+	} // end getFileStamp(String...)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,460 @@
+/**
+ * Final Project: The Store - Data Files
+ * This class reads and writes the data files of the store: the books, the users, and the admin's password, along with their journals.
+ * It uses no images or fonts, so the files can be read without a screen (see StoreService).
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class DataFiles
+{
+	// Store whether the books are stored in the binary snapshot (the default) rather than the CSV file.  This can be changed by setting
+	// the muftibooks.bookFormat property to "csv".
+	private static final boolean USE_BOOK_SNAPSHOT = !System.getProperty("muftibooks.bookFormat", "binary").equalsIgnoreCase("csv");
+
+	// Initialize the dictionary that keeps a single copy of each genre, binding, and author of the books.
+	private static StringDictionary bookStrings = new StringDictionary();
+
+	/**
+	 * Get the dictionary that keeps a single copy of each genre, binding, and author of the books.  Every book that is read or made from a
+	 * form passes these strings through the dictionary.
+	 * 
+	 * @return the dictionary
+	 */
+	public static StringDictionary getBookStrings()
+	{
+		// Return the dictionary.
+		return bookStrings;
+	} // end getBookStrings()
+
+	/**
+	 * Apply the records in the book journal to the books read from the snapshot.
+	 * 
+	 * @param bookJournal the journal of changes to the books
+	 * @param books the list of books read from the snapshot
+	 */
+	public static void replayBookJournal(Journal bookJournal, java.util.List<Book> books)
+	{
+		// Initialize an ordered map of the books by id, so that replacing a book keeps its position in the list.
+		LinkedHashMap<Integer, Book> booksById = new LinkedHashMap<Integer, Book>();
+
+		// Add all the books read from the snapshot.
+		for (Book book : books)
+			booksById.put(book.getId(), book);
+
+		// Apply each of the records in the order they were appended.
+		bookJournal.replay((type, data) -> {
+			// Try applying the record.  Skip the record if it fails to parse.
+			try
+			{
+				// Store the latest version of the book, or remove the book, based on the type of the record.
+				if (type.equals(Journal.PUT))
+				{
+					Book book = new Book(LazyUserRepository.splitLine(data));
+					booksById.put(book.getId(), book);
+				} // end if
+				else if (type.equals(Journal.DELETE))
+				{
+					booksById.remove(Integer.parseInt(data.trim()));
+				} // end else if
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+		});
+
+		// Replace the books with the result of the replay.
+		books.clear();
+		books.addAll(booksById.values());
+	} // end replayBookJournal(Journal, List<Book>)
+
+	/**
+	 * Apply the records in the user journal to the users read from the snapshot.
+	 * 
+	 * @param service the store service
+	 * @param userJournal the journal of changes to the users
+	 * @param users the list of users read from the snapshot
+	 */
+	public static void replayUserJournal(StoreService service, Journal userJournal, ArrayList<User> users)
+	{
+		// Initialize an ordered map of the users by username, so that replacing a user keeps their position in the list.
+		LinkedHashMap<String, User> usersByName = new LinkedHashMap<String, User>();
+
+		// Add all the users read from the snapshot.
+		for (User user : users)
+			usersByName.put(user.getUserName(), user);
+
+		// Apply each of the records in the order they were appended.
+		userJournal.replay((type, data) -> {
+			// Try applying the record.  Skip the record if it fails to parse.
+			try
+			{
+				// Store the latest version of the user, or remove the user, based on the type of the record.
+				if (type.equals(Journal.PUT))
+				{
+					User user = new User(service, LazyUserRepository.splitLine(data));
+					usersByName.put(user.getUserName(), user);
+				} // end if
+				else if (type.equals(Journal.DELETE))
+				{
+					usersByName.remove(data.trim());
+				} // end else if
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+		});
+
+		// Replace the users with the result of the replay.
+		users.clear();
+		users.addAll(usersByName.values());
+	} // end replayUserJournal(StoreService, Journal, ArrayList<User>)
+
+	/**
+	 * Read the user file to get information about the users.
+	 * 
+	 * @param service the store service
+	 * @param users the list of users to read into
+	 */
+	public static void readUserFile(StoreService service, ArrayList<User> users)
+	{
+		// Use the backup of the file if the file's checksum does not match.  The header line is skipped as a comment.
+		File userFile = SnapshotWriter.chooseReadable(Paths.DATA_USER_FILE);
+
+		try
+		{
+			// Try reading the file.
+			readUserCsv(service, userFile, users);
+		} // end try
+		catch (FileNotFoundException exception)
+		{
+			// Try creating the file.
+			try
+			{
+				userFile.createNewFile();
+			} // end try
+			catch (IOException e) {}
+		} // end catch
+		catch (IOException exception) {}
+	} // end readUserFile(StoreService, ArrayList<User>)
+
+	/**
+	 * Read users from a CSV file in the format of the user file.
+	 * 
+	 * @param service the store service
+	 * @param userFile the file
+	 * @param users the list of users to read into
+	 * @throws IOException if the file could not be read
+	 */
+	public static void readUserCsv(StoreService service, File userFile, ArrayList<User> users) throws IOException
+	{
+		// Map the file into memory.
+		MappedCsvReader userReader = new MappedCsvReader(userFile);
+
+		// Iterate until the last line of the file has been reached.
+		while (userReader.nextLine())
+		{
+			// Try adding a user based on the fields of the line.  Skip the current line if the input fails to parse.
+			try
+			{
+				users.add(new User(
+					service, userReader.getString(0), userReader.getString(1), userReader.getString(2), userReader.getString(3),
+					userReader.getString(4), userReader.getDouble(5), userReader.getDouble(6), userReader.getInt(7),
+					userReader.getInt(8), userReader.getString(9)
+				));
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+		} // end while
+
+		// Close the file.
+		userReader.close();
+	} // end readUserCsv(StoreService, File, ArrayList<User>)
+
+	/**
+	 * Read the file containing information about the books.
+	 * 
+	 * @param books the list to read into
+	 */
+	public static void readBookFile(java.util.List<Book> books)
+	{
+		File snapshotFile = new File(Paths.DATA_PRODUCT_BINARY_FILE);
+
+		// Read the binary snapshot whenever it exists and is used, as it is the only books file that is written in that case.  The CSV file
+		// is only read until the first snapshot is written, and is changed only by converting the snapshot (see --books-to-csv).  If the
+		// snapshot cannot be read, fall back to the CSV file, which may be out of date.
+		if (USE_BOOK_SNAPSHOT && snapshotFile.exists())
+		{
+			try
+			{
+				readBookSnapshot(books);
+				return;
+			} // end try
+			catch (IOException|RuntimeException exception)
+			{
+				System.err.println("Failed to read " + Paths.DATA_PRODUCT_BINARY_FILE + "; reading " + Paths.DATA_PRODUCT_FILE + " instead.");
+				books.clear();
+			} // end catch
+		} // end if
+
+		// Use the backup of the file if the file's checksum does not match.  The header line is skipped as a comment.
+		File bookFile = SnapshotWriter.chooseReadable(Paths.DATA_PRODUCT_FILE);
+
+		try
+		{
+			// Try reading the file.
+			readBookCsv(bookFile, books);
+		} // end try
+		catch (FileNotFoundException exception)
+		{
+			// Try creating the file.
+			try
+			{
+				bookFile.createNewFile();
+			} // end try
+			catch (IOException e) {}
+		} // end catch
+		catch (IOException exception) {}
+	} // end readBookFile(List<Book>)
+
+	/**
+	 * Read books from a CSV file in the format of the books file.
+	 * 
+	 * @param bookFile the file
+	 * @param books the list to read into
+	 * @throws IOException if the file could not be read
+	 */
+	public static void readBookCsv(File bookFile, java.util.List<Book> books) throws IOException
+	{
+		// Map the file into memory.
+		MappedCsvReader bookReader = new MappedCsvReader(bookFile);
+
+		// Iterate until no lines are left.
+		while (bookReader.nextLine())
+		{
+			// Try adding a book based on the fields of the line.  Skip the current line if the input fails to parse.  The genre, binding,
+			// and author are shared with other books through the dictionary.
+			try
+			{
+				books.add(new Book(
+					bookReader.getInt(0), bookReader.getString(1), bookReader.getDouble(2), bookReader.getInt(3),
+					bookReader.getInt(4), bookStrings.intern(bookReader.getString(5)), bookStrings.intern(bookReader.getString(6)),
+					bookStrings.intern(bookReader.getString(7)), bookReader.getInt(8), bookReader.getString(9)
+				));
+			} // end try
+			catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+		} // end while
+
+		// Close the file.
+		bookReader.close();
+	} // end readBookFile(List<Book>)
+
+	/**
+	 * Read the books from the binary snapshot.
+	 * 
+	 * @param books the list to read into
+	 * @throws IOException if the snapshot could not be read
+	 */
+	public static void readBookSnapshot(java.util.List<Book> books) throws IOException
+	{
+		// Map the snapshot, using the backup if the snapshot's checksum does not match.
+		BookSnapshot snapshot = BookSnapshot.open(SnapshotWriter.chooseReadable(Paths.DATA_PRODUCT_BINARY_FILE));
+
+		// Copy the rows straight into the columns if the books are stored in columns.  Otherwise, make a book from each row.
+		if (books instanceof BookStore)
+		{
+			((BookStore) books).addAll(snapshot);
+			return;
+		} // end if
+
+		for (int row = 0; row < snapshot.getRowCount(); row++)
+			books.add(snapshot.getBook(row));
+	} // end readBookSnapshot(List<Book>)
+
+	/**
+	 * Read the file with the information on the admin.
+	 * 
+	 * @param admin the User object to store th password
+	 */
+	public static void readAdminFile(User admin)
+	{
+		File adminFile = SnapshotWriter.chooseReadable(Paths.DATA_ADMIN_FILE);
+		BufferedReader adminStream;
+		String currentLine;
+
+		try
+		{
+			// Try opening the stream, and reading a line.  Skip the header line if the file has one.
+			adminStream = new BufferedReader(new FileReader(adminFile));
+			currentLine = adminStream.readLine();
+
+			if (currentLine != null && currentLine.startsWith(SnapshotWriter.HEADER_PREFIX))
+				currentLine = adminStream.readLine();
+
+			// Store the password, and close the stream.
+			admin.setPassword(currentLine.trim());
+			adminStream.close();
+		} // end try
+		catch (FileNotFoundException exception)
+		{
+			try
+			{
+				adminFile.createNewFile();
+			} // end try
+			catch (IOException e) {}
+		} // end catch
+		catch (IOException exception) {}
+	} // end readAdminFile(User)
+
+	/**
+	 * Write all the stored changes back to their files.
+	 * 
+	 * @param users
+	 * @param books
+	 * @param admin
+	 */
+	public static void writeFiles(ArrayList<User> users, java.util.List<Book> books, User admin)
+	{
+		// Write the information.
+		writeUserFile(users);
+		writeBookFile(books);
+		writeAdminFile(admin);
+	} // end writeFiles(ArrayList<User>)
+
+	/**
+	 * Write the user information to its file.
+	 * 
+	 * @param users the users list.
+	 */
+	public static void writeUserFile(ArrayList<User> users)
+	{
+		// Write the user's csv value of each user to the file.
+		writeLines(Paths.DATA_USER_FILE, getUserLines(users));
+	} // end writeUserFile(ArrayList<User>)
+
+	/**
+	 * Get the lines of the user file.
+	 * 
+	 * @param users the users list
+	 * @return the csv value of each user
+	 */
+	public static ArrayList<String> getUserLines(ArrayList<User> users)
+	{
+		ArrayList<String> lines = new ArrayList<String>(users.size());
+		StringBuilder line = new StringBuilder(128);
+
+		// Add the csv value of each user, building every line in the same builder.
+		for (User user : users)
+		{
+			lines.add(user.appendCSV(line).toString());
+			line.setLength(0);
+		} // end for
+
+		return lines;
+	} // end getUserLines(ArrayList<User>)
+
+	/**
+	 * Write the book information to its file.
+	 * 
+	 * @param books the books list
+	 */
+	public static void writeBookFile(java.util.List<Book> books)
+	{
+		// Gather the books, and write them.
+		prepareBookFile(books).run();
+	} // end writeBookFile(List<Book>)
+
+	/**
+	 * Gather the books into the form they are written in (the binary snapshot, or the CSV lines if the CSV format is used), so that they
+	 * can be written later (for example, on another thread) even if the books change in the meantime.
+	 * 
+	 * @param books the books list
+	 * @return the action that writes the gathered books
+	 */
+	public static Runnable prepareBookFile(java.util.List<Book> books)
+	{
+		if (USE_BOOK_SNAPSHOT)
+		{
+			// Encode the snapshot now, and write it later.
+			byte snapshot[] = BookSnapshot.encode(books);
+
+			return () -> {
+				try
+				{
+					SnapshotWriter.write(Paths.DATA_PRODUCT_BINARY_FILE, snapshot);
+				} // end try
+				catch (IOException exception)
+				{
+					// Report the failure.  The old file is left as it was.
+					System.err.println("Failed to write " + Paths.DATA_PRODUCT_BINARY_FILE + ": " + exception.getMessage());
+				} // end catch
+			};
+		} // end if
+
+		// Otherwise, make the CSV lines now, and write them later.
+		ArrayList<String> lines = getBookLines(books);
+		return () -> {writeLines(Paths.DATA_PRODUCT_FILE, lines);};
+	} // end prepareBookFile(List<Book>)
+
+	/**
+	 * Get the lines of the book file.
+	 * 
+	 * @param books the books list
+	 * @return the csv value of each book
+	 */
+	public static ArrayList<String> getBookLines(java.util.List<Book> books)
+	{
+		ArrayList<String> lines = new ArrayList<String>(books.size());
+
+		// Add the csv value of each book.
+		for (Book book : books)
+			lines.add(book.toCSV());
+
+		return lines;
+	} // end getBookLines(List<Book>)
+
+	/**
+	 * Write lines to a file, replacing what was in it.  The file is replaced in a single step once the lines are safely written, so a
+	 * crash leaves either the old file or the new file.
+	 * 
+	 * @param filePath the path to the file
+	 * @param lines the lines to write
+	 * @return whether the file was written
+	 */
+	public static boolean writeLines(String filePath, java.util.List<String> lines)
+	{
+		try
+		{
+			// Try writing the snapshot.
+			SnapshotWriter.write(filePath, lines);
+			return true;
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.  The old file is left as it was.
+			System.err.println("Failed to write " + filePath + ": " + exception.getMessage());
+			return false;
+		} // end catch
+	} // end writeLines(String, List<String>)
+
+	/**
+	 * Write the admin password to the admin file.
+	 * 
+	 * @param admin the User object representing the admin
+	 */
+	public static void writeAdminFile(User admin)
+	{
+		// Write the admin's password.
+		writeAdminPassword(admin.getPassword());
+	} // end writeAdminFile(User)
+
+	/**
+	 * Write the admin password to the admin file.
+	 * 
+	 * @param password the admin's password
+	 */
+	public static void writeAdminPassword(String password)
+	{
+		// Write the password as the only line of the file.
+		writeLines(Paths.DATA_ADMIN_FILE, Collections.singletonList(password));
+	} // end writeAdminPassword(String)
+} // end public class
\ No newline at end of file
@@ -7,6 +7,8 @@
  * @date 11 November 2020
  */
 
+import javax.swing.JOptionPane;
+
 public class FormData
 {
 	// Make an interface so that lambdas may be used when trying to submit.
@@ -137,12 +139,14 @@ public class FormData
 		for (int i = 0; i < inputs.length; i++)
 		{
 			// Store the fixed input by passing through the validator.
-			fixedInput = fields[i].validate(gui, inputs[i]);
+			fixedInput = fields[i].check(gui.getService(), inputs[i]);
 
 			// Check whether the input was valid.
 			if (fixedInput == null)
 			{
-				// If the input was valid, stop checking the inputs and store that not all inputs are valid.
+				// If the input was invalid, show the user, using the appropriate error message.  Stop checking the inputs and store that
+				// not all inputs are valid.
+				JOptionPane.showMessageDialog(null, fields[i].getError(), "Invalid Input", JOptionPane.ERROR_MESSAGE);
 				allInputsValid = false;
 				break;
 			} // end if
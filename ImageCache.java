@@ -0,0 +1,289 @@
+/**
+ * Final Project: The Store - Image Cache
+ * This class stores decoded and scaled images up to a limit on the number of bytes they use.  When the limit is passed, the images that
+ * were used least recently are moved to an overflow tier that only holds soft references, so the garbage collector may free them if memory
+ * runs low.  An image in the overflow tier that is used again is moved back into the main tier.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import javax.swing.ImageIcon;
+
+public class ImageCache
+{
+	// This class is a soft reference that remembers the key it is stored under, so it can be removed once its image has been freed.
+	private static class SoftEntry extends SoftReference<ImageIcon>
+	{
+		private final String key;
+
+		SoftEntry(String key, ImageIcon image, ReferenceQueue<ImageIcon> queue)
+		{
+			super(image, queue);
+			this.key = key;
+		} // end SoftEntry(String, ImageIcon, ReferenceQueue<ImageIcon>)
+	} // end class SoftEntry
+
+	// Declare the main tier (kept in order of use, least recent first), the number of bytes each of its images uses, and the overflow tier.
+	private LinkedHashMap<String, ImageIcon> images;
+	private HashMap<String, Long> imageBytes;
+	private HashMap<String, SoftEntry> overflow;
+	private ReferenceQueue<ImageIcon> freedImages;
+
+	// Declare the byte limit of the main tier, the bytes it currently uses, and the counts for the metrics.
+	private long byteBudget, currentBytes;
+	private long hits, misses, evictions;
+
+	/**
+	 * This constructor initializes an empty cache.
+	 * 
+	 * @param byteBudget the most bytes the main tier may use
+	 */
+	public ImageCache(long byteBudget)
+	{
+		// Initialize the tiers, and store the budget.
+		images = new LinkedHashMap<String, ImageIcon>(16, 0.75f, true);
+		imageBytes = new HashMap<String, Long>();
+		overflow = new HashMap<String, SoftEntry>();
+		freedImages = new ReferenceQueue<ImageIcon>();
+		this.byteBudget = byteBudget;
+		currentBytes = hits = misses = evictions = 0;
+	} // end ImageCache(long)
+
+	/**
+	 * Get an image from the cache.
+	 * 
+	 * @param key the key the image is stored under
+	 * @return the image, or null if it is not in the cache
+	 */
+	public synchronized ImageIcon get(String key)
+	{
+		ImageIcon image = images.get(key);
+
+		// Return the image if it is in the main tier.
+		if (image != null)
+		{
+			hits++;
+			return image;
+		} // end if
+
+		// Otherwise, check the overflow tier, moving the image back into the main tier if it has not been freed.
+		removeFreedImages();
+		SoftEntry entry = overflow.remove(key);
+		image = entry == null ? null : entry.get();
+
+		if (image == null)
+		{
+			misses++;
+			return null;
+		} // end if
+
+		hits++;
+		store(key, image);
+		return image;
+	} // end get(String)
+
+	/**
+	 * Add an image to the cache, replacing any image with the same key.
+	 * 
+	 * @param key the key to store the image under
+	 * @param image the image to store
+	 */
+	public synchronized void put(String key, ImageIcon image)
+	{
+		// Remove any older version of the image from both tiers, then store it.
+		remove(key);
+		store(key, image);
+	} // end put(String, ImageIcon)
+
+	/**
+	 * Store an image in the main tier, and move the least recently used images to the overflow tier until it is within its budget.
+	 * 
+	 * @param key the key to store the image under
+	 * @param image the image to store
+	 */
+	private void store(String key, ImageIcon image)
+	{
+		long bytes = sizeOf(image.getImage());
+
+		images.put(key, image);
+		imageBytes.put(key, bytes);
+		currentBytes += bytes;
+
+		// Evict the oldest images, but always keep the image that was just stored.
+		Iterator<Map.Entry<String, ImageIcon>> oldest = images.entrySet().iterator();
+
+		while (currentBytes > byteBudget && images.size() > 1)
+		{
+			Map.Entry<String, ImageIcon> entry = oldest.next();
+
+			currentBytes -= imageBytes.remove(entry.getKey());
+			overflow.put(entry.getKey(), new SoftEntry(entry.getKey(), entry.getValue(), freedImages));
+			oldest.remove();
+			evictions++;
+		} // end while
+	} // end store(String, ImageIcon)
+
+	/**
+	 * Remove an image from the cache.
+	 * 
+	 * @param key the key the image is stored under
+	 */
+	public synchronized void remove(String key)
+	{
+		// Remove the image from the main tier, giving back its bytes, and from the overflow tier.
+		if (images.remove(key) != null)
+			currentBytes -= imageBytes.remove(key);
+
+		overflow.remove(key);
+	} // end remove(String)
+
+	/**
+	 * Remove every image from the cache.
+	 */
+	public synchronized void clear()
+	{
+		// Clear both tiers.
+		images.clear();
+		imageBytes.clear();
+		overflow.clear();
+		currentBytes = 0;
+	} // end clear()
+
+	/**
+	 * Drop the overflow entries whose images have been freed by the garbage collector.
+	 */
+	private void removeFreedImages()
+	{
+		SoftEntry entry;
+
+		// Remove each freed entry, unless its key has since been given a new entry.
+		while ((entry = (SoftEntry) freedImages.poll()) != null)
+			overflow.remove(entry.key, entry);
+	} // end removeFreedImages()
+
+	/**
+	 * Estimate the number of bytes an image uses.
+	 * 
+	 * @param image the image to measure
+	 * @return the number of bytes the image's pixels use
+	 */
+	private static long sizeOf(Image image)
+	{
+		// Use the size of the pixel data if the image has it, or assume 4 bytes per pixel otherwise.
+		if (image instanceof BufferedImage)
+		{
+			DataBuffer buffer = ((BufferedImage) image).getRaster().getDataBuffer();
+			return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+		} // end if
+
+		return 4L * Math.max(image.getWidth(null), 0) * Math.max(image.getHeight(null), 0);
+	} // end sizeOf(Image)
+
+	/**
+	 * Get the most bytes the main tier may use.
+	 * 
+	 * @return the byte budget
+	 */
+	public synchronized long getByteBudget()
+	{
+		// Return the budget.
+		return byteBudget;
+	} // end getByteBudget()
+
+	/**
+	 * Change the most bytes the main tier may use, evicting images if the cache is now over its budget.
+	 * 
+	 * @param byteBudget the new byte budget
+	 */
+	public synchronized void setByteBudget(long byteBudget)
+	{
+		this.byteBudget = byteBudget;
+
+		// Store the most recently used image again, which evicts the older images until the cache is within its budget.
+		if (!images.isEmpty())
+		{
+			String newest = null;
+
+			for (String key : images.keySet())
+				newest = key;
+
+			ImageIcon image = images.remove(newest);
+			currentBytes -= imageBytes.remove(newest);
+			store(newest, image);
+		} // end if
+	} // end setByteBudget(long)
+
+	/**
+	 * Get the number of bytes the images in the main tier use.
+	 * 
+	 * @return the size of the main tier in bytes
+	 */
+	public synchronized long getSizeBytes()
+	{
+		// Return the size.
+		return currentBytes;
+	} // end getSizeBytes()
+
+	/**
+	 * Get the number of images in the main tier.
+	 * 
+	 * @return the number of images
+	 */
+	public synchronized int getImageCount()
+	{
+		// Return the number of images.
+		return images.size();
+	} // end getImageCount()
+
+	/**
+	 * Get the number of images in the overflow tier that have not been freed yet.
+	 * 
+	 * @return the number of overflow images
+	 */
+	public synchronized int getOverflowCount()
+	{
+		// Drop the freed images first, so they are not counted.
+		removeFreedImages();
+		return overflow.size();
+	} // end getOverflowCount()
+
+	/**
+	 * Get the number of requests that found their image in either tier.
+	 * 
+	 * @return the number of hits
+	 */
+	public synchronized long getHits()
+	{
+		// Return the number of hits.
+		return hits;
+	} // end getHits()
+
+	/**
+	 * Get the number of requests that did not find their image.
+	 * 
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses()
+	{
+		// Return the number of misses.
+		return misses;
+	} // end getMisses()
+
+	/**
+	 * Get the number of images that have been moved out of the main tier to keep it within its budget.
+	 * 
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictions()
+	{
+		// Return the number of evictions.
+		return evictions;
+	} // end getEvictions()
+} // end public class
\ No newline at end of file
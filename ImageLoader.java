@@ -0,0 +1,182 @@
+/**
+ * Final Project: The Store - Image Loader
+ * This class loads book covers away from the event dispatch thread, so that a page can be shown straight away.  Until a cover is ready,
+ * the "book not found" image is shown in its place.  A small pool of worker threads reads and scales the covers, and the cover is handed
+ * back on the event dispatch thread once it is ready.  Requests for a cover that is already being loaded share the same load, and the
+ * requests made by a page are cancelled when the user leaves that page.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.awt.Component;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.swing.*;
+
+public class ImageLoader
+{
+	// Store the number of worker threads, which is kept small as the workers mostly wait on the disk.
+	private static final int WORKER_COUNT = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	// Make an interface so that lambdas may be used to receive an image once it has loaded.
+	@FunctionalInterface
+	public static interface ImageHandler
+	{
+		// The lambda will take the image that was loaded.
+		void handleImage(ImageIcon image);
+	} // end interface
+
+	// This class stores a load that is in progress (with the size of the image), and the components waiting for it along with what to do
+	// for each of them.
+	private static class Request
+	{
+		Future<?> task;
+		int width, height;
+		ArrayList<Component> owners = new ArrayList<Component>();
+		ArrayList<ImageHandler> handlers = new ArrayList<ImageHandler>();
+	} // end class Request
+
+	// Initialize the pool of worker threads.  The threads do not keep the program running, and stop when there is nothing to load.
+	private static ThreadPoolExecutor workers = new ThreadPoolExecutor(
+		WORKER_COUNT, WORKER_COUNT, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), (runnable) -> {
+			Thread worker = new Thread(runnable, "Image loader");
+			worker.setDaemon(true);
+			return worker;
+		}
+	);
+
+	static
+	{
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	// Initialize the map of loads in progress, and the set of images that failed to load (so they are not tried again on every repaint).
+	private static HashMap<String, Request> inFlight = new HashMap<String, Request>();
+	private static HashSet<String> failedImages = new HashSet<String>();
+
+	/**
+	 * Get an image without waiting for it to load.  If the image is not ready, the placeholder is returned and the image is loaded in the
+	 * background, after which the handler is called on the event dispatch thread.  This function must be called on the event dispatch
+	 * thread.
+	 * 
+	 * @param owner the component that will show the image, used to cancel the load if the component's page is left
+	 * @param imagePath the path to the image
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @param handler what to do with the image once it has loaded
+	 * @return the image if it is ready, or the placeholder otherwise
+	 */
+	public static ImageIcon load(Component owner, String imagePath, int width, int height, ImageHandler handler)
+	{
+		String key = imagePath + "@" + width + "x" + height;
+		ImageIcon image = Resources.getCachedImage(imagePath, width, height);
+
+		// Return the image straight away if it is ready, or the placeholder if the image is known to be missing.
+		if (image != null)
+			return image;
+		else if (failedImages.contains(key))
+			return getPlaceholder(width, height);
+
+		// Start loading the image if it is not already being loaded.
+		Request request = inFlight.get(key);
+
+		if (request == null)
+		{
+			Request newRequest = request = new Request();
+			request.width = width;
+			request.height = height;
+			inFlight.put(key, request);
+			request.task = workers.submit(() -> {
+				ImageIcon loadedImage = Resources.getImage(imagePath, width, height);
+				SwingUtilities.invokeLater(() -> {finishLoad(key, newRequest, loadedImage);});
+			});
+		} // end if
+
+		// Wait for the load, unless this component is already waiting for it.
+		if (!request.owners.contains(owner))
+		{
+			request.owners.add(owner);
+			request.handlers.add(handler);
+		} // end if
+
+		// Show the placeholder in the meantime.
+		return getPlaceholder(width, height);
+	} // end load(Component, String, int, int, ImageHandler)
+
+	/**
+	 * Hand a loaded image to every component that is still waiting for it.
+	 * 
+	 * @param key the key of the image
+	 * @param request the load that finished
+	 * @param image the image that was loaded, or null if it failed to load
+	 */
+	private static void finishLoad(String key, Request request, ImageIcon image)
+	{
+		// Ignore the load if it has been cancelled since.
+		if (inFlight.get(key) != request)
+			return;
+
+		inFlight.remove(key);
+
+		// Remember images that failed to load, and give the placeholder instead.
+		if (image == null)
+		{
+			failedImages.add(key);
+			image = getPlaceholder(request.width, request.height);
+		} // end if
+
+		// Call each handler.
+		for (ImageHandler handler : request.handlers)
+			handler.handleImage(image);
+	} // end finishLoad(String, Request, ImageIcon)
+
+	/**
+	 * Get the placeholder shown while an image is loading or if it is missing.
+	 * 
+	 * @param width the width of the placeholder
+	 * @param height the height of the placeholder
+	 * @return the placeholder
+	 */
+	public static ImageIcon getPlaceholder(int width, int height)
+	{
+		// Use the "book not found" image.
+		return Resources.getImage(Paths.IMAGE_BOOK_NOT_FOUND, width, height);
+	} // end getPlaceholder(int, int)
+
+	/**
+	 * Cancel the loads requested by the components of a page that has been left.  Loads that other components are still waiting for are
+	 * kept.  Images that failed to load are forgotten, so they are tried again on the next page.
+	 * 
+	 * @param page the page that has been left
+	 */
+	public static void cancel(Component page)
+	{
+		Iterator<Request> requests = inFlight.values().iterator();
+
+		// Go through every load in progress.
+		while (requests.hasNext())
+		{
+			Request request = requests.next();
+
+			// Stop waiting for the load on behalf of each component on the page.
+			for (int i = request.owners.size() - 1; i >= 0; i--)
+			{
+				if (SwingUtilities.isDescendingFrom(request.owners.get(i), page))
+				{
+					request.owners.remove(i);
+					request.handlers.remove(i);
+				} // end if
+			} // end for
+
+			// Cancel the load if nothing is waiting for it anymore.  A load that has already started is left to finish and fill the cache.
+			if (request.owners.isEmpty())
+			{
+				request.task.cancel(false);
+				requests.remove();
+			} // end if
+		} // end while
+
+		failedImages.clear();
+	} // end cancel(Component)
+} // end public class
\ No newline at end of file
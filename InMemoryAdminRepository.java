@@ -0,0 +1,24 @@
+/**
+ * Final Project: The Store - In-Memory Admin Repository
+ * This class reads the admin file when the program starts, but never writes the password back.  It is used along with the other
+ * in-memory repositories to measure the store without the cost of writing to disk.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+public class InMemoryAdminRepository extends CsvAdminRepository
+{
+	/**
+	 * Accept a change to the admin's password without writing anything.
+	 * 
+	 * @param admin the User object representing the admin
+	 * @return null, as there is nothing to write
+	 */
+	@Override
+	public Runnable prepareCommit(User admin)
+	{
+		// The password is only kept in memory.
+		return null;
+	} // end prepareCommit(User)
+} // end public class
\ No newline at end of file
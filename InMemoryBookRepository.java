@@ -0,0 +1,49 @@
+/**
+ * Final Project: The Store - In-Memory Book Repository
+ * This class reads the books file when the program starts, but never writes anything back, so every change is lost when the program
+ * exits.  It is used to measure the store without the cost of writing to disk.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class InMemoryBookRepository extends CsvBookRepository
+{
+	/**
+	 * This constructor stores the list of books the store keeps.
+	 * 
+	 * @param books the list of books the store keeps
+	 */
+	public InMemoryBookRepository(java.util.List<Book> books)
+	{
+		// Store the list.
+		super(books);
+	} // end InMemoryBookRepository(List<Book>)
+
+	/**
+	 * Accept a batch of changes to the books without writing anything.
+	 * 
+	 * @param changes the new version of each changed book by id (null for a book that has been removed)
+	 * @return null, as there is nothing to write
+	 */
+	@Override
+	public Runnable prepareCommit(Map<Integer, Book> changes)
+	{
+		// The books are only kept in memory.
+		return null;
+	} // end prepareCommit(Map<Integer, Book>)
+
+	/**
+	 * Accept a full write without writing anything.
+	 * 
+	 * @return null, as there is nothing to write
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// The books are only kept in memory.
+		return null;
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,50 @@
+/**
+ * Final Project: The Store - In-Memory User Repository
+ * This class reads the users file when the program starts, but never writes anything back, so every change is lost when the program
+ * exits.  It is used to measure the store without the cost of writing to disk.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class InMemoryUserRepository extends CsvUserRepository
+{
+	/**
+	 * This constructor stores the list of users the store keeps.
+	 * 
+	 * @param service the store service
+	 * @param users the list of users the store keeps
+	 */
+	public InMemoryUserRepository(StoreService service, ArrayList<User> users)
+	{
+		// Store the values.
+		super(service, users);
+	} // end InMemoryUserRepository(StoreService, ArrayList<User>)
+
+	/**
+	 * Accept a batch of changed users without writing anything.
+	 * 
+	 * @param changes the users that have changed
+	 * @return null, as there is nothing to write
+	 */
+	@Override
+	public Runnable prepareCommit(Collection<User> changes)
+	{
+		// The users are only kept in memory.
+		return null;
+	} // end prepareCommit(Collection<User>)
+
+	/**
+	 * Accept a full write without writing anything.
+	 * 
+	 * @return null, as there is nothing to write
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// The users are only kept in memory.
+		return null;
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
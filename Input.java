@@ -96,14 +96,14 @@ public class Input
 	/**
 	 * Check a password to see if it and the previously passed username make a valid credential combination.
 	 * 
-	 * @param gui the GUI object
+	 * @param service the store service
 	 * @param password the password to check
 	 * @return the password if the username and password match an exiting account, otherwise null
 	 */
-	public static String passwordMatchesUserName(GUI gui, String password)
+	public static String passwordMatchesUserName(StoreService service, String password)
 	{
-		return gui.userCredentialsCorrect(lastCheckedUserName, password) ? password : null;
-	} // end passwordMatchesUserName(GUI, String)
+		return service.userCredentialsCorrect(lastCheckedUserName, password) ? password : null;
+	} // end passwordMatchesUserName(StoreService, String)
 
 	/**
 	 * Validate a given book title.
@@ -0,0 +1,409 @@
+/**
+ * Final Project: The Store - Inventory Stress Test
+ * This class drives many purchases at once through a store (see StoreService), to check that the stock stays correct when the store is
+ * used from more than one thread.  Each buyer adds books to the cart of a user (the users are shared between the buyers) and checks out,
+ * while one thread looks books up by id and by search, and another adds and removes books, all the way the window and the server do.  A
+ * checkout that finds a book sold out buys nothing (the books it already took are put back), and the cart is lowered to what is left.  The
+ * stock of each book is about half of what the purchases ask for, so that the books run out partway through.  The first book only has as
+ * many copies as one cart holds, and every user puts all of them in their cart before the buyers start, so that only one of them can buy
+ * it.  Once every buyer is done, the following must hold:
+ * 
+ * - some checkouts found a book sold out,
+ * - no book has less than zero in stock,
+ * - the stock of each book is what it started with, less the copies of it that were bought,
+ * - the number of books taken from stock is the number of books the users bought, and
+ * - a book that was never removed was always found by its id and by its title.
+ * 
+ * The test is run with the books in a list, and with the books stored in columns (see BookStore).  The store keeps its data in memory
+ * only, so the data files are read but never written.
+ * 
+ * This class can also time checkouts as the number of threads grows, taking the stock with compare-and-set (as the store does) and, to
+ * compare, with every purchase holding one lock shared by all of the books.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InventoryStressTest
+{
+	// Store the number of books in the catalog, the stock each book of the checkout benchmark has to spare, and the number of users the
+	// buyers share.
+	public static final int BOOK_COUNT = 500;
+	public static final int INITIAL_STOCK = 40;
+	public static final int USER_COUNT = 16;
+
+	// Store the number of copies a purchase asks for on average (two books, two copies of each), which the stock is sized by, and how
+	// many times the stock of each book the purchases ask for.
+	private static final int COPIES_PER_PURCHASE = 4;
+	private static final int DEMAND_PER_STOCK = 2;
+
+	// Store the number of books added before the catalog for the writer to remove.
+	private static final int PASSING_BOOKS = 2000;
+
+	// Store the number of threads and purchases used if none are given.
+	public static final int DEFAULT_THREADS = 8;
+	public static final int DEFAULT_PURCHASES = 200000;
+
+	// Store the most threads the checkout benchmark is run with.
+	private static final int MAX_BENCHMARK_THREADS = 64;
+
+	// This class is a book whose stock is taken while holding one lock shared by every such book, the way the stock would be guarded
+	// without compare-and-set.  It is only used to compare against in the checkout benchmark.
+	private static class LockedBook extends Book
+	{
+		// Store the lock shared by every locked book.
+		private static final Object STOCK_LOCK = new Object();
+
+		/**
+		 * This constructor initializes the book.
+		 * 
+		 * @param name the title of the book
+		 * @param quantity the book's quantity
+		 */
+		LockedBook(String name, int quantity)
+		{
+			// Call the parent constructor with the same values as the other books of the benchmark.
+			super(name, 5, quantity, 10, "Fiction", "Paperback", "Author", 2000, "none");
+		} // end LockedBook(String, int)
+
+		/**
+		 * Take a number of items from the stock while holding the shared lock, but only if there are at least that many left.
+		 * 
+		 * @param amount the number of items to take
+		 * @return whether the items were taken
+		 */
+		@Override
+		public boolean reserveStock(int amount)
+		{
+			// Check and lower the stock without any other book's stock changing meanwhile.
+			synchronized (STOCK_LOCK)
+			{
+				if (getQuantity() < amount)
+					return false;
+
+				setQuantity(getQuantity() - amount);
+				return true;
+			} // end synchronized
+		} // end reserveStock(int)
+
+		/**
+		 * Put items taken by reserveStock(int) back in the stock while holding the shared lock.
+		 * 
+		 * @param amount the number of items to put back
+		 */
+		@Override
+		public void releaseStock(int amount)
+		{
+			// Raise the stock under the lock.
+			synchronized (STOCK_LOCK)
+			{
+				setQuantity(getQuantity() + amount);
+			} // end synchronized
+		} // end releaseStock(int)
+	} // end class LockedBook
+
+	/**
+	 * Run the test with the books in a list and with the books stored in columns, and print the results.
+	 * 
+	 * @param threads the number of buyers
+	 * @param purchases the number of purchases made by all of the buyers together
+	 * @return whether every check passed
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	public static boolean run(int threads, int purchases) throws InterruptedException
+	{
+		// Run each kind of list, and pass only if both pass.
+		boolean listPassed = run("list", threads, purchases);
+		boolean columnsPassed = run("columnar", threads, purchases);
+
+		return listPassed && columnsPassed;
+	} // end run(int, int)
+
+	/**
+	 * Start a store that keeps its data in memory only, with the books stored in a given kind of list.  The properties that choose these
+	 * are put back once the store has started.
+	 * 
+	 * @param bookStore the kind of list ("list" or "columnar", see the muftibooks.bookStore property)
+	 * @return the store
+	 */
+	private static StoreService startService(String bookStore)
+	{
+		String repository = System.getProperty("muftibooks.repository");
+		String oldBookStore = System.getProperty("muftibooks.bookStore");
+
+		// Choose the kind of store, start it, and put the properties back.
+		System.setProperty("muftibooks.repository", "memory");
+		System.setProperty("muftibooks.bookStore", bookStore);
+
+		try
+		{
+			return new StoreService();
+		} // end try
+		finally
+		{
+			restoreProperty("muftibooks.repository", repository);
+			restoreProperty("muftibooks.bookStore", oldBookStore);
+		} // end finally
+	} // end startService(String)
+
+	/**
+	 * Set a property back to what it was.
+	 * 
+	 * @param key the property
+	 * @param value the old value, or null if it was not set
+	 */
+	private static void restoreProperty(String key, String value)
+	{
+		// Clear the property if it was not set before.
+		if (value == null)
+			System.clearProperty(key);
+		else
+			System.setProperty(key, value);
+	} // end restoreProperty(String, String)
+
+	/**
+	 * Run the test against a store with one kind of list of books, and print the results.
+	 * 
+	 * @param label the kind of list ("list" or "columnar"), which is also shown in the results
+	 * @param threads the number of buyers
+	 * @param purchases the number of purchases made by all of the buyers together
+	 * @return whether every check passed
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static boolean run(String label, int threads, int purchases) throws InterruptedException
+	{
+		StoreService service = startService(label);
+		int stock = (int) Math.max(1, (long) purchases * COPIES_PER_PURCHASE / BOOK_COUNT / DEMAND_PER_STOCK);
+		Book catalog[] = new Book[BOOK_COUNT];
+		User users[] = new User[USER_COUNT];
+		ArrayDeque<Book> passingBooks = new ArrayDeque<Book>();
+		int initialStock[] = new int[BOOK_COUNT];
+		IdentityHashMap<Book, Integer> catalogIndex = new IdentityHashMap<Book, Integer>();
+		AtomicIntegerArray sold = new AtomicIntegerArray(BOOK_COUNT);
+
+		// Add the books the writer removes, then fill the catalog.  The books kept by the store are used, as a list that stores the books
+		// in columns keeps its own copy.
+		for (int i = 0; i < PASSING_BOOKS; i++)
+			passingBooks.add(service.addBook(new Book("Passing Book", 5, 1, 1, "Fiction", "Hardcover", "Someone", 2020, "none")));
+
+		for (int i = 0; i < BOOK_COUNT; i++)
+		{
+			initialStock[i] = i == 0 ? Math.min(stock, StoreService.MAX_CART_ITEMS) : stock;
+			catalog[i] = service.addBook(
+				new Book("Stress Book " + i, 5, initialStock[i], 10 + i % 20, "Fiction", "Paperback", "Author " + i % 50, 2000, "none")
+			);
+			catalogIndex.put(catalog[i], i);
+		} // end for
+
+		// Add the users, each with the whole stock of the first book in their cart.
+		for (int i = 0; i < USER_COUNT; i++)
+		{
+			users[i] = new User("Stress", "User", "stress" + i, "password", "stress" + i + "@example.com");
+			service.addUser(users[i]);
+			service.addToCart(users[i], catalog[0], initialStock[0]);
+		} // end for
+
+		// Count the purchases left to make, the purchases that found a book sold out, and the lookups that failed.
+		AtomicLong purchasesLeft = new AtomicLong(purchases);
+		AtomicLong soldOut = new AtomicLong();
+		AtomicLong missedLookups = new AtomicLong();
+		AtomicLong lookups = new AtomicLong();
+		ExecutorService buyers = Executors.newFixedThreadPool(threads);
+		AtomicBoolean running = new AtomicBoolean(true);
+		long start = System.nanoTime();
+
+		// Start the buyers.  Each adds a few random books to the cart of a random user, and checks out, counting the copies of each book
+		// that were bought.  A book the store refuses to add (as the cart is full, or there is not enough of it left) is left out.
+		for (int i = 0; i < threads; i++)
+		{
+			buyers.execute(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+
+				while (purchasesLeft.getAndDecrement() > 0)
+				{
+					User user = users[random.nextInt(USER_COUNT)];
+					int items = 1 + random.nextInt(3);
+
+					for (int item = 0; item < items; item++)
+						service.addToCart(user, catalog[random.nextInt(BOOK_COUNT)], 1 + random.nextInt(3));
+
+					StoreService.Receipt receipt = service.checkout(user);
+
+					if (!receipt.isCompleted())
+						soldOut.incrementAndGet();
+					else
+						for (int line = 0; line < receipt.getLineCount(); line++)
+							sold.addAndGet(catalogIndex.get(receipt.getBook(line)), receipt.getQuantity(line));
+				} // end while
+			});
+		} // end for
+
+		// Start a reader, which looks up the books that are never removed.
+		Thread reader = new Thread(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			while (running.get())
+			{
+				int i = random.nextInt(BOOK_COUNT);
+
+				if (service.getBookById(catalog[i].getId()) != catalog[i] || !service.searchBooks("Stress Book " + i).contains(catalog[i]))
+					missedLookups.incrementAndGet();
+
+				lookups.incrementAndGet();
+			} // end while
+		});
+
+		// Start a writer, which adds books the buyers never buy, and removes the oldest of them.  The books that were added first come
+		// before the catalog, so that removing each of them moves every book of the catalog.
+		Thread writer = new Thread(() -> {
+			while (running.get())
+			{
+				passingBooks.add(service.addBook(new Book("Passing Book", 5, 1, 1, "Fiction", "Hardcover", "Someone", 2020, "none")));
+				service.removeBook(passingBooks.remove());
+			} // end while
+		});
+
+		reader.start();
+		writer.start();
+
+		// Wait for the buyers, then stop the reader and writer.
+		buyers.shutdown();
+		buyers.awaitTermination(1, TimeUnit.HOURS);
+		running.set(false);
+		reader.join();
+		writer.join();
+
+		long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+		// Add up what is left in stock and what the users bought, and check each book against the copies of it that were bought.
+		long taken = 0, bought = 0;
+		int negative = 0, wrongStock = 0, booksSoldOut = 0;
+
+		for (int i = 0; i < BOOK_COUNT; i++)
+		{
+			int quantity = catalog[i].getQuantity();
+
+			if (quantity < 0)
+				negative++;
+
+			if (quantity != initialStock[i] - sold.get(i))
+				wrongStock++;
+
+			if (quantity == 0)
+				booksSoldOut++;
+
+			taken += initialStock[i] - quantity;
+		} // end for
+
+		for (User user : users)
+			bought += user.getTotalItems();
+
+		boolean passed = soldOut.get() > 0 && negative == 0 && wrongStock == 0 && taken == bought && missedLookups.get() == 0;
+
+		System.out.printf(
+			"%s: %d purchases (%d sold out) by %d threads in %d ms (%d per second); %d books sold, %d bought, %d of %d books sold out, " +
+				"%d below zero, %d with the wrong stock; %d of %d lookups missed: %s%n",
+			label, purchases, soldOut.get(), threads, millis, purchases * 1000L / millis, taken, bought, booksSoldOut, BOOK_COUNT, negative,
+			wrongStock, missedLookups.get(), lookups.get(), passed ? "passed" : "FAILED"
+		);
+		return passed;
+	} // end run(String, int, int)
+
+	/**
+	 * Print how many checkouts a second are made with 1, 2, 4, and so on up to 64 threads, taking the stock with compare-and-set and
+	 * with one lock shared by every book.  Each thread buys for its own user, so that only the stock is shared between the threads, and
+	 * each purchase buys a few random books of the catalog.  The stock is large enough that no book runs out.
+	 * 
+	 * @param purchases the number of purchases made at each number of threads
+	 * @throws InterruptedException if the benchmark is interrupted
+	 */
+	public static void printCheckoutBenchmark(int purchases) throws InterruptedException
+	{
+		int stock = (int) Math.min(Integer.MAX_VALUE / 2, 4L * purchases * COPIES_PER_PURCHASE / BOOK_COUNT + INITIAL_STOCK);
+
+		System.out.println("Threads  CAS per second  Locked per second  CAS / locked");
+
+		for (int threads = 1; threads <= MAX_BENCHMARK_THREADS; threads *= 2)
+		{
+			Book casBooks[] = new Book[BOOK_COUNT], lockedBooks[] = new Book[BOOK_COUNT];
+
+			// Make a fresh catalog of each kind, so that both start with the same stock.
+			for (int i = 0; i < BOOK_COUNT; i++)
+			{
+				casBooks[i] = new Book("Benchmark Book " + i, 5, stock, 10, "Fiction", "Paperback", "Author", 2000, "none");
+				lockedBooks[i] = new LockedBook("Benchmark Book " + i, stock);
+			} // end for
+
+			// Run each kind twice, keeping the second run, as the first warms up the JIT compiler.
+			timeCheckouts(casBooks, threads, purchases);
+			timeCheckouts(lockedBooks, threads, purchases);
+			long casRate = timeCheckouts(casBooks, threads, purchases);
+			long lockedRate = timeCheckouts(lockedBooks, threads, purchases);
+
+			System.out.printf("%7d  %14d  %17d  %12.2f%n", threads, casRate, lockedRate, (double) casRate / Math.max(1, lockedRate));
+		} // end for
+	} // end printCheckoutBenchmark(int)
+
+	/**
+	 * Make a number of purchases from a catalog with a number of threads, and time them.
+	 * 
+	 * @param catalog the books that are bought
+	 * @param threads the number of threads
+	 * @param purchases the number of purchases made by all of the threads together
+	 * @return the number of purchases made a second
+	 * @throws InterruptedException if the benchmark is interrupted
+	 */
+	private static long timeCheckouts(Book catalog[], int threads, int purchases) throws InterruptedException
+	{
+		AtomicLong purchasesLeft = new AtomicLong(purchases);
+		ExecutorService buyers = Executors.newFixedThreadPool(threads);
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch go = new CountDownLatch(1);
+
+		// Start the buyers, each with its own user, and let them all start at once.
+		for (int i = 0; i < threads; i++)
+		{
+			User user = new User("Benchmark", "User", "benchmark" + i, "password", "benchmark" + i + "@example.com");
+
+			buyers.execute(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				ready.countDown();
+
+				try
+				{
+					go.await();
+				} // end try
+				catch (InterruptedException exception)
+				{
+					return;
+				} // end catch
+
+				// Fill the cart with a few books, and buy it.
+				while (purchasesLeft.getAndDecrement() > 0)
+				{
+					int items = 1 + random.nextInt(3);
+
+					for (int item = 0; item < items; item++)
+						user.addToCart(catalog[random.nextInt(BOOK_COUNT)], 1 + random.nextInt(3));
+
+					user.makePurchase();
+				} // end while
+			});
+		} // end for
+
+		// Time the buyers from when they start until the last is done.
+		ready.await();
+		long start = System.nanoTime();
+		go.countDown();
+		buyers.shutdown();
+		buyers.awaitTermination(1, TimeUnit.HOURS);
+
+		return purchases * 1000000000L / Math.max(1, System.nanoTime() - start);
+	} // end timeCheckouts(Book[], int, int)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,337 @@
+/**
+ * Final Project: The Store - Journal
+ * This class provides an append-only log that sits next to one of the CSV files.  Instead of rewriting the whole CSV file every time a
+ * single book or user changes, the change is appended to the journal as a small record.  Once enough records have been appended, the
+ * journal is compacted by writing a fresh snapshot of the CSV file and clearing the journal.
+ * 
+ * Each record is one line, starting with the CRC-32 of the rest of the line (in hexadecimal) and a space.  When the journal is replayed, a
+ * record whose checksum does not match, or a last line that was never ended (as the program stopped while writing it), is skipped.
+ * Records written before checksums were added are still read.  If a record cannot be appended, a full snapshot is written instead and
+ * the journal is cleared, so that its older records are never replayed over the newer snapshot.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+public class Journal
+{
+	// Store the record types that can be written to a journal.
+	public static final String PUT = "PUT";
+	public static final String DELETE = "DEL";
+
+	// Store the default number of records a journal may hold before it is compacted.
+	public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+	// Store the number of hexadecimal digits in the checksum that starts each record.
+	private static final int CHECKSUM_DIGITS = 8;
+
+	// Make an interface so that lambdas may be used to write the snapshot a journal is folded into.
+	@FunctionalInterface
+	public static interface Compactor
+	{
+		// The lambda will take no arguments, and write a full snapshot of the data.
+		void writeSnapshot();
+	} // end interface
+
+	// Make an interface so that lambdas may be used to handle records while a journal is being replayed.
+	@FunctionalInterface
+	public static interface RecordHandler
+	{
+		// The lambda will take the type of the record and the record's data.
+		void handleRecord(String type, String data);
+	} // end interface
+
+	// Declare variables for the path to the journal, the snapshot writer, the open stream, and the record counts.
+	private String journalPath;
+	private Compactor compactor;
+	private FileOutputStream journalStream;
+	private int recordCount, compactThreshold;
+
+	/**
+	 * This constructor stores the information needed to append to and compact a journal.
+	 * 
+	 * @param journalPath the path to the journal file
+	 * @param compactThreshold the number of records after which the journal is compacted
+	 * @param compactor the action that writes a full snapshot of the data
+	 */
+	public Journal(String journalPath, int compactThreshold, Compactor compactor)
+	{
+		// Store the given values.  No records are known about until the journal is replayed.
+		this.journalPath = journalPath;
+		this.compactThreshold = compactThreshold;
+		this.compactor = compactor;
+		journalStream = null;
+		recordCount = 0;
+	} // end Journal(String, int, Compactor)
+
+	/**
+	 * Append a record that stores the latest version of an entry.
+	 * 
+	 * @param csv the entry as a CSV line
+	 */
+	public void appendPut(String csv)
+	{
+		// Append the entry as a put record.
+		append(PUT, csv);
+	} // end appendPut(String)
+
+	/**
+	 * Append a record that deletes an entry.
+	 * 
+	 * @param key the key of the entry to delete (id for books, username for users)
+	 */
+	public void appendDelete(String key)
+	{
+		// Append the key as a delete record.
+		append(DELETE, key);
+	} // end appendDelete(String)
+
+	/**
+	 * Append a batch of records, pushing them to disk together once they have all been written.  If a record cannot be appended, a full
+	 * snapshot is written instead (which holds the whole batch), and the rest of the batch is not appended.
+	 * 
+	 * @param keys the key of each record
+	 * @param records the entry of each record as a CSV line, or null for a record that deletes its key
+	 * @return whether every record was appended
+	 */
+	public boolean appendBatch(java.util.List<String> keys, java.util.List<String> records)
+	{
+		// Append each record as a put or a delete, stopping if one fails.
+		for (int i = 0; i < records.size(); i++)
+		{
+			String record = records.get(i);
+
+			if (!append(record == null ? DELETE : PUT, record == null ? keys.get(i) : record, i == records.size() - 1))
+				return false;
+		} // end for
+
+		return true;
+	} // end appendBatch(List<String>, List<String>)
+
+	/**
+	 * Append a record to the journal and push it to disk, compacting the journal if it has grown too large.
+	 * 
+	 * @param type the type of the record
+	 * @param data the data of the record
+	 */
+	private void append(String type, String data)
+	{
+		// Append the record, and push it to disk.
+		append(type, data, true);
+	} // end append(String, String)
+
+	/**
+	 * Append a record to the journal, compacting the journal if it has grown too large.  If the record cannot be appended, the journal
+	 * is compacted instead, so that the change is not lost.
+	 * 
+	 * @param type the type of the record
+	 * @param data the data of the record
+	 * @param sync whether to push the journal to disk after the record
+	 * @return whether the record was appended
+	 */
+	private boolean append(String type, String data, boolean sync)
+	{
+		byte record[] = (type + "," + data).getBytes(StandardCharsets.UTF_8);
+		CRC32 checksum = new CRC32();
+
+		checksum.update(record);
+
+		try
+		{
+			// Open the stream in append mode if it is not open yet.  If the last record was cut short, it is ended first, so that the
+			// new record starts on a line of its own.
+			if (journalStream == null)
+			{
+				boolean cutShort = endsCutShort();
+				journalStream = new FileOutputStream(journalPath, true);
+
+				if (cutShort)
+					journalStream.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+			} // end if
+
+			// Write the record after its checksum, and push it to disk as the durability level asks for.
+			journalStream.write(String.format("%08x ", checksum.getValue()).getBytes(StandardCharsets.UTF_8));
+			journalStream.write(record);
+			journalStream.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
+
+			if (sync)
+				SnapshotWriter.sync(journalStream.getChannel());
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure, and fall back to writing a full snapshot and clearing the journal so that the change is not lost.
+			System.err.println("Failed to append to " + journalPath + ": " + exception.getMessage());
+			compact();
+			return false;
+		} // end catch
+
+		// Fold the journal back into the snapshot if enough records have been appended.
+		if (++recordCount >= compactThreshold)
+			compact();
+
+		return true;
+	} // end append(String, String, boolean)
+
+	/**
+	 * Check whether the journal ends partway through a record (as it does if the program stopped while writing it).
+	 * 
+	 * @return whether the last line of the journal is not ended
+	 * @throws IOException if the journal could not be read
+	 */
+	private boolean endsCutShort() throws IOException
+	{
+		File file = new File(journalPath);
+
+		// An empty or missing journal has no record to end.
+		if (file.length() == 0)
+			return false;
+
+		// Read the last byte.
+		try (RandomAccessFile journalFile = new RandomAccessFile(file, "r"))
+		{
+			journalFile.seek(journalFile.length() - 1);
+			return journalFile.read() != '\n';
+		} // end try
+	} // end endsCutShort()
+
+	/**
+	 * Fold the journal into a fresh snapshot, and clear the journal.
+	 */
+	public void compact()
+	{
+		// Close the stream if it is open.
+		close();
+
+		// Write the full snapshot first, so that a crash before the journal is cleared only causes records to be replayed twice.
+		compactor.writeSnapshot();
+		clear();
+	} // end compact()
+
+	/**
+	 * Clear the journal.  This is used once a snapshot that includes every record has been written some other way.
+	 */
+	public void clear()
+	{
+		// Close the stream if it is open.
+		close();
+
+		try
+		{
+			// Truncate the journal.
+			new FileWriter(journalPath).close();
+		} // end try
+		catch (IOException exception) {}
+
+		// No records are left in the journal.
+		recordCount = 0;
+	} // end clear()
+
+	/**
+	 * Replay every record in the journal, in the order they were appended.  Records that were only partially written (whose checksum does
+	 * not match, or which are not ended) are skipped.
+	 * 
+	 * @param handler the handler to pass each record to
+	 */
+	public void replay(RecordHandler handler)
+	{
+		BufferedReader replayStream;
+		String currentLine, nextLine, record;
+		boolean cutShort;
+		int separator;
+
+		try
+		{
+			// Try opening the journal and reading a line.  Note whether the last line was ended.
+			cutShort = endsCutShort();
+			replayStream = new BufferedReader(new InputStreamReader(new FileInputStream(journalPath), StandardCharsets.UTF_8));
+			currentLine = replayStream.readLine();
+
+			// Iterate until the last record has been reached.
+			while (currentLine != null)
+			{
+				// Check the record, then split it into its type and data.  Skip records that were only partially written.
+				nextLine = replayStream.readLine();
+				record = nextLine == null && cutShort ? null : checkRecord(currentLine);
+				separator = record == null ? -1 : record.indexOf(',');
+
+				if (separator != -1)
+				{
+					handler.handleRecord(record.substring(0, separator), record.substring(separator + 1));
+					recordCount++;
+				} // end if
+
+				// Move on to the next record.
+				currentLine = nextLine;
+			} // end while
+
+			// Close the stream.
+			replayStream.close();
+		} // end try
+		catch (IOException exception) {}
+	} // end replay(RecordHandler)
+
+	/**
+	 * Check a line of the journal against its checksum.  A line written before checksums were added is kept if it starts with a record
+	 * type.
+	 * 
+	 * @param line the line
+	 * @return the record (the type and data), or null if the line is not a whole record
+	 */
+	private static String checkRecord(String line)
+	{
+		// Keep a line without a checksum only if it starts like a record.
+		if (line.startsWith(PUT + ",") || line.startsWith(DELETE + ","))
+			return line;
+
+		if (line.length() <= CHECKSUM_DIGITS || line.charAt(CHECKSUM_DIGITS) != ' ')
+			return null;
+
+		// Compare the checksum with the rest of the line.
+		CRC32 checksum = new CRC32();
+		String record = line.substring(CHECKSUM_DIGITS + 1);
+
+		checksum.update(record.getBytes(StandardCharsets.UTF_8));
+
+		try
+		{
+			return Long.parseLong(line.substring(0, CHECKSUM_DIGITS), 16) == checksum.getValue() ? record : null;
+		} // end try
+		catch (NumberFormatException exception)
+		{
+			return null;
+		} // end catch
+	} // end checkRecord(String)
+
+	/**
+	 * Get the number of records currently in the journal.
+	 * 
+	 * @return the number of records in the journal
+	 */
+	public int getRecordCount()
+	{
+		// Return the number of records.
+		return recordCount;
+	} // end getRecordCount()
+
+	/**
+	 * Close the stream to the journal if it is open.
+	 */
+	public void close()
+	{
+		// Close and forget the stream.
+		if (journalStream != null)
+		{
+			try
+			{
+				journalStream.close();
+			} // end try
+			catch (IOException exception) {}
+
+			journalStream = null;
+		} // end if
+	} // end close()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,124 @@
+/**
+ * Final Project: The Store - Journaled Book Repository
+ * This class stores the books in the books file, and appends each batch of changes to a journal beside it instead of rewriting the file.
+ * When the program starts, the changes in the journal are applied to the books read from the file.  Once the journal has grown large
+ * enough, the next batch rewrites the file and clears the journal.  The book import appends every batch to the journal however large it
+ * grows, and rewrites the file once at the end.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class JournaledBookRepository extends CsvBookRepository
+{
+	// Declare the journal, and the number of records it holds.
+	private Journal journal;
+	private int journalRecords;
+
+	/**
+	 * This constructor opens the journal of changes to the books.
+	 * 
+	 * @param books the list of books the store keeps
+	 * @param journalPath the path to the journal file
+	 * @param lock the object whose lock is held while the books change (the store service, or the list itself if only one thread uses it)
+	 */
+	public JournaledBookRepository(java.util.List<Book> books, String journalPath, Object lock)
+	{
+		// Store the list.  The journal is only folded into the file by this class, but it writes the file itself if it cannot be
+		// appended to.  The books are gathered for that file while the lock is held, as the write runs in the background.
+		super(books);
+		journal = new Journal(journalPath, Integer.MAX_VALUE, () -> {
+			Runnable fileWrite;
+
+			synchronized (lock)
+			{
+				fileWrite = super.prepareSnapshot();
+				journalRecords = 0;
+			} // end synchronized
+
+			fileWrite.run();
+		});
+		journalRecords = 0;
+	} // end JournaledBookRepository(List<Book>, String, Object)
+
+	/**
+	 * Read every book in the books file into a list, and apply the changes made since the file was written.
+	 * 
+	 * @param books the list to read into
+	 */
+	@Override
+	public void load(java.util.List<Book> books)
+	{
+		// Read the file, and replay the journal.
+		super.load(books);
+		DataFiles.replayBookJournal(journal, books);
+		journalRecords = journal.getRecordCount();
+	} // end load(List<Book>)
+
+	/**
+	 * Gather a batch of changes to the books, which are appended to the journal together.  If the journal would grow too large, the
+	 * whole file is rewritten instead.
+	 * 
+	 * @param changes the new version of each changed book by id (null for a book that has been removed)
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public Runnable prepareCommit(Map<Integer, Book> changes)
+	{
+		// Nothing is written if there are no changes.
+		if (changes.isEmpty())
+			return null;
+
+		// Rewrite the file if the journal would grow too large.  Otherwise, append the changes.
+		if (journalRecords + changes.size() >= Journal.DEFAULT_COMPACT_THRESHOLD)
+			return prepareSnapshot();
+
+		return prepareAppend(changes);
+	} // end prepareCommit(Map<Integer, Book>)
+
+	/**
+	 * Gather a batch of changes to the books, which are appended to the journal together however large the journal grows.  This is used
+	 * by the book import, which rewrites the file once every batch has been appended (see prepareSnapshot()).
+	 * 
+	 * @param changes the new version of each changed book by id (null for a book that has been removed)
+	 * @return the write to run, or null if there are no changes
+	 */
+	public Runnable prepareAppend(Map<Integer, Book> changes)
+	{
+		// Nothing is written if there are no changes.
+		if (changes.isEmpty())
+			return null;
+
+		// Make a record for each change.
+		ArrayList<String> keys = new ArrayList<String>(), records = new ArrayList<String>();
+
+		for (Map.Entry<Integer, Book> entry : changes.entrySet())
+		{
+			keys.add(Integer.toString(entry.getKey()));
+			records.add(entry.getValue() == null ? null : entry.getValue().toCSV());
+		} // end for
+
+		journalRecords += records.size();
+		return () -> {journal.appendBatch(keys, records);};
+	} // end prepareAppend(Map<Integer, Book>)
+
+	/**
+	 * Gather every book, so that the books file can be rewritten.  The journal is cleared once the file is written.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// Make the file now, and write it and clear the journal later.
+		Runnable fileWrite = super.prepareSnapshot();
+		journalRecords = 0;
+
+		return () -> {
+			fileWrite.run();
+			journal.clear();
+		};
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,107 @@
+/**
+ * Final Project: The Store - Journaled User Repository
+ * This class stores the users in the users file, and appends each batch of changed users to a journal beside it instead of rewriting the
+ * file.  When the program starts, the changes in the journal are applied to the users read from the file.  Once the journal has grown
+ * large enough, the next batch rewrites the file and clears the journal.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public class JournaledUserRepository extends CsvUserRepository
+{
+	// Declare the journal, and the number of records it holds.
+	private Journal journal;
+	private int journalRecords;
+
+	/**
+	 * This constructor opens the journal of changes to the users.
+	 * 
+	 * @param service the store service
+	 * @param users the list of users the store keeps
+	 * @param journalPath the path to the journal file
+	 */
+	public JournaledUserRepository(StoreService service, ArrayList<User> users, String journalPath)
+	{
+		// Store the values.  The journal is only folded into the file by this class, but it writes the file itself if it cannot be
+		// appended to.  The users are gathered for that file while the store service's lock is held, as the write runs in the background.
+		super(service, users);
+		journal = new Journal(journalPath, Integer.MAX_VALUE, () -> {
+			Runnable fileWrite;
+
+			synchronized (service)
+			{
+				fileWrite = super.prepareSnapshot();
+				journalRecords = 0;
+			} // end synchronized
+
+			fileWrite.run();
+		});
+		journalRecords = 0;
+	} // end JournaledUserRepository(StoreService, ArrayList<User>, String)
+
+	/**
+	 * Read every user in the users file into a list, and apply the changes made since the file was written.
+	 * 
+	 * @param users the list to read into
+	 */
+	@Override
+	public void load(ArrayList<User> users)
+	{
+		// Read the file, and replay the journal.
+		super.load(users);
+		DataFiles.replayUserJournal(service, journal, users);
+		journalRecords = journal.getRecordCount();
+	} // end load(ArrayList<User>)
+
+	/**
+	 * Gather a batch of changed users, which are appended to the journal together.  If the journal would grow too large, the whole file
+	 * is rewritten instead.
+	 * 
+	 * @param changes the users that have changed
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public Runnable prepareCommit(Collection<User> changes)
+	{
+		// Nothing is written if there are no changes.
+		if (changes.isEmpty())
+			return null;
+
+		// Rewrite the file if the journal would grow too large.
+		if (journalRecords + changes.size() >= Journal.DEFAULT_COMPACT_THRESHOLD)
+			return prepareSnapshot();
+
+		// Otherwise, make a record for each user.
+		ArrayList<String> keys = new ArrayList<String>(), records = new ArrayList<String>();
+
+		for (User user : changes)
+		{
+			keys.add(user.getUserName());
+			records.add(user.toCSV());
+		} // end for
+
+		journalRecords += records.size();
+		return () -> {journal.appendBatch(keys, records);};
+	} // end prepareCommit(Collection<User>)
+
+	/**
+	 * Gather every user, so that the users file can be rewritten.  The journal is cleared once the file is written.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// Make the file now, and write it and clear the journal later.
+		Runnable fileWrite = super.prepareSnapshot();
+		journalRecords = 0;
+
+		return () -> {
+			fileWrite.run();
+			journal.clear();
+		};
+	} // end prepareSnapshot()
+} // end public class
\ No newline at end of file
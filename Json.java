@@ -0,0 +1,208 @@
+/**
+ * Final Project: The Store - JSON
+ * This class reads and writes the small JSON objects the store exchanges: the lines of a JSON lines feed of books (see BookImporter), and
+ * the requests and responses of the storefront server (see StoreServer).  Only flat objects are read, whose values are strings, numbers,
+ * or booleans, and every value is read as text.  Objects are written by appending to a StringBuilder.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.LinkedHashMap;
+
+public class Json
+{
+	/**
+	 * Read a flat JSON object.  The values are read as text, so numbers and booleans are returned as they were written.
+	 * 
+	 * @param text the text of the object
+	 * @return the value of each key, in the order the keys were written
+	 * @throws IllegalArgumentException if the text is not such an object
+	 */
+	public static LinkedHashMap<String, String> parseObject(String text)
+	{
+		LinkedHashMap<String, String> values = new LinkedHashMap<String, String>();
+		StringBuilder token = new StringBuilder();
+		int position = skipSpaces(text, 0);
+
+		if (position >= text.length() || text.charAt(position) != '{')
+			throw new IllegalArgumentException("Expected a JSON object.");
+
+		position = skipSpaces(text, position + 1);
+
+		// Read each key and value, until the end of the object.
+		while (position < text.length() && text.charAt(position) != '}')
+		{
+			// Read the key, and the colon after it.
+			position = readString(text, position, token);
+			String key = token.toString();
+			position = skipSpaces(text, position);
+
+			if (position >= text.length() || text.charAt(position) != ':')
+				throw new IllegalArgumentException("Expected ':' after \"" + key + "\".");
+
+			position = skipSpaces(text, position + 1);
+
+			// Read the value, which is either a string, or a bare number or word.
+			if (position < text.length() && text.charAt(position) == '"')
+			{
+				position = readString(text, position, token);
+			} // end if
+			else
+			{
+				int start = position;
+
+				while (position < text.length() && ",} \t\r\n".indexOf(text.charAt(position)) < 0)
+					position++;
+
+				token.setLength(0);
+				token.append(text, start, position);
+
+				if (token.length() == 0 || token.toString().equals("null"))
+					throw new IllegalArgumentException("Expected a value for \"" + key + "\".");
+			} // end else
+
+			values.put(key, token.toString());
+
+			// Move past the comma between values.
+			position = skipSpaces(text, position);
+
+			if (position < text.length() && text.charAt(position) == ',')
+				position = skipSpaces(text, position + 1);
+			else if (position >= text.length() || text.charAt(position) != '}')
+				throw new IllegalArgumentException("Expected ',' or '}' after \"" + key + "\".");
+		} // end while
+
+		if (position >= text.length())
+			throw new IllegalArgumentException("Expected '}' at the end of the object.");
+
+		return values;
+	} // end parseObject(String)
+
+	/**
+	 * Read a JSON string, including its escapes.
+	 * 
+	 * @param text the text the string is in
+	 * @param position the position of the opening quote
+	 * @param token the builder the string is read into (cleared first)
+	 * @return the position after the closing quote
+	 * @throws IllegalArgumentException if there is no string at the position, or it does not end
+	 */
+	private static int readString(String text, int position, StringBuilder token)
+	{
+		token.setLength(0);
+
+		if (position >= text.length() || text.charAt(position) != '"')
+			throw new IllegalArgumentException("Expected a string at column " + (position + 1) + ".");
+
+		// Copy each character until the closing quote, replacing each escape with the character it stands for.
+		for (position++; position < text.length(); position++)
+		{
+			char character = text.charAt(position);
+
+			if (character == '"')
+				return position + 1;
+
+			if (character == '\\' && position + 1 < text.length())
+			{
+				character = text.charAt(++position);
+
+				switch (character)
+				{
+					case 'n': character = '\n'; break;
+					case 't': character = '\t'; break;
+					case 'r': character = '\r'; break;
+					case 'b': character = '\b'; break;
+					case 'f': character = '\f'; break;
+					case 'u':
+						try
+						{
+							character = (char) Integer.parseInt(text.substring(position + 1, position + 5), 16);
+							position += 4;
+						} // end try
+						catch (NumberFormatException|IndexOutOfBoundsException exception)
+						{
+							throw new IllegalArgumentException("Bad escape at column " + (position + 1) + ".");
+						} // end catch
+						break;
+					default: break;
+				} // end switch
+			} // end if
+
+			token.append(character);
+		} // end for
+
+		throw new IllegalArgumentException("Unterminated string.");
+	} // end readString(String, int, StringBuilder)
+
+	/**
+	 * Skip the spaces in some text.
+	 * 
+	 * @param text the text
+	 * @param position the position to start at
+	 * @return the position of the next character that is not a space
+	 */
+	private static int skipSpaces(String text, int position)
+	{
+		// Move past each space, tab, or line break.
+		while (position < text.length() && " \t\r\n".indexOf(text.charAt(position)) >= 0)
+			position++;
+
+		return position;
+	} // end skipSpaces(String, int)
+
+	/**
+	 * Append text as a JSON string, escaping the characters that must be escaped.
+	 * 
+	 * @param output the builder to append to
+	 * @param value the text
+	 * @return the builder
+	 */
+	public static StringBuilder appendQuoted(StringBuilder output, String value)
+	{
+		output.append('"');
+
+		for (int i = 0; i < value.length(); i++)
+		{
+			char character = value.charAt(i);
+
+			// Escape quotes, backslashes, and control characters.  Every other character is appended as it is.
+			if (character == '"' || character == '\\')
+				output.append('\\').append(character);
+			else if (character < 0x20)
+				output.append("\\u00").append(Character.forDigit(character >> 4, 16)).append(Character.forDigit(character & 0xF, 16));
+			else
+				output.append(character);
+		} // end for
+
+		return output.append('"');
+	} // end appendQuoted(StringBuilder, String)
+
+	/**
+	 * Append an amount of money as a JSON number, rounded to the cent.
+	 * 
+	 * @param output the builder to append to
+	 * @param amount the amount
+	 * @return the builder
+	 */
+	public static StringBuilder appendMoney(StringBuilder output, double amount)
+	{
+		// Round to the cent, and write the number without an exponent.
+		return output.append(java.math.BigDecimal.valueOf(Math.round(amount * 100), 2).toPlainString());
+	} // end appendMoney(StringBuilder, double)
+
+	/**
+	 * Make an object with a single message, such as {"error":"..."}.
+	 * 
+	 * @param key the key of the message
+	 * @param message the message
+	 * @return the text of the object
+	 */
+	public static String message(String key, String message)
+	{
+		// Write the key and the message as the only value.
+		StringBuilder output = new StringBuilder("{");
+		appendQuoted(output, key).append(':');
+		return appendQuoted(output, message).append('}').toString();
+	} // end message(String, String)
+} // end public class
\ No newline at end of file
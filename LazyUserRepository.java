@@ -0,0 +1,783 @@
+/**
+ * Final Project: The Store - Lazy User Repository
+ * This class finds users in the users file without reading every account when the program starts.  An index of where each user's line
+ * starts in the file is kept in a sidecar file next to it: a list of the hash of each username and the position of its line, sorted by
+ * hash.  The index is mapped into memory and searched with a binary search, so neither the time to start nor the memory used grows with
+ * the number of accounts.  The index is rebuilt by scanning the users file only if the file has changed since the index was made.
+ * 
+ * A User object is only made when a user is looked up (for example, when signing in), and the users looked up most recently are kept in
+ * a small cache.  Users that have been added or changed since the users file was last written are kept as CSV lines until the file is
+ * rewritten.  If a journal is used, each batch of changed users is also appended to it, so that the file only needs to be rewritten once
+ * the journal has grown large enough.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class LazyUserRepository implements UserRepository
+{
+	// Store the number of users kept in the cache.
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	// Store the values that start every index file, the size of the index header, and the size of each entry.
+	private static final int MAGIC = 0x4D425549;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final int ENTRY_SIZE = 12;
+
+	// Declare the store service (needed to find the books in a cart), and the paths to the users file and its index.
+	private StoreService service;
+	private String userPath, indexPath;
+
+	// Declare the users file that is read, the open channel to it, the mapped index, and the number of entries in the index.
+	private File dataFile;
+	private FileChannel dataChannel;
+	private ByteBuffer index;
+	private int indexCount;
+
+	// Declare the lines of the users added or changed since the users file was written (a null line means the user has been removed), the
+	// cache of users most recently looked up, and the signed in users (who are never dropped) with the number of sign-ins of each.
+	private HashMap<String, String> changedLines;
+	private LinkedHashMap<String, User> cache;
+	private HashMap<String, User> pinnedUsers;
+	private HashMap<String, Integer> pinCounts;
+
+	// Declare the number of lookups answered by the cache, and the number that had to read the users file.
+	private long cacheHits, fileReads;
+
+	// Declare the journal of changes to the users (null if journals are not used), and the number of records it holds.
+	private Journal journal;
+	private int journalRecords;
+
+	/**
+	 * This constructor opens the users file, and maps its index (making the index first if it is missing or out of date).
+	 * 
+	 * @param service the store service
+	 * @param userPath the path to the users file
+	 * @param indexPath the path to the index file
+	 * @param cacheSize the number of users kept in the cache
+	 * @param journalPath the path to the journal file (null if journals are not used)
+	 */
+	public LazyUserRepository(StoreService service, String userPath, String indexPath, int cacheSize, String journalPath)
+	{
+		// Store the paths, and initialize the maps.  The cache drops the user looked up least recently once it is full.
+		this.service = service;
+		this.userPath = userPath;
+		this.indexPath = indexPath;
+		changedLines = new HashMap<String, String>();
+		cache = new LinkedHashMap<String, User>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, User> eldest)
+			{
+				// Drop the eldest user if the cache is full.
+				return size() > cacheSize;
+			} // end removeEldestEntry(Map.Entry<String, User>)
+		};
+		pinnedUsers = new HashMap<String, User>();
+		pinCounts = new HashMap<String, Integer>();
+		cacheHits = fileReads = 0;
+
+		// Open the journal.  It is only folded into the file by this class, but it rewrites the file itself if it cannot be appended to.
+		// The changed lines are gathered for the rewrite while the lock of this object is held.
+		journal = journalPath == null ? null : new Journal(journalPath, Integer.MAX_VALUE, () -> {
+			Runnable rewrite;
+
+			synchronized (this)
+			{
+				rewrite = prepareRewrite();
+				journalRecords = 0;
+			} // end synchronized
+
+			rewrite.run();
+		});
+		journalRecords = 0;
+
+		// Open the file and its index.  If the file cannot be read, start with no users.
+		try
+		{
+			openFile(new File(userPath));
+		} // end try
+		catch (IOException exception)
+		{
+			dataFile = null;
+			dataChannel = null;
+			index = ByteBuffer.allocate(HEADER_SIZE);
+			indexCount = 0;
+		} // end catch
+	} // end LazyUserRepository(StoreService, String, String, int, String)
+
+	/**
+	 * Open a users file and its index, making the index if it does not match the file.
+	 * 
+	 * @param file the users file
+	 * @throws IOException if the file could not be opened
+	 */
+	private void openFile(File file) throws IOException
+	{
+		// Create the users file if it does not exist.
+		if (!file.exists())
+			file.createNewFile();
+
+		// Use the index if it was made from this version of the file.  Otherwise, check the file (using the backup if its checksum does not
+		// match) and make a new index.
+		ByteBuffer mappedIndex = mapIndex(file);
+
+		if (mappedIndex == null)
+		{
+			file = SnapshotWriter.chooseReadable(file.getPath());
+			buildIndex(file, indexPath);
+			mappedIndex = mapIndex(file);
+
+			// If the index could not be written, build it in memory.
+			if (mappedIndex == null)
+				mappedIndex = buildIndexBuffer(file);
+		} // end if
+
+		dataFile = file;
+		dataChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		index = mappedIndex;
+		indexCount = mappedIndex.getInt(24);
+	} // end openFile(File)
+
+	/**
+	 * Map the index file if it was made from the current version of a users file.
+	 * 
+	 * @param file the users file
+	 * @return the mapped index, or null if the index is missing or out of date
+	 */
+	private ByteBuffer mapIndex(File file)
+	{
+		try (RandomAccessFile indexFile = new RandomAccessFile(indexPath, "r"))
+		{
+			FileChannel channel = indexFile.getChannel();
+
+			// Stop if the file is too small to hold the header.
+			if (channel.size() < HEADER_SIZE)
+				return null;
+
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			// Check that the header matches the users file, and that every entry is there.
+			if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || mapped.getLong(8) != file.length() ||
+				mapped.getLong(16) != file.lastModified() || channel.size() != HEADER_SIZE + (long) ENTRY_SIZE * mapped.getInt(24))
+				return null;
+
+			return mapped;
+		} // end try
+		catch (IOException exception)
+		{
+			// Treat an unreadable index as missing.
+			return null;
+		} // end catch
+	} // end mapIndex(File)
+
+	/**
+	 * Make the index of a users file and write it to the index file.
+	 * 
+	 * @param file the users file
+	 * @param indexPath the path to write the index to
+	 */
+	private static void buildIndex(File file, String indexPath)
+	{
+		try
+		{
+			// Make the index, and write it beside the users file.  It is written to a temporary file that is then moved into place, so that
+			// an index that is mapped into memory is never changed underneath it.
+			ByteBuffer built = buildIndexBuffer(file);
+			Path target = java.nio.file.Paths.get(indexPath).toAbsolutePath();
+			Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+			Files.write(temporary, Arrays.copyOf(built.array(), built.limit()));
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} // end try
+		catch (IOException exception)
+		{
+			// The index is made again next time if it could not be written.
+		} // end catch
+	} // end buildIndex(File, String)
+
+	/**
+	 * Scan a users file and make its index: the hash of each username and the position of its line, sorted by hash.
+	 * 
+	 * @param file the users file
+	 * @return the index, including its header
+	 * @throws IOException if the file could not be read
+	 */
+	private static ByteBuffer buildIndexBuffer(File file) throws IOException
+	{
+		long modified = file.lastModified(), length = file.length();
+		long keys[] = new long[16], offsets[] = new long[16];
+		int count = 0;
+
+		try (InputStream stream = new BufferedInputStream(new FileInputStream(file), 1 << 16))
+		{
+			ByteArrayOutputStream userName = new ByteArrayOutputStream();
+			long position = 0, lineStart = 0;
+			int commas = 0, next;
+			boolean comment = false, firstByte = true;
+
+			// Go through the file one byte at a time, noting where each line starts and collecting the third field (the username).
+			while (true)
+			{
+				next = stream.read();
+
+				// At the end of each line (and of the file), add the line's username to the index.
+				if (next == '\n' || next == -1)
+				{
+					String name = userName.toString(StandardCharsets.UTF_8).strip();
+
+					if (!comment && commas >= 2 && !name.isEmpty())
+					{
+						// Grow the arrays if they are full.
+						if (count == keys.length)
+						{
+							keys = Arrays.copyOf(keys, count * 2);
+							offsets = Arrays.copyOf(offsets, count * 2);
+						} // end if
+
+						// Keep the hash in the top half of the key and the entry's number in the bottom half, so that sorting the keys
+						// sorts the entries by hash.
+						keys[count] = ((long) hashOf(name) << 32) | count;
+						offsets[count] = lineStart;
+						count++;
+					} // end if
+
+					if (next == -1)
+						break;
+
+					// Start the next line.
+					userName.reset();
+					lineStart = position + 1;
+					commas = 0;
+					comment = false;
+					firstByte = true;
+				} // end if
+				else
+				{
+					// Lines starting with '#' are comments (such as the checksum header).
+					if (firstByte)
+						comment = next == '#';
+
+					firstByte = false;
+
+					if (next == ',')
+						commas++;
+					else if (commas == 2)
+						userName.write(next);
+				} // end else
+
+				position++;
+			} // end while
+		} // end try
+
+		// Sort the entries by hash, and write the header and the entries.
+		Arrays.sort(keys, 0, count);
+		ByteBuffer built = ByteBuffer.allocate(HEADER_SIZE + ENTRY_SIZE * count);
+
+		built.putInt(MAGIC).putInt(VERSION).putLong(length).putLong(modified).putInt(count).putInt(0);
+
+		for (int i = 0; i < count; i++)
+			built.putInt((int) (keys[i] >> 32)).putLong(offsets[(int) keys[i]]);
+
+		return built.flip();
+	} // end buildIndexBuffer(File)
+
+	/**
+	 * Get the hash of a username.
+	 * 
+	 * @param userName the username
+	 * @return the hash
+	 */
+	private static int hashOf(String userName)
+	{
+		// Spread the bits of the String's hash.
+		int hash = userName.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	} // end hashOf(String)
+
+	/**
+	 * Find the line of a user in the users file.
+	 * 
+	 * @param userName the username
+	 * @return the user's line, or null if the user is not in the file
+	 * @throws IOException if the file could not be read
+	 */
+	private String findLine(String userName) throws IOException
+	{
+		int hash = hashOf(userName), low = 0, high = indexCount;
+
+		// Find the first entry with the hash.
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			if (index.getInt(HEADER_SIZE + middle * ENTRY_SIZE) < hash)
+				low = middle + 1;
+			else
+				high = middle;
+		} // end while
+
+		// Check each entry with the hash, as different usernames may share a hash.
+		for (int entry = low; entry < indexCount && index.getInt(HEADER_SIZE + entry * ENTRY_SIZE) == hash; entry++)
+		{
+			String line = readLine(index.getLong(HEADER_SIZE + entry * ENTRY_SIZE + 4));
+			String fields[] = splitLine(line);
+
+			if (fields.length > 2 && fields[2].equals(userName))
+				return line;
+		} // end for
+
+		return null;
+	} // end findLine(String)
+
+	/**
+	 * Read the line that starts at a position in the users file.
+	 * 
+	 * @param position the position of the line
+	 * @return the line, without its line break
+	 * @throws IOException if the file could not be read
+	 */
+	private String readLine(long position) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+
+		// Read more of the file until the line break has been read, or the file ends.
+		while (true)
+		{
+			int read = dataChannel.read(buffer, position + buffer.position());
+
+			for (int i = 0; i < buffer.position(); i++)
+				if (buffer.get(i) == '\n')
+					return decodeLine(buffer, i);
+
+			if (read < 0)
+				return decodeLine(buffer, buffer.position());
+
+			// Make the buffer larger if it is full.
+			if (!buffer.hasRemaining())
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+		} // end while
+	} // end readLine(long)
+
+	/**
+	 * Decode the bytes of a line, dropping the carriage return of a Windows line break.
+	 * 
+	 * @param buffer the bytes read
+	 * @param end the position of the line break
+	 * @return the line
+	 */
+	private static String decodeLine(ByteBuffer buffer, int end)
+	{
+		// Leave out the carriage return, if there is one.
+		if (end > 0 && buffer.get(end - 1) == '\r')
+			end--;
+
+		return new String(buffer.array(), 0, end, StandardCharsets.UTF_8);
+	} // end decodeLine(ByteBuffer, int)
+
+	/**
+	 * Split a CSV line into its fields, ignoring spaces around the commas.
+	 * 
+	 * @param line the line
+	 * @return the fields
+	 */
+	public static String[] splitLine(String line)
+	{
+		// Split at every comma, keeping empty fields, and trim each field.
+		String fields[] = line.split(",", -1);
+
+		for (int i = 0; i < fields.length; i++)
+			fields[i] = fields[i].strip();
+
+		return fields;
+	} // end splitLine(String)
+
+	/**
+	 * Get the username of a CSV line.
+	 * 
+	 * @param line the line
+	 * @return the username, or null if the line has no username
+	 */
+	private static String userNameOf(String line)
+	{
+		// The username is the third field.
+		String fields[] = splitLine(line);
+		return fields.length > 2 ? fields[2] : null;
+	} // end userNameOf(String)
+
+	/**
+	 * Read the users into a list.  Users are only made when they are looked up, so the list is left empty, and only the changes in the
+	 * journal are read.
+	 * 
+	 * @param users the list to read into
+	 */
+	@Override
+	public void load(ArrayList<User> users)
+	{
+		// Keep the changes made since the users file was written.
+		if (journal != null)
+		{
+			replayJournal(journal);
+			journalRecords = journal.getRecordCount();
+		} // end if
+	} // end load(ArrayList<User>)
+
+	/**
+	 * Get a user by their username, making the User object if the user is not in the cache.
+	 * 
+	 * @param userName the username
+	 * @return the user, or null if there is no such user
+	 */
+	@Override
+	public synchronized User find(String userName)
+	{
+		// Return a signed in user or a cached user straight away.
+		User user = pinnedUsers.get(userName);
+
+		if (user != null)
+			return user;
+
+		user = cache.get(userName);
+
+		if (user != null)
+		{
+			cacheHits++;
+			return user;
+		} // end if
+
+		try
+		{
+			// Use the changed line of the user if there is one.  Otherwise, look the user up in the file.
+			String line;
+
+			if (changedLines.containsKey(userName))
+			{
+				line = changedLines.get(userName);
+			} // end if
+			else
+			{
+				line = dataChannel == null ? null : findLine(userName);
+				fileReads++;
+			} // end else
+
+			if (line == null)
+				return null;
+
+			// Make the user, and keep them in the cache.
+			user = new User(service, splitLine(line));
+			cache.put(userName, user);
+			return user;
+		} // end try
+		catch (IOException|NumberFormatException|ArrayIndexOutOfBoundsException exception)
+		{
+			// Treat a user that cannot be read as missing.
+			return null;
+		} // end catch
+	} // end find(String)
+
+	/**
+	 * Check whether a user exists.
+	 * 
+	 * @param userName the username
+	 * @return whether the user exists
+	 */
+	@Override
+	public synchronized boolean contains(String userName)
+	{
+		// Check the changed users first, then the file.
+		if (cache.containsKey(userName))
+			return true;
+		else if (changedLines.containsKey(userName))
+			return changedLines.get(userName) != null;
+
+		try
+		{
+			return dataChannel != null && findLine(userName) != null;
+		} // end try
+		catch (IOException exception)
+		{
+			return false;
+		} // end catch
+	} // end contains(String)
+
+	/**
+	 * Store the latest version of a user who has been added or changed, so that the user's changes are kept even once the user is dropped
+	 * from the cache.
+	 * 
+	 * @param user the user
+	 */
+	public synchronized void put(User user)
+	{
+		// Keep the user's line until the file is rewritten, and keep the user in the cache.
+		changedLines.put(user.getUserName(), user.toCSV());
+		cache.put(user.getUserName(), user);
+	} // end put(User)
+
+	/**
+	 * Keep a user in memory while they are signed in, even if they are dropped from the cache.  If the user is already signed in, the
+	 * User object kept for them is used, so that every sign-in shares one cart.
+	 * 
+	 * @param user the signed in user
+	 * @return the User object kept for the user
+	 */
+	@Override
+	public synchronized User pin(User user)
+	{
+		// Keep the user unless another User object is already kept for them, and count the sign-in.
+		User pinnedUser = pinnedUsers.putIfAbsent(user.getUserName(), user);
+
+		pinCounts.merge(user.getUserName(), 1, Integer::sum);
+		return pinnedUser == null ? user : pinnedUser;
+	} // end pin(User)
+
+	/**
+	 * End one sign-in of a user, and stop keeping them once no sign-in is left.  The user stays in the cache until they are dropped.
+	 * 
+	 * @param user the user returned by pin(User)
+	 */
+	@Override
+	public synchronized void unpin(User user)
+	{
+		String userName = user.getUserName();
+
+		// Count the sign-in out, and let the user go after the last.
+		if (!pinCounts.containsKey(userName))
+			return;
+
+		if (pinCounts.get(userName) > 1)
+		{
+			pinCounts.put(userName, pinCounts.get(userName) - 1);
+		} // end if
+		else
+		{
+			pinCounts.remove(userName);
+			cache.put(userName, pinnedUsers.remove(userName));
+		} // end else
+	} // end unpin(User)
+
+	/**
+	 * Apply the records in the user journal.  The records are kept as changed lines, so no User objects are made.
+	 * 
+	 * @param userJournal the journal of changes to the users
+	 */
+	private synchronized void replayJournal(Journal userJournal)
+	{
+		// Store the line of each user put, and mark each user deleted.
+		userJournal.replay((type, data) -> {
+			if (type.equals(Journal.PUT))
+			{
+				String userName = userNameOf(data);
+
+				if (userName != null)
+					changedLines.put(userName, data);
+			} // end if
+			else if (type.equals(Journal.DELETE))
+			{
+				changedLines.put(data.trim(), null);
+			} // end else if
+		});
+	} // end replayJournal(Journal)
+
+	/**
+	 * Gather a batch of changed users.  The users are kept as changed lines, and are appended to the journal together if one is used.  If
+	 * there is no journal, or it would grow too large, the users file is rewritten instead.
+	 * 
+	 * @param changes the users that have changed
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public synchronized Runnable prepareCommit(Collection<User> changes)
+	{
+		// Nothing is written if there are no changes.
+		if (changes.isEmpty())
+			return null;
+
+		// Keep the line of each user until the file is rewritten.
+		ArrayList<String> keys = new ArrayList<String>(), records = new ArrayList<String>();
+
+		for (User user : changes)
+		{
+			put(user);
+			keys.add(user.getUserName());
+			records.add(changedLines.get(user.getUserName()));
+		} // end for
+
+		// Rewrite the file if there is no journal or the journal would grow too large.  Otherwise, append the records to the journal.
+		if (journal == null || journalRecords + records.size() >= Journal.DEFAULT_COMPACT_THRESHOLD)
+			return prepareSnapshot();
+
+		journalRecords += records.size();
+		return () -> {journal.appendBatch(keys, records);};
+	} // end prepareCommit(Collection<User>)
+
+	/**
+	 * Gather the changed users, so that the users file can be rewritten.  The journal is cleared once the file is written.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public synchronized Runnable prepareSnapshot()
+	{
+		// Gather the rewrite now, and run it and clear the journal later.
+		Runnable rewrite = prepareRewrite();
+		journalRecords = 0;
+
+		return () -> {
+			rewrite.run();
+
+			if (journal != null)
+				journal.clear();
+		};
+	} // end prepareSnapshot()
+
+	/**
+	 * Gather the changed users so that the users file can be rewritten with them.  This is called while the store service's lock is held,
+	 * and the write it returns can be run on another thread.  The write copies every line of the current file (replacing the lines of the
+	 * changed users), adds the new users, and then makes the index of the new file.
+	 * 
+	 * @return the write to run
+	 */
+	private synchronized Runnable prepareRewrite()
+	{
+		// Copy the changed lines as they are now.
+		HashMap<String, String> linesToWrite = new HashMap<String, String>(changedLines);
+		File sourceFile = dataFile;
+
+		return () -> {
+			ArrayList<String> lines = new ArrayList<String>();
+			HashSet<String> written = new HashSet<String>();
+
+			try
+			{
+				// Copy each line of the current file, using the changed line instead if the user has changed.
+				if (sourceFile != null)
+				{
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(sourceFile),
+						StandardCharsets.UTF_8)))
+					{
+						for (String line = reader.readLine(); line != null; line = reader.readLine())
+						{
+							String userName = line.startsWith("#") ? null : userNameOf(line);
+
+							if (userName == null || userName.isEmpty())
+								continue;
+
+							if (linesToWrite.containsKey(userName))
+							{
+								if (written.add(userName) && linesToWrite.get(userName) != null)
+									lines.add(linesToWrite.get(userName));
+							} // end if
+							else
+							{
+								lines.add(line);
+							} // end else
+						} // end for
+					} // end try
+				} // end if
+
+				// Add the users that were not in the file.
+				for (Map.Entry<String, String> entry : linesToWrite.entrySet())
+					if (!written.contains(entry.getKey()) && entry.getValue() != null)
+						lines.add(entry.getValue());
+
+				// Write the file, and make its index.
+				if (!DataFiles.writeLines(userPath, lines))
+					return;
+
+				File newFile = new File(userPath);
+				buildIndex(newFile, indexPath);
+				ByteBuffer newIndex = mapIndex(newFile);
+
+				if (newIndex == null)
+					newIndex = buildIndexBuffer(newFile);
+
+				FileChannel newChannel = FileChannel.open(newFile.toPath(), StandardOpenOption.READ);
+
+				// Switch to the new file, and forget the changed lines that are now in it (unless they have changed again since).
+				synchronized (this)
+				{
+					if (dataChannel != null)
+						dataChannel.close();
+
+					dataFile = newFile;
+					dataChannel = newChannel;
+					index = newIndex;
+					indexCount = newIndex.getInt(24);
+
+					for (Map.Entry<String, String> entry : linesToWrite.entrySet())
+						changedLines.remove(entry.getKey(), entry.getValue());
+				} // end synchronized
+			} // end try
+			catch (IOException exception)
+			{
+				// Report the failure.  The changed lines are kept, so they are written next time.
+				System.err.println("Failed to rewrite " + userPath + ": " + exception.getMessage());
+			} // end catch
+		};
+	} // end prepareRewrite()
+
+	/**
+	 * Get the number of users in the index of the users file.
+	 * 
+	 * @return the number of users indexed
+	 */
+	public synchronized int getIndexedCount()
+	{
+		// Return the number of entries.
+		return indexCount;
+	} // end getIndexedCount()
+
+	/**
+	 * Get the number of users kept in the cache.
+	 * 
+	 * @return the number of cached users
+	 */
+	public synchronized int getCachedCount()
+	{
+		// Return the size of the cache.
+		return cache.size();
+	} // end getCachedCount()
+
+	/**
+	 * Get the number of users added or changed since the users file was last written.
+	 * 
+	 * @return the number of changed users
+	 */
+	public synchronized int getChangedCount()
+	{
+		// Return the number of changed lines.
+		return changedLines.size();
+	} // end getChangedCount()
+
+	/**
+	 * Get the number of lookups answered by the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public synchronized long getCacheHits()
+	{
+		// Return the count.
+		return cacheHits;
+	} // end getCacheHits()
+
+	/**
+	 * Get the number of lookups that had to read the users file.
+	 * 
+	 * @return the number of file reads
+	 */
+	public synchronized long getFileReads()
+	{
+		// Return the count.
+		return fileReads;
+	} // end getFileReads()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,425 @@
+/**
+ * Final Project: The Store - Load Generator
+ * This class sends many requests at once to a running store server (see StoreServer), and reports how long they took.  Up to a given
+ * number of requests are kept waiting for an answer at all times, each on its own connection, so the server is measured with that many
+ * shoppers together.  Most requests browse: pages of the catalog, searches, and single books, made from the first page of the catalog.
+ * The rest are made by signed in shoppers, who add books to their carts, change and remove them, and check out, in the proportions of
+ * the weights below.  Once every request has been answered, the rate and the 50th, 90th, and 99th percentiles of the time taken are
+ * printed, for every request and for each kind of request.
+ * 
+ * The shoppers sign in as the accounts loadshopper0, loadshopper1, and so on, which are registered if they do not exist, and they buy
+ * books.  So that this never changes the store's real data, the test is normally run against a server started in the same program whose
+ * changes are only kept in memory (see runInMemory).  A server that is already running is only sent shoppers' requests if the
+ * muftibooks.liveLoadTest property is "true", as its data would be changed.  With no shoppers, only browsing requests are sent.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.net.URI;
+import java.net.http.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LoadGenerator
+{
+	// Store the number of connections, the number of requests, and the number of shoppers used if none are given.
+	public static final int DEFAULT_CONNECTIONS = 10000;
+	public static final int DEFAULT_REQUESTS = 200000;
+	public static final int DEFAULT_SHOPPERS = 100;
+
+	// Store the kinds of requests, their names, and the weight of each (out of 100) when there are shoppers.
+	private static final int BROWSE = 0, ADD_TO_CART = 1, CHANGE_CART = 2, REMOVE_FROM_CART = 3, CHECKOUT = 4;
+	private static final String KIND_NAMES[] = {"browse", "add to cart", "change cart", "remove from cart", "checkout"};
+	private static final int KIND_WEIGHTS[] = {70, 12, 6, 4, 8};
+
+	// Store the password the shoppers' accounts are registered with.
+	private static final String SHOPPER_PASSWORD = "LoadTest1";
+
+	// Store the longest time a request may take before it counts as failed.
+	private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+	// Store the patterns that pick the ids and the first words of the titles out of a page of the catalog.
+	private static final Pattern ID_PATTERN = Pattern.compile("\"id\":(\\d+)");
+	private static final Pattern WORD_PATTERN = Pattern.compile("\"name\":\"([A-Za-z]+)");
+
+	/**
+	 * Start a server in this program whose changes are only kept in memory, send the requests to it, and print the results.  The server
+	 * reads the store's data as usual, but the accounts registered and the books bought by the shoppers are never written.
+	 * 
+	 * @param connections the number of requests kept waiting at once
+	 * @param requests the number of requests to send
+	 * @param shoppers the number of shoppers who sign in and shop (0 to only browse)
+	 * @return whether every request was answered successfully
+	 * @throws IllegalArgumentException if there are no connections or requests, or fewer than no shoppers
+	 * @throws java.io.IOException if the server could not be started, the first page of the catalog could not be read, or a shopper could
+	 * not sign in
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	public static boolean runInMemory(int connections, int requests, int shoppers) throws java.io.IOException, InterruptedException
+	{
+		// Check the numbers before the server is started.
+		checkNumbers(connections, requests, shoppers);
+
+		// Keep the changes in memory, and listen on any free port.
+		System.setProperty("muftibooks.repository", "memory");
+		StoreServer server = new StoreServer(new StoreService(), 0);
+
+		server.start();
+
+		// Send the requests, and stop the server once they have been answered.
+		try
+		{
+			return send("http://localhost:" + server.getPort(), connections, requests, shoppers);
+		} // end try
+		finally
+		{
+			server.stop(0);
+		} // end finally
+	} // end runInMemory(int, int, int)
+
+	/**
+	 * Send the requests to a server that is already running, and print the results.  Shoppers are only sent if the muftibooks.liveLoadTest
+	 * property is "true", as they register accounts and buy books on the server.
+	 * 
+	 * @param baseUrl the address of the server, such as http://localhost:8080
+	 * @param connections the number of requests kept waiting at once
+	 * @param requests the number of requests to send
+	 * @param shoppers the number of shoppers who sign in and shop (0 to only browse)
+	 * @return whether every request was answered successfully
+	 * @throws IllegalArgumentException if there are no connections or requests, or fewer than no shoppers, or there are shoppers and the
+	 * muftibooks.liveLoadTest property is not "true"
+	 * @throws java.io.IOException if the first page of the catalog could not be read, or a shopper could not sign in
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	public static boolean run(String baseUrl, int connections, int requests, int shoppers) throws java.io.IOException, InterruptedException
+	{
+		// Check the numbers, and that the shoppers may change the server's data, before anything is sent.
+		checkNumbers(connections, requests, shoppers);
+
+		if (shoppers > 0 && !Boolean.getBoolean("muftibooks.liveLoadTest"))
+		{
+			throw new IllegalArgumentException(
+				"Shoppers would register accounts and buy books on " + baseUrl + ".  Leave out the address to test a copy kept in memory, " +
+					"use 0 shoppers, or set muftibooks.liveLoadTest to true."
+			);
+		} // end if
+
+		return send(baseUrl, connections, requests, shoppers);
+	} // end run(String, int, int, int)
+
+	/**
+	 * Check the numbers the test is run with.
+	 * 
+	 * @param connections the number of requests kept waiting at once
+	 * @param requests the number of requests to send
+	 * @param shoppers the number of shoppers
+	 * @throws IllegalArgumentException if there are no connections or requests, or fewer than no shoppers
+	 */
+	private static void checkNumbers(int connections, int requests, int shoppers)
+	{
+		// Refuse numbers the test cannot be run with.
+		if (connections < 1 || requests < 1 || shoppers < 0)
+			throw new IllegalArgumentException("There must be at least one connection and one request, and no fewer than 0 shoppers.");
+	} // end checkNumbers(int, int, int)
+
+	/**
+	 * Send the requests, and print the results.  A cart change or checkout the store refuses (as a book has run out, the cart is full, or
+	 * the book is not in the cart) is counted as refused rather than failed, as the store is right to refuse it.
+	 * 
+	 * @param baseUrl the address of the server, such as http://localhost:8080
+	 * @param connections the number of requests kept waiting at once
+	 * @param requests the number of requests to send
+	 * @param shoppers the number of shoppers who sign in and shop (0 to only browse)
+	 * @return whether every request was answered successfully
+	 * @throws java.io.IOException if the first page of the catalog could not be read, or a shopper could not sign in
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static boolean send(String baseUrl, int connections, int requests, int shoppers) throws java.io.IOException, InterruptedException
+	{
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(TIMEOUT).build();
+		String page = readCatalog(client, baseUrl);
+		String paths[] = makePaths(page);
+		int bookIds[] = findBookIds(page);
+		String tokens[] = signInShoppers(client, baseUrl, shoppers);
+		Random random = new Random(0);
+
+		// Note the kind of each request and the time it took (in microseconds), and count the requests that failed or were refused.
+		int kinds[] = new int[requests];
+		long latencies[] = new long[requests];
+		AtomicLong failed = new AtomicLong();
+		AtomicLong refused = new AtomicLong();
+		Semaphore open = new Semaphore(connections);
+		CountDownLatch done = new CountDownLatch(requests);
+		long start = System.nanoTime();
+
+		// Send each request once a connection is free, and note how long it took once it is answered.
+		for (int i = 0; i < requests; i++)
+		{
+			int request = i;
+			kinds[i] = tokens.length == 0 || bookIds.length == 0 ? BROWSE : pickKind(random);
+			HttpRequest httpRequest = makeRequest(baseUrl, kinds[i], paths[i % paths.length], tokens, bookIds, random);
+			open.acquire();
+			long sent = System.nanoTime();
+
+			client.sendAsync(httpRequest, HttpResponse.BodyHandlers.discarding()).whenComplete((response, exception) -> {
+				latencies[request] = (System.nanoTime() - sent) / 1000;
+
+				if (exception != null || response.statusCode() >= 500 || (kinds[request] == BROWSE && response.statusCode() != 200))
+					failed.incrementAndGet();
+				else if (response.statusCode() == 404 || response.statusCode() == 409)
+					refused.incrementAndGet();
+				else if (response.statusCode() >= 300)
+					failed.incrementAndGet();
+
+				open.release();
+				done.countDown();
+			});
+		} // end for
+
+		done.await();
+		long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+		// Print the rate and percentiles of every request, then of each kind of request that was sent.
+		System.out.printf(
+			"%d requests (%d failed, %d refused) over %d connections with %d shoppers in %d ms (%d per second)%n",
+			requests, failed.get(), refused.get(), connections, tokens.length, millis, requests * 1000L / millis
+		);
+		printLatencies("all", latencies.clone());
+
+		for (int kind = 0; kind < KIND_NAMES.length; kind++)
+		{
+			long kindLatencies[] = new long[requests];
+			int count = 0;
+
+			for (int i = 0; i < requests; i++)
+				if (kinds[i] == kind)
+					kindLatencies[count++] = latencies[i];
+
+			if (count > 0)
+				printLatencies(KIND_NAMES[kind], Arrays.copyOf(kindLatencies, count));
+		} // end for
+
+		return failed.get() == 0;
+	} // end run(String, int, int, int)
+
+	/**
+	 * Read the first page of the catalog.
+	 * 
+	 * @param client the client to read the page with
+	 * @param baseUrl the address of the server
+	 * @return the text of the page
+	 * @throws java.io.IOException if the page could not be read
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static String readCatalog(HttpClient client, String baseUrl) throws java.io.IOException, InterruptedException
+	{
+		HttpResponse<String> page = client.send(
+			HttpRequest.newBuilder(URI.create(baseUrl + "/api/books?limit=" + StoreServer.MAX_PAGE_SIZE)).timeout(TIMEOUT).build(),
+			HttpResponse.BodyHandlers.ofString()
+		);
+
+		// Return the page, unless the server could not give it.
+		if (page.statusCode() != 200)
+			throw new java.io.IOException("The catalog could not be read (status " + page.statusCode() + ").");
+
+		return page.body();
+	} // end readCatalog(HttpClient, String)
+
+	/**
+	 * Make the paths that are browsed, from the first page of the catalog: pages of the catalog, searches for the first word of each
+	 * title, and each book on the page.
+	 * 
+	 * @param page the text of the first page of the catalog
+	 * @return the paths
+	 */
+	private static String[] makePaths(String page)
+	{
+		ArrayList<String> paths = new ArrayList<String>();
+
+		// Add a request for each book, and a search for the first word of each title.
+		Matcher words = WORD_PATTERN.matcher(page);
+
+		for (int id : findBookIds(page))
+			paths.add("/api/books/" + id);
+
+		while (words.find())
+			paths.add("/api/books?query=" + words.group(1));
+
+		// Add a few pages of the catalog.
+		for (int offset = 0; offset < 5 * StoreServer.DEFAULT_PAGE_SIZE; offset += StoreServer.DEFAULT_PAGE_SIZE)
+			paths.add("/api/books?offset=" + offset);
+
+		// Shuffle the paths, so that the kinds of requests are mixed.
+		Collections.shuffle(paths, new Random(0));
+		return paths.toArray(new String[0]);
+	} // end makePaths(String)
+
+	/**
+	 * Find the ids of the books on a page of the catalog.
+	 * 
+	 * @param page the text of the page
+	 * @return the ids, in the order they are on the page
+	 */
+	private static int[] findBookIds(String page)
+	{
+		Matcher ids = ID_PATTERN.matcher(page);
+
+		// Read each id.
+		return ids.results().mapToInt((result) -> Integer.parseInt(result.group(1))).toArray();
+	} // end findBookIds(String)
+
+	/**
+	 * Sign in each shopper, registering their account first if it does not exist.
+	 * 
+	 * @param client the client to send the requests with
+	 * @param baseUrl the address of the server
+	 * @param shoppers the number of shoppers
+	 * @return the token of each shopper
+	 * @throws java.io.IOException if a shopper could not be registered or signed in
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static String[] signInShoppers(HttpClient client, String baseUrl, int shoppers) throws java.io.IOException, InterruptedException
+	{
+		String tokens[] = new String[shoppers];
+
+		for (int i = 0; i < shoppers; i++)
+		{
+			// Register the account, which is refused with 409 if it already exists.
+			String userName = "loadshopper" + i;
+			HttpResponse<String> response = post(
+				client, baseUrl + "/api/register", "{\"firstName\":\"Load\",\"lastName\":\"Shopper\",\"userName\":\"" + userName +
+					"\",\"password\":\"" + SHOPPER_PASSWORD + "\",\"email\":\"" + userName + "@example.com\"}"
+			);
+
+			if (response.statusCode() != 201 && response.statusCode() != 409)
+				throw new java.io.IOException("Could not register " + userName + " (status " + response.statusCode() + ").");
+
+			// Sign in, and keep the token.
+			response = post(
+				client, baseUrl + "/api/login", "{\"userName\":\"" + userName + "\",\"password\":\"" + SHOPPER_PASSWORD + "\"}"
+			);
+
+			if (response.statusCode() != 200)
+				throw new java.io.IOException("Could not sign in as " + userName + " (status " + response.statusCode() + ").");
+
+			tokens[i] = Json.parseObject(response.body()).get("token");
+		} // end for
+
+		return tokens;
+	} // end signInShoppers(HttpClient, String, int)
+
+	/**
+	 * Send a JSON object to the server with POST, and wait for the answer.
+	 * 
+	 * @param client the client to send the request with
+	 * @param url the address to send to
+	 * @param body the JSON object
+	 * @return the response
+	 * @throws java.io.IOException if the request could not be sent
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static HttpResponse<String> post(HttpClient client, String url, String body) throws java.io.IOException, InterruptedException
+	{
+		// Send the body, and read the answer as text.
+		return client.send(
+			HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+			HttpResponse.BodyHandlers.ofString()
+		);
+	} // end post(HttpClient, String, String)
+
+	/**
+	 * Pick the kind of a shopper's request at random, in the proportions of the weights.
+	 * 
+	 * @param random the source of random numbers
+	 * @return the kind of request
+	 */
+	private static int pickKind(Random random)
+	{
+		int roll = random.nextInt(100);
+
+		// Walk the weights until the roll falls within one.
+		for (int kind = 0; kind < KIND_WEIGHTS.length; kind++)
+		{
+			if (roll < KIND_WEIGHTS[kind])
+				return kind;
+
+			roll -= KIND_WEIGHTS[kind];
+		} // end for
+
+		return BROWSE;
+	} // end pickKind(Random)
+
+	/**
+	 * Make a request of a given kind.  A shopper's request is sent as a random shopper, about a random book of the first page.
+	 * 
+	 * @param baseUrl the address of the server
+	 * @param kind the kind of request
+	 * @param path the path to browse, if the request browses
+	 * @param tokens the token of each shopper
+	 * @param bookIds the ids of the books the shoppers buy
+	 * @param random the source of random numbers
+	 * @return the request
+	 */
+	private static HttpRequest makeRequest(String baseUrl, int kind, String path, String tokens[], int bookIds[], Random random)
+	{
+		HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(TIMEOUT);
+
+		// Browse without signing in.
+		if (kind == BROWSE)
+			return builder.uri(URI.create(baseUrl + path)).GET().build();
+
+		// Otherwise, send the request as a shopper.
+		int bookId = bookIds[random.nextInt(bookIds.length)];
+		builder.header("Authorization", "Bearer " + tokens[random.nextInt(tokens.length)]);
+
+		switch (kind)
+		{
+			case ADD_TO_CART:
+				return builder.uri(URI.create(baseUrl + "/api/cart"))
+					.POST(HttpRequest.BodyPublishers.ofString("{\"bookId\":" + bookId + ",\"quantity\":1}")).build();
+			case CHANGE_CART:
+				return builder.uri(URI.create(baseUrl + "/api/cart/" + bookId))
+					.PUT(HttpRequest.BodyPublishers.ofString("{\"quantity\":" + (1 + random.nextInt(2)) + "}")).build();
+			case REMOVE_FROM_CART:
+				return builder.uri(URI.create(baseUrl + "/api/cart/" + bookId)).DELETE().build();
+			default:
+				return builder.uri(URI.create(baseUrl + "/api/checkout")).POST(HttpRequest.BodyPublishers.noBody()).build();
+		} // end switch
+	} // end makeRequest(String, int, String, String[], int[], Random)
+
+	/**
+	 * Print the percentiles of some times.
+	 * 
+	 * @param label the name of the requests the times belong to
+	 * @param latencies the times (in microseconds), which are sorted
+	 */
+	private static void printLatencies(String label, long latencies[])
+	{
+		// Sort the times, and print the percentiles.
+		Arrays.sort(latencies);
+
+		System.out.printf(
+			"  %-16s %7d requests; latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+			label, latencies.length, percentile(latencies, 50) / 1000.0, percentile(latencies, 90) / 1000.0,
+			percentile(latencies, 99) / 1000.0, latencies[latencies.length - 1] / 1000.0
+		);
+	} // end printLatencies(String, long[])
+
+	/**
+	 * Get a percentile of some sorted times.
+	 * 
+	 * @param sorted the times, sorted
+	 * @param percent the percentile
+	 * @return the time that the given percent of the times are at or below
+	 */
+	private static long percentile(long sorted[], int percent)
+	{
+		// Take the time at the percentile's rank.
+		return sorted[Math.max(0, (int) Math.ceil(sorted.length * percent / 100.0) - 1)];
+	} // end percentile(long[], int)
+} // end public class
\ No newline at end of file
@@ -41,7 +41,7 @@ public class MainFrame extends JFrame
 			@Override
 			public void windowClosing(WindowEvent event)
 			{
-				// Ask if the program should be closed.
+				// Ask if the program should be closed.  Changes still waiting to be written are flushed before the program exits.
 				gui.askExitProgram();
 			} // end windowClosing(WindowEvent)
 		});
@@ -54,10 +54,16 @@ public class MainFrame extends JFrame
 	 */
 	public void switchPage(JComponent newPage)
 	{
+		// Remember the current page, so that the images it is still loading can be cancelled.
+		Component oldPage = getContentPane().getComponentCount() > 0 ? getContentPane().getComponent(0) : null;
+
 		// Remove all the current components, and add the new component.
 		getContentPane().removeAll();
 		add(newPage);
 
+		if (oldPage != null)
+			ImageLoader.cancel(oldPage);
+
 		// Revalidate and repaint (if these lines are not used, there may be errors in displaying).
 		revalidate();
 		repaint();
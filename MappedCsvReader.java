@@ -0,0 +1,470 @@
+/**
+ * Final Project: The Store - Mapped CSV Reader
+ * This class reads a CSV file by mapping it into memory, and splitting each line into its fields in a single pass over the bytes.  No
+ * regular expressions are used, and no arrays are made per line: the current line is copied into a buffer that is reused, and the fields
+ * are kept as positions in that buffer.  Numbers are parsed straight from the bytes, so only the text fields become Strings.
+ * 
+ * printStartupBenchmark compares the time taken to read the books and users files this way with the old way of reading them (a
+ * BufferedReader, and a regular expression to split each line).
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MappedCsvReader
+{
+	// Store the largest part of the file that is mapped at once.
+	private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+	// Store the powers of ten that can be represented exactly as doubles, used when parsing prices.
+	private static final double POWERS_OF_TEN[] = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	// Declare variables for the file, the mapped part of the file, and where that part starts.
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private MappedByteBuffer window;
+	private long fileSize, windowStart;
+
+	// Declare the buffer for the current line, and the positions of the fields in that buffer.
+	private byte line[];
+	private int lineLength, fieldCount;
+	private int fieldStarts[], fieldEnds[];
+
+	/**
+	 * This constructor opens the file and maps the start of it into memory.
+	 * 
+	 * @param csvFile the file to read
+	 * @throws FileNotFoundException if the file does not exist
+	 * @throws IOException if the file could not be mapped
+	 */
+	public MappedCsvReader(File csvFile) throws IOException
+	{
+		// Open the file and store its size.
+		file = new RandomAccessFile(csvFile, "r");
+		channel = file.getChannel();
+		fileSize = channel.size();
+
+		// Map the first part of the file.
+		windowStart = 0;
+		mapWindow();
+
+		// Initialize the buffers with enough room for a typical line.
+		line = new byte[256];
+		fieldStarts = new int[16];
+		fieldEnds = new int[16];
+		lineLength = fieldCount = 0;
+	} // end MappedCsvReader(File)
+
+	/**
+	 * Map the part of the file that starts at the current window start.
+	 * 
+	 * @throws IOException if the file could not be mapped
+	 */
+	private void mapWindow() throws IOException
+	{
+		// Map as much of the file as is allowed, starting from the window start.
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(fileSize - windowStart, MAX_WINDOW_SIZE));
+	} // end mapWindow()
+
+	/**
+	 * Move to the next line of the file that is not blank or a comment, and split it into fields.
+	 * 
+	 * @return true if a line was read, or false if the end of the file has been reached
+	 * @throws IOException if the next part of the file could not be mapped
+	 */
+	public boolean nextLine() throws IOException
+	{
+		// Keep reading lines until a line with content is found.
+		while (readLine())
+		{
+			// Skip blank lines and comment lines.
+			if (lineLength > 0 && line[0] != '#')
+			{
+				splitFields();
+				return true;
+			} // end if
+		} // end while
+
+		// Return false as no line is left.
+		return false;
+	} // end nextLine()
+
+	/**
+	 * Copy the next line of the file into the line buffer.
+	 * 
+	 * @return true if a line was read, or false if the end of the file has been reached
+	 * @throws IOException if the next part of the file could not be mapped
+	 */
+	private boolean readLine() throws IOException
+	{
+		int lineStart = window.position(), lineEnd = lineStart, limit = window.limit();
+
+		// Return false if there is nothing left in the file.
+		if (lineStart == limit && windowStart + limit >= fileSize)
+			return false;
+
+		// Look for the end of the line.
+		while (lineEnd < limit && window.get(lineEnd) != '\n')
+			lineEnd++;
+
+		// If the line runs past the mapped part of the file, map the part that starts with this line and look again.
+		if (lineEnd == limit && windowStart + limit < fileSize)
+		{
+			windowStart += lineStart;
+			mapWindow();
+			return readLine();
+		} // end if
+
+		// Grow the line buffer if the line does not fit.
+		lineLength = lineEnd - lineStart;
+
+		if (lineLength > line.length)
+			line = new byte[Math.max(lineLength, line.length * 2)];
+
+		// Copy the line into the buffer, and move past the line and its line break.
+		window.get(line, 0, lineLength);
+
+		if (lineEnd < limit)
+			window.position(lineEnd + 1);
+
+		// Drop the carriage return of a Windows line break.
+		if (lineLength > 0 && line[lineLength - 1] == '\r')
+			lineLength--;
+
+		return true;
+	} // end readLine()
+
+	/**
+	 * Find the start and end of each field in the current line, ignoring spaces around the commas.
+	 */
+	private void splitFields()
+	{
+		int start = 0;
+
+		fieldCount = 0;
+
+		// Iterate through the line, ending a field at each comma, and at the end of the line.
+		for (int i = 0; i <= lineLength; i++)
+		{
+			if (i == lineLength || line[i] == ',')
+			{
+				// Grow the field positions if there are more fields than room.
+				if (fieldCount == fieldStarts.length)
+				{
+					fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+					fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+				} // end if
+
+				// Store the field without the spaces around it.
+				int end = i;
+
+				while (start < end && isSpace(line[start]))
+					start++;
+
+				while (end > start && isSpace(line[end - 1]))
+					end--;
+
+				fieldStarts[fieldCount] = start;
+				fieldEnds[fieldCount] = end;
+				fieldCount++;
+
+				// The next field starts after the comma.
+				start = i + 1;
+			} // end if
+		} // end for
+	} // end splitFields()
+
+	/**
+	 * Check whether a byte is a space character.
+	 * 
+	 * @param character the byte to check
+	 * @return whether the byte is a space, tab, or other whitespace character
+	 */
+	private static boolean isSpace(byte character)
+	{
+		// Return whether the character is whitespace.
+		return character == ' ' || character == '\t' || character == '\r' || character == '\f' || character == 0x0B;
+	} // end isSpace(byte)
+
+	/**
+	 * Get the number of fields in the current line.
+	 * 
+	 * @return the number of fields
+	 */
+	public int getFieldCount()
+	{
+		// Return the number of fields.
+		return fieldCount;
+	} // end getFieldCount()
+
+	/**
+	 * Check that a field exists in the current line.
+	 * 
+	 * @param field the index of the field
+	 */
+	private void checkField(int field)
+	{
+		// Throw the same exception an array would if the field does not exist.
+		if (field < 0 || field >= fieldCount)
+			throw new ArrayIndexOutOfBoundsException(field);
+	} // end checkField(int)
+
+	/**
+	 * Get a field of the current line as a String.
+	 * 
+	 * @param field the index of the field
+	 * @return the value of the field
+	 */
+	public String getString(int field)
+	{
+		// Decode the bytes of the field.
+		checkField(field);
+		return new String(line, fieldStarts[field], fieldEnds[field] - fieldStarts[field], StandardCharsets.UTF_8);
+	} // end getString(int)
+
+	/**
+	 * Get a field of the current line as an integer.
+	 * 
+	 * @param field the index of the field
+	 * @return the value of the field
+	 * @throws NumberFormatException if the field is not a valid integer
+	 */
+	public int getInt(int field)
+	{
+		int position, end;
+		long value = 0;
+		boolean negative;
+
+		// Find the bounds of the field.
+		checkField(field);
+		position = fieldStarts[field];
+		end = fieldEnds[field];
+
+		// Read the sign, if any.
+		negative = position < end && line[position] == '-';
+
+		if (position < end && (line[position] == '-' || line[position] == '+'))
+			position++;
+
+		// An integer needs at least one digit.
+		if (position == end)
+			throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+
+		// Add each digit to the value, stopping if a character is not a digit or the value is too large.
+		for (; position < end; position++)
+		{
+			int digit = line[position] - '0';
+
+			if (digit < 0 || digit > 9)
+				throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+
+			value = value * 10 + digit;
+
+			if (value > Integer.MAX_VALUE + 1L)
+				throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+		} // end for
+
+		// Apply the sign, and make sure the value fits in an integer.
+		value = negative ? -value : value;
+
+		if (value > Integer.MAX_VALUE)
+			throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+
+		return (int) value;
+	} // end getInt(int)
+
+	/**
+	 * Get a field of the current line as a double.
+	 * 
+	 * @param field the index of the field
+	 * @return the value of the field
+	 * @throws NumberFormatException if the field is not a valid number
+	 */
+	public double getDouble(int field)
+	{
+		int position, end, digits = 0, fractionDigits = 0;
+		long mantissa = 0;
+		boolean negative, pastPoint = false;
+
+		// Find the bounds of the field.
+		checkField(field);
+		position = fieldStarts[field];
+		end = fieldEnds[field];
+
+		// Read the sign, if any.
+		negative = position < end && line[position] == '-';
+
+		if (position < end && (line[position] == '-' || line[position] == '+'))
+			position++;
+
+		// Read plain decimal numbers (such as prices) directly.  As long as there are at most 15 digits, both the digits and the power of
+		// ten are exact, so dividing them gives the same result as Double.parseDouble.
+		for (; position < end; position++)
+		{
+			byte character = line[position];
+
+			if (character == '.' && !pastPoint)
+			{
+				pastPoint = true;
+			} // end if
+			else if (character >= '0' && character <= '9' && digits < 15)
+			{
+				mantissa = mantissa * 10 + (character - '0');
+				digits++;
+
+				if (pastPoint)
+					fractionDigits++;
+			} // end else if
+			else
+			{
+				// Leave anything else (exponents, long fractions, etc.) to the standard parser.
+				return Double.parseDouble(getString(field));
+			} // end else
+		} // end for
+
+		// A number needs at least one digit.
+		if (digits == 0)
+			throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+
+		// Return the value with the sign applied.
+		double value = mantissa / POWERS_OF_TEN[fractionDigits];
+		return negative ? -value : value;
+	} // end getDouble(int)
+
+	/**
+	 * Close the file.
+	 * 
+	 * @throws IOException if the file could not be closed
+	 */
+	public void close() throws IOException
+	{
+		// Close the channel and the file.  The mapping is released once it is no longer used.
+		channel.close();
+		file.close();
+		window = null;
+	} // end close()
+
+	/**
+	 * Print how long it takes to read the books and users files when the program starts, this way and the old way.  A books file and a
+	 * users file with the given number of rows each are made in a temporary folder, and each is read a few times with each reader, the
+	 * old way first.  The fastest time of each is printed, along with the speedup.
+	 * 
+	 * @param rowCount the number of books and of users in the files
+	 * @throws IOException if the files could not be written or read
+	 */
+	public static void printStartupBenchmark(int rowCount) throws IOException
+	{
+		File bookFile = File.createTempFile("muftibooks-books", ".csv");
+		File userFile = File.createTempFile("muftibooks-users", ".csv");
+		Random random = new Random(1);
+
+		bookFile.deleteOnExit();
+		userFile.deleteOnExit();
+
+		// Write the books and users, in the format of the data files.
+		try (BufferedWriter bookWriter = new BufferedWriter(new FileWriter(bookFile));
+			BufferedWriter userWriter = new BufferedWriter(new FileWriter(userFile)))
+		{
+			for (int i = 0; i < rowCount; i++)
+			{
+				bookWriter.write(i + ",Book Number " + i + "," + (5 + random.nextInt(40)) + ".99," + random.nextInt(200) + "," +
+					random.nextInt(30) + ",Fiction,Paperback,Author " + random.nextInt(5000) + "," + (1800 + random.nextInt(221)) + ",book" +
+					i + ".jpg");
+				bookWriter.newLine();
+				userWriter.write("First" + i + ",Last" + i + ",user" + i + ",Password" + i + "!,user" + i + "@example.com," +
+					random.nextInt(500) + ".25," + random.nextInt(5000) + ".5," + random.nextInt(20) + "," + random.nextInt(200) + ",");
+				userWriter.newLine();
+			} // end for
+		} // end try
+
+		// Time each reader, keeping the fastest of a few rounds (the first rounds also warm up the JIT compiler).
+		long oldBooks = Long.MAX_VALUE, oldUsers = Long.MAX_VALUE, newBooks = Long.MAX_VALUE, newUsers = Long.MAX_VALUE;
+
+		for (int round = 0; round < 5; round++)
+		{
+			long start = System.nanoTime();
+			int count = readBooksTheOldWay(bookFile);
+			oldBooks = Math.min(oldBooks, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			count += readUsersTheOldWay(userFile);
+			oldUsers = Math.min(oldUsers, System.nanoTime() - start);
+
+			ArrayList<Book> books = new ArrayList<Book>();
+			start = System.nanoTime();
+			DataFiles.readBookCsv(bookFile, books);
+			newBooks = Math.min(newBooks, System.nanoTime() - start);
+
+			ArrayList<User> users = new ArrayList<User>();
+			start = System.nanoTime();
+			DataFiles.readUserCsv(null, userFile, users);
+			newUsers = Math.min(newUsers, System.nanoTime() - start);
+
+			// Check that both ways read every row.
+			if (count != 2 * rowCount || books.size() + users.size() != 2 * rowCount)
+				throw new IOException("Expected " + rowCount + " rows in each file.");
+		} // end for
+
+		// Print the results.
+		System.out.printf("Rows in each file:       %d (%.1f MB of books, %.1f MB of users)%n", rowCount, bookFile.length() / 1048576.0,
+			userFile.length() / 1048576.0);
+		System.out.printf("Books, old way:          %d ms%n", oldBooks / 1000000);
+		System.out.printf("Books, mapped:           %d ms (%.1fx)%n", newBooks / 1000000, (double) oldBooks / Math.max(1, newBooks));
+		System.out.printf("Users, old way:          %d ms%n", oldUsers / 1000000);
+		System.out.printf("Users, mapped:           %d ms (%.1fx)%n", newUsers / 1000000, (double) oldUsers / Math.max(1, newUsers));
+	} // end printStartupBenchmark(int)
+
+	/**
+	 * Read a books file the way it was read before this class was added: line by line with a BufferedReader, splitting each line with a
+	 * regular expression.
+	 * 
+	 * @param bookFile the file to read
+	 * @return the number of books read
+	 * @throws IOException if the file could not be read
+	 */
+	private static int readBooksTheOldWay(File bookFile) throws IOException
+	{
+		ArrayList<Book> books = new ArrayList<Book>();
+
+		// Split each line, and make a book from its fields.
+		try (BufferedReader reader = new BufferedReader(new FileReader(bookFile)))
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+				books.add(new Book(line.split("\\s*,\\s*", -1)));
+		} // end try
+
+		return books.size();
+	} // end readBooksTheOldWay(File)
+
+	/**
+	 * Read a users file the way it was read before this class was added: line by line with a BufferedReader, splitting each line with a
+	 * regular expression.
+	 * 
+	 * @param userFile the file to read
+	 * @return the number of users read
+	 * @throws IOException if the file could not be read
+	 */
+	private static int readUsersTheOldWay(File userFile) throws IOException
+	{
+		ArrayList<User> users = new ArrayList<User>();
+
+		// Split each line, and make a user from its fields.
+		try (BufferedReader reader = new BufferedReader(new FileReader(userFile)))
+		{
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+				users.add(new User(null, line.split("\\s*,\\s*", -1)));
+		} // end try
+
+		return users.size();
+	} // end readUsersTheOldWay(File)
+} // end public class
\ No newline at end of file
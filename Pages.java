@@ -115,6 +115,9 @@ public class Pages
 		private final Components.MenuButton ADMIN_BUTTONS[] = {
 			// Switch to the book catalog when this button is clicked.
 			new Components.MenuButton("Monitor books", () -> {switchPage(new BookCatalog(gui));}),
+
+			// Switch to a catalog of the books that need to be ordered when this button is clicked.
+			new Components.MenuButton("Low stock books", () -> {switchPage(new BookCatalog(gui, "", gui.getService().getLowStockBooks()));}),
 			
 			// Switch to a form that allows the admin to add a book when this button is clicked.
 			new Components.MenuButton("Add a book", () -> {switchPage(new Form(gui, Forms.ADD_BOOK));}),
@@ -307,6 +310,31 @@ public class Pages
 		 * @param gui
 		 */
 		public BookCatalog(GUI gui)
+		{
+			// Call the other constructor with an empty search query, so that every book is shown.
+			this(gui, "");
+		} // end BookCatalog(GUI)
+
+		/**
+		 * This constructor adds the necessary components to display the books that match a search query.
+		 * 
+		 * @param gui the GUI object
+		 * @param query the search query (every book is shown if the query is blank)
+		 */
+		public BookCatalog(GUI gui, String query)
+		{
+			// Call the other constructor with the list of all books, or the books that match the query if there is one.
+			this(gui, query, query.isBlank() ? gui.getService().getBooks() : gui.getService().searchBooks(query));
+		} // end BookCatalog(GUI, String)
+
+		/**
+		 * This constructor adds the necessary components to display a given list of books.
+		 * 
+		 * @param gui the GUI object
+		 * @param query the search query shown in the search bar
+		 * @param allBooks the books to display
+		 */
+		public BookCatalog(GUI gui, String query, java.util.List<Book> allBooks)
 		{
 			// Call the parent constructor.
 			super(gui);
@@ -314,49 +342,50 @@ public class Pages
 			// Set the appropriate background image.
 			setBackgroundImage(Paths.IMAGE_SECOND_BACKGROUND);
 
-			// Initialize the inner content, scrollable panel, and catalog.
-			JPanel contentInner = new JPanel();
-			JScrollPane contentScroll = new JScrollPane(
-				contentInner, JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER
+			// Initialize the catalog, the scrollable panel around it, and the label shown if no book matches the query.  The catalog only
+			// draws the rows that are scrolled into view.
+			Components.BookCatalogList catalog = new Components.BookCatalogList(gui, allBooks);
+			JScrollPane catalogScroll = new JScrollPane(
+				catalog, JScrollPane.VERTICAL_SCROLLBAR_ALWAYS, JScrollPane.HORIZONTAL_SCROLLBAR_NEVER
 			);
-			JPanel catalog = new JPanel();
+			JLabel noResultsDisplay = new JLabel();
 
-			// Get the list of all books.
-			ArrayList<Book> allBooks = gui.getBooks();
+			// Add a search bar that reloads the catalog with the results of the search.
+			Components.SearchBar searchBar = new Components.SearchBar(query, Store.WINDOW_WIDTH, (newQuery) -> {
+				switchPage(new BookCatalog(gui, newQuery));
+			});
 
 			// This button switches back to the menu when clicked.
 			Components.MenuButton backButton = new Components.MenuButton("Back", () -> {switchPage(new SecondMenu(gui));});
 
-			// Store the row count based on the number of books, and the scrollbar width.
-			int rowCount = (int) Math.ceil(1.0 * allBooks.size() / 4);
-			int scrollbarWidth = UIManager.getInt("ScrollBar.width");
-
-			// Give necessary settings to the catalog.
-			catalog.setLayout(new GridLayout(rowCount, 4, 10, 10));
-			catalog.setOpaque(false);
+			// Give the back button a smaller size, so that it fits beside the search bar.
+			backButton.setPreferredSize(new Dimension(150, 40));
+			searchBar.add(backButton);
 
-			// For each of the books, add a book preview component to the catalog.
-			for (Book book : allBooks)
-				catalog.add(new Components.BookPreview(gui, book));
-			
-			// Give necessary settings to the scroll panel.
-			contentScroll.setOpaque(false);
-			contentScroll.getViewport().setOpaque(false);
-			contentScroll.setPreferredSize(new Dimension(Store.WINDOW_WIDTH, Store.WINDOW_HEIGHT));
+			// Give necessary settings to the scroll panel.  Scroll by about a third of a row at a time.
+			catalogScroll.setOpaque(false);
+			catalogScroll.getViewport().setOpaque(false);
+			catalogScroll.setBorder(null);
+			catalogScroll.getVerticalScrollBar().setUnitIncrement(120);
+			catalogScroll.setPreferredSize(new Dimension(Store.WINDOW_WIDTH, Store.WINDOW_HEIGHT - 125));
 
-			// Give necessary settings to the inner content.
-			contentInner.setPreferredSize(new Dimension(Store.WINDOW_WIDTH - scrollbarWidth, 185 + 340 * rowCount + 10 * (rowCount - 1)));
-			contentInner.setOpaque(false);
+			// Give the "no results display" component necessary settings.
+			noResultsDisplay.setText("No books match your search.");
+			noResultsDisplay.setFont(Resources.getFont(Paths.FONT_REGULAR_BOLD, 42));
+			noResultsDisplay.setHorizontalAlignment(JLabel.CENTER);
+			noResultsDisplay.setPreferredSize(new Dimension(Store.WINDOW_WIDTH, 340));
 
-			// Add the top panel, catalog, back button, and empty box to the inner content.
-			contentInner.add(new Components.TopPanel(gui, "Books", false, Store.WINDOW_WIDTH - scrollbarWidth));
-			contentInner.add(catalog);
-			contentInner.add(Box.createRigidArea(new Dimension(Store.WINDOW_WIDTH, 30)));
-			contentInner.add(backButton);
+			// Add the top panel, the search bar, and an empty box for padding.
+			content.add(new Components.TopPanel(gui, "Books", false));
+			content.add(searchBar);
+			content.add(Box.createRigidArea(new Dimension(Store.WINDOW_WIDTH, 10)));
 
-			// Add the scrollable content to the main content.
-			content.add(contentScroll);
-		} // end BookCatalog(GUI)
+			// Add the catalog, or the "no results display" if no book matches the query.
+			if (allBooks.isEmpty())
+				content.add(noResultsDisplay);
+			else
+				content.add(catalogScroll);
+		} // end BookCatalog(GUI, String, List<Book>)
 	} // end class BookCatalog
 
 	// This class displays a page that shows information about a given book.
@@ -396,19 +425,12 @@ public class Pages
 			// Add this book to cart when this button is clicked.
 			Components.MenuButton addToCartButton = new Components.MenuButton("Add to cart", () -> {handleAddToCart(book);});
 
-			// Store the image that will be shown as preview for the book.
-			ImageIcon coverImage = Resources.getImage(book.getImagePath(), 299, 460);
-
-			// If the cover image did not load properly, load an alternative.
-			if (coverImage == null)
-				coverImage = Resources.getImage(Paths.IMAGE_BOOK_NOT_FOUND, 299, 460);
-
 			// Set the necessary background image.
 			setBackgroundImage(Paths.IMAGE_SECOND_BACKGROUND);
 
 			// Give the book cover its necessary settings.
 			bookCover.setBounds(30, 10, 299, 460);
-			bookCover.setIcon(coverImage);
+			bookCover.setIcon(ImageLoader.load(bookCover, book.getImagePath(), 299, 460, bookCover::setIcon));
 
 			// Give the buttons necessary settings.
 			backButton.setBounds(400, 350, 540, 50);
@@ -464,46 +486,22 @@ public class Pages
 
 			// Get the currently signed in user.
 			User user = gui.getActiveUser();
-			
-			// Store the number of items in the user's cart.
-			int itemsInCart = user.getAllCartItemsCount();
 
-			// Initialize an array that holds all the possible values the user can choose from.
-			String selectionValues[] = new String[Math.min(book.getQuantity() - user.getCartItemCount(book), 10 - itemsInCart)];
+			// Check to see if the user cannot add this item to cart for some reason (such as the item being out of stock), and if so, tell
+			// the user and prevent from adding this item.
+			String error = gui.getService().checkAddToCart(user, book);
 
-			// Check to see if the user cannot add this item to cart for some reason.
-			if (book.getQuantity() == 0)
+			if (error != null)
 			{
-				// If the item is out of stock, tell the user and prevent from adding this item.
-				JOptionPane.showMessageDialog(
-					null, "This item is out of stock!", "Error Adding to Cart", JOptionPane.ERROR_MESSAGE
-				);
-
+				JOptionPane.showMessageDialog(null, error, "Error Adding to Cart", JOptionPane.ERROR_MESSAGE);
 				return;
 			} // end if
-			else if (book.getQuantity() == user.getCartItemCount(book))
-			{
-				// If the user has already added as many of this item as there are in stock, prevent from adding more, and inform
-				// the user.
-				JOptionPane.showMessageDialog(
-					null, "You have already added as many of this item as there are in stock!", "Error Adding to Cart",
-					JOptionPane.ERROR_MESSAGE
-				);
 
-				return;
-			} // end else if
-			else if (itemsInCart >= 10)
-			{
-				// If the user has already reached the maximum number of items in cart, tell the user, and prevent from adding this item.
-				JOptionPane.showMessageDialog(
-					null, "You have already reached a max of 10 items in your cart.", "Error Adding to Cart", JOptionPane.ERROR_MESSAGE
-				);
-
-				return;
-			} // end else if
+			// Initialize an array that holds all the possible values the user can choose from.
+			String selectionValues[] = new String[gui.getService().getAddableCount(user, book)];
 
 			// Store all the possible values the user can choose for the number of items to add to cart so that their total number of
-			// items does not exceed 10.
+			// items does not exceed the maximum.
 			for (int i = 1; i <= selectionValues.length; i++)
 				selectionValues[i - 1] = Integer.toString(i);
 
@@ -520,9 +518,15 @@ public class Pages
 			// Convert the user's choice to an integer.
 			bookCount = Integer.parseInt(bookCountRaw);
 
-			// Add the item to cart and update the necessary file.
-			gui.getActiveUser().addToCart(book, bookCount);
-			gui.forceUserDataWrite();
+			// Add the item to cart and update the necessary file.  Stop if the item can no longer be added (as the stock may have changed
+			// while the user was choosing).
+			error = gui.getService().addToCart(user, book, bookCount);
+
+			if (error != null)
+			{
+				JOptionPane.showMessageDialog(null, error, "Error Adding to Cart", JOptionPane.ERROR_MESSAGE);
+				return;
+			} // end if
 
 			// Tell the user that they have successfully added the item to cart.
 			JOptionPane.showMessageDialog(
@@ -623,9 +627,27 @@ public class Pages
 				JOptionPane.QUESTION_MESSAGE, null, null, null
 			);
 
-			// If the user clicks yes, switch to the invoice page.
-			if (shouldCheckout == 0)
-				switchPage(new Invoice(gui));
+			// Stop if the user does not click yes.
+			if (shouldCheckout != 0)
+				return;
+
+			// Buy the items in cart.  If another user has bought the last of any book in the meantime, nothing is bought, and the cart is
+			// adjusted to what is left.
+			StoreService.Receipt receipt = gui.getService().checkout(gui.getActiveUser());
+
+			if (!receipt.isCompleted())
+			{
+				JOptionPane.showMessageDialog(
+					null, "Some of the items in your cart are no longer available, so your cart has been updated.", "Cart Updated",
+					JOptionPane.INFORMATION_MESSAGE
+				);
+
+				switchPage(new Cart(gui));
+				return;
+			} // end if
+
+			// Switch to the invoice page.
+			switchPage(new Invoice(gui, receipt));
 		} // end handleCheckout()
 	} // end class Cart
 
@@ -636,8 +658,9 @@ public class Pages
 		 * Add necessary components to display the invoice.
 		 * 
 		 * @param gui the GUI object
+		 * @param receipt what was bought
 		 */
-		public Invoice(GUI gui)
+		public Invoice(GUI gui, StoreService.Receipt receipt)
 		{
 			// Call the parent constructor.
 			super(gui);
@@ -648,19 +671,13 @@ public class Pages
 			// Get the signed in user.
 			User user = gui.getActiveUser();
 
-			// Get the items in the user's cart.
-			Book boughtBooks[] = user.getCartItems();
-
 			// This button switches to the second menu when clicked.
 			Components.MenuButton backButton = new Components.MenuButton("Back", () -> {gui.switchPage(new SecondMenu(gui));});
 
 			// Initialize the arrays to hold the receipt item names on the left and the money values on the right.
-			String receiptIdentifiers[] = new String[boughtBooks.length + 3];
+			String receiptIdentifiers[] = new String[receipt.getLineCount() + 3];
 			double receiptMoneyValues[] = new double[receiptIdentifiers.length];
 
-			// Initialize the subtotal of all items.
-			double subtotal = 0d;
-
 			// Store the header text, with each line as a separate entry in this array.
 			String headerText[] = {
 				"Store: MUFTIBOOKS (Cambridge Location)",
@@ -671,21 +688,18 @@ public class Pages
 			// Set the appropriate background image.
 			setBackgroundImage(Paths.IMAGE_SECOND_BACKGROUND);
 
-			// Iterate through the books to buy to build a receipt out of them.
-			for (int i = 0; i < boughtBooks.length; i++)
+			// Iterate through the books bought to build a receipt out of them.
+			for (int i = 0; i < receipt.getLineCount(); i++)
 			{
-				// Get the current book and quantity in cart.
-				Book book = boughtBooks[i];
-				int quantity = user.getCartItemCount(book);
+				// Get the current book and quantity bought.
+				Book book = receipt.getBook(i);
+				int quantity = receipt.getQuantity(i);
 
 				// Store the book name, and identify the quantity if the quantity is greater than 1.
 				receiptIdentifiers[i] = book.getName() + (quantity > 1 ? " X " + quantity : "");
 
-				// Store the amount that will be paid for this book.
-				receiptMoneyValues[i] = book.getPrice() * quantity;
-
-				// Add to the subtotal.
-				subtotal += receiptMoneyValues[i];
+				// Store the amount that was paid for this book.
+				receiptMoneyValues[i] = receipt.getAmount(i);
 			} // end for
 
 			// Store the subtotal, HST, and total as identifiers at the bottom of the receipt.
@@ -694,9 +708,9 @@ public class Pages
 			receiptIdentifiers[receiptIdentifiers.length - 1] = "TOTAL:";
 
 			// Store the values of the subtotal, HST, and total at the bottom of the receipt.
-			receiptMoneyValues[receiptMoneyValues.length - 3] = subtotal;
-			receiptMoneyValues[receiptMoneyValues.length - 2] = subtotal * 0.13;
-			receiptMoneyValues[receiptMoneyValues.length - 1] = subtotal * 1.13;
+			receiptMoneyValues[receiptMoneyValues.length - 3] = receipt.getSubtotal();
+			receiptMoneyValues[receiptMoneyValues.length - 2] = receipt.getTax();
+			receiptMoneyValues[receiptMoneyValues.length - 1] = receipt.getTotal();
 
 			// Give the receipt header necessary settings.
 			receiptHeader.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
@@ -705,7 +719,7 @@ public class Pages
 			receiptHeader.setBackground(Color.ORANGE);
 
 			// Give the receipt content necessary settings, and enough rows based on the number of items being purchased.
-			receiptContent.setLayout(new GridLayout(boughtBooks.length + 3, 2, 30, 2));
+			receiptContent.setLayout(new GridLayout(receipt.getLineCount() + 3, 2, 30, 2));
 			receiptContent.setOpaque(false);
 			receiptContent.setPreferredSize(new Dimension(500, 27 * receiptIdentifiers.length));
 
@@ -758,11 +772,6 @@ public class Pages
 			content.add(receiptContent);
 			content.add(Box.createRigidArea(new Dimension(Store.WINDOW_WIDTH, 10)));
 			content.add(backButton);
-
-			// Make the user purchase the items in cart, and write the changes to disk.
-			user.makePurchase();
-			gui.forceUserDataWrite();
-			gui.forceBookDataWrite();
 		} // end Invoice(GUI)
 	} // end class Invoice
 
@@ -850,8 +859,7 @@ public class Pages
 			if (shouldReset == 0)
 			{
 				// Start a new session for the user, and write the changes to disk.
-				gui.getActiveUser().startNewSession();
-				gui.forceUserDataWrite();
+				gui.getService().startNewSession(gui.getActiveUser());
 
 				// Reload the current page.
 				gui.switchPage(new SessionSales(gui));
@@ -901,15 +909,16 @@ public class Pages
 			"Hello admin!  As manager of this program, you have the ability",
 			"to add and edit books.  If you click on \"Edit books\" in the",
 			"menu, you will be presented with all the books, along with",
-			"whether they are in need of reordering.  You can edit the",
-			"properties of any book by clicking the \"Edit\" button on the",
-			"book, and delete any book by clicking the \"Delete\" button on",
-			"the book.  To add a new book, click on \"Add a book\" in the",
-			"menu.  Here, you will be shown a form you can fill out to",
-			"add the book, and your input will be validated to make sure",
-			"there are no mistakes.  If at any time you feel a change of",
-			"password, click on \"Change password\" in the menu, and you",
-			"will be presented a short form to complete the process."
+			"whether they are in need of reordering.  Clicking on \"Low",
+			"stock books\" shows only the books that need reordering.  You",
+			"can edit the properties of any book by clicking the \"Edit\"",
+			"button on the book, and delete any book by clicking the",
+			"\"Delete\" button on the book.  To add a new book, click on",
+			"\"Add a book\" in the menu.  Here, you will be shown a form you",
+			"can fill out to add the book, and your input will be validated",
+			"to make sure there are no mistakes.  If at any time you feel a",
+			"change of password, click on \"Change password\" in the menu,",
+			"and you will be presented a short form to complete the process."
 		};
 
 		/**
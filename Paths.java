@@ -23,6 +23,7 @@ public class Paths
 	public static final String IMAGE_MAIN_BACKGROUND = IMAGE_BACKGROUND_FOLDER + "PolygonBackground1.png";
 	public static final String IMAGE_SECOND_BACKGROUND = IMAGE_BACKGROUND_FOLDER + "PolygonBackground2.png";
 	public static final String IMAGE_BOOK_NOT_FOUND = IMAGE_BOOK_FOLDER + "NotFound.jpg";
+	public static final String IMAGE_THUMBNAIL_FOLDER = IMAGE_BASE_FOLDER + "thumbnails/";
 	
 	// Store paths related to fonts
 	public static final String FONT_REGULAR = FONT_BASE_FOLDER + "OpenSans-Bold.ttf";
@@ -32,6 +33,12 @@ public class Paths
 	public static final String FONT_RECEIPT = FONT_BASE_FOLDER + "NanumGothicCoding-Bold.ttf";
 
 	public static final String DATA_USER_FILE = DATA_BASE_FOLDER + "users.csv";
+	public static final String DATA_USER_INDEX_FILE = DATA_BASE_FOLDER + "users.idx";
+	public static final String DATA_USER_SLOT_FILE = DATA_BASE_FOLDER + "users.dat";
 	public static final String DATA_PRODUCT_FILE = DATA_BASE_FOLDER + "books.csv";
+	public static final String DATA_PRODUCT_BINARY_FILE = DATA_BASE_FOLDER + "books.bin";
 	public static final String DATA_ADMIN_FILE = DATA_BASE_FOLDER + "adminPassword.txt";
+	public static final String DATA_USER_JOURNAL_FILE = DATA_BASE_FOLDER + "users.journal";
+	public static final String DATA_PRODUCT_JOURNAL_FILE = DATA_BASE_FOLDER + "books.journal";
+	public static final String DATA_LOCK_FILE = DATA_BASE_FOLDER + "store.lock";
 } // end public class
\ No newline at end of file
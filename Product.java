@@ -7,12 +7,33 @@
  * @date 11 November 2020
  */
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 public class Product
 {
-	// Store the properties needed for a product.
-	protected static int maxId = -1;
+	// Store the handle used to change the quantity with compare-and-set, so that purchases on different threads can take stock without
+	// a lock.
+	private static final VarHandle QUANTITY;
+
+	static
+	{
+		try
+		{
+			QUANTITY = MethodHandles.lookup().findVarHandle(Product.class, "quantity", int.class);
+		} // end try
+		catch (ReflectiveOperationException exception)
+		{
+			throw new ExceptionInInitializerError(exception);
+		} // end catch
+	}
+
+	// Store the properties needed for a product.  The quantity may be read on one thread while a purchase changes it on another, so every
+	// thread sees its latest value.
+	private static int maxId = -1;
 	protected String name;
-	protected int jitTrigger, quantity, id;
+	protected int jitTrigger, id;
+	protected volatile int quantity;
 	protected double price;
 
 	/**
@@ -24,7 +45,7 @@ public class Product
 		name = "";
 		jitTrigger = quantity = 0;
 		price = 0d;
-		id = ++maxId;
+		id = takeNextId();
 	} // end Product()
 
 	/**
@@ -38,13 +59,36 @@ public class Product
 	public Product(String name, double price, int quantity, int jitTrigger)
 	{
 		// Set the values according to what has been passed in.  Set a unique id.
-		this.id = ++maxId;
+		this.id = takeNextId();
 		this.name = name;
 		this.price = price;
 		this.quantity = quantity;
 		this.jitTrigger = jitTrigger;
 	} // end Product(String, double, int, int)
 
+	/**
+	 * This constructor initializes values based on what is passed, keeping an id that has already been assigned (used when reading
+	 * products from a file).
+	 * 
+	 * @param id the id of the product
+	 * @param name the name of the product
+	 * @param price the price of the product
+	 * @param quantity the quantity
+	 * @param jitTrigger the JIT trigger
+	 */
+	public Product(int id, String name, double price, int quantity, int jitTrigger)
+	{
+		// Set the values according to what has been passed in.
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.quantity = quantity;
+		this.jitTrigger = jitTrigger;
+
+		// Adjust the max id.
+		reserveId(id);
+	} // end Product(int, String, double, int, int)
+
 	/**
 	 * This constructor initializes values of the object based on values of an array (used for CSV interpretation).
 	 * 
@@ -60,9 +104,31 @@ public class Product
 		jitTrigger = Integer.parseInt(information[4]);
 
 		// Adjust the max id.
-		maxId = Math.max(maxId, id);
+		reserveId(id);
 	} // end Product(String[])
 
+	/**
+	 * Take the next unused id.  Products may be made on more than one thread, so the ids are handed out one at a time.
+	 * 
+	 * @return the id
+	 */
+	protected static synchronized int takeNextId()
+	{
+		// Return the id after the highest one used.
+		return ++maxId;
+	} // end takeNextId()
+
+	/**
+	 * Keep an id that has already been assigned (such as one read from a file) from being handed out again.
+	 * 
+	 * @param id the id
+	 */
+	protected static synchronized void reserveId(int id)
+	{
+		// Raise the highest id used if needed.
+		maxId = Math.max(maxId, id);
+	} // end reserveId(int)
+
 	/**
 	 * Get the id.
 	 * 
@@ -141,6 +207,40 @@ public class Product
 		this.quantity = quantity;
 	} // end setQuantity(int)
 
+	/**
+	 * Take a number of items from the stock, but only if there are at least that many left.  If another purchase changes the stock at the
+	 * same time, the stock is read again and the change is tried again.
+	 * 
+	 * @param amount the number of items to take
+	 * @return whether the items were taken
+	 */
+	public boolean reserveStock(int amount)
+	{
+		int current;
+
+		// Take the items if there are enough, unless the stock changed since it was read.
+		do
+		{
+			current = quantity;
+
+			if (current < amount)
+				return false;
+		} while (!QUANTITY.compareAndSet(this, current, current - amount));
+
+		return true;
+	} // end reserveStock(int)
+
+	/**
+	 * Put items taken by reserveStock(int) back in the stock.
+	 * 
+	 * @param amount the number of items to put back
+	 */
+	public void releaseStock(int amount)
+	{
+		// Add the items back, whatever the stock is now.
+		QUANTITY.getAndAdd(this, amount);
+	} // end releaseStock(int)
+
 	/**
 	 * Get the price.
 	 * 
@@ -1,7 +1,7 @@
 /**
  * Final Project: The Store - Resources
- * This class manages resources for the rest of the program.  Images and fonts are provided by this class, and file I/O is performed by
- * this class.
+ * This class manages resources for the rest of the program.  Images and fonts are provided by this class.  The data files are read and
+ * written by DataFiles, which does not need a screen.
  * 
  * @author Musab Mufti (44252muf)
  * @date 11 November 2020
@@ -10,13 +10,19 @@
 import java.io.*;
 import java.util.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 import javax.imageio.ImageIO;
 
 public class Resources
 {
-	// Initialize hash maps needed to store images that have already been loaded and fonts that have already been loaded.
-	private static HashMap<String, ImageIcon> loadedImages = new HashMap<String, ImageIcon>();
+	// Store the default number of megabytes the image cache may use.  This can be changed with the muftibooks.imageCacheMB property.
+	private static final long DEFAULT_IMAGE_CACHE_MB = 64;
+
+	// Initialize the cache of images that have already been loaded or scaled (keyed by path and dimensions), and the hash map of fonts
+	// that have already been loaded.
+	private static ImageCache imageCache = new ImageCache(Long.getLong("muftibooks.imageCacheMB", DEFAULT_IMAGE_CACHE_MB) << 20);
+
 	private static HashMap<String, Font> loadedFonts = new HashMap<String, Font>();
 
 	/**
@@ -49,324 +55,217 @@ public class Resources
 	public static ImageIcon getImage(String imagePath, int width, int height)
 	{
 		ImageIcon imageIcon;
+		String scaledKey;
 
-		if (loadedImages.containsKey(imagePath))
-		{
-			// If the image is already loaded, prepare to return that image.
-			imageIcon = loadedImages.get(imagePath);
-		} // end if
-		else
-		{
-			try
-			{
-				// Try reading the path to the image as an image.
-				imageIcon = new ImageIcon(ImageIO.read(new File(imagePath)));
-			} // end try
-			catch(IOException e)
-			{
-				imageIcon = null;
-			} // end catch
+		// Return the image at its original size if no size is requested.
+		if (width == -1)
+			return getOriginalImage(imagePath);
 
-			// Store the image in the list of stored images.
-			loadedImages.put(imagePath, imageIcon);
-		} // end else
+		// If the image has already been scaled to this size, return that image.
+		scaledKey = imagePath + "@" + width + "x" + height;
+		imageIcon = imageCache.get(scaledKey);
 
-		// Resize the image if requested, and return the image.
-		if (width == -1 || imageIcon == null)
+		if (imageIcon != null)
 			return imageIcon;
-		else
-			return new ImageIcon(imageIcon.getImage().getScaledInstance(width, height, Image.SCALE_DEFAULT));
-	} // end getImage(String, int, int)
-
-	/**
-	 * Get an image without passing in the dimensions.
-	 * 
-	 * @param imagePath the path to the image
-	 * @return the image
-	 */
-	public static ImageIcon getImage(String imagePath)
-	{
-		// Call the other version of this function to get the image.
-		return getImage(imagePath, -1, -1);
-	} // end getImage(String)
-
-	/**
-	 * Get a font given the path and size.
-	 * 
-	 * @param fontPath the path to the font
-	 * @param size the font size
-	 * @return the font
-	 */
-	public static Font getFont(String fontPath, int size)
-	{
-		Font font;
 
-		if (loadedFonts.containsKey(fontPath))
-		{
-			// If the font is already loaded, prepare to return that object.
-			font = loadedFonts.get(fontPath);
-		} // end if
-		else
+		// Otherwise, use the thumbnail stored on disk if there is one for this size.
+		if (ThumbnailCache.isThumbnailSize(width, height))
 		{
-			try
-			{
-				// Try making a font out of the given path.
-				font = Font.createFont(Font.TRUETYPE_FONT, new File(fontPath));
-			} // end try
-			catch (IOException|FontFormatException exception)
+			BufferedImage thumbnail = ThumbnailCache.read(imagePath, width, height);
+
+			if (thumbnail != null)
 			{
-				// Set the font as null if an error occurred.
-				font = null;
-			} // end catch
+				imageIcon = new ImageIcon(thumbnail);
+				imageCache.put(scaledKey, imageIcon);
+				return imageIcon;
+			} // end if
+		} // end if
 
-			// Store the font in the list of loaded fonts.
-			loadedFonts.put(fontPath, font);
-		} // end else
+		// Otherwise, get the original image.  Return null if it failed to load.
+		imageIcon = getOriginalImage(imagePath);
 
-		// Return the font with the appropriate size.
-		if (font == null)
+		if (imageIcon == null)
 			return null;
-		else
-			return font.deriveFont((float) size);
-	} // end getFont(String, int)
+
+		// Scale the image, store it for next time (on disk as well, if it is a thumbnail size), and return it.
+		BufferedImage scaledImage = scaleImage(imageIcon.getImage(), width, height);
+
+		if (ThumbnailCache.isThumbnailSize(width, height))
+			ThumbnailCache.write(imagePath, scaledImage);
+
+		imageIcon = new ImageIcon(scaledImage);
+		imageCache.put(scaledKey, imageIcon);
+
+		return imageIcon;
+	} // end getImage(String, int, int)
 
 	/**
-	 * Read all the files that are storing information about this program.
+	 * Get an image given the path, width, and height, only if it has already been loaded and scaled.
 	 * 
-	 * @param gui the GUI object
-	 * @param users the list of users to read into
-	 * @param books the list of books to read into
-	 * @param admin the admin
+	 * @param imagePath the path to the image
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return the image requested, or null if it is not in the cache
 	 */
-	public static void readFiles(GUI gui, ArrayList<User> users, ArrayList<Book> books, User admin)
+	public static ImageIcon getCachedImage(String imagePath, int width, int height)
 	{
-		// Read all the necessary files.
-		readBookFile(books);
-		readUserFile(gui, users);
-		readAdminFile(admin);
-	} // end readFiles(GUI, ArrayList<User>, ArrayList<Book>, User)
+		// Look for the image in the cache without loading it.
+		return imageCache.get(width == -1 ? imagePath : imagePath + "@" + width + "x" + height);
+	} // end getCachedImage(String, int, int)
 
 	/**
-	 * Read the user file to get information about the users.
+	 * Get an image at its original size, loading it if it has not been loaded yet.
 	 * 
-	 * @param gui the GUI object
-	 * @param users the list of users to read into
+	 * @param imagePath the path to the image
+	 * @return the image, or null if it failed to load
 	 */
-	public static void readUserFile(GUI gui, ArrayList<User> users)
+	private static ImageIcon getOriginalImage(String imagePath)
 	{
-		File userFile = new File(Paths.DATA_USER_FILE);
-		BufferedReader userStream;
-		String currentLine;
-		String[] currentLineData;
-		
+		// If the image is already loaded, return that image.
+		ImageIcon imageIcon = imageCache.get(imagePath);
+
+		if (imageIcon != null)
+			return imageIcon;
+
 		try
 		{
-			// Try opening a read stream, and reading a line.
-			userStream = new BufferedReader(new FileReader(userFile));
-			currentLine = userStream.readLine();
+			// Try reading the path to the image as an image.  Return null if the file is not an image.
+			BufferedImage image = ImageIO.read(new File(imagePath));
 
-			// Iterate until the last line of the file has been reached.
-			while (currentLine != null)
-			{
-				// Split the current line to get the individual data columns.
-				currentLineData = currentLine.split("\\s*,\\s*", -1);
-
-				// Try adding a user based on the input given.  Skip the current line if the input fails to parse.
-				try
-				{
-					users.add(new User(gui, currentLineData));
-				} // end try
-				catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
-
-				// Get the next line in the file.
-				currentLine = userStream.readLine();
-			} // end while
-
-			// Close the stream.
-			userStream.close();
+			if (image == null)
+				return null;
+
+			imageIcon = new ImageIcon(image);
 		} // end try
-		catch (FileNotFoundException exception)
+		catch(IOException e)
 		{
-			// Try creating the file.
-			try
-			{
-				userFile.createNewFile();
-			} // end try
-			catch (IOException e) {}
+			// Return null if the file could not be read.  Nothing is stored, so the file is tried again next time.
+			return null;
 		} // end catch
-		catch (IOException exception) {}
-	} // end readUserFile(GUI, ArrayList<User>)
+
+		// Store the image in the cache, and return it.
+		imageCache.put(imagePath, imageIcon);
+		return imageIcon;
+	} // end getOriginalImage(String)
 
 	/**
-	 * Read the file containing information about the books.
+	 * Scale an image to a given size.  Large reductions are done by halving the image a few times before the last step, which keeps the
+	 * quality close to a smooth scale while staying much faster.
 	 * 
-	 * @param books the list to read into
+	 * @param source the image to scale
+	 * @param width the width to scale to
+	 * @param height the height to scale to
+	 * @return the scaled image, in a format that can be drawn quickly to the screen
 	 */
-	public static void readBookFile(ArrayList<Book> books)
+	public static BufferedImage scaleImage(Image source, int width, int height)
 	{
-		File bookFile = new File(Paths.DATA_PRODUCT_FILE);
-		BufferedReader bookStream;
-		String currentLine;
-		String[] currentLineData;
+		Image current = source;
+		int currentWidth = source.getWidth(null), currentHeight = source.getHeight(null);
+		int transparency = source instanceof BufferedImage ? ((BufferedImage) source).getTransparency() : Transparency.TRANSLUCENT;
+		BufferedImage step;
 
-		try
+		// Keep halving the image while it is at least twice the size asked for.
+		do
 		{
-			// Try opening the books file, and reading a line.
-			bookStream = new BufferedReader(new FileReader(bookFile));
-			currentLine = bookStream.readLine();
+			// Move half way to the requested size, or all the way if the image is already less than twice the size.
+			currentWidth = currentWidth / 2 >= width ? currentWidth / 2 : width;
+			currentHeight = currentHeight / 2 >= height ? currentHeight / 2 : height;
 
-			// Iterate until no lines are left.
-			while (currentLine != null)
-			{
-				// Store the split data.
-				currentLineData = currentLine.split("\\s*,\\s*", -1);
-
-				// Try adding a book based on the input given.  Skip the current line if the input fails to parse.
-				try
-				{
-					books.add(new Book(currentLineData));
-				} // end try
-				catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {System.out.println("Let me introduce myself...2");}
-
-				// Get the next line from the file.
-				currentLine = bookStream.readLine();
-			} // end while
-			
-			// Close the stream.
-			bookStream.close();
-		} // end try
-		catch (FileNotFoundException exception)
-		{
-			// Try creating the file.
-			try
-			{
-				bookFile.createNewFile();
-			} // end try
-			catch (IOException e) {}
-		} // end catch
-		catch (IOException exception) {}
-	} // end readBookFile(ArrayList<Book>)
+			// Draw the image at the new size, with smooth interpolation.
+			step = createCompatibleImage(currentWidth, currentHeight, transparency);
+			Graphics2D graphics = step.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+			graphics.dispose();
 
-	/**
-	 * Read the file with the information on the admin.
-	 * 
-	 * @param admin the User object to store th password
-	 */
-	public static void readAdminFile(User admin)
-	{
-		File adminFile = new File(Paths.DATA_ADMIN_FILE);
-		BufferedReader adminStream;
+			current = step;
+		} while (currentWidth != width || currentHeight != height);
 
-		try
-		{
-			// Try opening the stream, reading a line, and storing the password.
-			adminStream = new BufferedReader(new FileReader(adminFile));
-			admin.setPassword(adminStream.readLine().trim());
-		} // end try
-		catch (FileNotFoundException exception)
-		{
-			try
-			{
-				adminFile.createNewFile();
-			} // end try
-			catch (IOException e) {}
-		} // end catch
-		catch (IOException exception) {}
-	} // end readAdminFile(User)
+		// Return the image at the requested size.
+		return step;
+	} // end scaleImage(Image, int, int)
 
 	/**
-	 * Write all the stored changes back to their files.
+	 * Make an image in the format the screen uses, so that it can be drawn without being converted.
 	 * 
-	 * @param users
-	 * @param books
-	 * @param admin
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @param transparency the transparency of the image (one of the constants in Transparency)
+	 * @return the new image
 	 */
-	public static void writeFiles(ArrayList<User> users, ArrayList<Book> books, User admin)
+	private static BufferedImage createCompatibleImage(int width, int height, int transparency)
 	{
-		// Write the information.
-		writeUserFile(users);
-		writeBookFile(books);
-		writeAdminFile(admin);
-	} // end writeFiles(ArrayList<User>)
+		// There is no screen to match if the program is running without a display.
+		if (GraphicsEnvironment.isHeadless())
+			return new BufferedImage(width, height, transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB :
+				BufferedImage.TYPE_INT_ARGB);
+
+		// Make an image that matches the screen.
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+			.createCompatibleImage(width, height, transparency);
+	} // end createCompatibleImage(int, int, int)
 
 	/**
-	 * Write the user information to its file.
+	 * Get the cache of loaded and scaled images, so that its size, hits, misses, and evictions can be checked.
 	 * 
-	 * @param users the users list.
+	 * @return the image cache
 	 */
-	public static void writeUserFile(ArrayList<User> users)
+	public static ImageCache getImageCache()
 	{
-		PrintWriter userStream;
-		
-		try
-		{
-			// Try opening the stream.
-			userStream = new PrintWriter(new FileWriter(Paths.DATA_USER_FILE));
-		} // end try
-		catch (IOException exception)
-		{
-			// Return if the stream did not open.
-			return;
-		} // end catch
-
-		// For each of the users, write the user's csv value to the file.
-		for (User user : users)
-			userStream.println(user.toCSV());
-
-		// Close the stream.
-		userStream.close();
-	} // end writeUserFile(ArrayList<User>)
+		// Return the cache.
+		return imageCache;
+	} // end getImageCache()
 
 	/**
-	 * Write the book information to its file.
+	 * Get an image without passing in the dimensions.
 	 * 
-	 * @param books the books list
+	 * @param imagePath the path to the image
+	 * @return the image
 	 */
-	public static void writeBookFile(ArrayList<Book> books)
+	public static ImageIcon getImage(String imagePath)
 	{
-		PrintWriter bookStream;
-		
-		try
-		{
-			// Try opening the book stream.
-			bookStream = new PrintWriter(new FileWriter(Paths.DATA_PRODUCT_FILE));
-		} // end try
-		catch (IOException exception)
-		{
-			// If the book stream did not open, stop.
-			return;
-		} // end catch
-
-		// For each of the books, write the book's csv value to the file.
-		for (Book book : books)
-			bookStream.println(book.toCSV());
-
-		// Close the book stream.
-		bookStream.close();
-	} // end writeBookFile(ArrayList<Book>)
+		// Call the other version of this function to get the image.
+		return getImage(imagePath, -1, -1);
+	} // end getImage(String)
 
 	/**
-	 * Write the admin password to the admin file.
+	 * Get a font given the path and size.
 	 * 
-	 * @param admin the User object representing the admin
+	 * @param fontPath the path to the font
+	 * @param size the font size
+	 * @return the font
 	 */
-	public static void writeAdminFile(User admin)
+	public static Font getFont(String fontPath, int size)
 	{
-		PrintWriter adminStream;
-		
-		try
+		Font font;
+
+		if (loadedFonts.containsKey(fontPath))
 		{
-			// Try opening the admin stream.
-			adminStream = new PrintWriter(new FileWriter(Paths.DATA_ADMIN_FILE));
-		} // end try
-		catch (IOException exception)
+			// If the font is already loaded, prepare to return that object.
+			font = loadedFonts.get(fontPath);
+		} // end if
+		else
 		{
-			// If the admin stream does not open, stop.
-			return;
-		} // end catch
+			try
+			{
+				// Try making a font out of the given path.
+				font = Font.createFont(Font.TRUETYPE_FONT, new File(fontPath));
+			} // end try
+			catch (IOException|FontFormatException exception)
+			{
+				// Set the font as null if an error occurred.
+				font = null;
+			} // end catch
 
-		// Write the password and close the stream.
-		adminStream.print(admin.getPassword());
-		adminStream.close();
-	} // end writeAdminFile(User)
+			// Store the font in the list of loaded fonts.
+			loadedFonts.put(fontPath, font);
+		} // end else
+
+		// Return the font with the appropriate size.
+		if (font == null)
+			return null;
+		else
+			return font.deriveFont((float) size);
+	} // end getFont(String, int)
 } // end public class
\ No newline at end of file
@@ -0,0 +1,246 @@
+/**
+ * Final Project: The Store - Row Index
+ * This class maps the ids of books to their rows in a BookStore, so that a book stored in columns can be found by its id without keeping
+ * a Book object for every book.  It works like BookIndex: the ids and rows are kept in plain int arrays, and collisions are resolved by
+ * moving on to the next slot (open addressing with linear probing).
+ * 
+ * The index may be read from many threads while it is changed.  A lookup does not lock: it reads the arrays, and then checks that no
+ * change was made while it was reading, only locking and reading again if one was.  Changes are made one at a time.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+public class RowIndex
+{
+	// Store the smallest number of slots the index may have, and the row of an empty slot.
+	private static final int MIN_CAPACITY = 16;
+	private static final int EMPTY = -1;
+
+	// Declare the arrays of ids and rows (a slot is empty if its row is EMPTY), and the number of ids stored.
+	private int ids[];
+	private int rows[];
+	private int size;
+
+	// Declare the lock that changes are made under, and that lookups check.
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * This constructor initializes an empty index.
+	 */
+	public RowIndex()
+	{
+		// Start with the smallest arrays.
+		ids = new int[MIN_CAPACITY];
+		rows = emptyRows(MIN_CAPACITY);
+		size = 0;
+	} // end RowIndex()
+
+	/**
+	 * Make an array of rows with every slot empty.
+	 * 
+	 * @param capacity the number of slots
+	 * @return the array
+	 */
+	private static int[] emptyRows(int capacity)
+	{
+		int rows[] = new int[capacity];
+
+		// Mark each slot as empty.
+		Arrays.fill(rows, EMPTY);
+		return rows;
+	} // end emptyRows(int)
+
+	/**
+	 * Get the slot an id should be placed in if there are no collisions.
+	 * 
+	 * @param id the id of the book
+	 * @param mask one less than the number of slots
+	 * @return the slot for the id
+	 */
+	private static int slotOf(int id, int mask)
+	{
+		// Spread the bits of the id so that ids that are close together do not all collide, and keep the slot within the arrays.
+		int hash = id * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	} // end slotOf(int, int)
+
+	/**
+	 * Get the row of the book with a given id.
+	 * 
+	 * @param id the id of the book
+	 * @return the row of the book, or -1 if there is no such book
+	 */
+	public int get(int id)
+	{
+		// Look the id up without locking, and keep the result if no change was made meanwhile.
+		long stamp = lock.tryOptimisticRead();
+		int row = find(id, ids, rows);
+
+		if (lock.validate(stamp))
+			return row;
+
+		// Otherwise, look it up again while holding the lock.
+		stamp = lock.readLock();
+
+		try
+		{
+			return find(id, ids, rows);
+		} // end try
+		finally
+		{
+			lock.unlockRead(stamp);
+		} // end finally
+	} // end get(int)
+
+	/**
+	 * Find the row of a given id in a pair of arrays.  Without the lock, the arrays may be in the middle of a change (or may not even be
+	 * the same size), so the search is kept within the arrays and stops after one pass over them.
+	 * 
+	 * @param id the id of the book
+	 * @param ids the array of ids
+	 * @param rows the array of rows
+	 * @return the row of the id, or -1 if it was not found
+	 */
+	private static int find(int id, int ids[], int rows[])
+	{
+		int mask = Math.min(ids.length, rows.length) - 1;
+
+		// Check each slot starting from the id's slot until the id or an empty slot is found.
+		for (int slot = slotOf(id, mask), probes = 0; probes <= mask && rows[slot] != EMPTY; slot = (slot + 1) & mask, probes++)
+			if (ids[slot] == id)
+				return rows[slot];
+
+		// Return -1 if the id is not in the index.
+		return EMPTY;
+	} // end find(int, int[], int[])
+
+	/**
+	 * Add the row of a book to the index, replacing any row with the same id.
+	 * 
+	 * @param id the id of the book
+	 * @param row the row of the book
+	 */
+	public void put(int id, int row)
+	{
+		long stamp = lock.writeLock();
+
+		// Store the row while holding the lock.
+		try
+		{
+			store(id, row);
+		} // end try
+		finally
+		{
+			lock.unlockWrite(stamp);
+		} // end finally
+	} // end put(int, int)
+
+	/**
+	 * Store the row of a book in the slots, replacing any row with the same id.  The lock must be held.
+	 * 
+	 * @param id the id of the book
+	 * @param row the row of the book
+	 */
+	private void store(int id, int row)
+	{
+		int mask = ids.length - 1, slot;
+
+		// Look for the id, or the first empty slot.
+		for (slot = slotOf(id, mask); rows[slot] != EMPTY; slot = (slot + 1) & mask)
+		{
+			// Replace the row if the id is already in the index.
+			if (ids[slot] == id)
+			{
+				rows[slot] = row;
+				return;
+			} // end if
+		} // end for
+
+		// Store the row in the empty slot.
+		ids[slot] = id;
+		rows[slot] = row;
+
+		// Double the number of slots if the index is more than half full.
+		if (++size * 2 > ids.length)
+			resize(ids.length * 2);
+	} // end store(int, int)
+
+	/**
+	 * Remove the row of the book with a given id from the index.
+	 * 
+	 * @param id the id of the book to remove
+	 */
+	public void remove(int id)
+	{
+		long stamp = lock.writeLock();
+		int mask = ids.length - 1, slot, next;
+
+		try
+		{
+			// Look for the id.  Stop if it is not in the index.
+			for (slot = slotOf(id, mask); ids[slot] != id || rows[slot] == EMPTY; slot = (slot + 1) & mask)
+				if (rows[slot] == EMPTY)
+					return;
+
+			// Move back any row after the removed one that would no longer be found, so that no gaps are left in a run of slots.
+			for (next = (slot + 1) & mask; rows[next] != EMPTY; next = (next + 1) & mask)
+			{
+				int home = slotOf(ids[next], mask);
+
+				// The row can fill the gap if its own slot is not between the gap and where it is now.
+				if (((next - home) & mask) >= ((next - slot) & mask))
+				{
+					ids[slot] = ids[next];
+					rows[slot] = rows[next];
+					slot = next;
+				} // end if
+			} // end for
+
+			// Empty the last slot that was moved from.
+			rows[slot] = EMPTY;
+			size--;
+		} // end try
+		finally
+		{
+			lock.unlockWrite(stamp);
+		} // end finally
+	} // end remove(int)
+
+	/**
+	 * Move the rows into a given number of slots.
+	 * 
+	 * @param capacity the new number of slots
+	 */
+	private void resize(int capacity)
+	{
+		// Keep the old arrays, and start over with empty arrays of the new size.
+		int oldIds[] = ids, oldRows[] = rows;
+
+		ids = new int[capacity];
+		rows = emptyRows(capacity);
+		size = 0;
+
+		// Add each of the old rows again.
+		for (int slot = 0; slot < oldRows.length; slot++)
+			if (oldRows[slot] != EMPTY)
+				store(oldIds[slot], oldRows[slot]);
+	} // end resize(int)
+
+	/**
+	 * Remove all the rows from the index.
+	 */
+	public void clear()
+	{
+		long stamp = lock.writeLock();
+
+		// Start over with the smallest arrays.
+		ids = new int[MIN_CAPACITY];
+		rows = emptyRows(MIN_CAPACITY);
+		size = 0;
+		lock.unlockWrite(stamp);
+	} // end clear()
+} // end public class
\ No newline at end of file
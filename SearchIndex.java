@@ -0,0 +1,406 @@
+/**
+ * Final Project: The Store - Search Index
+ * This class provides full-text search over the titles, authors, and genres of the books.  Each word is mapped to a posting list of the
+ * ids of the books that contain it (an inverted index), so that a search only has to look at the books that contain the words searched
+ * for.  The results are ranked by how well the books match: words in the title count more than words in the author's name, which count
+ * more than words in the genre.
+ * 
+ * Searches may run on many threads at once, and only wait while the index is being changed.  The index only keeps the ids of the books,
+ * and the books of the results are looked up by id through the store (see StoreService.getBookById(int)).
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+public class SearchIndex
+{
+	// Store how much a word counts towards a book's rank based on where it is found.
+	private static final int TITLE_WEIGHT = 3;
+	private static final int AUTHOR_WEIGHT = 2;
+	private static final int GENRE_WEIGHT = 1;
+
+	// This class stores the ids of the books that contain a word, in increasing order, along with how much the word counts for each.
+	private static class PostingList
+	{
+		// Declare the arrays of ids and weights, and the number of books in the list.
+		private int ids[] = new int[4], weights[] = new int[4];
+		private int size = 0;
+
+		/**
+		 * Add weight to a book in the list, adding the book if it is not in the list.
+		 * 
+		 * @param id the id of the book
+		 * @param weight the weight to add
+		 */
+		void add(int id, int weight)
+		{
+			// Look for the book.  Books are usually added in increasing order, so check the end of the list first.
+			int position = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+
+			// If the book is already in the list, add to its weight.
+			if (position >= 0)
+			{
+				weights[position] += weight;
+				return;
+			} // end if
+
+			// Grow the arrays if they are full.
+			if (size == ids.length)
+			{
+				ids = Arrays.copyOf(ids, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			} // end if
+
+			// Make room for the book where it belongs, and store it.
+			position = -(position + 1);
+			System.arraycopy(ids, position, ids, position + 1, size - position);
+			System.arraycopy(weights, position, weights, position + 1, size - position);
+			ids[position] = id;
+			weights[position] = weight;
+			size++;
+		} // end add(int, int)
+
+		/**
+		 * Remove a book from the list.
+		 * 
+		 * @param id the id of the book
+		 */
+		void remove(int id)
+		{
+			// Find the book, and close the gap it leaves if it is in the list.
+			int position = Arrays.binarySearch(ids, 0, size, id);
+
+			if (position >= 0)
+			{
+				System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+				System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+				size--;
+			} // end if
+		} // end remove(int)
+	} // end class PostingList
+
+	// Declare the map of words to posting lists (sorted so that words can be found by prefix), the words each book was indexed under by
+	// id, and the way the books of the results are looked up by id.
+	private TreeMap<String, PostingList> postings;
+	private HashMap<Integer, String[]> indexedWords;
+	private IntFunction<Book> lookup;
+
+	// Declare the lock that is shared by searches, and held alone by changes.
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * This constructor initializes an empty index.
+	 * 
+	 * @param lookup the way a book is found by its id (returning null if there is no such book)
+	 */
+	public SearchIndex(IntFunction<Book> lookup)
+	{
+		// Initialize the maps, and store the lookup.
+		postings = new TreeMap<String, PostingList>();
+		indexedWords = new HashMap<Integer, String[]>();
+		this.lookup = lookup;
+	} // end SearchIndex(IntFunction<Book>)
+
+	/**
+	 * Split text into lowercase words, ignoring punctuation.
+	 * 
+	 * @param text the text to split
+	 * @return the list of words
+	 */
+	public static ArrayList<String> tokenize(String text)
+	{
+		ArrayList<String> words = new ArrayList<String>();
+		int start = -1;
+
+		// Iterate through the text, ending a word at each character that is not a letter or digit, and at the end of the text.
+		for (int i = 0; i <= text.length(); i++)
+		{
+			if (i < text.length() && Character.isLetterOrDigit(text.charAt(i)))
+			{
+				// Start a word if one has not been started.
+				if (start == -1)
+					start = i;
+			} // end if
+			else if (start != -1)
+			{
+				// Store the word that has just ended.
+				words.add(text.substring(start, i).toLowerCase());
+				start = -1;
+			} // end else if
+		} // end for
+
+		// Return the words.
+		return words;
+	} // end tokenize(String)
+
+	/**
+	 * Add a book to the index.  The book must be found by the lookup before any search may return it.
+	 * 
+	 * @param book the book to add
+	 */
+	public void add(Book book)
+	{
+		// Change the index while no search is running.
+		lock.writeLock().lock();
+
+		try
+		{
+			// Store the words of each field, keeping track of every word the book is indexed under.
+			ArrayList<String> allWords = new ArrayList<String>();
+
+			addWords(book.getId(), book.getName(), TITLE_WEIGHT, allWords);
+			addWords(book.getId(), book.getAuthor(), AUTHOR_WEIGHT, allWords);
+			addWords(book.getId(), book.getGenre(), GENRE_WEIGHT, allWords);
+
+			// Remember the words so the book can be removed later, even if its fields have changed since.
+			indexedWords.put(book.getId(), allWords.toArray(new String[allWords.size()]));
+		} // end try
+		finally
+		{
+			lock.writeLock().unlock();
+		} // end finally
+	} // end add(Book)
+
+	/**
+	 * Add the words of one field of a book to the index.
+	 * 
+	 * @param id the id of the book
+	 * @param text the text of the field
+	 * @param weight how much each word of the field counts
+	 * @param allWords the list of words the book is indexed under, to add to
+	 */
+	private void addWords(int id, String text, int weight, ArrayList<String> allWords)
+	{
+		// Add the book to the posting list of each word, making the list if it does not exist.
+		for (String word : tokenize(text))
+		{
+			postings.computeIfAbsent(word, (key) -> new PostingList()).add(id, weight);
+			allWords.add(word);
+		} // end for
+	} // end addWords(int, String, int, ArrayList<String>)
+
+	/**
+	 * Remove a book from the index.
+	 * 
+	 * @param book the book to remove
+	 */
+	public void remove(Book book)
+	{
+		// Change the index while no search is running.
+		lock.writeLock().lock();
+
+		try
+		{
+			// Get the words the book was indexed under.  Stop if the book is not in the index.
+			String words[] = indexedWords.remove(book.getId());
+
+			if (words == null)
+				return;
+
+			// Remove the book from the posting list of each word, dropping lists that become empty.
+			for (String word : words)
+			{
+				PostingList list = postings.get(word);
+
+				if (list != null)
+				{
+					list.remove(book.getId());
+
+					if (list.size == 0)
+						postings.remove(word);
+				} // end if
+			} // end for
+		} // end try
+		finally
+		{
+			lock.writeLock().unlock();
+		} // end finally
+	} // end remove(Book)
+
+	/**
+	 * Update the index after a book has been changed.
+	 * 
+	 * @param book the book that has been changed
+	 */
+	public void update(Book book)
+	{
+		// Make both changes together, so no search sees the book missing.
+		lock.writeLock().lock();
+
+		try
+		{
+			// Remove the book under its old words, and add it under its new words.
+			remove(book);
+			add(book);
+		} // end try
+		finally
+		{
+			lock.writeLock().unlock();
+		} // end finally
+	} // end update(Book)
+
+	/**
+	 * Remove all the books from the index.
+	 */
+	public void clear()
+	{
+		// Change the index while no search is running.
+		lock.writeLock().lock();
+
+		try
+		{
+			// Clear the maps.
+			postings.clear();
+			indexedWords.clear();
+		} // end try
+		finally
+		{
+			lock.writeLock().unlock();
+		} // end finally
+	} // end clear()
+
+	/**
+	 * Search for books.  By default, a book must contain every word in the query.  If the word "OR" is used in the query, a book may
+	 * contain any of the words instead.  A word ending in "*" matches every word that starts with it.
+	 * 
+	 * @param query the search query
+	 * @return the matching books, with the best matches first
+	 */
+	public ArrayList<Book> search(String query)
+	{
+		// Share the index with other searches while it is not being changed.
+		lock.readLock().lock();
+
+		try
+		{
+			ArrayList<PostingList> termLists = new ArrayList<PostingList>();
+			ArrayList<Book> results = new ArrayList<Book>();
+			boolean matchAny = false;
+			int matched[], scores[];
+			int matchedCount;
+
+			// Get the posting list for each term in the query.
+			for (String term : query.trim().split(" +"))
+			{
+				// The "OR" and "AND" keywords choose how the terms are combined, rather than being searched for.
+				if (term.equals("OR"))
+				{
+					matchAny = true;
+					continue;
+				} // end if
+				else if (term.equals("AND") || term.isEmpty())
+				{
+					continue;
+				} // end else if
+
+				// Use the list of each word in the term.  If the term ends in "*", merge the lists of all words that start with its last word.
+				ArrayList<String> words = tokenize(term);
+
+				for (int i = 0; i < words.size(); i++)
+				{
+					if (i == words.size() - 1 && term.endsWith("*"))
+						termLists.add(prefixList(words.get(i)));
+					else
+						termLists.add(postings.getOrDefault(words.get(i), new PostingList()));
+				} // end for
+			} // end for
+
+			// Return no results if there was nothing to search for.
+			if (termLists.isEmpty())
+				return results;
+
+			// Combine the lists, keeping the ids and the total weights of the books that match.
+			if (matchAny)
+			{
+				PostingList union = new PostingList();
+
+				for (PostingList list : termLists)
+					for (int i = 0; i < list.size; i++)
+						union.add(list.ids[i], list.weights[i]);
+
+				matched = union.ids;
+				scores = union.weights;
+				matchedCount = union.size;
+			} // end if
+			else
+			{
+				// Start with the shortest list, as every match must be in it, and check each of its books against the other lists.
+				termLists.sort((first, second) -> first.size - second.size);
+
+				matched = new int[termLists.get(0).size];
+				scores = new int[matched.length];
+				matchedCount = 0;
+
+				for (int i = 0; i < termLists.get(0).size; i++)
+				{
+					int id = termLists.get(0).ids[i], score = termLists.get(0).weights[i];
+					boolean inAll = true;
+
+					for (int j = 1; j < termLists.size() && inAll; j++)
+					{
+						PostingList list = termLists.get(j);
+						int position = Arrays.binarySearch(list.ids, 0, list.size, id);
+
+						if (position < 0)
+							inAll = false;
+						else
+							score += list.weights[position];
+					} // end for
+
+					if (inAll)
+					{
+						matched[matchedCount] = id;
+						scores[matchedCount] = score;
+						matchedCount++;
+					} // end if
+				} // end for
+			} // end else
+
+			// Order the matches by score, highest first, keeping books with the same score in order of their ids.
+			Integer order[] = new Integer[matchedCount];
+			final int finalScores[] = scores;
+
+			for (int i = 0; i < matchedCount; i++)
+				order[i] = i;
+
+			Arrays.sort(order, (first, second) -> finalScores[second] - finalScores[first]);
+
+			// Look up the books of the matches, leaving out any book that is no longer stored.
+			for (Integer position : order)
+			{
+				Book book = lookup.apply(matched[position]);
+
+				if (book != null)
+					results.add(book);
+			} // end for
+
+			return results;
+		} // end try
+		finally
+		{
+			lock.readLock().unlock();
+		} // end finally
+	} // end search(String)
+
+	/**
+	 * Merge the posting lists of every word that starts with a prefix.
+	 * 
+	 * @param prefix the prefix to match
+	 * @return the merged posting list
+	 */
+	private PostingList prefixList(String prefix)
+	{
+		PostingList merged = new PostingList();
+
+		// Add the books of every word in the range of words that start with the prefix.
+		for (PostingList list : postings.subMap(prefix, prefix + Character.MAX_VALUE).values())
+			for (int i = 0; i < list.size; i++)
+				merged.add(list.ids[i], list.weights[i]);
+
+		return merged;
+	} // end prefixList(String)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,145 @@
+/**
+ * Final Project: The Store - Slot User Repository
+ * This class stores the users in a file of fixed-size slots (see UserSlotFile), so that a batch of changed users rewrites only the slots
+ * of those users.  Every user is read into memory when the program starts.  The first time the slot file is used, the users are moved
+ * into it from the users file (with the changes in its journal).  The slot file is written in full beside its final place and then moved
+ * there, so it only exists once every user is in it.  If it cannot be made, the users stay in the users file and its journal.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.util.*;
+
+public class SlotUserRepository extends CsvUserRepository
+{
+	// Declare the path to the slot file, the slot file (null until the users have been moved into it), and the repository the users are
+	// written to instead if they could not be moved (null unless the move failed).
+	private String slotPath;
+	private UserSlotFile slotFile;
+	private UserRepository fallback;
+
+	/**
+	 * This constructor opens the slot file if it exists.  Otherwise, it is made when the users are loaded.
+	 * 
+	 * @param service the store service
+	 * @param users the list of users the store keeps
+	 * @param slotPath the path to the slot file
+	 * @throws IOException if the slot file could not be opened
+	 */
+	public SlotUserRepository(StoreService service, ArrayList<User> users, String slotPath) throws IOException
+	{
+		// Store the values, and open the file if it has been made.
+		super(service, users);
+		this.slotPath = slotPath;
+		slotFile = UserSlotFile.exists(slotPath) ? new UserSlotFile(slotPath) : null;
+		fallback = null;
+	} // end SlotUserRepository(StoreService, ArrayList<User>, String)
+
+	/**
+	 * Read every user in the slot file into a list.  If the slot file is new, the users are read from the users file and its journal, and
+	 * moved into the slot file.  The journal is cleared once its changes are in the slot file.
+	 * 
+	 * @param users the list to read into
+	 */
+	@Override
+	public void load(ArrayList<User> users)
+	{
+		// Move the users into a new slot file.  The journal is only cleared once the slot file is in place.  If the slot file cannot be
+		// made, the changes are appended to the journal as before, and the move is tried again the next time the program starts.
+		if (slotFile == null)
+		{
+			Journal userJournal = new Journal(Paths.DATA_USER_JOURNAL_FILE, Integer.MAX_VALUE, () -> {});
+
+			super.load(users);
+			DataFiles.replayUserJournal(service, userJournal, users);
+
+			try
+			{
+				slotFile = UserSlotFile.create(slotPath, getLines(users));
+				userJournal.clear();
+			} // end try
+			catch (IOException exception)
+			{
+				System.err.println("Failed to make " + slotPath + "; keeping the users file: " + exception.getMessage());
+				fallback = new JournaledUserRepository(service, this.users, Paths.DATA_USER_JOURNAL_FILE);
+			} // end catch
+
+			return;
+		} // end if
+
+		try
+		{
+			// Add a user for each line in the slot file.  Skip a line if it fails to parse.
+			slotFile.load((line, fields) -> {
+				try
+				{
+					users.add(new User(service, fields));
+				} // end try
+				catch (NumberFormatException|ArrayIndexOutOfBoundsException exception) {}
+			});
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.
+			System.err.println("Failed to read " + Paths.DATA_USER_SLOT_FILE + ": " + exception.getMessage());
+		} // end catch
+	} // end load(ArrayList<User>)
+
+	/**
+	 * Gather a batch of changed users, whose slots are written together.
+	 * 
+	 * @param changes the users that have changed
+	 * @return the write to run, or null if there are no changes
+	 */
+	@Override
+	public Runnable prepareCommit(Collection<User> changes)
+	{
+		// Use the users file if the slot file could not be made.
+		if (fallback != null)
+			return fallback.prepareCommit(changes);
+
+		// Make the line of each user now, and write their slots later.
+		LinkedHashMap<String, String> lines = getLines(changes);
+		return lines.isEmpty() ? null : () -> {slotFile.writeAll(lines);};
+	} // end prepareCommit(Collection<User>)
+
+	/**
+	 * Gather every user, so that the slot of every user can be written.
+	 * 
+	 * @return the write to run
+	 */
+	@Override
+	public Runnable prepareSnapshot()
+	{
+		// Use the users file if the slot file could not be made.
+		if (fallback != null)
+			return fallback.prepareSnapshot();
+
+		// Make the line of every user now, and write their slots later.
+		LinkedHashMap<String, String> lines = getLines(users);
+		return () -> {slotFile.writeAll(lines);};
+	} // end prepareSnapshot()
+
+	/**
+	 * Make the CSV line of each of a group of users.
+	 * 
+	 * @param group the users
+	 * @return the line of each user, by username
+	 */
+	private static LinkedHashMap<String, String> getLines(Collection<User> group)
+	{
+		LinkedHashMap<String, String> lines = new LinkedHashMap<String, String>();
+		StringBuilder line = new StringBuilder(128);
+
+		// Reuse one builder for every line.
+		for (User user : group)
+		{
+			line.setLength(0);
+			lines.put(user.getUserName(), user.appendCSV(line).toString());
+		} // end for
+
+		return lines;
+	} // end getLines(Collection<User>)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,590 @@
+/**
+ * Final Project: The Store - Snapshot Writer
+ * This class writes the data files so that a crash can never leave a file half written.  A file is written to a temporary file beside it,
+ * pushed to disk, and then renamed over the old file in a single step.  The previous version is kept as a backup.  The first line of each
+ * file is a header with a checksum of the rest of the file, which the loaders check before trusting the file.  Unless the operating
+ * system is left to decide, the folder is pushed to disk after the backup is made and after the rename, so that the rename itself cannot
+ * be lost in a crash.  A temporary file that could not be committed is deleted.
+ * 
+ * How often files are pushed to disk can be chosen with the muftibooks.durability property:
+ *   "write" - every write is pushed to disk before it returns (the safest, and the slowest).
+ *   "group" - writes wait for a group commit, which pushes every write made in the last few milliseconds (set with the
+ *             muftibooks.groupCommitMillis property) to disk at once.
+ *   "os"    - writes are never pushed to disk explicitly, and the operating system decides when they reach it (the fastest).  The
+ *             rename is still done in a single step, so a file is never seen half written.
+ * 
+ * printDurabilityBenchmark times snapshot writes and journal appends at each level.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+public class SnapshotWriter
+{
+	// Store the durability levels.
+	public static final int DURABILITY_PER_WRITE = 0;
+	public static final int DURABILITY_GROUP_COMMIT = 1;
+	public static final int DURABILITY_OS = 2;
+
+	// Store the start of the header line, and the ending of backup files.
+	public static final String HEADER_PREFIX = "#MUFTIBOOKS crc32=";
+	public static final String BACKUP_SUFFIX = ".bak";
+
+	// Store the default time between group commits (in milliseconds).
+	public static final long DEFAULT_GROUP_COMMIT_MILLIS = 20;
+
+	// This class stores a file waiting for a group commit: the channel to push to disk, and (for a snapshot) the rename to do afterwards.
+	private static class PendingCommit
+	{
+		FileChannel channel;
+		Path temporary, target;
+		boolean closeChannel, done;
+		IOException failure;
+	} // end class PendingCommit
+
+	// Initialize the durability level and group commit time from the properties.
+	private static int durability = parseDurability(System.getProperty("muftibooks.durability", "write"));
+	private static long groupCommitMillis = Long.getLong("muftibooks.groupCommitMillis", DEFAULT_GROUP_COMMIT_MILLIS);
+
+	// Initialize the files waiting for the next group commit, and the thread that does the group commits.  The thread does not keep the
+	// program running.
+	private static ArrayList<PendingCommit> pendingCommits = new ArrayList<PendingCommit>();
+	private static boolean commitScheduled = false;
+	private static ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "Group committer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Turn the name of a durability level into the level.
+	 * 
+	 * @param name the name of the level ("write", "group", or "os")
+	 * @return the durability level, which is per write if the name is not known
+	 */
+	private static int parseDurability(String name)
+	{
+		// Match the name to a level.
+		if (name.equalsIgnoreCase("group"))
+			return DURABILITY_GROUP_COMMIT;
+		else if (name.equalsIgnoreCase("os"))
+			return DURABILITY_OS;
+		else
+			return DURABILITY_PER_WRITE;
+	} // end parseDurability(String)
+
+	/**
+	 * Get the durability level.
+	 * 
+	 * @return the durability level
+	 */
+	public static int getDurability()
+	{
+		// Return the level.
+		return durability;
+	} // end getDurability()
+
+	/**
+	 * Set the durability level.
+	 * 
+	 * @param newDurability the new durability level
+	 * @param newGroupCommitMillis the time between group commits, in milliseconds
+	 */
+	public static void setDurability(int newDurability, long newGroupCommitMillis)
+	{
+		// Store the level and time.
+		durability = newDurability;
+		groupCommitMillis = newGroupCommitMillis;
+	} // end setDurability(int, long)
+
+	/**
+	 * Write lines to a file, replacing the file in a single step once the lines are written.
+	 * 
+	 * @param filePath the path to the file
+	 * @param lines the lines to write
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(String filePath, List<String> lines) throws IOException
+	{
+		// Join the lines, and write their bytes.
+		StringBuilder body = new StringBuilder();
+
+		for (String line : lines)
+			body.append(line).append(System.lineSeparator());
+
+		write(filePath, body.toString().getBytes(StandardCharsets.UTF_8));
+	} // end write(String, List<String>)
+
+	/**
+	 * Write bytes to a file after the header line, replacing the file in a single step once the bytes are written.
+	 * 
+	 * @param filePath the path to the file
+	 * @param bodyBytes the bytes to write
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(String filePath, byte bodyBytes[]) throws IOException
+	{
+		// Find the checksum of the bytes.
+		CRC32 checksum = new CRC32();
+		checksum.update(bodyBytes);
+
+		byte headerBytes[] = (HEADER_PREFIX + String.format("%08x", checksum.getValue()) + System.lineSeparator())
+			.getBytes(StandardCharsets.UTF_8);
+
+		// Write the header and lines to a temporary file beside the file.
+		Path target = new File(filePath).toPath().toAbsolutePath();
+		Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+
+		try
+		{
+			ByteBuffer buffers[] = {ByteBuffer.wrap(headerBytes), ByteBuffer.wrap(bodyBytes)};
+
+			while (buffers[1].hasRemaining())
+				channel.write(buffers);
+		} // end try
+		catch (IOException exception)
+		{
+			// Give up on the temporary file, leaving the old file as it was.
+			channel.close();
+			Files.deleteIfExists(temporary);
+			throw exception;
+		} // end catch
+
+		// Push the file to disk (as the durability level asks for) and rename it over the old file.
+		PendingCommit commit = new PendingCommit();
+		commit.channel = channel;
+		commit.temporary = temporary;
+		commit.target = target;
+		commit.closeChannel = true;
+
+		if (durability == DURABILITY_GROUP_COMMIT)
+		{
+			waitForGroupCommit(commit);
+		} // end if
+		else
+		{
+			try
+			{
+				try
+				{
+					if (durability == DURABILITY_PER_WRITE)
+						channel.force(true);
+				} // end try
+				finally
+				{
+					channel.close();
+				} // end finally
+
+				replace(temporary, target);
+			} // end try
+			catch (IOException exception)
+			{
+				// Give up on the temporary file, leaving the old file as it was.
+				Files.deleteIfExists(temporary);
+				throw exception;
+			} // end catch
+		} // end else
+	} // end write(String, byte[])
+
+	/**
+	 * Push data appended to a file to disk, as the durability level asks for.  This is used by the journals after each record.
+	 * 
+	 * @param channel the channel of the file
+	 * @throws IOException if the data could not be pushed to disk
+	 */
+	public static void sync(FileChannel channel) throws IOException
+	{
+		// Push the data now, wait for the next group commit, or leave it to the operating system.
+		if (durability == DURABILITY_PER_WRITE)
+		{
+			channel.force(false);
+		} // end if
+		else if (durability == DURABILITY_GROUP_COMMIT)
+		{
+			PendingCommit commit = new PendingCommit();
+			commit.channel = channel;
+			waitForGroupCommit(commit);
+		} // end else if
+	} // end sync(FileChannel)
+
+	/**
+	 * Rename a temporary file over a file in a single step, keeping the old file as a backup.  Unless the operating system is left to
+	 * decide, the folder is pushed to disk once the backup is made (so the backup is on disk before the file is replaced) and again after
+	 * the rename (so the rename is on disk before the write returns).
+	 * 
+	 * @param temporary the temporary file
+	 * @param target the file to replace
+	 * @throws IOException if the file could not be renamed
+	 */
+	private static void replace(Path temporary, Path target) throws IOException
+	{
+		Path backup = target.resolveSibling(target.getFileName() + BACKUP_SUFFIX);
+		boolean syncFolder = durability != DURABILITY_OS;
+
+		// Keep the old file as the backup.  A link is used, so that the file itself is never missing.
+		if (Files.exists(target))
+		{
+			try
+			{
+				Files.deleteIfExists(backup);
+				Files.createLink(backup, target);
+
+				if (syncFolder)
+					syncFolder(target.getParent());
+			} // end try
+			catch (IOException|UnsupportedOperationException exception)
+			{
+				// Carry on without a backup if links are not supported.
+			} // end catch
+		} // end if
+
+		// Rename the temporary file over the file.
+		Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		if (syncFolder)
+			syncFolder(target.getParent());
+	} // end replace(Path, Path)
+
+	/**
+	 * Push the entries of a folder (the names of the files in it) to disk.
+	 * 
+	 * @param folder the folder
+	 * @throws IOException if the folder could not be pushed to disk
+	 */
+	public static void syncFolder(Path folder) throws IOException
+	{
+		FileChannel channel;
+
+		// Open the folder.  Some systems (such as Windows) cannot open a folder, and make a rename durable without being asked to.
+		try
+		{
+			channel = FileChannel.open(folder, StandardOpenOption.READ);
+		} // end try
+		catch (IOException exception)
+		{
+			return;
+		} // end catch
+
+		// Push the folder to disk.
+		try
+		{
+			channel.force(true);
+		} // end try
+		finally
+		{
+			channel.close();
+		} // end finally
+	} // end syncFolder(Path)
+
+	/**
+	 * Add a file to the next group commit, and wait until the commit is done.
+	 * 
+	 * @param commit the file to commit
+	 * @throws IOException if the file could not be committed
+	 */
+	private static void waitForGroupCommit(PendingCommit commit) throws IOException
+	{
+		boolean interrupted = false;
+
+		synchronized (pendingCommits)
+		{
+			// Add the file, and schedule a commit if one is not coming.
+			pendingCommits.add(commit);
+
+			if (!commitScheduled)
+			{
+				commitScheduled = true;
+				committer.schedule(SnapshotWriter::commitGroup, groupCommitMillis, TimeUnit.MILLISECONDS);
+			} // end if
+
+			// Wait for the commit.
+			while (!commit.done)
+			{
+				try
+				{
+					pendingCommits.wait();
+				} // end try
+				catch (InterruptedException exception)
+				{
+					// Keep waiting, as the write is not safe until it is committed.
+					interrupted = true;
+				} // end catch
+			} // end while
+		} // end synchronized
+
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		if (commit.failure != null)
+			throw commit.failure;
+	} // end waitForGroupCommit(PendingCommit)
+
+	/**
+	 * Push every file waiting for a group commit to disk, and do their renames.
+	 */
+	private static void commitGroup()
+	{
+		ArrayList<PendingCommit> group;
+		Set<FileChannel> forced = Collections.newSetFromMap(new IdentityHashMap<FileChannel, Boolean>());
+
+		// Take the files that are waiting.
+		synchronized (pendingCommits)
+		{
+			group = new ArrayList<PendingCommit>(pendingCommits);
+			pendingCommits.clear();
+			commitScheduled = false;
+		} // end synchronized
+
+		// Push each channel to disk once, then do the renames in the order the files were written.
+		for (PendingCommit commit : group)
+		{
+			try
+			{
+				if (forced.add(commit.channel))
+					commit.channel.force(commit.temporary != null);
+
+				if (commit.closeChannel)
+					commit.channel.close();
+
+				if (commit.temporary != null)
+					replace(commit.temporary, commit.target);
+			} // end try
+			catch (IOException exception)
+			{
+				commit.failure = exception;
+
+				// Give up on the temporary file of a snapshot, leaving the old file as it was.
+				if (commit.temporary != null)
+				{
+					try
+					{
+						commit.channel.close();
+						Files.deleteIfExists(commit.temporary);
+					} // end try
+					catch (IOException closeException) {}
+				} // end if
+			} // end catch
+		} // end for
+
+		// Let the writers know their files are committed.
+		synchronized (pendingCommits)
+		{
+			for (PendingCommit commit : group)
+				commit.done = true;
+
+			pendingCommits.notifyAll();
+		} // end synchronized
+	} // end commitGroup()
+
+	/**
+	 * Check a file's checksum against its header.
+	 * 
+	 * @param file the file to check
+	 * @return true if the checksum matches or the file has no header (it was written before headers were added), false otherwise
+	 * @throws IOException if the file could not be read
+	 */
+	public static boolean verify(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			MappedByteBuffer contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte prefix[] = HEADER_PREFIX.getBytes(StandardCharsets.UTF_8);
+			int headerEnd = 0;
+
+			// Files without the header are accepted as they are.
+			if (contents.limit() < prefix.length)
+				return true;
+
+			for (int i = 0; i < prefix.length; i++)
+				if (contents.get(i) != prefix[i])
+					return true;
+
+			// Find the end of the header line.  A header that never ends means the file was cut short.
+			while (headerEnd < contents.limit() && contents.get(headerEnd) != '\n')
+				headerEnd++;
+
+			if (headerEnd == contents.limit())
+				return false;
+
+			// Read the checksum from the header, and compare it with the checksum of the rest of the file.
+			byte checksumBytes[] = new byte[headerEnd - prefix.length];
+			contents.get(prefix.length, checksumBytes);
+
+			CRC32 checksum = new CRC32();
+			checksum.update(contents.position(headerEnd + 1));
+
+			try
+			{
+				return Long.parseLong(new String(checksumBytes, StandardCharsets.UTF_8).trim(), 16) == checksum.getValue();
+			} // end try
+			catch (NumberFormatException exception)
+			{
+				return false;
+			} // end catch
+		} // end try
+	} // end verify(File)
+
+	/**
+	 * Choose the file a loader should read.  The file itself is used if its checksum matches.  Otherwise, the backup is used if its
+	 * checksum matches, and the file is used anyway (with a warning) if neither does.
+	 * 
+	 * @param filePath the path to the file
+	 * @return the file to read
+	 */
+	public static File chooseReadable(String filePath)
+	{
+		File file = new File(filePath), backup = new File(filePath + BACKUP_SUFFIX);
+
+		try
+		{
+			// Use the file if it is missing (so the loader can create it) or its checksum matches.
+			if (!file.exists() || verify(file))
+				return file;
+
+			// Otherwise, fall back to the backup if it is intact.
+			if (backup.exists() && verify(backup))
+			{
+				System.err.println("Checksum mismatch in " + filePath + "; reading the backup instead.");
+				return backup;
+			} // end if
+		} // end try
+		catch (IOException exception) {}
+
+		// Read what can be read from the file.
+		System.err.println("Checksum mismatch in " + filePath + "; reading the rows that can be parsed.");
+		return file;
+	} // end chooseReadable(String)
+
+	/**
+	 * Print how long snapshot writes and journal appends take at each durability level.  At each level, a number of snapshots of about
+	 * 64 KB (the size of a modest books file) are written, and a number of small records are appended to a journal and pushed to disk as
+	 * the level asks for.  Each is done by one writer and by eight writers at once (each with its own file), as group commits only pay off
+	 * when writes overlap.  The files are written to a temporary folder in the given folder, so that the disk the data is kept on is
+	 * measured, and are deleted afterwards.
+	 * 
+	 * @param writes the number of writes made by each writer
+	 * @param folderPath the folder to make the temporary folder in
+	 * @throws IOException if a file could not be written
+	 * @throws InterruptedException if the benchmark is interrupted
+	 */
+	public static void printDurabilityBenchmark(int writes, String folderPath) throws IOException, InterruptedException
+	{
+		String names[] = {"write", "group", "os"};
+		int levels[] = {DURABILITY_PER_WRITE, DURABILITY_GROUP_COMMIT, DURABILITY_OS};
+		int oldDurability = durability;
+		long oldGroupCommitMillis = groupCommitMillis;
+		Path folder = Files.createTempDirectory(new File(folderPath).toPath(), "durability-benchmark");
+		StringBuilder line = new StringBuilder();
+
+		// Make the body of the snapshots, in the format of the books file.
+		for (int i = 0; line.length() < 65536; i++)
+			line.append(i).append(",Book Number ").append(i).append(",19.99,100,5,Fiction,Paperback,Author,2000,none.jpg\n");
+
+		byte body[] = line.toString().getBytes(StandardCharsets.UTF_8);
+		byte record[] = "PUT,1,Book Number 1,19.99,99,5,Fiction,Paperback,Author,2000,none.jpg\n".getBytes(StandardCharsets.UTF_8);
+
+		System.out.println("Level  Operation  Writers  Per second  p50 ms  p99 ms");
+
+		try
+		{
+			for (int level = 0; level < levels.length; level++)
+			{
+				setDurability(levels[level], oldGroupCommitMillis);
+
+				for (int writers : new int[] {1, 8})
+				{
+					for (int operation = 0; operation < 2; operation++)
+					{
+						boolean snapshot = operation == 0;
+						long times[] = new long[writes * writers];
+						ExecutorService pool = Executors.newFixedThreadPool(writers);
+						ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+						long start = System.nanoTime();
+
+						// Start each writer, which writes its own file and times each write.
+						for (int writer = 0; writer < writers; writer++)
+						{
+							int first = writer * writes;
+							Path file = folder.resolve((snapshot ? "snapshot" : "journal") + writer);
+
+							results.add(pool.submit(() -> {
+								if (snapshot)
+								{
+									for (int i = 0; i < writes; i++)
+									{
+										long sent = System.nanoTime();
+										write(file.toString(), body);
+										times[first + i] = System.nanoTime() - sent;
+									} // end for
+								} // end if
+								else
+								{
+									try (FileChannel channel = FileChannel.open(
+										file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+									{
+										for (int i = 0; i < writes; i++)
+										{
+											long sent = System.nanoTime();
+											channel.write(ByteBuffer.wrap(record));
+											sync(channel);
+											times[first + i] = System.nanoTime() - sent;
+										} // end for
+									} // end try
+								} // end else
+
+								return null;
+							}));
+						} // end for
+
+						// Wait for the writers, passing on any failure.
+						for (Future<?> result : results)
+						{
+							try
+							{
+								result.get();
+							} // end try
+							catch (ExecutionException exception)
+							{
+								throw new IOException(exception.getCause());
+							} // end catch
+						} // end for
+
+						long nanos = Math.max(1, System.nanoTime() - start);
+						pool.shutdown();
+
+						// Print the rate and percentiles.
+						Arrays.sort(times);
+						System.out.printf(
+							"%-5s  %-9s  %7d  %10d  %6.2f  %6.2f%n", names[level], snapshot ? "snapshot" : "append", writers,
+							times.length * 1000000000L / nanos, times[times.length / 2] / 1e6, times[times.length * 99 / 100] / 1e6
+						);
+					} // end for
+				} // end for
+			} // end for
+		} // end try
+		finally
+		{
+			// Put the durability level back, and delete the files.
+			setDurability(oldDurability, oldGroupCommitMillis);
+
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(folder))
+			{
+				for (Path file : files)
+					Files.deleteIfExists(file);
+			} // end try
+
+			Files.deleteIfExists(folder);
+		} // end finally
+	} // end printDurabilityBenchmark(int, String)
+} // end public class
\ No newline at end of file
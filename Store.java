@@ -19,6 +19,345 @@ public class Store
 		// Check if the resources folder exists.  Abort if it does not.
 		Resources.checkResourcesExist();
 
+		// If asked to, make the thumbnails of every book cover and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--rebuild-thumbnails"))
+		{
+			System.out.println("Made " + ThumbnailCache.rebuildAll() + " thumbnails.");
+			return;
+		} // end if
+
+		// If asked to, convert the books between the CSV file and the binary snapshot (the files can be given after the option), and exit
+		// without showing the store.
+		if (args.length > 0 && (args[0].equals("--books-to-binary") || args[0].equals("--books-to-csv")))
+		{
+			boolean toBinary = args[0].equals("--books-to-binary");
+			String csvPath = args.length > 1 ? args[1] : Paths.DATA_PRODUCT_FILE;
+			String snapshotPath = args.length > 2 ? args[2] : Paths.DATA_PRODUCT_BINARY_FILE;
+
+			try
+			{
+				int converted = toBinary ? BookSnapshot.convertCsvToSnapshot(csvPath, snapshotPath) :
+					BookSnapshot.convertSnapshotToCsv(snapshotPath, csvPath);
+				System.out.println("Converted " + converted + " books.");
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to convert the books: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, move the users between the users file and the file of fixed-size slots (the files can be given after the option), and
+		// exit without showing the store.
+		if (args.length > 0 && (args[0].equals("--users-to-slots") || args[0].equals("--users-to-csv")))
+		{
+			boolean toSlots = args[0].equals("--users-to-slots");
+			String csvPath = args.length > 1 ? args[1] : Paths.DATA_USER_FILE;
+			String slotPath = args.length > 2 ? args[2] : Paths.DATA_USER_SLOT_FILE;
+
+			try
+			{
+				int converted = toSlots ? UserSlotFile.convertCsvToSlots(csvPath, slotPath) :
+					UserSlotFile.convertSlotsToCsv(slotPath, csvPath);
+				System.out.println("Converted " + converted + " users.");
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to convert the users: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, import the books in a CSV or JSON lines feed (see BookImporter), and exit without showing the store.  The lines that
+		// are rejected are written, along with the reason, to the file given after the feed (or beside the feed).  The import refuses to
+		// run while a store is running, as the store would write over the new books (and give out the same ids).
+		if (args.length > 0 && args[0].equals("--import-books"))
+		{
+			if (args.length < 2)
+			{
+				System.err.println("Usage: --import-books <feed> [rejects file]");
+				return;
+			} // end if
+
+			if (!StoreService.lockDataFiles())
+			{
+				System.err.println("The store is running (or its data files could not be locked).  Close it before importing books.");
+				return;
+			} // end if
+
+			String rejectsPath = args.length > 2 ? args[2] : args[1] + ".rejects.csv";
+			java.util.List<Book> books = new java.util.ArrayList<Book>();
+			BookRepository repository = StoreService.createBookRepository(StoreService.getRepositoryType(), books, books);
+			JournaledBookRepository journaled = repository instanceof JournaledBookRepository ? (JournaledBookRepository) repository : null;
+			BookImporter importer = new BookImporter();
+
+			// Read the books already in the store, so that the new books take the ids after them.
+			repository.load(books);
+			long start = System.nanoTime();
+
+			try (java.io.PrintWriter rejects = new java.io.PrintWriter(rejectsPath, "UTF-8"))
+			{
+				rejects.println("line,reason,record");
+
+				// Add each batch to the books.  If the store keeps a journal, each batch is appended to it as one change, so that the
+				// books imported so far are kept if the import stops partway.  Each rejected line is written with its reason quoted, and
+				// the line itself last, as it may hold commas.
+				importer.importFile(args[1], (batch) -> {
+					java.util.LinkedHashMap<Integer, Book> changes = new java.util.LinkedHashMap<Integer, Book>();
+
+					for (Book book : batch)
+					{
+						books.add(book);
+						changes.put(book.getId(), book);
+					} // end for
+
+					Runnable write = journaled == null ? null : journaled.prepareAppend(changes);
+
+					if (write != null)
+						write.run();
+				}, (lineNumber, line, reason) -> {
+					rejects.println(lineNumber + ",\"" + reason.replace("\"", "\"\"") + "\"," + line);
+				});
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to import the books: " + exception.getMessage());
+			} // end catch
+
+			// Write the books file once, with every book that was imported (and clear the journal).
+			Runnable write = importer.getImportedCount() > 0 ? repository.prepareSnapshot() : null;
+
+			if (write != null)
+				write.run();
+
+			System.out.println(
+				"Imported " + importer.getImportedCount() + " books and rejected " + importer.getRejectedCount() + " lines (listed in " +
+					rejectsPath + ") in " + (System.nanoTime() - start) / 1000000 + " ms."
+			);
+			return;
+		} // end if
+
+		// If asked to, export the books, users, and sales to a folder (see DataExporter) as CSV or JSON lines files, and exit without
+		// showing the store.  The progress of each file is shown as it is written, along with the rate it was written at.
+		if (args.length > 0 && args[0].equals("--export"))
+		{
+			String folderPath = args.length > 1 ? args[1] : "export";
+			boolean json = args.length > 2 && args[2].equalsIgnoreCase("json");
+			long start = System.nanoTime();
+
+			try
+			{
+				long bytes = DataExporter.exportStore(folderPath, json, DataExporter.DEFAULT_BUFFER_SIZE, (fileName, rows, written) -> {
+					System.err.print("\r" + fileName + ": " + rows + " rows, " + (written >> 20) + " MB   ");
+				});
+				long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+
+				System.err.println();
+				System.out.printf(
+					"Exported %.1f MB to %s in %d ms (%.1f MB/s).%n", bytes / 1048576.0, folderPath, millis, bytes / 1048576.0 * 1000 / millis
+				);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to export the data: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, print how much memory the dictionary of book strings saves on a large catalog (the number of books can be given
+		// after the option), and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--intern-report"))
+		{
+			try
+			{
+				StringDictionary.printHeapReport(args.length > 1 ? Integer.parseInt(args[1]) : 1000000);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to make the report: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, time reading the books and users files with the mapped reader and with the old reader (the number of rows can be
+		// given after the option), and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--startup-benchmark"))
+		{
+			try
+			{
+				MappedCsvReader.printStartupBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1000000);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to run the benchmark: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, time signing in as the number of accounts grows (the largest number of accounts can be given after the option), and
+		// exit without showing the store.
+		if (args.length > 0 && args[0].equals("--sign-in-benchmark"))
+		{
+			StoreService.printSignInBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 10000000);
+			return;
+		} // end if
+
+		// If asked to, time snapshot writes and journal appends at each durability level (the number of writes by each writer, and the
+		// folder to write in, can be given after the option), and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--durability-benchmark"))
+		{
+			try
+			{
+				SnapshotWriter.printDurabilityBenchmark(
+					args.length > 1 ? Integer.parseInt(args[1]) : 200, args.length > 2 ? args[2] : Paths.DATA_BASE_FOLDER
+				);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to run the benchmark: " + exception.getMessage());
+			} // end catch
+			catch (InterruptedException exception)
+			{
+				System.err.println("The benchmark was interrupted.");
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, time saving and loading a catalog as a CSV file and as a binary snapshot (the number of books can be given after the
+		// option), and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--snapshot-benchmark"))
+		{
+			try
+			{
+				BookSnapshot.printSnapshotBenchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1000000);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to run the benchmark: " + exception.getMessage());
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, time checkouts with compare-and-set and with one lock for all of the stock, from 1 to 64 threads (the number of
+		// purchases at each number of threads can be given after the option), and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--checkout-benchmark"))
+		{
+			try
+			{
+				InventoryStressTest.printCheckoutBenchmark(
+					args.length > 1 ? Integer.parseInt(args[1]) : InventoryStressTest.DEFAULT_PURCHASES
+				);
+			} // end try
+			catch (InterruptedException exception)
+			{
+				System.err.println("The benchmark was interrupted.");
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, drive many purchases at once against a catalog in memory (the number of threads and purchases can be given after the
+		// option), check that the stock is still correct, and exit without showing the store.
+		if (args.length > 0 && args[0].equals("--stress-test"))
+		{
+			try
+			{
+				boolean passed = InventoryStressTest.run(
+					args.length > 1 ? Integer.parseInt(args[1]) : InventoryStressTest.DEFAULT_THREADS,
+					args.length > 2 ? Integer.parseInt(args[2]) : InventoryStressTest.DEFAULT_PURCHASES
+				);
+
+				if (!passed)
+					System.exit(1);
+			} // end try
+			catch (InterruptedException exception)
+			{
+				System.err.println("The stress test was interrupted.");
+			} // end catch
+
+			return;
+		} // end if
+
+		// If asked to, serve the store over HTTP (see StoreServer) on the port given after the option.  If "window" is given after the
+		// port, the store is also shown, and the window and the server share the same books and users.
+		if (args.length > 0 && args[0].equals("--serve"))
+		{
+			StoreService service = new StoreService();
+			StoreServer server;
+
+			try
+			{
+				server = new StoreServer(service, args.length > 1 ? Integer.parseInt(args[1]) : StoreServer.DEFAULT_PORT);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to start the server: " + exception.getMessage());
+				return;
+			} // end catch
+
+			// Stop the server and write any changes that are still waiting when the program exits.
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				server.stop(1);
+				service.flushData();
+			}));
+
+			server.start();
+			System.out.println(
+				"Serving the store at http://localhost:" + server.getPort() + "/api/ on " + (server.usesVirtualThreads() ? "virtual threads." :
+					StoreServer.FALLBACK_THREADS + " threads (virtual threads are not available).")
+			);
+
+			if (args.length > 2 && args[2].equals("window"))
+			{
+				GUI gui = new GUI(service);
+				gui.switchPage(new Pages.MainMenu(gui));
+			} // end if
+
+			return;
+		} // end if
+
+		// If asked to, send many requests at once to a server, print the rate and latency, and exit without showing the store.  The address
+		// of a running server may be given after the option, and the number of connections, the number of requests, and the number of
+		// shoppers after that.  Without an address, a server that only keeps its changes in memory is started for the test.
+		if (args.length > 0 && args[0].equals("--load-test"))
+		{
+			try
+			{
+				String baseUrl = args.length > 1 && args[1].contains("://") ? args[1] : null;
+				int first = baseUrl == null ? 1 : 2;
+				int connections = args.length > first ? Integer.parseInt(args[first]) : LoadGenerator.DEFAULT_CONNECTIONS;
+				int requests = args.length > first + 1 ? Integer.parseInt(args[first + 1]) : LoadGenerator.DEFAULT_REQUESTS;
+				int shoppers = args.length > first + 2 ? Integer.parseInt(args[first + 2]) : LoadGenerator.DEFAULT_SHOPPERS;
+				boolean passed = baseUrl == null ? LoadGenerator.runInMemory(connections, requests, shoppers) :
+					LoadGenerator.run(baseUrl, connections, requests, shoppers);
+
+				if (!passed)
+					System.exit(1);
+			} // end try
+			catch (IllegalArgumentException exception)
+			{
+				System.err.println("Cannot run the load test: " + exception.getMessage());
+				System.exit(1);
+			} // end catch
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to reach the server: " + exception.getMessage());
+			} // end catch
+			catch (InterruptedException exception)
+			{
+				System.err.println("The load test was interrupted.");
+			} // end catch
+
+			return;
+		} // end if
+
 		// Make a new GUI object, and switch to the main menu.
 		GUI gui = new GUI();
 		gui.switchPage(new Pages.MainMenu(gui));
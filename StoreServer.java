@@ -0,0 +1,841 @@
+/**
+ * Final Project: The Store - Store Server
+ * This class serves the store over HTTP, so that browsers and tablets can shop against the same books and users as the window.  It uses
+ * the HTTP server built into the JDK, and is a client of the store service (see StoreService) like the GUI, so every change is written
+ * the same way.  Each request is handled on its own virtual thread where the Java runtime has them, and on a fixed pool of threads where
+ * it does not.  Requests and responses are JSON objects (see Json), and every error is returned as {"error": "..."}.
+ * 
+ * A shopper signs in with POST /api/login, which returns a token that is sent with every request after it, as the header
+ * "Authorization: Bearer <token>".  A token ends when the shopper signs out, or once it has not been used for half an hour.  Every session
+ * of the same user shares one User object (see StoreService.pinUser), so two devices signed in as the same user see the same cart.  Once
+ * the most sessions the server keeps are open, signing in ends the session used least recently.  The requests are:
+ * 
+ * - POST   /api/register          {firstName, lastName, userName, password, email}
+ * - POST   /api/login             {userName, password}, returns {token}
+ * - POST   /api/logout
+ * - GET    /api/books?query=&offset=&limit=   the catalog (or the books matching the query, best first), a page at a time
+ * - GET    /api/books/{id}        a book
+ * - GET    /api/cart              the cart of the signed in user
+ * - POST   /api/cart              {bookId, quantity}, adds to the cart
+ * - PUT    /api/cart/{id}         {quantity}, changes the number of a book in the cart
+ * - DELETE /api/cart/{id}         removes a book from the cart
+ * - POST   /api/checkout          buys the cart, and returns the receipt
+ * - GET    /api/sales             the amounts the signed in user has bought this session and in total
+ * - POST   /api/sales/reset       starts a new session
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import com.sun.net.httpserver.*;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class StoreServer
+{
+	// Store the port used if none is given, and the number of connections that may wait to be accepted.
+	public static final int DEFAULT_PORT = 8080;
+	public static final int BACKLOG = 16384;
+
+	// Store the number of threads used if the Java runtime has no virtual threads.
+	public static final int FALLBACK_THREADS = 256;
+
+	// Store the number of books in a page of the catalog if none is asked for, and the most that may be asked for.
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	public static final int MAX_PAGE_SIZE = 100;
+
+	// Store the longest body a request may have (in bytes).
+	private static final int MAX_BODY_LENGTH = 1 << 16;
+
+	// Store the most sessions kept at once, how long a session lasts once it stops being used, and how often the sessions that have
+	// ended are looked for (in milliseconds).
+	public static final int MAX_SESSIONS = 100000;
+	public static final long SESSION_TIMEOUT_MILLIS = 30 * 60 * 1000;
+	private static final long PURGE_INTERVAL_MILLIS = 60 * 1000;
+
+	// This interface is implemented by the code that handles a request.
+	private static interface Route
+	{
+		/**
+		 * Handle a request.
+		 * 
+		 * @param exchange the request and its response
+		 * @return the response to send
+		 * @throws IOException if the request could not be read
+		 */
+		Response handle(HttpExchange exchange) throws IOException;
+	} // end interface Route
+
+	// This class holds the status and body of a response.
+	private static class Response
+	{
+		// Declare the status code and the JSON body.
+		private int status;
+		private String body;
+
+		/**
+		 * This constructor stores the status and body.
+		 * 
+		 * @param status the status code
+		 * @param body the JSON body
+		 */
+		Response(int status, String body)
+		{
+			// Store the given values.
+			this.status = status;
+			this.body = body;
+		} // end Response(int, String)
+	} // end class Response
+
+	// This class holds the user a token was given to, and when the token was last used.
+	private static class Session
+	{
+		// Declare the signed in user, and the time the session was last used (in milliseconds).
+		private User user;
+		private volatile long lastUsed;
+
+		/**
+		 * This constructor starts a session for a user.
+		 * 
+		 * @param user the signed in user
+		 */
+		Session(User user)
+		{
+			// Store the user, and count the session as used now.
+			this.user = user;
+			lastUsed = System.currentTimeMillis();
+		} // end Session(User)
+	} // end class Session
+
+	// Declare the store service, the HTTP server, and the threads requests are handled on.
+	private StoreService service;
+	private HttpServer server;
+	private ExecutorService executor;
+	private boolean virtualThreads;
+
+	// Declare the sessions by their tokens, the source of new tokens, and the time the sessions were last looked through.
+	private ConcurrentHashMap<String, Session> sessions;
+	private SecureRandom random;
+	private volatile long lastPurge;
+
+	/**
+	 * This constructor makes a server for a store service, listening on a port.  The server does not accept requests until it is started.
+	 * 
+	 * @param service the store service
+	 * @param port the port to listen on (0 for any free port)
+	 * @throws IOException if the port could not be opened
+	 */
+	public StoreServer(StoreService service, int port) throws IOException
+	{
+		// Store the service, and initialize the sessions.
+		this.service = service;
+		sessions = new ConcurrentHashMap<String, Session>();
+		random = new SecureRandom();
+		lastPurge = System.currentTimeMillis();
+
+		// Open the port, and pick the threads requests are handled on.
+		server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+		executor = createVirtualThreadExecutor();
+		virtualThreads = executor != null;
+
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(FALLBACK_THREADS);
+
+		server.setExecutor(executor);
+
+		// Add each group of requests.
+		addRoute("/api/register", this::handleRegister);
+		addRoute("/api/login", this::handleLogin);
+		addRoute("/api/logout", this::handleLogout);
+		addRoute("/api/books", this::handleBooks);
+		addRoute("/api/cart", this::handleCart);
+		addRoute("/api/checkout", this::handleCheckout);
+		addRoute("/api/sales", this::handleSales);
+		addRoute("/", (exchange) -> error(404, "There is nothing at " + exchange.getRequestURI().getPath() + "."));
+	} // end StoreServer(StoreService, int)
+
+	/**
+	 * Make an executor that starts a virtual thread for each request, if the Java runtime has virtual threads.  It is looked up by name,
+	 * so that the store still runs on a runtime without them.
+	 * 
+	 * @return the executor, or null if the runtime has no virtual threads
+	 */
+	private static ExecutorService createVirtualThreadExecutor()
+	{
+		try
+		{
+			// Call Executors.newVirtualThreadPerTaskExecutor(), if there is such a method.
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} // end try
+		catch (ReflectiveOperationException|RuntimeException exception)
+		{
+			// There is no such method, or virtual threads are not enabled.
+			return null;
+		} // end catch
+	} // end createVirtualThreadExecutor()
+
+	/**
+	 * Start accepting requests.
+	 */
+	public void start()
+	{
+		// Start the server.
+		server.start();
+	} // end start()
+
+	/**
+	 * Stop accepting requests, wait a moment for the requests being handled, and stop the threads they were handled on.
+	 * 
+	 * @param delaySeconds the most time to wait for the requests being handled
+	 */
+	public void stop(int delaySeconds)
+	{
+		// Stop the server, then the threads.
+		server.stop(delaySeconds);
+		executor.shutdown();
+	} // end stop(int)
+
+	/**
+	 * Get the port the server listens on.
+	 * 
+	 * @return the port
+	 */
+	public int getPort()
+	{
+		// Return the port of the server's address.
+		return server.getAddress().getPort();
+	} // end getPort()
+
+	/**
+	 * Get whether requests are handled on virtual threads.
+	 * 
+	 * @return whether requests are handled on virtual threads, rather than a fixed pool of threads
+	 */
+	public boolean usesVirtualThreads()
+	{
+		// Return whether virtual threads are used.
+		return virtualThreads;
+	} // end usesVirtualThreads()
+
+	/**
+	 * Handle the requests whose paths start with a prefix.  A request that fails is answered with an error, rather than left without an
+	 * answer.
+	 * 
+	 * @param prefix the start of the paths
+	 * @param route the code that handles the requests
+	 */
+	private void addRoute(String prefix, Route route)
+	{
+		server.createContext(prefix, (exchange) -> {
+			Response response;
+
+			// Handle the request.  A request that could not be read is the client's fault, and anything else is the server's.
+			try
+			{
+				response = route.handle(exchange);
+			} // end try
+			catch (IllegalArgumentException exception)
+			{
+				response = error(400, exception.getMessage());
+			} // end catch
+			catch (IOException|RuntimeException exception)
+			{
+				// Note what went wrong on the server, and only tell the client that it failed.
+				String request = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+
+				System.err.println("Failed to handle " + request + ": " + exception);
+				response = error(500, "The request could not be handled.");
+			} // end catch
+
+			// Send the response, and close the exchange (the connection is kept open for the next request).
+			byte body[] = response.body.getBytes(StandardCharsets.UTF_8);
+
+			try
+			{
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				exchange.sendResponseHeaders(response.status, body.length);
+				exchange.getResponseBody().write(body);
+			} // end try
+			finally
+			{
+				exchange.close();
+			} // end finally
+		});
+	} // end addRoute(String, Route)
+
+	/**
+	 * Make an error response.
+	 * 
+	 * @param status the status code
+	 * @param message the message of the error
+	 * @return the response
+	 */
+	private static Response error(int status, String message)
+	{
+		// Put the message in an object.
+		return new Response(status, Json.message("error", message));
+	} // end error(int, String)
+
+	/**
+	 * Make the response to a request sent with a method the path does not take.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 */
+	private static Response methodNotAllowed(HttpExchange exchange)
+	{
+		// Name the method and the path.
+		return error(405, exchange.getRequestMethod() + " is not allowed on " + exchange.getRequestURI().getPath() + ".");
+	} // end methodNotAllowed(HttpExchange)
+
+	/**
+	 * Read the body of a request as a JSON object.
+	 * 
+	 * @param exchange the request
+	 * @return the value of each key
+	 * @throws IOException if the body could not be read
+	 * @throws IllegalArgumentException if the body is too long, or is not a JSON object
+	 */
+	private static Map<String, String> readBody(HttpExchange exchange) throws IOException
+	{
+		// Read up to one byte more than the longest body, to tell whether the body is too long.
+		byte body[] = exchange.getRequestBody().readNBytes(MAX_BODY_LENGTH + 1);
+
+		if (body.length > MAX_BODY_LENGTH)
+			throw new IllegalArgumentException("The body of the request is longer than " + MAX_BODY_LENGTH + " bytes.");
+
+		return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+	} // end readBody(HttpExchange)
+
+	/**
+	 * Get a value of a JSON object that must be given.
+	 * 
+	 * @param values the values of the object
+	 * @param key the key of the value
+	 * @return the value
+	 * @throws IllegalArgumentException if the value is not given
+	 */
+	private static String require(Map<String, String> values, String key)
+	{
+		String value = values.get(key);
+
+		if (value == null)
+			throw new IllegalArgumentException("Missing \"" + key + "\".");
+
+		return value;
+	} // end require(Map<String, String>, String)
+
+	/**
+	 * Read a whole number given in a request.
+	 * 
+	 * @param value the text of the number
+	 * @param name the name of the number (shown in the error)
+	 * @return the number
+	 * @throws IllegalArgumentException if the text is not a whole number
+	 */
+	private static int parseNumber(String value, String name)
+	{
+		try
+		{
+			// Read the number.
+			return Integer.parseInt(value.trim());
+		} // end try
+		catch (NumberFormatException exception)
+		{
+			throw new IllegalArgumentException("The " + name + " must be a whole number.");
+		} // end catch
+	} // end parseNumber(String, String)
+
+	/**
+	 * Read the parameters in the query of a request.
+	 * 
+	 * @param exchange the request
+	 * @return the value of each parameter
+	 */
+	private static Map<String, String> readQuery(HttpExchange exchange)
+	{
+		HashMap<String, String> parameters = new HashMap<String, String>();
+		String query = exchange.getRequestURI().getRawQuery();
+
+		if (query == null)
+			return parameters;
+
+		// Split the query into its parameters, and decode each name and value.
+		for (String parameter : query.split("&"))
+		{
+			int equals = parameter.indexOf('=');
+
+			if (equals < 0)
+				parameters.put(URLDecoder.decode(parameter, StandardCharsets.UTF_8), "");
+			else
+				parameters.put(
+					URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+					URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8)
+				);
+		} // end for
+
+		return parameters;
+	} // end readQuery(HttpExchange)
+
+	/**
+	 * Get the part of a request's path after a prefix, such as the id in /api/books/{id}.
+	 * 
+	 * @param exchange the request
+	 * @param prefix the prefix the route was added with
+	 * @return the rest of the path without its leading slash, or an empty String if there is none
+	 */
+	private static String getSubPath(HttpExchange exchange, String prefix)
+	{
+		// Cut off the prefix and the slashes around the rest.
+		String path = exchange.getRequestURI().getPath().substring(prefix.length());
+
+		while (path.startsWith("/"))
+			path = path.substring(1);
+
+		while (path.endsWith("/"))
+			path = path.substring(0, path.length() - 1);
+
+		return path;
+	} // end getSubPath(HttpExchange, String)
+
+	/**
+	 * Get the token a request was sent with, from its Authorization header.
+	 * 
+	 * @param exchange the request
+	 * @return the token after "Bearer", or null if there is none
+	 */
+	private static String getToken(HttpExchange exchange)
+	{
+		String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+
+		// Take the text after "Bearer".
+		if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7))
+			return null;
+
+		return authorization.substring(7).trim();
+	} // end getToken(HttpExchange)
+
+	/**
+	 * Get the user a request was sent by, from the token in its Authorization header, and count the session as used.  A session that has
+	 * not been used for too long is ended instead.
+	 * 
+	 * @param exchange the request
+	 * @return the signed in user, or null if the token is missing, unknown, or has timed out
+	 */
+	private User getUser(HttpExchange exchange)
+	{
+		String token = getToken(exchange);
+		Session session = token == null ? null : sessions.get(token);
+		long now = System.currentTimeMillis();
+
+		if (session == null)
+			return null;
+
+		// End the session if it has timed out.  Otherwise, note that it was used.
+		if (now - session.lastUsed > SESSION_TIMEOUT_MILLIS)
+		{
+			endSession(token);
+			return null;
+		} // end if
+
+		session.lastUsed = now;
+		return session.user;
+	} // end getUser(HttpExchange)
+
+	/**
+	 * Start a session for a user, making room for it if the most sessions are already open.
+	 * 
+	 * @param user the user returned by StoreService.pinUser(User)
+	 * @return the token of the session
+	 */
+	private String startSession(User user)
+	{
+		// End the sessions that have timed out now and then, or whenever there are too many.
+		if (sessions.size() >= MAX_SESSIONS || System.currentTimeMillis() - lastPurge > PURGE_INTERVAL_MILLIS)
+			purgeSessions();
+
+		// If there are still too many, end the session used least recently.
+		while (sessions.size() >= MAX_SESSIONS)
+		{
+			String oldestToken = null;
+			long oldest = Long.MAX_VALUE;
+
+			for (Map.Entry<String, Session> entry : sessions.entrySet())
+			{
+				if (entry.getValue().lastUsed < oldest)
+				{
+					oldest = entry.getValue().lastUsed;
+					oldestToken = entry.getKey();
+				} // end if
+			} // end for
+
+			if (oldestToken == null)
+				break;
+
+			endSession(oldestToken);
+		} // end while
+
+		// Make a random token, and remember who it belongs to.
+		byte bytes[] = new byte[16];
+		random.nextBytes(bytes);
+		String token = HexFormat.of().formatHex(bytes);
+		sessions.put(token, new Session(user));
+
+		return token;
+	} // end startSession(User)
+
+	/**
+	 * End a session, and let the store stop keeping its user once they have no other session.
+	 * 
+	 * @param token the token of the session
+	 */
+	private void endSession(String token)
+	{
+		// Forget the token, and end the sign-in if the session was still open (another thread may have ended it first).
+		Session session = sessions.remove(token);
+
+		if (session != null)
+			service.unpinUser(session.user);
+	} // end endSession(String)
+
+	/**
+	 * End every session that has not been used for too long.
+	 */
+	private void purgeSessions()
+	{
+		long now = System.currentTimeMillis();
+
+		// Note when the sessions were looked through, and end each one that has timed out.
+		lastPurge = now;
+
+		for (Map.Entry<String, Session> entry : sessions.entrySet())
+			if (now - entry.getValue().lastUsed > SESSION_TIMEOUT_MILLIS)
+				endSession(entry.getKey());
+	} // end purgeSessions()
+
+	/**
+	 * Look up the book with an id given in a request.
+	 * 
+	 * @param id the text of the id
+	 * @return the book, or null if there is no such book
+	 * @throws IllegalArgumentException if the id is not a whole number
+	 */
+	private Book getBook(String id)
+	{
+		// Read the id, and look it up.
+		return service.getBookById(parseNumber(id, "book id"));
+	} // end getBook(String)
+
+	/**
+	 * Register a new user.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 * @throws IOException if the request could not be read
+	 */
+	private Response handleRegister(HttpExchange exchange) throws IOException
+	{
+		if (!exchange.getRequestMethod().equals("POST"))
+			return methodNotAllowed(exchange);
+
+		// Read the fields in the order of the registration form, and register the user.
+		Map<String, String> body = readBody(exchange);
+		String fields[] = {
+			require(body, "firstName"), require(body, "lastName"), require(body, "userName"), require(body, "password"),
+			require(body, "email")
+		};
+		String error = service.register(fields);
+
+		if (error != null)
+			return error(409, error);
+
+		return new Response(201, Json.message("userName", fields[2]));
+	} // end handleRegister(HttpExchange)
+
+	/**
+	 * Sign in a user, and return the token for their session.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 * @throws IOException if the request could not be read
+	 */
+	private Response handleLogin(HttpExchange exchange) throws IOException
+	{
+		if (!exchange.getRequestMethod().equals("POST"))
+			return methodNotAllowed(exchange);
+
+		// Check the credentials.  The admin cannot shop, so a username must be given.
+		Map<String, String> body = readBody(exchange);
+		User user = service.signIn(require(body, "userName"), require(body, "password"));
+
+		if (user == null)
+			return error(401, "The username or password is incorrect.");
+
+		// Keep the user while they are signed in, sharing the User object of any other session of theirs, and lower the cart to what is in
+		// stock, the way the window does when a user signs in.
+		user = service.pinUser(user);
+		service.adjustCart(user);
+
+		return new Response(200, Json.message("token", startSession(user)));
+	} // end handleLogin(HttpExchange)
+
+	/**
+	 * Sign out the user a request was sent by.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 */
+	private Response handleLogout(HttpExchange exchange)
+	{
+		if (!exchange.getRequestMethod().equals("POST"))
+			return methodNotAllowed(exchange);
+
+		if (getUser(exchange) == null)
+			return error(401, "You are not signed in.");
+
+		// End the session.
+		endSession(getToken(exchange));
+		return new Response(200, "{}");
+	} // end handleLogout(HttpExchange)
+
+	/**
+	 * Return a page of the catalog (or of the books matching a search), or a single book.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 */
+	private Response handleBooks(HttpExchange exchange)
+	{
+		if (!exchange.getRequestMethod().equals("GET"))
+			return methodNotAllowed(exchange);
+
+		String id = getSubPath(exchange, "/api/books");
+
+		// Return the book if an id is given.
+		if (!id.isEmpty())
+		{
+			Book book = getBook(id);
+
+			if (book == null)
+				return error(404, "There is no book with the id " + id + ".");
+
+			return new Response(200, appendBook(new StringBuilder(), book).toString());
+		} // end if
+
+		// Otherwise, search the books if a query is given, or take every book.
+		Map<String, String> parameters = readQuery(exchange);
+		String query = parameters.getOrDefault("query", "").trim();
+		java.util.List<Book> books = query.isEmpty() ? service.getBooks() : service.searchBooks(query);
+		int offset = parameters.containsKey("offset") ? parseNumber(parameters.get("offset"), "offset") : 0;
+		int limit = parameters.containsKey("limit") ? parseNumber(parameters.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+
+		if (offset < 0 || limit < 0 || limit > MAX_PAGE_SIZE)
+			throw new IllegalArgumentException("The offset must be at least 0, and the limit must be from 0 to " + MAX_PAGE_SIZE + ".");
+
+		// Write the page of books.
+		StringBuilder output = new StringBuilder("{\"total\":").append(books.size()).append(",\"offset\":").append(offset);
+		output.append(",\"books\":[");
+
+		for (int i = offset; i < books.size() && i < offset + limit; i++)
+			appendBook(i > offset ? output.append(',') : output, books.get(i));
+
+		return new Response(200, output.append("]}").toString());
+	} // end handleBooks(HttpExchange)
+
+	/**
+	 * Return, add to, change, or remove from the cart of the user a request was sent by.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 * @throws IOException if the request could not be read
+	 */
+	private Response handleCart(HttpExchange exchange) throws IOException
+	{
+		User user = getUser(exchange);
+		String id = getSubPath(exchange, "/api/cart");
+		String method = exchange.getRequestMethod();
+		String error = null;
+
+		if (user == null)
+			return error(401, "You are not signed in.");
+
+		// Return the cart, or add a book to it.
+		if (id.isEmpty())
+		{
+			if (method.equals("POST"))
+			{
+				Map<String, String> body = readBody(exchange);
+				Book book = getBook(require(body, "bookId"));
+
+				if (book == null)
+					return error(404, "There is no book with the id " + body.get("bookId") + ".");
+
+				error = service.addToCart(user, book, body.containsKey("quantity") ? parseNumber(body.get("quantity"), "quantity") : 1);
+			} // end if
+			else if (!method.equals("GET"))
+			{
+				return methodNotAllowed(exchange);
+			} // end else if
+		} // end if
+		else
+		{
+			// Change the number of a book in the cart, or remove it.
+			Book book = getBook(id);
+
+			if (book == null || user.getCartItemCount(book) == 0)
+				return error(404, "There is no book with the id " + id + " in your cart.");
+
+			if (method.equals("PUT"))
+				error = service.setCartQuantity(user, book, parseNumber(require(readBody(exchange), "quantity"), "quantity"));
+			else if (method.equals("DELETE"))
+				service.removeFromCart(user, book);
+			else
+				return methodNotAllowed(exchange);
+		} // end else
+
+		if (error != null)
+			return error(409, error);
+
+		return new Response(200, appendCart(new StringBuilder(), user).toString());
+	} // end handleCart(HttpExchange)
+
+	/**
+	 * Buy the cart of the user a request was sent by, and return the receipt.  If some of the books have run out, nothing is bought, and
+	 * the receipt (which shows what was in the cart) is returned with the cart as it was lowered to what is left.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 */
+	private Response handleCheckout(HttpExchange exchange)
+	{
+		User user = getUser(exchange);
+
+		if (!exchange.getRequestMethod().equals("POST"))
+			return methodNotAllowed(exchange);
+
+		if (user == null)
+			return error(401, "You are not signed in.");
+
+		if (user.getAllCartItemsCount() == 0)
+			return error(409, "You have no items in cart!");
+
+		// Buy the cart.
+		StoreService.Receipt receipt = service.checkout(user);
+		StringBuilder output = new StringBuilder("{");
+
+		if (!receipt.isCompleted())
+		{
+			Json.appendQuoted(
+				output.append("\"error\":"), "Some of the items in your cart are no longer available, so your cart has been updated."
+			);
+			appendCart(output.append(",\"cart\":"), user).append(',');
+		} // end if
+
+		// Write each line of the receipt, and the amounts.
+		output.append("\"completed\":").append(receipt.isCompleted()).append(",\"lines\":[");
+
+		for (int line = 0; line < receipt.getLineCount(); line++)
+		{
+			output.append(line > 0 ? ",{" : "{").append("\"bookId\":").append(receipt.getBook(line).getId()).append(",\"name\":");
+			Json.appendQuoted(output, receipt.getBook(line).getName()).append(",\"quantity\":").append(receipt.getQuantity(line));
+			Json.appendMoney(output.append(",\"amount\":"), receipt.getAmount(line)).append('}');
+		} // end for
+
+		Json.appendMoney(output.append("],\"subtotal\":"), receipt.getSubtotal());
+		Json.appendMoney(output.append(",\"tax\":"), receipt.getTax());
+		Json.appendMoney(output.append(",\"total\":"), receipt.getTotal()).append('}');
+
+		return new Response(receipt.isCompleted() ? 200 : 409, output.toString());
+	} // end handleCheckout(HttpExchange)
+
+	/**
+	 * Return the amounts the user a request was sent by has bought, or start a new session for them.
+	 * 
+	 * @param exchange the request
+	 * @return the response
+	 */
+	private Response handleSales(HttpExchange exchange)
+	{
+		User user = getUser(exchange);
+		String action = getSubPath(exchange, "/api/sales");
+
+		if (user == null)
+			return error(401, "You are not signed in.");
+
+		// Start a new session if asked to.
+		if (action.equals("reset") && exchange.getRequestMethod().equals("POST"))
+			service.startNewSession(user);
+		else if (!action.isEmpty() || !exchange.getRequestMethod().equals("GET"))
+			return methodNotAllowed(exchange);
+
+		// Write the amounts, without letting a purchase change them in between.
+		StringBuilder output = new StringBuilder("{\"userName\":");
+
+		synchronized (user)
+		{
+			Json.appendQuoted(output, user.getUserName()).append(",\"sessionItems\":").append(user.getSessionItems());
+			Json.appendMoney(output.append(",\"sessionSales\":"), user.getSessionSales());
+			output.append(",\"totalItems\":").append(user.getTotalItems());
+			Json.appendMoney(output.append(",\"totalSales\":"), user.getTotalSales()).append('}');
+		} // end synchronized
+
+		return new Response(200, output.toString());
+	} // end handleSales(HttpExchange)
+
+	/**
+	 * Append a book as a JSON object.
+	 * 
+	 * @param output the builder to append to
+	 * @param book the book
+	 * @return the builder
+	 */
+	private static StringBuilder appendBook(StringBuilder output, Book book)
+	{
+		// Write each property a shopper sees, using the getters, as a book kept in a BookStore stores its values in the store.
+		output.append("{\"id\":").append(book.getId()).append(",\"name\":");
+		Json.appendQuoted(output, book.getName()).append(",\"author\":");
+		Json.appendQuoted(output, book.getAuthor()).append(",\"genre\":");
+		Json.appendQuoted(output, book.getGenre()).append(",\"binding\":");
+		Json.appendQuoted(output, book.getBinding()).append(",\"publicationYear\":").append(book.getPublicationYear());
+		Json.appendMoney(output.append(",\"price\":"), book.getPrice()).append(",\"quantity\":").append(book.getQuantity());
+		return Json.appendQuoted(output.append(",\"imageName\":"), book.getImageName()).append('}');
+	} // end appendBook(StringBuilder, Book)
+
+	/**
+	 * Append the cart of a user as a JSON object, with each book, its number, and the amounts before and after tax.
+	 * 
+	 * @param output the builder to append to
+	 * @param user the user
+	 * @return the builder
+	 */
+	private static StringBuilder appendCart(StringBuilder output, User user)
+	{
+		double subtotal = 0d;
+
+		// Write each book and its number, without letting the cart change in between.
+		output.append("{\"items\":[");
+
+		synchronized (user)
+		{
+			Book books[] = user.getCartItems();
+
+			for (int i = 0; i < books.length; i++)
+			{
+				int quantity = user.getCartItemCount(books[i]);
+				appendBook(output.append(i > 0 ? ",{\"book\":" : "{\"book\":"), books[i]);
+				output.append(",\"quantity\":").append(quantity).append('}');
+				subtotal += books[i].getPrice() * quantity;
+			} // end for
+
+			output.append("],\"itemCount\":").append(user.getAllCartItemsCount());
+		} // end synchronized
+
+		Json.appendMoney(output.append(",\"subtotal\":"), subtotal);
+		return Json.appendMoney(output.append(",\"total\":"), subtotal * (1 + StoreService.TAX_RATE)).append('}');
+	} // end appendCart(StringBuilder, User)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,1353 @@
+/**
+ * Final Project: The Store - Store Service
+ * This class holds the books, users, and admin of the store, and everything that can be done with them: looking up and searching the
+ * catalog, changing carts, checking out, signing in, and adding, editing, and removing books.  It never shows anything, so the store can
+ * be run without a screen (such as by a server or a benchmark).  The GUI is one client of this class.  Results are returned as values,
+ * with an error message where something can go wrong, and it is up to the client to show them.
+ * 
+ * The service may be used from many threads at once.  Changes to the books, users, and the changes waiting to be written hold the lock
+ * of this object, and lookups of books and users do not take a lock.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StoreService
+{
+	// Store the names of the files the write-behind persister writes.
+	private static final String BOOK_DATA = "books";
+	private static final String USER_DATA = "users";
+	private static final String ADMIN_DATA = "admin";
+
+	// Store the most items a cart may hold, and the rate of tax added to every purchase.
+	public static final int MAX_CART_ITEMS = 10;
+	public static final double TAX_RATE = 0.13;
+
+	// Declare the variables needed to store the users, books, and admin.
+	private ArrayList<User> users;
+	private List<Book> books;
+	private User admin;
+
+	// Declare the indexes used to find books by their ids (null if the books are stored in columns, which find their books by id
+	// themselves), books by the words they contain (which finds the books by id), and users by their usernames.
+	private BookIndex bookIndex;
+	private SearchIndex searchIndex;
+	private ConcurrentHashMap<String, User> userIndex;
+
+	// Declare a copy of the list of books that can be read without a lock (null once the list has changed, until it is next asked for).
+	private volatile List<Book> bookView;
+
+	// Declare the repositories the books, users, and admin are read from and written to.
+	private BookRepository bookRepository;
+	private UserRepository userRepository;
+	private AdminRepository adminRepository;
+
+	// Declare the persister that writes changes in the background (null if changes are written straight away), the books and users
+	// changed since they were last written (a null book has been removed), and whether a full write of each file has been asked for.
+	private WriteBehindPersister persister;
+	private LinkedHashMap<Integer, Book> pendingBooks;
+	private LinkedHashMap<String, User> pendingUsers;
+	private boolean bookSnapshotRequested, userSnapshotRequested;
+
+	// Declare the location of the folder that contains the pictures of book covers (shown in the error for an image that does not exist).
+	private static String bookImagesFolder;
+
+	// Declare the lock this program holds on the data files (null until it is taken).
+	private static java.nio.channels.FileLock dataLock;
+
+	static
+	{
+		try
+		{
+			// Try to get the absolute path of the book images folder.
+			bookImagesFolder = new File(Paths.IMAGE_BOOK_FOLDER).getCanonicalPath();
+		} // end try
+		catch (IOException exception)
+		{
+			// Set the path to a blank String if it failed to get the absolute path of the book images folder.
+			bookImagesFolder = "";
+		} // end catch
+	} // end static
+
+	// Store the fields of a user, in the order they are given to register.
+	public static final ValidationField USER_FIELDS[] = {
+		// Add a field for the user's first name.
+		new ValidationField(
+			"First name:", "Please enter a valid first name.",
+			(service, firstName) -> Input.getValidName(firstName)
+		),
+
+		// Add a field for the user's last name.
+		new ValidationField(
+			"Last name:", "Please enter a valid last name.",
+			(service, lastName) -> Input.getValidName(lastName)
+		),
+
+		// Add a field for the user's username.
+		new ValidationField(
+			"Username:", "Your username must be at least 5 characters long, and must only be composed of letters and numbers.",
+			(service, userName) -> Input.getValidUserName(userName)
+		),
+
+		// Add a field for the user's password.
+		new ValidationField(
+			"Password:",
+			"Your password must be at least 8 characters, and contain at least one uppercase and lowercase letter, and one digit.",
+			true,
+			(service, password) -> Input.getValidPassword(password)
+		),
+
+		// Add a field for the user's email address.
+		new ValidationField(
+			"Email address:", "Please enter a valid email address.",
+			(service, email) -> Input.getValidEmail(email)
+		)
+	};
+
+	// Store the fields of a book, in the order they are given to Book.applyFormList(String[]).
+	public static final ValidationField BOOK_FIELDS[] = {
+		// Add a field for the title.
+		new ValidationField(
+			"Title:", "Please enter a valid book title.",
+			(service, title) -> Input.getValidBookTitle(title)
+		),
+
+		// Add a field for the price.
+		new ValidationField(
+			"Price:", "Please enter a valid price below $200.",
+			(service, price) -> Input.getValidPrice(price)
+		),
+
+		// Add a field for the quantity.
+		new ValidationField(
+			"Quantity:", "Please enter a valid quantity that does not exceed 200.",
+			(service, quantity) -> Input.getValidQuantity(quantity)
+		),
+
+		// Add a field for the JIT trigger.
+		new ValidationField(
+			"JIT trigger:", "Please enter a valid JIT trigger that does not exceed 100.",
+			(service, jitTrigger) -> Input.getValidJitTrigger(jitTrigger)
+		),
+
+		// Add a field for the genre.
+		new ValidationField(
+			"Genre:", "Please enter a valid genre name.",
+			(service, genre) -> Input.getValidGenre(genre)
+		),
+
+		// Add a field for the binding.
+		new ValidationField(
+			"Binding:", "The book binding must be either \"Paperback\" or \"Hardcover\".",
+			(service, binding) -> Input.getValidBinding(binding)
+		),
+
+		// Add a field for the author.
+		new ValidationField(
+			"Author:", "Please enter a valid author's name.",
+			(service, author) -> Input.getValidAuthor(author)
+		),
+
+		// Add a field for the publication year.
+		new ValidationField(
+			"Year:", "Please enter a valid publication year.",
+			(service, year) -> Input.getValidYear(year)
+		),
+
+		// Add field for the image name.
+		new ValidationField(
+			"Image name:", "The image you entered does not exist. Please make sure the image is in the \"" + bookImagesFolder +
+				"\" folder.",
+			(service, imageName) -> Input.getValidImageName(imageName)
+		),
+	};
+
+	// This class holds what was bought in a checkout, at the prices it was bought at.  If the checkout could not be completed (as some
+	// of the books had run out), nothing was bought, and the receipt shows what was in the cart.
+	public static class Receipt
+	{
+		// Declare the books, the number of each book, the price of each book, and whether the books were bought.
+		private Book books[];
+		private int quantities[];
+		private double prices[];
+		private boolean completed;
+
+		/**
+		 * This constructor stores the lines of the receipt.
+		 * 
+		 * @param books the books
+		 * @param quantities the number of each book
+		 * @param prices the price of each book
+		 * @param completed whether the books were bought
+		 */
+		Receipt(Book books[], int quantities[], double prices[], boolean completed)
+		{
+			// Store the given values.
+			this.books = books;
+			this.quantities = quantities;
+			this.prices = prices;
+			this.completed = completed;
+		} // end Receipt(Book[], int[], double[], boolean)
+
+		/**
+		 * Get the number of lines on the receipt.
+		 * 
+		 * @return the number of different books
+		 */
+		public int getLineCount()
+		{
+			// Return the number of books.
+			return books.length;
+		} // end getLineCount()
+
+		/**
+		 * Get the book on a line.
+		 * 
+		 * @param line the line
+		 * @return the book
+		 */
+		public Book getBook(int line)
+		{
+			// Return the book.
+			return books[line];
+		} // end getBook(int)
+
+		/**
+		 * Get the number of the book on a line.
+		 * 
+		 * @param line the line
+		 * @return the number of the book
+		 */
+		public int getQuantity(int line)
+		{
+			// Return the quantity.
+			return quantities[line];
+		} // end getQuantity(int)
+
+		/**
+		 * Get the amount paid for a line, before tax.
+		 * 
+		 * @param line the line
+		 * @return the price of the book times the number of the book
+		 */
+		public double getAmount(int line)
+		{
+			// Multiply the price by the quantity.
+			return prices[line] * quantities[line];
+		} // end getAmount(int)
+
+		/**
+		 * Get the amount paid before tax.
+		 * 
+		 * @return the subtotal
+		 */
+		public double getSubtotal()
+		{
+			double subtotal = 0d;
+
+			// Add the amount of each line.
+			for (int line = 0; line < books.length; line++)
+				subtotal += getAmount(line);
+
+			return subtotal;
+		} // end getSubtotal()
+
+		/**
+		 * Get the tax paid.
+		 * 
+		 * @return the tax
+		 */
+		public double getTax()
+		{
+			// Apply the tax rate to the subtotal.
+			return getSubtotal() * TAX_RATE;
+		} // end getTax()
+
+		/**
+		 * Get the amount paid including tax.
+		 * 
+		 * @return the total
+		 */
+		public double getTotal()
+		{
+			// Add the tax to the subtotal.
+			return getSubtotal() * (1 + TAX_RATE);
+		} // end getTotal()
+
+		/**
+		 * Get whether the books were bought.
+		 * 
+		 * @return whether the checkout was completed
+		 */
+		public boolean isCompleted()
+		{
+			// Return whether the checkout was completed.
+			return completed;
+		} // end isCompleted()
+	} // end class Receipt
+
+	/**
+	 * This constructor initializes the variables this class stores, and reads necessary information from files.
+	 */
+	public StoreService()
+	{
+		// Initialize the users and book lists.  The books are stored in columns if the muftibooks.bookStore property is "columnar", which
+		// uses much less memory for very large catalogs.
+		users = new ArrayList<User>();
+		books = System.getProperty("muftibooks.bookStore", "list").equalsIgnoreCase("columnar") ? new BookStore() : new ArrayList<Book>();
+		bookIndex = books instanceof BookStore ? null : new BookIndex();
+		searchIndex = new SearchIndex(this::getBookById);
+		userIndex = new ConcurrentHashMap<String, User>();
+		bookView = null;
+
+		// Initialize the admin as a user.
+		admin = new User();
+		admin.setAdmin();
+
+		// Choose how the data is stored.  Unless the data is only kept in memory, hold the lock on the data files while the store runs, so
+		// that the tools that change the files from another program refuse to run meanwhile.
+		String repositoryType = getRepositoryType();
+
+		if (!repositoryType.equalsIgnoreCase("memory"))
+			lockDataFiles();
+
+		bookRepository = createBookRepository(repositoryType, books, this);
+		userRepository = createUserRepository(repositoryType);
+		adminRepository = repositoryType.equalsIgnoreCase("memory") ? new InMemoryAdminRepository() : new CsvAdminRepository();
+
+		// Read the books, and index them.  The books must be complete before the users are read, since the carts of the users refer to
+		// the books.
+		bookRepository.load(books);
+		indexBooks();
+
+		// Read the users and the admin, and index the users by username.
+		userRepository.load(users);
+		indexUsers();
+		adminRepository.load(admin);
+
+		// Check whether changes should be written in the background, which is the case unless it has been turned off.
+		boolean writeBehind = Boolean.parseBoolean(System.getProperty("muftibooks.writeBehind", "true"));
+
+		// Set up the persister that writes each of the files in the background.
+		if (writeBehind)
+		{
+			persister = new WriteBehindPersister(
+				WriteBehindPersister.DEFAULT_DEBOUNCE_MILLIS, WriteBehindPersister.DEFAULT_MAX_DELAY_MILLIS
+			);
+			persister.register(BOOK_DATA, this::captureBooks);
+			persister.register(USER_DATA, this::captureUsers);
+			persister.register(ADMIN_DATA, this::captureAdmin);
+		} // end if
+		else
+		{
+			persister = null;
+		} // end else
+
+		pendingBooks = new LinkedHashMap<Integer, Book>();
+		pendingUsers = new LinkedHashMap<String, User>();
+		bookSnapshotRequested = userSnapshotRequested = false;
+	} // end StoreService()
+
+	/**
+	 * Get the type of repository the data is stored in.  The muftibooks.repository property may be "journal" (each batch of changes is
+	 * appended to a journal beside the file), "csv" (each batch of changes rewrites the whole file), or "memory" (the files are read but
+	 * never written).  Journals are used unless the muftibooks.journal property turns them off.
+	 * 
+	 * @return the type of repository
+	 */
+	public static String getRepositoryType()
+	{
+		// Read the property, defaulting to journals unless they are turned off.
+		return System.getProperty(
+			"muftibooks.repository", Boolean.parseBoolean(System.getProperty("muftibooks.journal", "true")) ? "journal" : "csv"
+		);
+	} // end getRepositoryType()
+
+	/**
+	 * Take the lock on the data files, which is held until the program exits.  Only one program can hold it at a time, so a store and a
+	 * tool that changes the files (such as the book import) cannot both change them at once.  Taking it again in the same program does
+	 * nothing.
+	 * 
+	 * @return whether this program holds the lock (false if another program holds it, or it could not be taken)
+	 */
+	public static synchronized boolean lockDataFiles()
+	{
+		// Keep the lock if it has already been taken.
+		if (dataLock != null)
+			return true;
+
+		try
+		{
+			// Try to lock the lock file, without waiting for another program to let go of it.
+			java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(
+				new File(Paths.DATA_LOCK_FILE).toPath(), java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.WRITE
+			);
+			dataLock = channel.tryLock();
+
+			if (dataLock == null)
+				channel.close();
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.
+			System.err.println("Failed to lock " + Paths.DATA_LOCK_FILE + ": " + exception.getMessage());
+		} // end catch
+
+		return dataLock != null;
+	} // end lockDataFiles()
+
+	/**
+	 * Make the repository the books are stored in.  The books file is read and written in either format (see the muftibooks.bookFormat
+	 * property).  This is also used by the tools that change the books without showing the store.
+	 * 
+	 * @param repositoryType the type of repository ("journal", "csv", or "memory")
+	 * @param books the list of books that is kept
+	 * @param lock the object whose lock is held while the books change (the store service, or the list itself if only one thread uses it)
+	 * @return the repository
+	 */
+	public static BookRepository createBookRepository(String repositoryType, List<Book> books, Object lock)
+	{
+		// Match the type to a repository, rewriting the whole file if the type is not known.
+		if (repositoryType.equalsIgnoreCase("journal"))
+			return new JournaledBookRepository(books, Paths.DATA_PRODUCT_JOURNAL_FILE, lock);
+		else if (repositoryType.equalsIgnoreCase("memory"))
+			return new InMemoryBookRepository(books);
+		else
+			return new CsvBookRepository(books);
+	} // end createBookRepository(String, List<Book>, Object)
+
+	/**
+	 * Make the repository the users are stored in.  The users are stored in a file of fixed-size slots if the muftibooks.userStore
+	 * property is "slots", so that a change to one user rewrites only that user's slot.  Otherwise, they are stored in the users file, and
+	 * are only read when they are looked up if the muftibooks.userLoading property is "lazy".
+	 * 
+	 * @param repositoryType the type of repository ("journal", "csv", or "memory")
+	 * @return the repository
+	 */
+	private UserRepository createUserRepository(String repositoryType)
+	{
+		boolean journaled = repositoryType.equalsIgnoreCase("journal");
+
+		// The files are never written if the users are only kept in memory.
+		if (repositoryType.equalsIgnoreCase("memory"))
+			return new InMemoryUserRepository(this, users);
+
+		// Use the slot file if it can be opened.  Otherwise, fall back to the users file.
+		if (System.getProperty("muftibooks.userStore", "csv").equalsIgnoreCase("slots"))
+		{
+			try
+			{
+				return new SlotUserRepository(this, users, Paths.DATA_USER_SLOT_FILE);
+			} // end try
+			catch (java.io.IOException exception)
+			{
+				System.err.println("Failed to open " + Paths.DATA_USER_SLOT_FILE + "; using the users file: " + exception.getMessage());
+			} // end catch
+		} // end if
+
+		// Load the users only when they are looked up if asked to, or read every user now.
+		if (System.getProperty("muftibooks.userLoading", "eager").equalsIgnoreCase("lazy"))
+		{
+			return new LazyUserRepository(
+				this, Paths.DATA_USER_FILE, Paths.DATA_USER_INDEX_FILE, LazyUserRepository.DEFAULT_CACHE_SIZE,
+				journaled ? Paths.DATA_USER_JOURNAL_FILE : null
+			);
+		} // end if
+		else if (journaled)
+		{
+			return new JournaledUserRepository(this, users, Paths.DATA_USER_JOURNAL_FILE);
+		} // end else if
+		else
+		{
+			return new CsvUserRepository(this, users);
+		} // end else
+	} // end createUserRepository(String)
+
+	/**
+	 * Return the books stored.  The list cannot be changed, and does not show books added or removed after it is returned, so it can be
+	 * read while other threads change the books.
+	 * 
+	 * @return the list of books stored
+	 */
+	public List<Book> getBooks()
+	{
+		// Return the copy of the list, making a new copy if the list has changed since the last one.
+		List<Book> view = bookView;
+
+		if (view == null)
+			view = copyBooks();
+
+		return view;
+	} // end getBooks()
+
+	/**
+	 * Make a copy of the list of books that cannot be changed.
+	 * 
+	 * @return the copy
+	 */
+	private synchronized List<Book> copyBooks()
+	{
+		// Copy the list, unless another thread has already done so.  A list that stores the books in columns only copies their rows, so
+		// no Book object is kept for every book.
+		if (bookView == null && books instanceof BookStore)
+			bookView = Collections.unmodifiableList(((BookStore) books).copyList());
+		else if (bookView == null)
+			bookView = Collections.unmodifiableList(Arrays.asList(books.toArray(new Book[0])));
+
+		return bookView;
+	} // end copyBooks()
+
+	/**
+	 * Add a book to the list of books stored.
+	 * 
+	 * @param book the book to add to the list
+	 * @return the book kept by the list (a copy of the book if the books are stored in columns)
+	 */
+	public synchronized Book addBook(Book book)
+	{
+		// Add the book to the stored list.  The book kept by the list is used from now on, as a list that stores the books in columns
+		// keeps its own copy.
+		books.add(book);
+		book = books.get(books.size() - 1);
+
+		// Add the book to the indexes, and update the changes in necessary file.
+		if (bookIndex != null)
+			bookIndex.put(book);
+
+		searchIndex.add(book);
+		bookView = null;
+		saveBook(book.getId(), book);
+		return book;
+	} // end addBook(Book)
+
+	/**
+	 * Remove a book from the list of stored books.
+	 * 
+	 * @param book the book to remove from the list
+	 */
+	public synchronized void removeBook(Book book)
+	{
+		// Remove the book from the list and the index, and make necessary changes to the file.
+		books.remove(book);
+		searchIndex.remove(book);
+
+		if (bookIndex != null)
+			bookIndex.remove(book.getId());
+
+		bookView = null;
+		saveBook(book.getId(), null);
+	} // end removeBook(Book)
+
+	/**
+	 * Write the changes made to a single book to disk.
+	 * 
+	 * @param book the book that has been changed
+	 */
+	public synchronized void updateBook(Book book)
+	{
+		// Update the words the book can be searched by, and write the new version of the book.
+		searchIndex.update(book);
+		saveBook(book.getId(), book);
+	} // end updateBook(Book)
+
+	/**
+	 * Write a change to the stock of a single book to disk.  The words the book can be searched by have not changed, so the search index
+	 * is left as it is.
+	 * 
+	 * @param book the book whose stock has changed
+	 */
+	public synchronized void updateBookStock(Book book)
+	{
+		// Write the new version of the book.
+		saveBook(book.getId(), book);
+	} // end updateBookStock(Book)
+
+	/**
+	 * Write a change to a single book to disk.  If the persister is used, the change is written in the background along with any other
+	 * changes made around the same time.  Otherwise, the change is written straight away.
+	 * 
+	 * @param id the id of the book
+	 * @param book the new version of the book, or null if the book has been removed
+	 */
+	private void saveBook(int id, Book book)
+	{
+		// Note the change, and write it now or in the background.
+		pendingBooks.put(id, book);
+
+		if (persister != null)
+			persister.markDirty(BOOK_DATA);
+		else
+			runWrite(captureBooks());
+	} // end saveBook(int, Book)
+
+	/**
+	 * Gather the changes to the books into a batch for the book repository.  This is called while the lock of this object is held, and the
+	 * write it returns may be run in the background.
+	 * 
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	private synchronized Runnable captureBooks()
+	{
+		// Hand the changed books to the repository as one batch, or every book if a full write has been asked for.
+		Runnable write = bookSnapshotRequested ? bookRepository.prepareSnapshot() :
+			bookRepository.prepareCommit(new LinkedHashMap<Integer, Book>(pendingBooks));
+
+		pendingBooks.clear();
+		bookSnapshotRequested = false;
+		return write;
+	} // end captureBooks()
+
+	/**
+	 * Run a write gathered by one of the repositories, if there is one.
+	 * 
+	 * @param write the write, or null if there is nothing to write
+	 */
+	private static void runWrite(Runnable write)
+	{
+		// Run the write.
+		if (write != null)
+			write.run();
+	} // end runWrite(Runnable)
+
+	/**
+	 * Given an id, return the book associated with that id.
+	 * 
+	 * @param id the id associated with the book
+	 * @return the book that matches the id, or null if there is no such book
+	 */
+	public Book getBookById(int id)
+	{
+		// Look up the book in the index, or in the columns if the books are stored in columns (null if the requested book does not exist).
+		return bookIndex != null ? bookIndex.get(id) : ((BookStore) books).getById(id);
+	} // end getBookById(int)
+
+	/**
+	 * Get the books that need to be ordered, which are the books whose quantity is below their JIT trigger.
+	 * 
+	 * @return the books that are low on stock
+	 */
+	public ArrayList<Book> getLowStockBooks()
+	{
+		ArrayList<Book> lowStockBooks = new ArrayList<Book>();
+
+		// Scan the columns if the books are stored in columns.
+		if (books instanceof BookStore)
+			return ((BookStore) books).getLowStockBooks();
+
+		// Otherwise, check each book.
+		for (Book book : getBooks())
+			if (book.getQuantity() < book.getJitTrigger())
+				lowStockBooks.add(book);
+
+		return lowStockBooks;
+	} // end getLowStockBooks()
+
+	/**
+	 * Search the books by title, author, and genre.
+	 * 
+	 * @param query the search query
+	 * @return the matching books, with the best matches first
+	 */
+	public ArrayList<Book> searchBooks(String query)
+	{
+		// Return the results of the search.
+		return searchIndex.search(query);
+	} // end searchBooks(String)
+
+	/**
+	 * Rebuild the indexes of books from the list of books (needed after the list has been read from files).
+	 */
+	public synchronized void indexBooks()
+	{
+		// Clear the indexes, and add each of the books.  A list that stores the books in columns indexes their ids itself, and only keeps
+		// the books while they are in use, so the search index keeps no Book object either.
+		bookView = null;
+		searchIndex.clear();
+
+		if (bookIndex != null)
+			bookIndex.clear();
+
+		for (Book book : books)
+		{
+			if (bookIndex != null)
+				bookIndex.put(book);
+
+			searchIndex.add(book);
+		} // end for
+	} // end indexBooks()
+
+	/**
+	 * Check the fields of a book, given in the order of BOOK_FIELDS.  Each valid field is replaced by its fixed version.
+	 * 
+	 * @param fields the fields of the book
+	 * @return the error message of the first invalid field, or null if every field is valid
+	 */
+	public String checkBook(String fields[])
+	{
+		// Check the fields against the fields of a book.
+		return checkFields(BOOK_FIELDS, fields);
+	} // end checkBook(String[])
+
+	/**
+	 * Add a new book made from its fields, which must already have been checked (see checkBook(String[])).
+	 * 
+	 * @param fields the fixed fields of the book
+	 * @return the book that was added
+	 */
+	public Book addBook(String fields[])
+	{
+		// Make a new book, apply the fields, and add it.
+		Book book = new Book();
+		book.applyFormList(fields);
+
+		return addBook(book);
+	} // end addBook(String[])
+
+	/**
+	 * Change a book to match its fields, which must already have been checked (see checkBook(String[])), and write the change.
+	 * 
+	 * @param book the book to change
+	 * @param fields the fixed fields of the book
+	 */
+	public synchronized void editBook(Book book, String fields[])
+	{
+		// Apply the fields, and write the new version of the book.
+		book.applyFormList(fields);
+		updateBook(book);
+	} // end editBook(Book, String[])
+
+	/**
+	 * Update changes to the file for books (needed when this class does not notice changes being made).
+	 */
+	public void forceBookDataWrite()
+	{
+		// Write every book to the file, which also folds any journal into the file.  The lock is not held while waiting for the write, as
+		// the persister's thread may need it to gather the changes.
+		synchronized (this)
+		{
+			bookSnapshotRequested = true;
+		} // end synchronized
+
+		if (persister != null)
+		{
+			persister.markDirty(BOOK_DATA);
+			persister.flush();
+		} // end if
+		else
+		{
+			runWrite(captureBooks());
+		} // end else
+	} // end forceBookDataWrite()
+
+	/**
+	 * Get the list of users stored.  If users are loaded only when they are looked up, the list only holds the users added since the
+	 * program started.
+	 * 
+	 * @return the list of users
+	 */
+	public ArrayList<User> getUsers()
+	{
+		// Return the stored list of users.
+		return users;
+	} // end getUsers()
+
+	/**
+	 * Add a user to the list of users.
+	 * 
+	 * @param user the user to add
+	 */
+	public synchronized void addUser(User user)
+	{
+		// Add the user to the list of user and the index, and update the users file.
+		users.add(user);
+		userIndex.put(user.getUserName(), user);
+		updateUser(user);
+	} // end addUser(User)
+
+	/**
+	 * Write the changes made to a single user (or the admin) to disk.
+	 * 
+	 * @param user the user that has been changed
+	 */
+	public synchronized void updateUser(User user)
+	{
+		// The admin is stored in a separate file.  If the persister is used, the change is written in the background along with any other
+		// changes made around the same time.  Otherwise, the change is written straight away.
+		if (user.isAdmin())
+		{
+			forceAdminDataWrite();
+			return;
+		} // end if
+
+		pendingUsers.put(user.getUserName(), user);
+
+		if (persister != null)
+			persister.markDirty(USER_DATA);
+		else
+			runWrite(captureUsers());
+	} // end updateUser(User)
+
+	/**
+	 * Gather the changes to the users into a batch for the user repository.  This is called while the lock of this object is held, and the
+	 * write it returns may be run in the background.
+	 * 
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	private synchronized Runnable captureUsers()
+	{
+		// Hand the changed users to the repository as one batch, or every user if a full write has been asked for.
+		Runnable write = userSnapshotRequested ? userRepository.prepareSnapshot() :
+			userRepository.prepareCommit(new ArrayList<User>(pendingUsers.values()));
+
+		pendingUsers.clear();
+		userSnapshotRequested = false;
+		return write;
+	} // end captureUsers()
+
+	/**
+	 * Gather the admin's password for the admin repository.
+	 * 
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	private synchronized Runnable captureAdmin()
+	{
+		// Hand the password as it is now to the repository.
+		return adminRepository.prepareCommit(admin);
+	} // end captureAdmin()
+
+	/**
+	 * Change the administrator's password.
+	 * 
+	 * @param newPassword the new password for the admin
+	 */
+	public void updateAdminPassword(String newPassword)
+	{
+		// Set the new password for the administrator and write the changes to the necessary file.
+		admin.setPassword(newPassword);
+		forceAdminDataWrite();
+	} // end updateAdminPassword(String)
+
+	/**
+	 * Update changes to the file for users (needed when this class does not notice changes being made).
+	 */
+	public void forceUserDataWrite()
+	{
+		// Write every user to the file, which also folds any journal into the file.  The lock is not held while waiting for the write, as
+		// the persister's thread may need it to gather the changes.
+		synchronized (this)
+		{
+			userSnapshotRequested = true;
+		} // end synchronized
+
+		if (persister != null)
+		{
+			persister.markDirty(USER_DATA);
+			persister.flush();
+		} // end if
+		else
+		{
+			runWrite(captureUsers());
+		} // end else
+	} // end forceUserDataWrite()
+
+	/**
+	 * Update changes to the file for the admin (needed when this class does not notice changes being made).
+	 */
+	public void forceAdminDataWrite()
+	{
+		// Write changes to the admin file, in the background if the persister is used.
+		if (persister != null)
+			persister.markDirty(ADMIN_DATA);
+		else
+			runWrite(captureAdmin());
+	} // end forceAdminDataWrite()
+
+	/**
+	 * Write every change that is still waiting to be written in the background, and wait until it is on disk.
+	 */
+	public void flushData()
+	{
+		// Flush the persister if one is used.  Otherwise, every change has already been written.  Every write waits for its commit, so
+		// the changes are on disk once this returns.
+		if (persister != null)
+			persister.flush();
+	} // end flushData()
+
+	/**
+	 * Check if a username already exists.
+	 * 
+	 * @param userName the username to check
+	 * @return true if the username already exists, otherwise false
+	 */
+	public boolean userNameExists(String userName)
+	{
+		// Return whether the username is in the index, or in the repository if users are loaded only when they are looked up.
+		if (userIndex.containsKey(userName))
+			return true;
+
+		synchronized (this)
+		{
+			return userRepository.contains(userName);
+		} // end synchronized
+	} // end userNameExists(String)
+
+	/**
+	 * Look up a user by their username.
+	 * 
+	 * @param userName the username
+	 * @return the user, or null if there is no such user
+	 */
+	public User findUser(String userName)
+	{
+		// Look the user up in the index first.  Otherwise, use the version waiting to be written if the user has changed, or ask the
+		// repository if users are loaded only when they are looked up.
+		User user = userIndex.get(userName);
+
+		if (user != null)
+			return user;
+
+		synchronized (this)
+		{
+			user = pendingUsers.get(userName);
+
+			if (user == null)
+				user = userRepository.find(userName);
+		} // end synchronized
+
+		return user;
+	} // end findUser(String)
+
+	/**
+	 * Rebuild the index of users by username from the list of users (needed after the list has been read from files).
+	 */
+	public synchronized void indexUsers()
+	{
+		// Clear the index, and add each of the users.
+		userIndex.clear();
+
+		for (User user : users)
+			userIndex.put(user.getUserName(), user);
+	} // end indexUsers()
+
+	/**
+	 * Check if the given credentials are correct for any user.
+	 * 
+	 * @param userName the username to check
+	 * @param password the password to check
+	 * @return whether the credentials are correct
+	 */
+	public boolean userCredentialsCorrect(String userName, String password)
+	{
+		// If the username is null, check if the given password matches with the administrator's password.
+		if (userName == null)
+			return password.equals(admin.getPassword());
+
+		// Look up the user with the passed username.
+		User user = findUser(userName);
+
+		// Return false if no matching account has been found.  Otherwise, the return value is based on whether the passwords are the
+		// same.
+		return user != null && user.getPassword().equals(password);
+	} // end userCredentialsCorrect(String, String)
+
+	/**
+	 * Check if the the given password is the same as the administrator's password.
+	 * 
+	 * @param adminPassword the password to check
+	 * @return whether the given password matches with the administrator's password
+	 */
+	public boolean adminPasswordCorrect(String adminPassword)
+	{
+		// Return whether the given password matches with the administrator's password.
+		return adminPassword.equals(admin.getPassword());
+	} // end adminPasswordCorrect(String)
+
+	/**
+	 * Check each input against its field.  Each valid input is replaced by its fixed version.
+	 * 
+	 * @param fields the fields
+	 * @param inputs the inputs, in the order of the fields
+	 * @return the error message of the first invalid input, or null if every input is valid
+	 */
+	public String checkFields(ValidationField fields[], String inputs[])
+	{
+		String fixedInput;
+
+		// Stop at the first input that is not valid.
+		for (int i = 0; i < fields.length; i++)
+		{
+			fixedInput = fields[i].check(this, inputs[i]);
+
+			if (fixedInput == null)
+				return fields[i].getError();
+
+			inputs[i] = fixedInput;
+		} // end for
+
+		return null;
+	} // end checkFields(ValidationField[], String[])
+
+	/**
+	 * Get the admin.
+	 * 
+	 * @return the User object representing the admin
+	 */
+	public User getAdmin()
+	{
+		// Return the admin.
+		return admin;
+	} // end getAdmin()
+
+	/**
+	 * Sign in with a username and password.
+	 * 
+	 * @param userName the username, or null to sign in as the admin
+	 * @param password the password
+	 * @return the user (or the admin), or null if the credentials are not correct
+	 */
+	public User signIn(String userName, String password)
+	{
+		// Check the credentials, and look up the user if they are correct.
+		if (!userCredentialsCorrect(userName, password))
+			return null;
+
+		return userName == null ? admin : findUser(userName);
+	} // end signIn(String, String)
+
+	/**
+	 * Keep a user in memory while they are signed in (needed if users are loaded only when they are looked up).  The user returned must
+	 * be used for the sign-in, as it is the one shared by every sign-in of the same user.
+	 * 
+	 * @param user the signed in user
+	 * @return the User object to use while the user is signed in
+	 */
+	public synchronized User pinUser(User user)
+	{
+		// Let the repository know which user to keep.
+		return userRepository.pin(user);
+	} // end pinUser(User)
+
+	/**
+	 * End one sign-in of a user kept by pinUser(User).
+	 * 
+	 * @param user the user returned by pinUser(User)
+	 */
+	public synchronized void unpinUser(User user)
+	{
+		// Let the repository know the sign-in has ended.
+		userRepository.unpin(user);
+	} // end unpinUser(User)
+
+	/**
+	 * Register a new user, given the fields in the order of USER_FIELDS.
+	 * 
+	 * @param fields the fields of the user
+	 * @return the error message of the first invalid field, or null if the user was registered
+	 */
+	public synchronized String register(String fields[])
+	{
+		// Check the fields, and that the username is not taken.
+		String error = checkFields(USER_FIELDS, fields);
+
+		if (error != null)
+			return error;
+
+		if (userNameExists(fields[2]))
+			return "The username " + fields[2] + " is already taken.";
+
+		// Add the user.
+		addUser(new User(fields[0], fields[1], fields[2], fields[3], fields[4]));
+		return null;
+	} // end register(String[])
+
+	/**
+	 * Change the password of a user.
+	 * 
+	 * @param user the user
+	 * @param oldPassword the user's current password
+	 * @param newPassword the new password
+	 * @return an error message, or null if the password was changed
+	 */
+	public String changePassword(User user, String oldPassword, String newPassword)
+	{
+		// Check the old password, and that the new password is valid.
+		if (!userCredentialsCorrect(user.getUserName(), oldPassword))
+			return "You have not correctly entered your old password.";
+
+		newPassword = USER_FIELDS[3].check(this, newPassword);
+
+		if (newPassword == null)
+			return USER_FIELDS[3].getError();
+
+		// Set the new password and write the change to disk.
+		user.setPassword(newPassword);
+		updateUser(user);
+		return null;
+	} // end changePassword(User, String, String)
+
+	/**
+	 * Check whether a user can add any more of a book to their cart.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 * @return the reason the book cannot be added, or null if it can be
+	 */
+	public String checkAddToCart(User user, Book book)
+	{
+		// Check whether the book is out of stock, whether the cart already holds all of it, and whether the cart is full.
+		if (book.getQuantity() <= 0)
+			return "This item is out of stock!";
+		else if (book.getQuantity() <= user.getCartItemCount(book))
+			return "You have already added as many of this item as there are in stock!";
+		else if (user.getAllCartItemsCount() >= MAX_CART_ITEMS)
+			return "You have already reached a max of " + MAX_CART_ITEMS + " items in your cart.";
+
+		return null;
+	} // end checkAddToCart(User, Book)
+
+	/**
+	 * Get the most of a book a user can add to their cart, so that the cart holds no more than are in stock, and no more than the most
+	 * items a cart may hold.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 * @return the number of the book that can be added
+	 */
+	public int getAddableCount(User user, Book book)
+	{
+		// Take the lower of the stock left and the room left in the cart.
+		return Math.max(0, Math.min(book.getQuantity() - user.getCartItemCount(book), MAX_CART_ITEMS - user.getAllCartItemsCount()));
+	} // end getAddableCount(User, Book)
+
+	/**
+	 * Add a number of a book to a user's cart, and write the change.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 * @param quantity the number of the book to add
+	 * @return the reason the book could not be added, or null if it was added
+	 */
+	public String addToCart(User user, Book book, int quantity)
+	{
+		String error;
+
+		// Check that the book can be added, and that there is room for that many.
+		synchronized (user)
+		{
+			error = checkAddToCart(user, book);
+
+			if (error == null && (quantity < 1 || quantity > getAddableCount(user, book)))
+				error = "You cannot add " + quantity + " of this item to your cart.";
+
+			if (error == null)
+				user.addToCart(book, quantity);
+		} // end synchronized
+
+		if (error == null)
+			updateUser(user);
+
+		return error;
+	} // end addToCart(User, Book, int)
+
+	/**
+	 * Get the most of a book a user's cart may hold, counting what is already in the cart.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 * @return the highest quantity the book can be set to in the cart
+	 */
+	public int getCartLimit(User user, Book book)
+	{
+		// Take the lower of the stock and the room in the cart, leaving out the book itself.
+		return Math.max(0, Math.min(book.getQuantity(), MAX_CART_ITEMS - (user.getAllCartItemsCount() - user.getCartItemCount(book))));
+	} // end getCartLimit(User, Book)
+
+	/**
+	 * Change the number of a book in a user's cart, and write the change.  A quantity of 0 removes the book.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 * @param quantity the new number of the book
+	 * @return the reason the quantity could not be changed, or null if it was changed
+	 */
+	public String setCartQuantity(User user, Book book, int quantity)
+	{
+		// Check that the cart may hold that many.
+		synchronized (user)
+		{
+			if (quantity < 0 || quantity > getCartLimit(user, book))
+				return "You cannot have " + quantity + " of this item in your cart.";
+
+			user.editCartItemQuantity(book, quantity);
+		} // end synchronized
+
+		updateUser(user);
+		return null;
+	} // end setCartQuantity(User, Book, int)
+
+	/**
+	 * Remove a book from a user's cart, and write the change.
+	 * 
+	 * @param user the user
+	 * @param book the book
+	 */
+	public void removeFromCart(User user, Book book)
+	{
+		// Remove the book, and write the change.
+		user.removeFromCart(book);
+		updateUser(user);
+	} // end removeFromCart(User, Book)
+
+	/**
+	 * Lower the quantities in a user's cart to what is in stock, and write the change if any quantity was lowered.
+	 * 
+	 * @param user the user
+	 * @return whether any quantity was lowered
+	 */
+	public boolean adjustCart(User user)
+	{
+		// Adjust the cart, and write it if it changed.
+		boolean adjusted = user.adjustCartQuantities();
+
+		if (adjusted)
+			updateUser(user);
+
+		return adjusted;
+	} // end adjustCart(User)
+
+	/**
+	 * Start a new session for a user, resetting their session amounts, and write the change.
+	 * 
+	 * @param user the user
+	 */
+	public void startNewSession(User user)
+	{
+		// Reset the session, and write the change.
+		user.startNewSession();
+		updateUser(user);
+	} // end startNewSession(User)
+
+	/**
+	 * Buy every item in a user's cart, and write the changes.  If some of the books have run out since they were added (as another user
+	 * may have bought them), nothing is bought, and the cart is lowered to what is left.
+	 * 
+	 * @param user the user
+	 * @return the receipt, which tells whether the items were bought
+	 */
+	public Receipt checkout(User user)
+	{
+		Book books[];
+		int quantities[];
+		double prices[];
+		boolean completed;
+
+		// Note what is in the cart and at what price, and buy it, without letting the cart change in between.
+		synchronized (user)
+		{
+			books = user.getCartItems();
+			quantities = new int[books.length];
+			prices = new double[books.length];
+
+			for (int i = 0; i < books.length; i++)
+			{
+				quantities[i] = user.getCartItemCount(books[i]);
+				prices[i] = books[i].getPrice();
+			} // end for
+
+			completed = user.makePurchase();
+
+			if (!completed)
+				user.adjustCartQuantities();
+		} // end synchronized
+
+		// Write the changes to disk.
+		updateUser(user);
+
+		if (completed)
+			for (Book book : books)
+				updateBookStock(book);
+
+		return new Receipt(books, quantities, prices, completed);
+	} // end checkout(User)
+
+	/**
+	 * Print how long a sign-in takes as the number of accounts grows from a thousand to the given number, ten times at each step.  The
+	 * store is started as usual, and generated accounts are added straight to its list and index of users (they are never written).  At
+	 * each size, random accounts are signed in with the right password, the wrong password, and a username that does not exist, and each
+	 * sign-in is timed.  A size is skipped if the heap is too small for it.
+	 * 
+	 * @param maxUsers the largest number of accounts
+	 */
+	public static void printSignInBenchmark(int maxUsers)
+	{
+		StoreService service = new StoreService();
+		Runtime runtime = Runtime.getRuntime();
+		Random random = new Random(1);
+		int added = 0, signIns = 300000;
+		long times[] = new long[signIns];
+
+		System.out.println("Accounts      Sign-ins  Failed  Mean ns  p50 ns  p99 ns");
+
+		for (int size = 1000; size <= maxUsers && size > 0; size *= 10)
+		{
+			// Stop if the accounts would not fit in the heap (about 300 bytes each).
+			if (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory()) < (long) (size - added) * 300)
+			{
+				System.out.printf("%-12d  skipped (run with a larger -Xmx)%n", size);
+				break;
+			} // end if
+
+			// Add the accounts up to this size.  The names and passwords are shared, apart from the username.
+			synchronized (service)
+			{
+				for (; added < size; added++)
+				{
+					User user = new User("Bench", "User", "bench" + added, "Password1!", "bench@example.com");
+					service.users.add(user);
+					service.userIndex.put(user.getUserName(), user);
+				} // end for
+			} // end synchronized
+
+			// Pick the accounts to sign in ahead of time, so that only the sign-ins are timed.
+			String userNames[] = new String[4096];
+
+			for (int i = 0; i < userNames.length; i++)
+				userNames[i] = i % 8 == 7 ? "missing" + i : "bench" + random.nextInt(size);
+
+			// Sign in, using the wrong password for one in eight of the accounts that exist.  The first pass warms up the JIT compiler.
+			int failed = 0;
+
+			for (int pass = 0; pass < 2; pass++)
+			{
+				failed = 0;
+
+				for (int i = 0; i < signIns; i++)
+				{
+					String userName = userNames[i & (userNames.length - 1)];
+					String password = i % 8 == 3 ? "Wrong1!" : "Password1!";
+					long start = System.nanoTime();
+					User user = service.signIn(userName, password);
+					times[i] = System.nanoTime() - start;
+
+					if (user == null)
+						failed++;
+				} // end for
+			} // end for
+
+			// Print the mean and percentiles of the times.
+			long total = 0;
+
+			for (long time : times)
+				total += time;
+
+			Arrays.sort(times);
+			System.out.printf(
+				"%-12d  %8d  %6d  %7d  %6d  %6d%n", size, signIns, failed, total / signIns, times[signIns / 2], times[signIns * 99 / 100]
+			);
+		} // end for
+	} // end printSignInBenchmark(int)
+} // end public class
\ No newline at end of file
@@ -0,0 +1,247 @@
+/**
+ * Final Project: The Store - String Dictionary
+ * This class keeps a single copy of each distinct string it is given.  Many books share the same genre, binding, and author, so the
+ * strings read from the books file (or typed into a form) are passed through a dictionary, and every book with the same genre refers to
+ * the same String object.  This saves the memory of the copies, and two genres can be compared by checking whether they are the same
+ * object before their characters are compared.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StringDictionary
+{
+	// Declare the map of each distinct string to its single copy.
+	private ConcurrentHashMap<String, String> strings;
+
+	// Declare the number of strings looked up, the number that were already in the dictionary, and the memory the copies would have used.
+	private LongAdder lookups, hits, savedBytes;
+
+	/**
+	 * This constructor initializes an empty dictionary.
+	 */
+	public StringDictionary()
+	{
+		// Initialize the map and the counts.
+		strings = new ConcurrentHashMap<String, String>();
+		lookups = new LongAdder();
+		hits = new LongAdder();
+		savedBytes = new LongAdder();
+	} // end StringDictionary()
+
+	/**
+	 * Get the single copy of a string, adding the string to the dictionary if it is new.  This may be called from any thread.
+	 * 
+	 * @param value the string
+	 * @return the copy of the string kept by the dictionary (null if the string is null)
+	 */
+	public String intern(String value)
+	{
+		// Nothing is stored for a missing string.
+		if (value == null)
+			return null;
+
+		// Store the string if it is new.  Otherwise, count the memory saved by not keeping this copy.
+		String copy = strings.putIfAbsent(value, value);
+		lookups.increment();
+
+		if (copy == null)
+			return value;
+
+		if (copy != value)
+		{
+			hits.increment();
+			savedBytes.add(sizeOf(value));
+		} // end if
+
+		return copy;
+	} // end intern(String)
+
+	/**
+	 * Estimate the memory used by a string: the String object itself, and the array of its characters (one byte per character if every
+	 * character fits in a byte, and two otherwise).  Objects take a multiple of 8 bytes.
+	 * 
+	 * @param value the string
+	 * @return the number of bytes
+	 */
+	public static long sizeOf(String value)
+	{
+		int bytesPerCharacter = 1;
+
+		// Check whether any character needs two bytes.
+		for (int i = 0; i < value.length(); i++)
+		{
+			if (value.charAt(i) > 0xFF)
+			{
+				bytesPerCharacter = 2;
+				break;
+			} // end if
+		} // end for
+
+		// Add the 24 bytes of the String object to the 16 byte header of the array and its characters.
+		return 24 + ((16 + (long) value.length() * bytesPerCharacter + 7) & ~7);
+	} // end sizeOf(String)
+
+	/**
+	 * Get the number of distinct strings in the dictionary.
+	 * 
+	 * @return the number of strings
+	 */
+	public int size()
+	{
+		// Return the size of the map.
+		return strings.size();
+	} // end size()
+
+	/**
+	 * Get the number of strings that have been looked up.
+	 * 
+	 * @return the number of lookups
+	 */
+	public long getLookups()
+	{
+		// Return the count.
+		return lookups.sum();
+	} // end getLookups()
+
+	/**
+	 * Get the number of strings looked up that were already in the dictionary.
+	 * 
+	 * @return the number of hits
+	 */
+	public long getHits()
+	{
+		// Return the count.
+		return hits.sum();
+	} // end getHits()
+
+	/**
+	 * Get the memory saved by the dictionary, which is the memory every copy that was replaced would have used if it had been kept.
+	 * 
+	 * @return the number of bytes saved
+	 */
+	public long getSavedBytes()
+	{
+		// Return the count.
+		return savedBytes.sum();
+	} // end getSavedBytes()
+
+	/**
+	 * Remove every string from the dictionary, and reset the counts.
+	 */
+	public void clear()
+	{
+		// Clear the map and the counts.
+		strings.clear();
+		lookups.reset();
+		hits.reset();
+		savedBytes.reset();
+	} // end clear()
+
+	/**
+	 * Print how much memory the dictionary saves when loading a catalog.  A books file with the given number of books (with a realistic
+	 * number of distinct genres, bindings, and authors) is made in a temporary folder, and is read twice: once keeping every string as it
+	 * was read, and once passing the genres, bindings, and authors through a dictionary.  The memory used by each is measured after
+	 * garbage collection.
+	 * 
+	 * @param bookCount the number of books in the file
+	 * @throws IOException if the file could not be written or read
+	 */
+	public static void printHeapReport(int bookCount) throws IOException
+	{
+		String genres[] = {"Fiction", "Classics", "Mystery", "Fantasy", "Science Fiction", "Romance", "History", "Biography", "Poetry",
+			"Horror", "Adventure", "Philosophy", "Children"};
+		String bindings[] = {"Paperback", "Hardcover"};
+		File csvFile = File.createTempFile("muftibooks-report", ".csv");
+		Random random = new Random(1);
+
+		csvFile.deleteOnExit();
+
+		// Write the books, with 5000 distinct authors.
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFile)))
+		{
+			for (int i = 0; i < bookCount; i++)
+			{
+				writer.write(i + ",Book Number " + i + "," + (5 + random.nextInt(40)) + ".99," + random.nextInt(200) + "," +
+					random.nextInt(30) + "," + genres[random.nextInt(genres.length)] + "," + bindings[random.nextInt(2)] + ",Author " +
+					random.nextInt(5000) + "," + (1800 + random.nextInt(221)) + ",book" + i + ".jpg");
+				writer.newLine();
+			} // end for
+		} // end try
+
+		// Measure the memory used by the books read without and with the dictionary.
+		StringDictionary dictionary = new StringDictionary();
+		long before = usedMemory();
+		ArrayList<Book> books = readForReport(csvFile, null);
+		long withoutDictionary = usedMemory() - before;
+
+		books = null;
+		before = usedMemory();
+		books = readForReport(csvFile, dictionary);
+		long withDictionary = usedMemory() - before;
+
+		// Print the results.
+		System.out.println("Books read:                   " + books.size());
+		System.out.println("Distinct strings:             " + dictionary.size() + " of " + dictionary.getLookups() + " looked up");
+		System.out.println("Heap without the dictionary:  " + withoutDictionary / 1024 + " KB");
+		System.out.println("Heap with the dictionary:     " + withDictionary / 1024 + " KB");
+		System.out.println("Measured saving:              " + (withoutDictionary - withDictionary) / 1024 + " KB");
+		System.out.println("Estimated saving:             " + dictionary.getSavedBytes() / 1024 + " KB");
+	} // end printHeapReport(int)
+
+	/**
+	 * Read a books file for the heap report, in the same way the books file is read when the program starts.
+	 * 
+	 * @param csvFile the file to read
+	 * @param dictionary the dictionary the genres, bindings, and authors are passed through (null to keep the strings as they are read)
+	 * @return the books read
+	 * @throws IOException if the file could not be read
+	 */
+	private static ArrayList<Book> readForReport(File csvFile, StringDictionary dictionary) throws IOException
+	{
+		ArrayList<Book> books = new ArrayList<Book>();
+		MappedCsvReader csvReader = new MappedCsvReader(csvFile);
+
+		// Read each book, passing the shared strings through the dictionary if there is one.
+		while (csvReader.nextLine())
+		{
+			String genre = csvReader.getString(5), binding = csvReader.getString(6), author = csvReader.getString(7);
+
+			if (dictionary != null)
+			{
+				genre = dictionary.intern(genre);
+				binding = dictionary.intern(binding);
+				author = dictionary.intern(author);
+			} // end if
+
+			books.add(new Book(
+				csvReader.getInt(0), csvReader.getString(1), csvReader.getDouble(2), csvReader.getInt(3), csvReader.getInt(4), genre,
+				binding, author, csvReader.getInt(8), csvReader.getString(9)
+			));
+		} // end while
+
+		csvReader.close();
+		return books;
+	} // end readForReport(File, StringDictionary)
+
+	/**
+	 * Get the memory in use after garbage collection.
+	 * 
+	 * @return the number of bytes in use
+	 */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+
+		// Collect garbage a few times, so that the measurement settles.
+		for (int i = 0; i < 4; i++)
+			System.gc();
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	} // end usedMemory()
+} // end public class
\ No newline at end of file
@@ -0,0 +1,269 @@
+/**
+ * Final Project: The Store - Thumbnail Cache
+ * This class keeps scaled copies of the book covers on disk, in each of the sizes the pages show them at.  A thumbnail is stored as its
+ * raw pixels after a small header, so loading it is a single read with no decoding or scaling.  The header records the modification time
+ * and a checksum of the cover it was made from: if the time has changed, the checksum is compared, and the thumbnail is only made again if
+ * the cover itself has changed.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+
+public class ThumbnailCache
+{
+	// Store the sizes that thumbnails are made in (the catalog preview, the cart, and the full view of a book).
+	public static final int SIZES[][] = {{208, 320}, {156, 240}, {299, 460}};
+
+	// Store the values that start every thumbnail file, the size of the header, and where the modification time is in the header.
+	private static final int MAGIC = 0x4D42544E;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 36;
+	private static final int MODIFIED_OFFSET = 8;
+
+	// Initialize the thread that makes thumbnails in the background.  The thread does not keep the program running.
+	private static ExecutorService generator = Executors.newSingleThreadExecutor((runnable) -> {
+		Thread thread = new Thread(runnable, "Thumbnail generator");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Check whether thumbnails are made in a given size.
+	 * 
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return whether the size is one of the thumbnail sizes
+	 */
+	public static boolean isThumbnailSize(int width, int height)
+	{
+		// Compare the size to each thumbnail size.
+		for (int size[] : SIZES)
+			if (size[0] == width && size[1] == height)
+				return true;
+
+		return false;
+	} // end isThumbnailSize(int, int)
+
+	/**
+	 * Get the file a thumbnail is stored in.
+	 * 
+	 * @param imagePath the path to the cover
+	 * @param width the width of the thumbnail
+	 * @param height the height of the thumbnail
+	 * @return the thumbnail file
+	 */
+	private static File getThumbnailFile(String imagePath, int width, int height)
+	{
+		// Name the thumbnail after the cover's file name and the size.
+		return new File(Paths.IMAGE_THUMBNAIL_FOLDER + new File(imagePath).getName() + "_" + width + "x" + height + ".thumb");
+	} // end getThumbnailFile(String, int, int)
+
+	/**
+	 * Read a thumbnail from disk.
+	 * 
+	 * @param imagePath the path to the cover
+	 * @param width the width of the thumbnail
+	 * @param height the height of the thumbnail
+	 * @return the thumbnail, or null if there is no thumbnail or the cover has changed since it was made
+	 */
+	public static BufferedImage read(String imagePath, int width, int height)
+	{
+		File cover = new File(imagePath), thumbnailFile = getThumbnailFile(imagePath, width, height);
+
+		// Stop if either file is missing.
+		if (!cover.isFile() || !thumbnailFile.isFile())
+			return null;
+
+		// Open the thumbnail for reading only, so that thumbnails can be read from a folder that cannot be written to.
+		try (FileChannel channel = FileChannel.open(thumbnailFile.toPath(), StandardOpenOption.READ))
+		{
+			// Stop if the file is too small to hold the header and pixels.
+			if (channel.size() != HEADER_SIZE + 4L * width * height)
+				return null;
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			// Stop if the header does not belong to a thumbnail of this size.
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(24) != width || buffer.getInt(28) != height)
+				return null;
+
+			// If the cover's modification time has changed, compare checksums.  If the cover is the same, store the new time so the
+			// checksum does not have to be found next time.  Otherwise, the thumbnail is out of date.
+			if (buffer.getLong(MODIFIED_OFFSET) != cover.lastModified())
+			{
+				if (buffer.getLong(16) != checksumOf(cover))
+					return null;
+
+				storeModified(thumbnailFile, cover.lastModified());
+			} // end if
+
+			// Copy the pixels into an image.
+			int pixels[] = new int[width * height];
+			BufferedImage thumbnail = new BufferedImage(
+				width, height, buffer.getInt(32) == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB
+			);
+
+			buffer.position(HEADER_SIZE).slice().asIntBuffer().get(pixels);
+			thumbnail.getRaster().setDataElements(0, 0, width, height, pixels);
+
+			return thumbnail;
+		} // end try
+		catch (IOException exception)
+		{
+			// Treat an unreadable thumbnail as missing.
+			return null;
+		} // end catch
+	} // end read(String, int, int)
+
+	/**
+	 * Store a new modification time of the cover in the header of a thumbnail.  The thumbnail is only opened for writing here, when the
+	 * time has changed, and is left as it is if it cannot be written.
+	 * 
+	 * @param thumbnailFile the thumbnail file
+	 * @param modified the modification time of the cover
+	 */
+	private static void storeModified(File thumbnailFile, long modified)
+	{
+		// Write the time over the old one.
+		try (FileChannel channel = FileChannel.open(thumbnailFile.toPath(), StandardOpenOption.WRITE))
+		{
+			channel.write(ByteBuffer.allocate(8).putLong(0, modified), MODIFIED_OFFSET);
+		} // end try
+		catch (IOException exception)
+		{
+			// The checksum is compared again next time instead.
+		} // end catch
+	} // end storeModified(File, long)
+
+	/**
+	 * Write a thumbnail to disk.  The thumbnail is written to a temporary file first, so a thumbnail is never seen half written.
+	 * 
+	 * @param imagePath the path to the cover the thumbnail was made from
+	 * @param thumbnail the thumbnail to write
+	 */
+	public static void write(String imagePath, BufferedImage thumbnail)
+	{
+		File cover = new File(imagePath);
+		int width = thumbnail.getWidth(), height = thumbnail.getHeight();
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * width * height);
+
+		try
+		{
+			// Fill in the header, then the pixels.
+			buffer.putInt(MAGIC).putInt(VERSION).putLong(cover.lastModified()).putLong(checksumOf(cover));
+			buffer.putInt(width).putInt(height).putInt(thumbnail.getTransparency());
+			buffer.asIntBuffer().put(thumbnail.getRGB(0, 0, width, height, null, 0, width));
+
+			// Write the file beside its final name, and move it into place.
+			Path target = getThumbnailFile(imagePath, width, height).toPath();
+			Files.createDirectories(target.getParent());
+			Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+			Files.write(temporary, buffer.array());
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} // end try
+		catch (IOException exception)
+		{
+			// A thumbnail that could not be written is made again from the cover next time.
+		} // end catch
+	} // end write(String, BufferedImage)
+
+	/**
+	 * Make every thumbnail of a cover that is missing or out of date.  The cover is decoded at most once.
+	 * 
+	 * @param imagePath the path to the cover
+	 * @return the number of thumbnails made
+	 */
+	public static int generate(String imagePath)
+	{
+		BufferedImage cover = null;
+		int generated = 0;
+
+		for (int size[] : SIZES)
+		{
+			// Skip the sizes that are already up to date.
+			if (read(imagePath, size[0], size[1]) != null)
+				continue;
+
+			try
+			{
+				// Decode the cover the first time it is needed.  Stop if it is not an image.
+				if (cover == null)
+					cover = ImageIO.read(new File(imagePath));
+
+				if (cover == null)
+					return generated;
+			} // end try
+			catch (IOException exception)
+			{
+				return generated;
+			} // end catch
+
+			// Scale and write the thumbnail.
+			write(imagePath, Resources.scaleImage(cover, size[0], size[1]));
+			generated++;
+		} // end for
+
+		return generated;
+	} // end generate(String)
+
+	/**
+	 * Make the thumbnails of a cover in the background.
+	 * 
+	 * @param imagePath the path to the cover
+	 */
+	public static void generateLater(String imagePath)
+	{
+		// Hand the cover to the background thread.
+		generator.submit(() -> {generate(imagePath);});
+	} // end generateLater(String)
+
+	/**
+	 * Make the thumbnails of every cover in the book images folder that are missing or out of date.
+	 * 
+	 * @return the number of thumbnails made
+	 */
+	public static int rebuildAll()
+	{
+		File covers[] = new File(Paths.IMAGE_BOOK_FOLDER).listFiles(File::isFile);
+		int generated = 0;
+
+		// Make the thumbnails of each cover.
+		if (covers != null)
+			for (File cover : covers)
+				generated += generate(Paths.IMAGE_BOOK_FOLDER + cover.getName());
+
+		return generated;
+	} // end rebuildAll()
+
+	/**
+	 * Find the checksum of a file's contents.
+	 * 
+	 * @param file the file to check
+	 * @return the checksum
+	 * @throws IOException if the file could not be read
+	 */
+	private static long checksumOf(File file) throws IOException
+	{
+		CRC32 checksum = new CRC32();
+
+		// Map the file and add all of it to the checksum.
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} // end try
+
+		return checksum.getValue();
+	} // end checksumOf(File)
+} // end public class
\ No newline at end of file
@@ -2,11 +2,17 @@
  * Final Project: The Store - User
  * This class provides a way of storing information about users and account in the store.
  * 
+ * A user may be used from more than one thread (such as two checkout terminals), so every method holds the user's lock.  A purchase
+ * takes the books in the cart from the stock with compare-and-set (see Product.reserveStock), so purchases of other users never wait for
+ * it, and either takes every book in the cart or none of them.
+ * 
  * @author Musab Mufti (44252muf)
  * @date 11 November 2020
  */
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class User
 {
@@ -52,10 +58,10 @@ public class User
 	/**
 	 * Set values based on an array of information (used for CSV parsing).
 	 * 
-	 * @param gui the GUI object
+	 * @param service the store service
 	 * @param information the information as an array
 	 */
-	public User(GUI gui, String information[])
+	public User(StoreService service, String information[])
 	{
 		// Store information from the array.
 		firstName = information[0];
@@ -69,15 +75,44 @@ public class User
 		totalItems = Integer.parseInt(information[8]);
 
 		// Deserialize the last value of the CSV entry and use to initialize the cart.
-		deserializeCart(gui, information[9]);
-	} // end User(GUI, String)
+		deserializeCart(service, information[9]);
+	} // end User(StoreService, String)
+
+	/**
+	 * Set values based on the values passed in, including the amounts and the serialized cart (used when reading users from a file).
+	 * 
+	 * @param service the store service
+	 * @param firstName the user's first name
+	 * @param lastName the user's last name
+	 * @param userName the user's username
+	 * @param password the user's password
+	 * @param email the user's email
+	 * @param sessionSales the amount spent this session
+	 * @param totalSales the total amount spent
+	 * @param sessionItems the number of items purchased this session
+	 * @param totalItems the total number of items purchased
+	 * @param serializedCart the serialized cart
+	 */
+	public User(StoreService service, String firstName, String lastName, String userName, String password, String email, double sessionSales,
+		double totalSales, int sessionItems, int totalItems, String serializedCart)
+	{
+		// Set values based on what has been passed in.
+		this(firstName, lastName, userName, password, email);
+		this.sessionSales = sessionSales;
+		this.totalSales = totalSales;
+		this.sessionItems = sessionItems;
+		this.totalItems = totalItems;
+
+		// Deserialize the cart.
+		deserializeCart(service, serializedCart);
+	} // end User(StoreService, String, String, String, String, String, double, double, int, int, String)
 	
 	/**
 	 * Get the first name.
 	 * 
 	 * @return the first name
 	 */
-	public String getFirstName()
+	public synchronized String getFirstName()
 	{
 		// Return the first name.
 		return firstName;
@@ -88,7 +123,7 @@ public class User
 	 * 
 	 * @param firstName the new first name
 	 */
-	public void setFirstName(String firstName)
+	public synchronized void setFirstName(String firstName)
 	{
 		// Set the new first name.
 		this.firstName = firstName;
@@ -99,7 +134,7 @@ public class User
 	 * 
 	 * @return the last name
 	 */
-	public String getLastName()
+	public synchronized String getLastName()
 	{
 		// Return the last name.
 		return lastName;
@@ -110,7 +145,7 @@ public class User
 	 * 
 	 * @param lastName the new last name
 	 */
-	public void setLastName(String lastName)
+	public synchronized void setLastName(String lastName)
 	{
 		// Set the new last name.
 		this.lastName = lastName;
@@ -121,7 +156,7 @@ public class User
 	 * 
 	 * @return the full name
 	 */
-	public String getFullName()
+	public synchronized String getFullName()
 	{
 		// Return the full name by combining the first and last names.
 		return firstName + " " + lastName;
@@ -132,7 +167,7 @@ public class User
 	 * 
 	 * @return the username
 	 */
-	public String getUserName()
+	public synchronized String getUserName()
 	{
 		// Return the username.
 		return userName;
@@ -143,7 +178,7 @@ public class User
 	 * 
 	 * @param userName the new username
 	 */
-	public void setUserName(String userName)
+	public synchronized void setUserName(String userName)
 	{
 		// Set the new username.
 		this.userName = userName;
@@ -154,7 +189,7 @@ public class User
 	 * 
 	 * @return the password
 	 */
-	public String getPassword()
+	public synchronized String getPassword()
 	{
 		// Return the password.
 		return password;
@@ -165,7 +200,7 @@ public class User
 	 * 
 	 * @param password the new password
 	 */
-	public void setPassword(String password)
+	public synchronized void setPassword(String password)
 	{
 		// Set the new password.
 		this.password = password;
@@ -176,7 +211,7 @@ public class User
 	 * 
 	 * @return the email address
 	 */
-	public String getEmail()
+	public synchronized String getEmail()
 	{
 		// Return the email address.
 		return email;
@@ -187,7 +222,7 @@ public class User
 	 * 
 	 * @param email the new email address
 	 */
-	public void setEmail(String email)
+	public synchronized void setEmail(String email)
 	{
 		// Set the new email address.
 		this.email = email;
@@ -198,7 +233,7 @@ public class User
 	 * 
 	 * @return the amount spent in this session.
 	 */
-	public double getSessionSales()
+	public synchronized double getSessionSales()
 	{
 		// Return the amount spent in this session.
 		return sessionSales;
@@ -209,7 +244,7 @@ public class User
 	 * 
 	 * @return the number of items purchased this session
 	 */
-	public int getSessionItems()
+	public synchronized int getSessionItems()
 	{
 		// Return the number of items purchased this session.
 		return sessionItems;
@@ -220,7 +255,7 @@ public class User
 	 * 
 	 * @return the total amount spent.
 	 */
-	public double getTotalSales()
+	public synchronized double getTotalSales()
 	{
 		// The total amount spent.
 		return totalSales;
@@ -231,7 +266,7 @@ public class User
 	 * 
 	 * @return the total items purchased
 	 */
-	public int getTotalItems()
+	public synchronized int getTotalItems()
 	{
 		// Return the total items purchased.
 		return totalItems;
@@ -240,7 +275,7 @@ public class User
 	/**
 	 * Start a new session by resetting amounts.
 	 */
-	public void startNewSession()
+	public synchronized void startNewSession()
 	{
 		// Reset the session amounts.
 		sessionSales = 0d;
@@ -253,7 +288,7 @@ public class User
 	 * @param book the book to add
 	 * @param quantity the number of the book to add
 	 */
-	public void addToCart(Book book, int quantity)
+	public synchronized void addToCart(Book book, int quantity)
 	{
 		// Add the specified number of items.
 		cartBooks.merge(book, quantity, Integer::sum);
@@ -264,7 +299,7 @@ public class User
 	 * 
 	 * @param book the item to remove
 	 */
-	public void removeFromCart(Book book)
+	public synchronized void removeFromCart(Book book)
 	{
 		// Remove the specified item.
 		cartBooks.remove(book);
@@ -276,7 +311,7 @@ public class User
 	 * @param book the book to count
 	 * @return the count of the passed in book
 	 */
-	public int getCartItemCount(Book book)
+	public synchronized int getCartItemCount(Book book)
 	{
 		// Return the quantity if it exists in the map, otherwise 0.
 		return cartBooks.getOrDefault(book, 0);
@@ -288,7 +323,7 @@ public class User
 	 * @param book the book to modify
 	 * @param quantity the new quantity
 	 */
-	public void editCartItemQuantity(Book book, int quantity)
+	public synchronized void editCartItemQuantity(Book book, int quantity)
 	{
 		// Remove the book if the quantity is 0.  Otherwise, store the quantity.
 		if (quantity == 0)
@@ -302,12 +337,12 @@ public class User
 	 * 
 	 * @return true if any quantity had to be adjusted, otherwise false
 	 */
-	public boolean adjustCartQuantities()
+	public synchronized boolean adjustCartQuantities()
 	{
 		boolean adjusted = false;
 
-		// Loop through all books in cart.
-		for (Book book : cartBooks.keySet())
+		// Loop through all books in cart.  A copy of the books is used, as books that have run out are removed from the cart.
+		for (Book book : getCartItems())
 		{
 			// If the there are more of the current book in cart then there are at all, update the quantity to the amount that are
 			// available.
@@ -327,39 +362,54 @@ public class User
 	 * 
 	 * @return list of items in cart
 	 */
-	public Book[] getCartItems()
+	public synchronized Book[] getCartItems()
 	{
 		// Return the list of items in cart as an array.
 		return cartBooks.keySet().toArray(new Book[cartBooks.size()]);
 	} // end getCartItems()
 
 	/**
-	 * Purchase all the items currently in cart.
+	 * Purchase all the items currently in cart.  If there are not enough of any of the books left (as another user may have bought them
+	 * since they were added to the cart), nothing is bought, and the cart is left as it is.
+	 * 
+	 * @return whether the items were bought
 	 */
-	public void makePurchase()
+	public synchronized boolean makePurchase()
 	{
-		int quantity;
+		ArrayList<Map.Entry<Book, Integer>> reserved = new ArrayList<Map.Entry<Book, Integer>>(cartBooks.size());
+
+		// Take each book in cart from the stock.  If a book has run out, put back the books already taken, and stop.
+		for (Map.Entry<Book, Integer> entry : cartBooks.entrySet())
+		{
+			if (!entry.getKey().reserveStock(entry.getValue()))
+			{
+				for (Map.Entry<Book, Integer> taken : reserved)
+					taken.getKey().releaseStock(taken.getValue());
+
+				return false;
+			} // end if
+
+			reserved.add(entry);
+		} // end for
 
 		// Iterate through all books in cart.
-		for (Book book : cartBooks.keySet())
+		for (Map.Entry<Book, Integer> entry : cartBooks.entrySet())
 		{
-			// Get the quantity of the book in cart.
-			quantity = cartBooks.get(book);
+			Book book = entry.getKey();
+			int quantity = entry.getValue();
 
 			// Add the price including tax to both session sales, and total sales for the current book.
-			sessionSales += book.price * quantity * 1.13;
-			totalSales += book.price * quantity * 1.13;
+			sessionSales += book.getPrice() * quantity * 1.13;
+			totalSales += book.getPrice() * quantity * 1.13;
 
 			// Add the number of books purchased.
 			sessionItems += quantity;
 			totalItems += quantity;
-
-			// Set a new quantity on the book.
-			book.setQuantity(book.getQuantity() - quantity);
 		} // end for
 
 		// Clear all the books in cart.
 		cartBooks.clear();
+		return true;
 	} // end makePurchase()
 
 	/**
@@ -367,7 +417,7 @@ public class User
 	 * 
 	 * @return the total number of items in cart
 	 */
-	public int getAllCartItemsCount()
+	public synchronized int getAllCartItemsCount()
 	{
 		// Initialize the count to 0.
 		int count = 0;
@@ -381,60 +431,46 @@ public class User
 	} // end getAllCartItemsCount()
 
 	/**
-	 * Serialize the cart, by separating the book ids, and amounts by vertical bars.
+	 * Serialize the cart, storing the id and quantity of each book in the compact format of CartCodec.
 	 * 
 	 * @return the serialized cart
 	 */
-	public String serializeCart()
+	public synchronized String serializeCart()
 	{
-		// Initialize the serialized cart.
-		String serializedCart = "";
+		StringBuilder serializedCart = new StringBuilder();
 
-		// Iterate through the books in the cart.
-		for (Book book : cartBooks.keySet())
-		{
-			// Add a vertical bar character to separate from whatever has been added before, if anything has been added before.
-			if (!serializedCart.isEmpty())
-				serializedCart += "|";
-
-			// Add the current book's id and quantity to the serialized cart.
-			serializedCart += Integer.toString(book.getId()) + "|" + cartBooks.get(book);
-		}
-
-		// Return the serializedCart.
-		return serializedCart;
+		// Write the cart, and return it.
+		CartCodec.encode(cartBooks, serializedCart);
+		return serializedCart.toString();
 	} // end serializeCart()
 
 	/**
-	 * Deserialize a string representing cart items.
+	 * Deserialize a string representing cart items, in either the compact format or the old format (the book ids and amounts separated
+	 * by vertical bars).
 	 * 
-	 * @param gui the GUI object
+	 * @param service the store service
 	 * @param serializedCart the serialized cart to deserialize
 	 */
-	public void deserializeCart(GUI gui, String serializedCart)
+	public synchronized void deserializeCart(StoreService service, String serializedCart)
 	{
-		// Split the cart by vertical bars.
-		String data[] = serializedCart.split("\\s*\\|\\s*");
-
 		// Clear the current cart entries.
 		cartBooks.clear();
 
-		// Iterate through the data two pieces at a time.
-		for (int i = 0; i + 1 < data.length; i += 2)
-		{
+		// Read each book of the cart.
+		CartCodec.decode(serializedCart, (id, quantity) -> {
 			// Attempt to find a book with the given id.
-			Book book = gui.getBookById(Integer.parseInt(data[i]));
+			Book book = service.getBookById(id);
 
 			// If the book exists, add it along with the quantity to cart.
 			if (book != null)
-				cartBooks.put(book, Integer.parseInt(data[i + 1]));
-		} // end for
-	} // end deserializeCart(GUI, String)
+				cartBooks.put(book, quantity);
+		});
+	} // end deserializeCart(StoreService, String)
 
 	/**
 	 * Set the current user as an admin.
 	 */
-	public void setAdmin()
+	public synchronized void setAdmin()
 	{
 		// Store that the user is admin.
 		admin = true;
@@ -443,7 +479,7 @@ public class User
 	/**
 	 * Set the current user as non-admin.
 	 */
-	public void unsetAdmin()
+	public synchronized void unsetAdmin()
 	{
 		// Store that the user is not admin.
 		admin = false;
@@ -454,7 +490,7 @@ public class User
 	 * 
 	 * @return whether the current user is admin
 	 */
-	public boolean isAdmin()
+	public synchronized boolean isAdmin()
 	{
 		// Return whether the user is admin
 		return admin;
@@ -466,7 +502,7 @@ public class User
 	 * @return a human-readable string
 	 */
 	@Override
-	public String toString()
+	public synchronized String toString()
 	{
 		// Create a string to display information about this user.
 		return String.format(
@@ -481,10 +517,26 @@ public class User
 	 * 
 	 * @return a CSV entry as a String
 	 */
-	public String toCSV()
+	public synchronized String toCSV()
 	{
-		// Return a CSV entry by separating fields by commas.
-		return firstName + "," + lastName + "," + userName + "," + password + "," + email + "," + sessionSales + "," +
-			totalSales + "," + sessionItems + "," + totalItems + "," + serializeCart();
+		// Build the CSV entry, and return it.
+		return appendCSV(new StringBuilder(128)).toString();
 	} // end toCSV()
+
+	/**
+	 * Add the CSV entry of this user to the end of a string builder, so that one builder can be reused for many users.
+	 * 
+	 * @param output the builder to add to
+	 * @return the builder
+	 */
+	public synchronized StringBuilder appendCSV(StringBuilder output)
+	{
+		// Add each field, separated by commas, and the cart in its compact format.
+		output.append(firstName).append(',').append(lastName).append(',').append(userName).append(',').append(password).append(',');
+		output.append(email).append(',').append(sessionSales).append(',').append(totalSales).append(',').append(sessionItems).append(',');
+		output.append(totalItems).append(',');
+		CartCodec.encode(cartBooks, output);
+
+		return output;
+	} // end appendCSV(StringBuilder)
 } // end public class
\ No newline at end of file
@@ -0,0 +1,71 @@
+/**
+ * Final Project: The Store - User Repository
+ * This interface is implemented by each of the ways the users can be stored.  Most repositories read every user into the store's list when
+ * the program starts.  A repository may instead leave the users it stores out of the list, and make each one only when they are looked
+ * up.  Changes are written in the same two steps as for the books: the changes are gathered while the store service's lock is held,
+ * and the write this returns can then be run on any thread.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+
+public interface UserRepository
+{
+	/**
+	 * Read the stored users into a list.  A repository that makes users only when they are looked up leaves the list empty.
+	 * 
+	 * @param users the list to read into
+	 */
+	void load(ArrayList<User> users);
+
+	/**
+	 * Look up a stored user that was not read into the list when the repository was loaded.
+	 * 
+	 * @param userName the user's username
+	 * @return the user, or null if there is no such user (always null if every user was read into the list)
+	 */
+	User find(String userName);
+
+	/**
+	 * Check whether a user that was not read into the list is stored.
+	 * 
+	 * @param userName the user's username
+	 * @return whether the user is stored (always false if every user was read into the list)
+	 */
+	boolean contains(String userName);
+
+	/**
+	 * Keep a user in memory while they are signed in.  A user may be signed in more than once at a time (in the window and over HTTP, for
+	 * example), and every sign-in must share the same User object, so the user is kept until each sign-in has ended.  Repositories that
+	 * keep every user in memory only return the user.
+	 * 
+	 * @param user the signed in user
+	 * @return the User object to use for the sign-in: the one already kept if the user is signed in elsewhere, or the given one
+	 */
+	User pin(User user);
+
+	/**
+	 * End one sign-in of a user kept by pin(User), letting the user be dropped once no sign-in is left.  Repositories that keep every user
+	 * in memory do nothing.
+	 * 
+	 * @param user the user returned by pin(User)
+	 */
+	void unpin(User user);
+
+	/**
+	 * Gather a batch of changed users, so that they can be written later.
+	 * 
+	 * @param changes the users that have changed
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	Runnable prepareCommit(Collection<User> changes);
+
+	/**
+	 * Gather every user, so that all of them can be written later (used when a full write has been asked for).
+	 * 
+	 * @return the write to run, or null if there is nothing to write
+	 */
+	Runnable prepareSnapshot();
+} // end public interface
\ No newline at end of file
@@ -0,0 +1,840 @@
+/**
+ * Final Project: The Store - User Slot File
+ * This class stores the users in a file of fixed-size slots, so that changing one user (for example, adding a book to their cart or
+ * starting a new session) rewrites only that user's slot instead of the whole users file.  Each user's CSV line is stored in a slot of
+ * its own.  A line too long for one slot continues in overflow slots, each pointing to the next.  The slots of removed users (and the
+ * overflow slots a user no longer needs) are kept in a free list, and are used again before the file is made longer.
+ * 
+ * The first slot holds the header, so that every slot lines up with the blocks of the disk and is written in a single step.  When a user
+ * is changed, any overflow slots are written to fresh slots first, and the user's own slot is written last, so a crash leaves either the
+ * old line or the new one.  Slots lost to a crash (taken from the free list but never used, or freed but not yet added to it) are found
+ * and freed again when the file is next loaded.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class UserSlotFile
+{
+	// Store the size of each slot, the values that start the header, and the number of slots read from the file at a time when loading.
+	public static final int SLOT_SIZE = 256;
+	private static final int MAGIC = 0x4D425553;
+	private static final int VERSION = 1;
+	private static final int SLOTS_PER_READ = 4096;
+
+	// Store the size of the part of each slot before the line (the state, the length of the line in the slot, and the next slot), and the
+	// number of bytes of the line each slot holds.
+	private static final int SLOT_HEADER_SIZE = 7;
+	private static final int SLOT_CAPACITY = SLOT_SIZE - SLOT_HEADER_SIZE;
+
+	// Store the states of a slot.
+	private static final byte FREE = 0;
+	private static final byte USER = 1;
+	private static final byte OVERFLOW = 2;
+
+	// Make an interface so that lambdas may be used to receive each user as the file is loaded.
+	@FunctionalInterface
+	public static interface LineHandler
+	{
+		// The lambda will take the CSV line of the user, and its fields.
+		void handleLine(String line, String fields[]);
+	} // end interface
+
+	// Declare the path to the file, and the channel it is read and written through.
+	private String slotPath;
+	private FileChannel channel;
+
+	// Declare the slot of each user, the number of slots in the file (including the header), and the first slot of the free list (-1 if
+	// the list is empty).
+	private HashMap<String, Integer> slotsByName;
+	private int slotCount, freeHead;
+
+	// Declare the buffer each slot is read into and written from.
+	private ByteBuffer slotBuffer;
+
+	/**
+	 * This constructor opens a slot file, creating it if it does not exist.  The users are not read until the file is loaded.
+	 * 
+	 * @param slotPath the path to the file
+	 * @throws IOException if the file could not be opened, or is not a slot file
+	 */
+	public UserSlotFile(String slotPath) throws IOException
+	{
+		// Store the path, and initialize the map and buffer.
+		this.slotPath = slotPath;
+		slotsByName = new HashMap<String, Integer>();
+		slotBuffer = ByteBuffer.allocate(SLOT_SIZE);
+
+		// Open the file.
+		channel = FileChannel.open(
+			new File(slotPath).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+		);
+
+		try
+		{
+			// Write the header of a new file.  Otherwise, check the header.  A slot cut short by a crash is ignored.
+			if (channel.size() < SLOT_SIZE)
+			{
+				slotCount = 1;
+				freeHead = -1;
+				writeHeader();
+			} // end if
+			else
+			{
+				readSlot(0);
+
+				if (slotBuffer.getInt(0) != MAGIC || slotBuffer.getInt(4) != VERSION || slotBuffer.getInt(8) != SLOT_SIZE)
+					throw new IOException(slotPath + " is not a user slot file.");
+
+				slotCount = (int) Math.min(channel.size() / SLOT_SIZE, Integer.MAX_VALUE);
+				freeHead = slotBuffer.getInt(12);
+
+				if (freeHead <= 0 || freeHead >= slotCount)
+					freeHead = -1;
+			} // end else
+		} // end try
+		catch (IOException exception)
+		{
+			// Close the file before giving up on it.
+			channel.close();
+			throw exception;
+		} // end catch
+	} // end UserSlotFile(String)
+
+	/**
+	 * Check whether a slot file exists.  A file too short to hold its header (one that was never finished) does not count.
+	 * 
+	 * @param slotPath the path to the file
+	 * @return whether the file exists
+	 */
+	public static boolean exists(String slotPath)
+	{
+		// Check that there is at least a whole header.
+		return new File(slotPath).length() >= SLOT_SIZE;
+	} // end exists(String)
+
+	/**
+	 * Read every user in the file, passing each to the handler.  Slots that were lost to a crash are added back to the free list.
+	 * 
+	 * @param handler what to do with each user
+	 * @throws IOException if the file could not be read
+	 */
+	public synchronized void load(LineHandler handler) throws IOException
+	{
+		// Keep the next slot of each slot, and which slots are used by a user.
+		int nextSlots[] = new int[slotCount];
+		BitSet usedSlots = new BitSet(slotCount);
+		byte states[] = new byte[slotCount];
+		ArrayList<Integer> longLines = new ArrayList<Integer>();
+		ByteBuffer chunk = ByteBuffer.allocate(SLOT_SIZE * SLOTS_PER_READ);
+
+		slotsByName.clear();
+		usedSlots.set(0);
+
+		// Read the slots in large chunks.  Lines that fit in one slot are handled straight away, and the rest once every slot is known.
+		for (int firstSlot = 1; firstSlot < slotCount; firstSlot += SLOTS_PER_READ)
+		{
+			int slotsInChunk = Math.min(SLOTS_PER_READ, slotCount - firstSlot);
+
+			chunk.clear().limit(slotsInChunk * SLOT_SIZE);
+			readFully(chunk, (long) firstSlot * SLOT_SIZE);
+
+			for (int i = 0; i < slotsInChunk; i++)
+			{
+				int slot = firstSlot + i, start = i * SLOT_SIZE;
+
+				states[slot] = chunk.get(start);
+				nextSlots[slot] = chunk.getInt(start + 3);
+
+				if (states[slot] != USER)
+					continue;
+
+				if (nextSlots[slot] < 0)
+				{
+					int length = Math.min(chunk.getShort(start + 1) & 0xFFFF, SLOT_CAPACITY);
+					addLoadedUser(slot, new String(chunk.array(), start + SLOT_HEADER_SIZE, length, StandardCharsets.UTF_8), handler);
+				} // end if
+				else
+				{
+					longLines.add(slot);
+				} // end else
+			} // end for
+		} // end for
+
+		// Read the lines that continue in overflow slots.
+		for (int slot : longLines)
+		{
+			String line = readLine(slot, states, nextSlots);
+
+			if (line != null)
+				addLoadedUser(slot, line, handler);
+		} // end for
+
+		// Mark the slots of every user as used.
+		for (int slot : slotsByName.values())
+		{
+			for (int current = slot; current > 0 && current < slotCount && !usedSlots.get(current); current = nextSlots[current])
+				usedSlots.set(current);
+		} // end for
+
+		// Follow the free list.  If the list was left broken by a crash (it reaches a slot that is not free), it is made again from
+		// every slot that is not used.
+		BitSet freeSlots = new BitSet(slotCount);
+		int slot = freeHead;
+
+		while (slot > 0 && slot < slotCount && states[slot] == FREE && !usedSlots.get(slot) && !freeSlots.get(slot))
+		{
+			freeSlots.set(slot);
+			slot = nextSlots[slot];
+		} // end while
+
+		if (slot != -1)
+		{
+			freeSlots.clear();
+			freeHead = -1;
+		} // end if
+
+		// Add every slot that is neither used nor in the free list to the free list.
+		for (slot = usedSlots.nextClearBit(1); slot < slotCount; slot = usedSlots.nextClearBit(slot + 1))
+		{
+			if (!freeSlots.get(slot))
+			{
+				writeSlot(slot, FREE, null, 0, 0, freeHead);
+				freeHead = slot;
+			} // end if
+		} // end for
+
+		writeHeader();
+	} // end load(LineHandler)
+
+	/**
+	 * Read every user in a slot file, passing each to the handler, without changing the file or keeping anything about the users.  The
+	 * file is opened for reading only, so it may be read while the store is running, and lost slots are left as they are.  The slots are
+	 * read in large chunks, and a line that continues in overflow slots is read when its first slot is reached.  Unlike load(LineHandler),
+	 * the usernames are not kept, so a second slot for a username already read is passed to the handler as well.
+	 * 
+	 * @param slotPath the path to the file
+	 * @param handler what to do with each user
+	 * @return the number of users read
+	 * @throws IOException if the file could not be read, or is not a slot file
+	 */
+	public static int scan(String slotPath, LineHandler handler) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(new File(slotPath).toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer slotBuffer = ByteBuffer.allocate(SLOT_SIZE);
+			ByteBuffer chunk = ByteBuffer.allocate(SLOT_SIZE * SLOTS_PER_READ);
+			int users = 0;
+
+			// Check the header.  A slot cut short by a crash is ignored.
+			readFully(channel, slotPath, slotBuffer, 0);
+
+			if (slotBuffer.getInt(0) != MAGIC || slotBuffer.getInt(4) != VERSION || slotBuffer.getInt(8) != SLOT_SIZE)
+				throw new IOException(slotPath + " is not a user slot file.");
+
+			int slotCount = (int) Math.min(channel.size() / SLOT_SIZE, Integer.MAX_VALUE);
+
+			// Read the slots in large chunks, and pass on the line of each user's slot.
+			for (int firstSlot = 1; firstSlot < slotCount; firstSlot += SLOTS_PER_READ)
+			{
+				int slotsInChunk = Math.min(SLOTS_PER_READ, slotCount - firstSlot);
+
+				chunk.clear().limit(slotsInChunk * SLOT_SIZE);
+				readFully(channel, slotPath, chunk, (long) firstSlot * SLOT_SIZE);
+
+				for (int i = 0; i < slotsInChunk; i++)
+				{
+					int start = i * SLOT_SIZE;
+
+					if (chunk.get(start) != USER)
+						continue;
+
+					// Take the part of the line in the slot, and follow the overflow slots for the rest.
+					int length = Math.min(chunk.getShort(start + 1) & 0xFFFF, SLOT_CAPACITY), next = chunk.getInt(start + 3);
+					String line;
+
+					if (next < 0)
+					{
+						line = new String(chunk.array(), start + SLOT_HEADER_SIZE, length, StandardCharsets.UTF_8);
+					} // end if
+					else
+					{
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+						bytes.write(chunk.array(), start + SLOT_HEADER_SIZE, length);
+						line = readOverflow(channel, slotPath, slotBuffer, next, slotCount, bytes);
+					} // end else
+
+					// Pass the user on, skipping a line without a username or one whose slots do not make a complete line.
+					String fields[] = line == null ? null : LazyUserRepository.splitLine(line);
+
+					if (fields != null && fields.length >= 3)
+					{
+						handler.handleLine(line, fields);
+						users++;
+					} // end if
+				} // end for
+			} // end for
+
+			return users;
+		} // end try
+	} // end scan(String, LineHandler)
+
+	/**
+	 * Read the rest of a line from the overflow slots it continues in, for scan(String, LineHandler).
+	 * 
+	 * @param channel the open file
+	 * @param slotPath the path to the file
+	 * @param slotBuffer the buffer to read each slot into
+	 * @param slot the first overflow slot
+	 * @param slotCount the number of slots in the file (including the header)
+	 * @param bytes the bytes of the line read so far
+	 * @return the line, or null if the slots do not make a complete line
+	 * @throws IOException if the file could not be read
+	 */
+	private static String readOverflow(FileChannel channel, String slotPath, ByteBuffer slotBuffer, int slot, int slotCount,
+		ByteArrayOutputStream bytes) throws IOException
+	{
+		int slotsRead = 0;
+
+		// Follow the slots to the end of the line.  A chain longer than the file has a loop in it.
+		for (int current = slot; current != -1; current = slotBuffer.getInt(3))
+		{
+			if (current <= 0 || current >= slotCount || ++slotsRead > slotCount)
+				return null;
+
+			slotBuffer.clear();
+			readFully(channel, slotPath, slotBuffer, (long) current * SLOT_SIZE);
+
+			if (slotBuffer.get(0) != OVERFLOW)
+				return null;
+
+			bytes.write(slotBuffer.array(), SLOT_HEADER_SIZE, Math.min(slotBuffer.getShort(1) & 0xFFFF, SLOT_CAPACITY));
+		} // end for
+
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	} // end readOverflow(FileChannel, String, ByteBuffer, int, int, ByteArrayOutputStream)
+
+	/**
+	 * Keep the slot of a user read from the file, and pass the user to the handler.  A line without a username, or a second slot for a
+	 * username already read, is left out (and its slots are freed).
+	 * 
+	 * @param slot the user's slot
+	 * @param line the user's CSV line
+	 * @param handler what to do with the user
+	 */
+	private void addLoadedUser(int slot, String line, LineHandler handler)
+	{
+		// Split the line, and keep the user if their username is new.
+		String fields[] = LazyUserRepository.splitLine(line);
+
+		if (fields.length < 3 || slotsByName.containsKey(fields[2]))
+			return;
+
+		slotsByName.put(fields[2], slot);
+		handler.handleLine(line, fields);
+	} // end addLoadedUser(int, String, LineHandler)
+
+	/**
+	 * Read a line that continues in overflow slots.
+	 * 
+	 * @param slot the user's slot
+	 * @param states the state of each slot
+	 * @param nextSlots the next slot of each slot
+	 * @return the line, or null if the slots do not make a complete line
+	 * @throws IOException if the file could not be read
+	 */
+	private String readLine(int slot, byte states[], int nextSlots[]) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int slotsRead = 0;
+
+		// Follow the slots to the end of the line.  A chain longer than the file has a loop in it.
+		for (int current = slot; current != -1; current = nextSlots[current])
+		{
+			if (current <= 0 || current >= slotCount || (current != slot && states[current] != OVERFLOW) || ++slotsRead > slotCount)
+				return null;
+
+			readSlot(current);
+			bytes.write(slotBuffer.array(), SLOT_HEADER_SIZE, Math.min(slotBuffer.getShort(1) & 0xFFFF, SLOT_CAPACITY));
+		} // end for
+
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	} // end readLine(int, byte[], int[])
+
+	/**
+	 * Get the number of users in the file.
+	 * 
+	 * @return the number of users
+	 */
+	public synchronized int getUserCount()
+	{
+		// Return the size of the map.
+		return slotsByName.size();
+	} // end getUserCount()
+
+	/**
+	 * Get the number of slots in the file, not counting the header.
+	 * 
+	 * @return the number of slots
+	 */
+	public synchronized int getSlotCount()
+	{
+		// Leave out the header.
+		return slotCount - 1;
+	} // end getSlotCount()
+
+	/**
+	 * Write a user's line to their slot (giving the user a slot if they are new), and push it to disk as the durability level asks for.
+	 * 
+	 * @param userName the user's username
+	 * @param line the user's CSV line
+	 * @return whether the line was written
+	 */
+	public synchronized boolean write(String userName, String line)
+	{
+		try
+		{
+			// Write the line, and push it to disk.
+			put(userName, line);
+			SnapshotWriter.sync(channel);
+			return true;
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.
+			System.err.println("Failed to write " + slotPath + ": " + exception.getMessage());
+			return false;
+		} // end catch
+	} // end write(String, String)
+
+	/**
+	 * Write the lines of many users, and push them to disk together.
+	 * 
+	 * @param lines the CSV line of each user, by username
+	 * @return whether every line was written
+	 */
+	public synchronized boolean writeAll(Map<String, String> lines)
+	{
+		try
+		{
+			// Write each line, and push them to disk once.
+			for (Map.Entry<String, String> entry : lines.entrySet())
+				put(entry.getKey(), entry.getValue());
+
+			SnapshotWriter.sync(channel);
+			return true;
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.
+			System.err.println("Failed to write " + slotPath + ": " + exception.getMessage());
+			return false;
+		} // end catch
+	} // end writeAll(Map<String, String>)
+
+	/**
+	 * Remove a user, adding their slots to the free list.
+	 * 
+	 * @param userName the user's username
+	 * @return whether the user was removed (false if there was no such user, or the file could not be written)
+	 */
+	public synchronized boolean remove(String userName)
+	{
+		Integer slot = slotsByName.remove(userName);
+
+		// Nothing is done if the user is not stored.
+		if (slot == null)
+			return false;
+
+		try
+		{
+			// Free the user's slot and any overflow slots, and push the change to disk.
+			freeSlots(slot);
+			SnapshotWriter.sync(channel);
+			return true;
+		} // end try
+		catch (IOException exception)
+		{
+			// Report the failure.
+			System.err.println("Failed to write " + slotPath + ": " + exception.getMessage());
+			return false;
+		} // end catch
+	} // end remove(String)
+
+	/**
+	 * Write a user's line to their slot, without pushing it to disk.
+	 * 
+	 * @param userName the user's username
+	 * @param line the user's CSV line
+	 * @throws IOException if the file could not be written
+	 */
+	private void put(String userName, String line) throws IOException
+	{
+		byte bytes[] = line.getBytes(StandardCharsets.UTF_8);
+		int slotsNeeded = Math.max(1, (bytes.length + SLOT_CAPACITY - 1) / SLOT_CAPACITY);
+		Integer slot = slotsByName.get(userName);
+		int oldOverflow = -1, next = -1;
+
+		// Find the overflow slots the user has now, which are freed once the new line is written.
+		if (slot != null)
+		{
+			readSlot(slot);
+			oldOverflow = slotBuffer.getInt(3);
+		} // end if
+
+		// Write the end of the line to fresh overflow slots, from the last to the first, so each can point to the one after it.
+		for (int i = slotsNeeded - 1; i > 0; i--)
+		{
+			int overflowSlot = allocateSlot();
+			int start = i * SLOT_CAPACITY;
+
+			writeSlot(overflowSlot, OVERFLOW, bytes, start, Math.min(SLOT_CAPACITY, bytes.length - start), next);
+			next = overflowSlot;
+		} // end for
+
+		// Write the start of the line to the user's slot, which makes the new line visible, and free the old overflow slots.
+		if (slot == null)
+		{
+			slot = allocateSlot();
+			slotsByName.put(userName, slot);
+		} // end if
+
+		writeSlot(slot, USER, bytes, 0, Math.min(SLOT_CAPACITY, bytes.length), next);
+
+		if (oldOverflow > 0)
+			freeSlots(oldOverflow);
+	} // end put(String, String)
+
+	/**
+	 * Take a slot from the free list, or add one to the end of the file if the list is empty.
+	 * 
+	 * @return the slot
+	 * @throws IOException if the file could not be read or written
+	 */
+	private int allocateSlot() throws IOException
+	{
+		// Use a new slot at the end of the file if no slot is free.
+		if (freeHead < 0)
+			return slotCount++;
+
+		// Otherwise, take the first free slot, and store the rest of the list in the header.
+		int slot = freeHead;
+		readSlot(slot);
+		freeHead = slotBuffer.getInt(3);
+
+		if (freeHead <= 0 || freeHead >= slotCount)
+			freeHead = -1;
+
+		writeHeader();
+		return slot;
+	} // end allocateSlot()
+
+	/**
+	 * Add a slot and the slots after it to the free list.
+	 * 
+	 * @param slot the first slot
+	 * @throws IOException if the file could not be read or written
+	 */
+	private void freeSlots(int slot) throws IOException
+	{
+		int slotsFreed = 0;
+
+		// Free each slot in turn, making it the start of the free list.
+		while (slot > 0 && slot < slotCount && slotsFreed++ < slotCount)
+		{
+			readSlot(slot);
+			int next = slotBuffer.getInt(3);
+
+			writeSlot(slot, FREE, null, 0, 0, freeHead);
+			freeHead = slot;
+			slot = next;
+		} // end while
+
+		writeHeader();
+	} // end freeSlots(int)
+
+	/**
+	 * Write the header slot.
+	 * 
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeHeader() throws IOException
+	{
+		// Fill the slot with the values of the header, and write it.
+		slotBuffer.clear();
+		Arrays.fill(slotBuffer.array(), (byte) 0);
+		slotBuffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, SLOT_SIZE).putInt(12, freeHead);
+		writeFully(slotBuffer, 0);
+	} // end writeHeader()
+
+	/**
+	 * Write a slot.
+	 * 
+	 * @param slot the slot
+	 * @param state the state of the slot
+	 * @param bytes the bytes of the line (null if the slot holds none)
+	 * @param start the first byte of the line in the slot
+	 * @param length the number of bytes of the line in the slot
+	 * @param next the next slot (-1 if there is none)
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeSlot(int slot, byte state, byte bytes[], int start, int length, int next) throws IOException
+	{
+		// Fill the slot, leaving the unused bytes as zeros.
+		slotBuffer.clear();
+		Arrays.fill(slotBuffer.array(), (byte) 0);
+		slotBuffer.put(0, state).putShort(1, (short) length).putInt(3, next);
+
+		if (bytes != null)
+			System.arraycopy(bytes, start, slotBuffer.array(), SLOT_HEADER_SIZE, length);
+
+		writeFully(slotBuffer, (long) slot * SLOT_SIZE);
+	} // end writeSlot(int, byte, byte[], int, int, int)
+
+	/**
+	 * Read a slot into the slot buffer.
+	 * 
+	 * @param slot the slot
+	 * @throws IOException if the file could not be read
+	 */
+	private void readSlot(int slot) throws IOException
+	{
+		// Read the whole slot.
+		slotBuffer.clear();
+		readFully(slotBuffer, (long) slot * SLOT_SIZE);
+	} // end readSlot(int)
+
+	/**
+	 * Fill a buffer from the file.
+	 * 
+	 * @param buffer the buffer
+	 * @param position where to start reading
+	 * @throws IOException if the file could not be read, or ends too soon
+	 */
+	private void readFully(ByteBuffer buffer, long position) throws IOException
+	{
+		// Read through the file's channel.
+		readFully(channel, slotPath, buffer, position);
+	} // end readFully(ByteBuffer, long)
+
+	/**
+	 * Fill a buffer from a channel.
+	 * 
+	 * @param channel the channel
+	 * @param slotPath the path to the file, for the message if it ends too soon
+	 * @param buffer the buffer
+	 * @param position where to start reading
+	 * @throws IOException if the file could not be read, or ends too soon
+	 */
+	private static void readFully(FileChannel channel, String slotPath, ByteBuffer buffer, long position) throws IOException
+	{
+		// Keep reading until the buffer is full.
+		while (buffer.hasRemaining())
+		{
+			int read = channel.read(buffer, position);
+
+			if (read < 0)
+				throw new EOFException("Unexpected end of " + slotPath);
+
+			position += read;
+		} // end while
+	} // end readFully(FileChannel, String, ByteBuffer, long)
+
+	/**
+	 * Write a whole buffer to the file.
+	 * 
+	 * @param buffer the buffer
+	 * @param position where to start writing
+	 * @throws IOException if the file could not be written
+	 */
+	private void writeFully(ByteBuffer buffer, long position) throws IOException
+	{
+		// Keep writing until the whole buffer is written.
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+	} // end writeFully(ByteBuffer, long)
+
+	/**
+	 * Close the file.
+	 */
+	public synchronized void close()
+	{
+		try
+		{
+			// Close the channel.
+			channel.close();
+		} // end try
+		catch (IOException exception) {}
+	} // end close()
+
+	/**
+	 * Move the users in a users file into a new slot file.  The slot file is written beside its final place and then moved there, so a
+	 * failed conversion leaves any old slot file as it was.
+	 * 
+	 * @param csvPath the path to the users file
+	 * @param slotPath the path to the slot file
+	 * @return the number of users moved
+	 * @throws IOException if either file could not be read or written
+	 */
+	public static int convertCsvToSlots(String csvPath, String slotPath) throws IOException
+	{
+		Path temporary = new File(slotPath + ".tmp").toPath();
+		Files.deleteIfExists(temporary);
+
+		UserSlotFile slotFile = new UserSlotFile(temporary.toString());
+		LinkedHashMap<String, String> lines = new LinkedHashMap<String, String>();
+		boolean written = false;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+			new FileInputStream(SnapshotWriter.chooseReadable(csvPath)), StandardCharsets.UTF_8)))
+		{
+			String line;
+
+			// Read each user, skipping the header and any blank lines, and write them in batches.
+			while ((line = reader.readLine()) != null)
+			{
+				String fields[] = LazyUserRepository.splitLine(line);
+
+				if (line.startsWith("#") || fields.length < 3 || fields[2].isEmpty())
+					continue;
+
+				lines.put(fields[2], line);
+
+				if (lines.size() >= SLOTS_PER_READ)
+				{
+					slotFile.writeBatch(lines);
+					lines.clear();
+				} // end if
+			} // end while
+
+			slotFile.writeBatch(lines);
+			slotFile.channel.force(true);
+			written = true;
+		} // end try
+		finally
+		{
+			// Close the file, and delete it unless it was finished.
+			slotFile.close();
+
+			if (!written)
+				Files.deleteIfExists(temporary);
+		} // end finally
+
+		// Move the finished file into place.
+		moveIntoPlace(temporary, slotPath);
+		return slotFile.slotsByName.size();
+	} // end convertCsvToSlots(String, String)
+
+	/**
+	 * Make a new slot file holding the lines of many users, and open it.  Like convertCsvToSlots(String, String), the file is written
+	 * beside its final place and then moved there, so the slot file only exists once every user is in it.
+	 * 
+	 * @param slotPath the path to the slot file
+	 * @param lines the CSV line of each user, by username
+	 * @return the slot file, opened and loaded
+	 * @throws IOException if the file could not be written or moved into place
+	 */
+	public static UserSlotFile create(String slotPath, Map<String, String> lines) throws IOException
+	{
+		Path temporary = new File(slotPath + ".tmp").toPath();
+		Files.deleteIfExists(temporary);
+
+		UserSlotFile slotFile = new UserSlotFile(temporary.toString());
+		boolean written = false;
+
+		// Write every line, and push the file to disk.
+		try
+		{
+			slotFile.writeBatch(lines);
+			slotFile.channel.force(true);
+			written = true;
+		} // end try
+		finally
+		{
+			// Close the file, and delete it unless it was finished.
+			slotFile.close();
+
+			if (!written)
+				Files.deleteIfExists(temporary);
+		} // end finally
+
+		// Move the finished file into place, then open it and read where each user is.
+		moveIntoPlace(temporary, slotPath);
+		slotFile = new UserSlotFile(slotPath);
+
+		try
+		{
+			slotFile.load((line, fields) -> {});
+		} // end try
+		catch (IOException exception)
+		{
+			slotFile.close();
+			throw exception;
+		} // end catch
+
+		return slotFile;
+	} // end create(String, Map<String, String>)
+
+	/**
+	 * Move a finished slot file over its final place, and push the rename to disk.  If the move fails, the finished file is deleted.
+	 * 
+	 * @param temporary the finished file
+	 * @param slotPath the path to the slot file
+	 * @throws IOException if the file could not be moved
+	 */
+	private static void moveIntoPlace(Path temporary, String slotPath) throws IOException
+	{
+		Path target = new File(slotPath).toPath();
+
+		// Replace the slot file in one step, so it is either missing or complete.
+		try
+		{
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} // end try
+		catch (IOException exception)
+		{
+			Files.deleteIfExists(temporary);
+			throw exception;
+		} // end catch
+
+		SnapshotWriter.syncFolder(target.toAbsolutePath().getParent());
+	} // end moveIntoPlace(Path, String)
+
+	/**
+	 * Write the lines of many users, without pushing them to disk (used when converting a users file).
+	 * 
+	 * @param lines the CSV line of each user, by username
+	 * @throws IOException if the file could not be written
+	 */
+	private synchronized void writeBatch(Map<String, String> lines) throws IOException
+	{
+		// Write each line.
+		for (Map.Entry<String, String> entry : lines.entrySet())
+			put(entry.getKey(), entry.getValue());
+	} // end writeBatch(Map<String, String>)
+
+	/**
+	 * Write the users in a slot file to a users file.
+	 * 
+	 * @param slotPath the path to the slot file
+	 * @param csvPath the path to the users file
+	 * @return the number of users written
+	 * @throws IOException if either file could not be read or written
+	 */
+	public static int convertSlotsToCsv(String slotPath, String csvPath) throws IOException
+	{
+		ArrayList<String> lines = new ArrayList<String>();
+
+		// Read every user's line without changing the slot file, and write the lines as a snapshot.
+		scan(slotPath, (line, fields) -> {lines.add(line);});
+		SnapshotWriter.write(csvPath, lines);
+		return lines.size();
+	} // end convertSlotsToCsv(String, String)
+} // end public class
\ No newline at end of file
@@ -7,8 +7,6 @@
  * @date 11 November 2020
  */
 
-import javax.swing.JOptionPane;
-
 public class ValidationField
 {
 	// Declare variables for the label, error message, validators, and whether the field is for a password.
@@ -20,8 +18,8 @@ public class ValidationField
 	@FunctionalInterface
 	public static interface Validator
 	{
-		// The lambda will take a GUI object, and the input.
-		String validate(GUI gui, String input);
+		// The lambda will take the store service, and the input.
+		String validate(StoreService service, String input);
 	} // end interface
 
 	/**
@@ -55,30 +53,21 @@ public class ValidationField
 	} // end ValidationField(String, String, Validator...)
 
 	/**
-	 * Validate the field given the input.
+	 * Validate the field given the input, without showing the user anything (the caller shows the error message if the input is invalid).
+	 * This may be called from any thread if the validators may.
 	 * 
-	 * @param gui the GUI object
-	 * @param input the input from the input field
+	 * @param service the store service
+	 * @param input the input to validate
 	 * @return a string representing the validated input (null if invalid)
 	 */
-	public String validate(GUI gui, String input)
+	public String check(StoreService service, String input)
 	{
-		// Iterate through the stored validators, validating the input with each.
-		for (Validator validator : validators)
-		{
-			// Get the validated input.
-			input = validator.validate(gui, input);
-
-			if (input == null)
-			{
-				// If the input is invalid, show the user, using the appropriate error message, and stop iterating.
-				JOptionPane.showMessageDialog(null, error, "Invalid Input", JOptionPane.ERROR_MESSAGE);
-				break;
-			} // end if
-		} // end for
+		// Iterate through the stored validators, validating the input with each, and stop once the input is invalid.
+		for (int i = 0; i < validators.length && input != null; i++)
+			input = validators[i].validate(service, input);
 
 		return input;
-	} // end validate(GUI, String)
+	} // end check(StoreService, String)
 
 	/**
 	 * Get the label of the field.
@@ -91,6 +80,17 @@ public class ValidationField
 		return label;
 	} // end getLabel()
 
+	/**
+	 * Get the error message shown if the input is invalid.
+	 * 
+	 * @return the error message of the field
+	 */
+	public String getError()
+	{
+		// Return the error message of this field.
+		return error;
+	} // end getError()
+
 	/**
 	 * Get whether this field is for a password.
 	 * 
@@ -0,0 +1,285 @@
+/**
+ * Final Project: The Store - Write-Behind Persister
+ * This class writes changes to the data files in the background, so that the interface does not wait for the disk.  A change only marks
+ * its file as dirty.  Once no more changes have been made for a short time (or a longer time has passed since the first change), the file
+ * is written once, so a burst of changes costs a single write.
+ * 
+ * The data to write is gathered by one thread at a time, under the lock of whatever changes the data (see StoreService), and the slow
+ * part (writing it to disk) is done on a single background thread.  Writes are always done in the order their data was gathered, so that
+ * an older version of a file never replaces a newer one.
+ * 
+ * @author agent
+ * @date 18 October 2026
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class WriteBehindPersister
+{
+	// Store the default time to wait for more changes before writing, and the longest a change may wait to be written (in milliseconds).
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 250;
+	public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+
+	// Make an interface so that lambdas may be used to gather the data of a file.
+	@FunctionalInterface
+	public static interface Capture
+	{
+		// The lambda is called by one thread at a time.  It gathers the data to write, and returns the action that writes it (which is run
+		// on another thread, so it must only use the data gathered), or null if there is nothing to write.
+		Runnable capture();
+	} // end interface
+
+	// This class stores a write that has been gathered, along with its place in the order of writes.
+	private static class Write
+	{
+		long ticket;
+		Runnable action;
+	} // end class Write
+
+	// Declare the gatherers of each file, the files that are dirty, and when the oldest unwritten change was made.
+	private LinkedHashMap<String, Capture> captures;
+	private LinkedHashSet<String> dirty;
+	private long firstDirtyTime;
+
+	// Declare the background thread, and the flush that is waiting to run on it.
+	private ScheduledExecutorService writer;
+	private ScheduledFuture<?> scheduledFlush;
+	private long debounceMillis, maxDelayMillis;
+
+	// Declare the next place in the order of writes to hand out, the place of the write that may run now, and the lock held while data is
+	// gathered (so that each file is gathered by one thread at a time, in the order of its writes).
+	private long nextTicket, nowServing;
+	private final Object gatherLock = new Object();
+
+	// Declare the counts of changes marked and writes done.
+	private long markCount, writeCount;
+
+	/**
+	 * This constructor initializes a persister with no files.
+	 * 
+	 * @param debounceMillis how long to wait after a change for more changes before writing
+	 * @param maxDelayMillis the longest a change may wait before being written
+	 */
+	public WriteBehindPersister(long debounceMillis, long maxDelayMillis)
+	{
+		// Store the delays, and initialize the maps and the background thread.  The thread does not keep the program running.
+		this.debounceMillis = debounceMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		captures = new LinkedHashMap<String, Capture>();
+		dirty = new LinkedHashSet<String>();
+		writer = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "Write-behind persister");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduledFlush = null;
+		firstDirtyTime = nextTicket = nowServing = markCount = writeCount = 0;
+	} // end WriteBehindPersister(long, long)
+
+	/**
+	 * Add a file that can be marked as dirty.
+	 * 
+	 * @param target the name of the file
+	 * @param capture what gathers the data of the file
+	 */
+	public synchronized void register(String target, Capture capture)
+	{
+		// Store the gatherer.
+		captures.put(target, capture);
+	} // end register(String, Capture)
+
+	/**
+	 * Mark a file as dirty, so that it is written once the changes stop for a moment.
+	 * 
+	 * @param target the name of the file
+	 */
+	public synchronized void markDirty(String target)
+	{
+		long now = System.currentTimeMillis();
+
+		// Mark the file, and remember when the first unwritten change was made.
+		dirty.add(target);
+		markCount++;
+
+		if (firstDirtyTime == 0)
+			firstDirtyTime = now;
+
+		// Push the write back, but not past the longest a change may wait.
+		if (scheduledFlush != null)
+			scheduledFlush.cancel(false);
+
+		long delay = Math.max(0, Math.min(debounceMillis, firstDirtyTime + maxDelayMillis - now));
+		scheduledFlush = writer.schedule(this::flushInBackground, delay, TimeUnit.MILLISECONDS);
+	} // end markDirty(String)
+
+	/**
+	 * Write every dirty file now, and wait until every write that has been gathered (including ones already in the background) is done.
+	 * This is used before the program exits.
+	 */
+	public void flush()
+	{
+		// Gather and write the dirty files on this thread.
+		for (Write write : captureDirty())
+			runInOrder(write);
+
+		// Wait for any write still running in the background.
+		synchronized (this)
+		{
+			while (nowServing < nextTicket)
+			{
+				try
+				{
+					wait();
+				} // end try
+				catch (InterruptedException exception)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				} // end catch
+			} // end while
+		} // end synchronized
+	} // end flush()
+
+	/**
+	 * Gather and write the dirty files on the background thread.
+	 */
+	private void flushInBackground()
+	{
+		// Write each file that was gathered.
+		for (Write write : captureDirty())
+			runInOrder(write);
+	} // end flushInBackground()
+
+	/**
+	 * Gather the data of every dirty file, and mark the files as clean.
+	 * 
+	 * @return the writes to run, in order
+	 */
+	private ArrayList<Write> captureDirty()
+	{
+		ArrayList<Write> writes = new ArrayList<Write>();
+
+		// Taking the dirty files and gathering their data are done together, one thread at a time, so a change made afterwards is always
+		// marked again, and each write gets its place in the order it was gathered in.
+		synchronized (gatherLock)
+		{
+			ArrayList<String> targets;
+
+			synchronized (this)
+			{
+				// Take the dirty files, and cancel the flush that would have written them.
+				targets = new ArrayList<String>(dirty);
+				dirty.clear();
+				firstDirtyTime = 0;
+
+				if (scheduledFlush != null)
+				{
+					scheduledFlush.cancel(false);
+					scheduledFlush = null;
+				} // end if
+			} // end synchronized
+
+			// Gather each file, giving each write its place in the order.
+			for (String target : targets)
+			{
+				Write write = new Write();
+
+				try
+				{
+					write.action = captures.get(target).capture();
+				} // end try
+				catch (RuntimeException exception)
+				{
+					// Print the problem, and carry on with the other files.
+					exception.printStackTrace();
+				} // end catch
+
+				if (write.action != null)
+				{
+					synchronized (this)
+					{
+						write.ticket = nextTicket++;
+					} // end synchronized
+
+					writes.add(write);
+				} // end if
+			} // end for
+		} // end synchronized
+
+		return writes;
+	} // end captureDirty()
+
+	/**
+	 * Run a write once every write gathered before it is done.
+	 * 
+	 * @param write the write to run
+	 */
+	private void runInOrder(Write write)
+	{
+		boolean interrupted = false;
+
+		// Wait for this write's turn.
+		synchronized (this)
+		{
+			while (nowServing != write.ticket)
+			{
+				try
+				{
+					wait();
+				} // end try
+				catch (InterruptedException exception)
+				{
+					// Keep waiting, as skipping the write would lose changes.  The interrupt is restored once the write is done.
+					interrupted = true;
+				} // end catch
+			} // end while
+		} // end synchronized
+
+		try
+		{
+			// Write the file.
+			write.action.run();
+		} // end try
+		catch (RuntimeException exception)
+		{
+			// Print the problem, but let the writes after this one go ahead.
+			exception.printStackTrace();
+		} // end catch
+		finally
+		{
+			// Let the next write go ahead.
+			synchronized (this)
+			{
+				nowServing++;
+				writeCount++;
+				notifyAll();
+			} // end synchronized
+		} // end finally
+
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	} // end runInOrder(Write)
+
+	/**
+	 * Get the number of times a file has been marked as dirty.
+	 * 
+	 * @return the number of changes marked
+	 */
+	public synchronized long getMarkCount()
+	{
+		// Return the number of marks.
+		return markCount;
+	} // end getMarkCount()
+
+	/**
+	 * Get the number of writes that have been done.  With bursts of changes, this is much lower than the number of changes marked.
+	 * 
+	 * @return the number of writes
+	 */
+	public synchronized long getWriteCount()
+	{
+		// Return the number of writes.
+		return writeCount;
+	} // end getWriteCount()
+} // end public class
\ No newline at end of file